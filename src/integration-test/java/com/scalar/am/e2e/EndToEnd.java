@@ -1,6 +1,10 @@
 package com.scalar.am.e2e;
 
 import com.scalar.am.AssetManager;
+import com.scalar.am.ledger.FaultInjector;
+import com.scalar.am.ledger.InMemoryLedger;
+import com.scalar.am.ledger.LocalLedgerServer;
+import com.scalar.am.ledger.LocalLedgerService;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.io.StringReader;
@@ -11,7 +15,9 @@ import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
 import javax.json.JsonReader;
 import javax.json.stream.JsonParsingException;
+import org.junit.AfterClass;
 import org.junit.Assert;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import picocli.CommandLine;
 
@@ -23,6 +29,29 @@ public class EndToEnd {
 
   JsonObject result = null;
 
+  static LocalLedgerServer localServer;
+
+  /**
+   * Run against the network of `SCALAR_NETWORK_ADDRESS` and `SCALAR_NETWORK_PORT`, or else against
+   * a local stand-in serving the contracts from memory
+   */
+  @BeforeClass
+  public static void startLocalServer() throws Exception {
+    if (System.getenv("SCALAR_NETWORK_ADDRESS") == null
+        || System.getenv("SCALAR_NETWORK_PORT") == null) {
+      localServer =
+          new LocalLedgerServer(0, new LocalLedgerService(new InMemoryLedger(), FaultInjector.NONE))
+              .start();
+    }
+  }
+
+  @AfterClass
+  public static void stopLocalServer() throws Exception {
+    if (localServer != null) {
+      localServer.close();
+    }
+  }
+
   public JsonObject getCommandOutput(String... args) throws UnsupportedEncodingException {
     JsonObject result = null;
     String[] commandArgs = args.length != 0 ? args : new String[] {"--help"};
@@ -49,8 +78,11 @@ public class EndToEnd {
   @Test
   public void runEndToEnd() throws UnsupportedEncodingException {
     // init
-    String address = System.getenv("SCALAR_NETWORK_ADDRESS");
-    String port = System.getenv("SCALAR_NETWORK_PORT");
+    String address = (localServer != null) ? "localhost" : System.getenv("SCALAR_NETWORK_ADDRESS");
+    String port =
+        (localServer != null)
+            ? Integer.toString(localServer.getPort())
+            : System.getenv("SCALAR_NETWORK_PORT");
     result =
         getCommandOutput(
             "init", "./fixture/foo-key.pem", "./fixture/foo.pem", "-host", address, "-p", port);
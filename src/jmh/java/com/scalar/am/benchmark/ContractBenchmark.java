@@ -0,0 +1,116 @@
+package com.scalar.am.benchmark;
+
+import com.scalar.am.contract.AddAssetContract;
+import com.scalar.am.contract.AssetHistoryContract;
+import com.scalar.am.contract.ListContract;
+import com.scalar.am.contract.StatusChangeContract;
+import java.util.concurrent.TimeUnit;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Executions of the contracts against an {@link com.scalar.am.ledger.InMemoryLedger}, measuring the
+ * contract code alone: the network, the signatures and the database of Scalar DL are left out. <br>
+ * The write benchmarks keep adding to the ledger of their trial, as a running network would.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ContractBenchmark {
+  private static final int PAGE_SIZE = 100;
+
+  private final ListContract list = new ListContract();
+  private final AssetHistoryContract assetHistory = new AssetHistoryContract();
+  private final AddAssetContract addAsset = new AddAssetContract();
+  private final StatusChangeContract statusChange = new StatusChangeContract();
+  private int next;
+  private long timestamp = System.currentTimeMillis();
+
+  @Benchmark
+  public JsonObject listAll(LedgerState state, LedgerCounters counters) {
+    JsonObject argument =
+        Json.createObjectBuilder().add(ListContract.TYPE, state.largeType).build();
+    JsonObject result = list.invoke(state.ledger, argument, state.property);
+    counters.record(state);
+    return result;
+  }
+
+  @Benchmark
+  public JsonObject listFirstPage(LedgerState state, LedgerCounters counters) {
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(ListContract.TYPE, state.largeType)
+            .add(ListContract.LIMIT, PAGE_SIZE)
+            .build();
+    JsonObject result = list.invoke(state.ledger, argument, state.property);
+    counters.record(state);
+    return result;
+  }
+
+  @Benchmark
+  public JsonObject assetHistoryAll(LedgerState state, LedgerCounters counters) {
+    JsonObject argument =
+        Json.createObjectBuilder().add(AssetHistoryContract.ID, state.deepAsset(next++)).build();
+    JsonObject result = assetHistory.invoke(state.ledger, argument, state.property);
+    counters.record(state);
+    return result;
+  }
+
+  @Benchmark
+  public JsonObject assetHistoryLatest(LedgerState state, LedgerCounters counters) {
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(AssetHistoryContract.ID, state.deepAsset(next++))
+            .add(AssetHistoryContract.ORDER, AssetHistoryContract.DESC)
+            .add(AssetHistoryContract.LIMIT, 10)
+            .build();
+    JsonObject result = assetHistory.invoke(state.ledger, argument, state.property);
+    counters.record(state);
+    return result;
+  }
+
+  @Benchmark
+  public JsonObject addAsset(LedgerState state, LedgerCounters counters) {
+    int asset = next++;
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(AddAssetContract.TYPE, state.largeType)
+            .add(AddAssetContract.ID, "added-" + asset)
+            .add(AddAssetContract.ASSET, "Added " + asset)
+            .add(AddAssetContract.TIMESTAMP, timestamp++)
+            .build();
+    JsonObject result = addAsset.invoke(state.ledger, argument, state.property);
+    counters.record(state);
+    return result;
+  }
+
+  /** Borrow the assets of the large type one after the other, then return them, and so on */
+  @Benchmark
+  public JsonObject statusChange(LedgerState state, LedgerCounters counters) {
+    int change = next++;
+    boolean borrow = (change / state.assets) % 2 == 0;
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.ASSET_ID, state.largeAsset(change))
+            .add(
+                StatusChangeContract.STATUS,
+                borrow ? StatusChangeContract.ON_LOAN : StatusChangeContract.IN_STOCK)
+            .add(StatusChangeContract.TIMESTAMP, timestamp++)
+            .build();
+    JsonObject result = statusChange.invoke(state.ledger, argument, state.property);
+    counters.record(state);
+    return result;
+  }
+}
@@ -0,0 +1,48 @@
+package com.scalar.am.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The ledger operations made during an iteration, reported by JMH next to the score. <br>
+ * Dividing a counter by <code>invocations</code> gives the number of operations per contract
+ * execution, which does not depend on the machine the benchmark runs on.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class LedgerCounters {
+  public long invocations;
+  public long ledgerGets;
+  public long ledgerPuts;
+  public long ledgerScans;
+  public long scannedRecords;
+
+  private long getsBase;
+  private long putsBase;
+  private long scansBase;
+  private long scannedBase;
+
+  @Setup(Level.Iteration)
+  public void reset(LedgerState state) {
+    invocations = 0;
+    ledgerGets = 0;
+    ledgerPuts = 0;
+    ledgerScans = 0;
+    scannedRecords = 0;
+    getsBase = state.ledger.getCount();
+    putsBase = state.ledger.putCount();
+    scansBase = state.ledger.scanCount();
+    scannedBase = state.ledger.scannedCount();
+  }
+
+  void record(LedgerState state) {
+    invocations++;
+    ledgerGets = state.ledger.getCount() - getsBase;
+    ledgerPuts = state.ledger.putCount() - putsBase;
+    ledgerScans = state.ledger.scanCount() - scansBase;
+    scannedRecords = state.ledger.scannedCount() - scannedBase;
+  }
+}
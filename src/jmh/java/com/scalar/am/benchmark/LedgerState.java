@@ -0,0 +1,56 @@
+package com.scalar.am.benchmark;
+
+import com.scalar.am.ledger.InMemoryLedger;
+import com.scalar.am.ledger.SyntheticDataGenerator;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * An {@link InMemoryLedger} filled once per trial with two types: a large one of <code>assets
+ * </code> assets borrowed and returned once, and a small one of {@link #DEEP_ASSETS} assets whose
+ * status changed <code>depth</code> times.
+ */
+@State(Scope.Benchmark)
+public class LedgerState {
+  static final String HOLDER_ID = "bench";
+  static final int DEEP_ASSETS = 10;
+
+  @Param({"1000", "10000", "100000"})
+  public int assets;
+
+  @Param({"1000"})
+  public int depth;
+
+  InMemoryLedger ledger;
+  Optional<JsonObject> property;
+  String largeType;
+  String deepType;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    ledger = new InMemoryLedger();
+    property = Optional.of(Json.createObjectBuilder().add("holderId", HOLDER_ID).build());
+    SyntheticDataGenerator generator = new SyntheticDataGenerator(ledger, HOLDER_ID, 42);
+    generator.generate(1, assets, 2, 1);
+    generator.generate(1, DEEP_ASSETS, depth, 1);
+    largeType = SyntheticDataGenerator.typeName(0);
+    deepType = SyntheticDataGenerator.typeName(1);
+    ledger.resetCounters();
+  }
+
+  /** @return the id of an asset of the large type */
+  String largeAsset(int asset) {
+    return SyntheticDataGenerator.assetId(0, Math.floorMod(asset, assets));
+  }
+
+  /** @return the id of an asset of the type with deep histories */
+  String deepAsset(int asset) {
+    return SyntheticDataGenerator.assetId(1, Math.floorMod(asset, DEEP_ASSETS));
+  }
+}
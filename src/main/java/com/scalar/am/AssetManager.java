@@ -3,12 +3,29 @@ package com.scalar.am;
 import com.scalar.am.command.AddAsset;
 import com.scalar.am.command.AddType;
 import com.scalar.am.command.AssetHistory;
+import com.scalar.am.command.Batch;
 import com.scalar.am.command.BorrowAsset;
+import com.scalar.am.command.BuildIndex;
+import com.scalar.am.command.Checkpoint;
+import com.scalar.am.command.Daemon;
+import com.scalar.am.command.Export;
+import com.scalar.am.command.HistorySummary;
+import com.scalar.am.command.Import;
 import com.scalar.am.command.Init;
 import com.scalar.am.command.List;
 import com.scalar.am.command.ListType;
+import com.scalar.am.command.LoadTest;
+import com.scalar.am.command.LoanStats;
+import com.scalar.am.command.LocalServer;
+import com.scalar.am.command.Migrate;
+import com.scalar.am.command.MyLoans;
+import com.scalar.am.command.Overview;
 import com.scalar.am.command.ReturnAsset;
+import com.scalar.am.command.Search;
+import com.scalar.am.command.Stats;
 import com.scalar.am.command.ValidateAsset;
+import com.scalar.am.daemon.DaemonClient;
+import java.util.OptionalInt;
 import picocli.CommandLine;
 
 /**
@@ -28,7 +45,22 @@ import picocli.CommandLine;
       List.class,
       ReturnAsset.class,
       AssetHistory.class,
-      ValidateAsset.class
+      ValidateAsset.class,
+      Daemon.class,
+      Batch.class,
+      BuildIndex.class,
+      Stats.class,
+      MyLoans.class,
+      Checkpoint.class,
+      HistorySummary.class,
+      Migrate.class,
+      Import.class,
+      Export.class,
+      LoanStats.class,
+      Search.class,
+      Overview.class,
+      LoadTest.class,
+      LocalServer.class
     })
 public class AssetManager implements Runnable {
   @CommandLine.Option(
@@ -40,6 +72,16 @@ public class AssetManager implements Runnable {
   public static void main(String[] args) {
     // Display the help if no arguments are passed
     String[] commandArgs = args.length != 0 ? args : new String[] {"--help"};
+
+    // Let a running daemon execute the command on its open connection
+    OptionalInt exitCode = DaemonClient.forward(commandArgs);
+    if (exitCode.isPresent()) {
+      if (exitCode.getAsInt() != 0) {
+        System.exit(exitCode.getAsInt());
+      }
+      return;
+    }
+
     CommandLine.run(new AssetManager(), commandArgs);
   }
 
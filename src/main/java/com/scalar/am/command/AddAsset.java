@@ -1,42 +1,177 @@
 package com.scalar.am.command;
 
 import com.scalar.am.contract.AddAssetContract;
+import com.scalar.am.contract.BatchAddAssetContract;
+import com.scalar.client.service.ClientService;
+import java.io.BufferedReader;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
 import picocli.CommandLine;
 
 /** This class defines the behaviour of <em>add</em> CLI command */
 @CommandLine.Command(name = "add", description = "Add the asset")
-public class AddAsset extends LedgerClientExecutor implements Runnable {
+public class AddAsset extends LedgerClientExecutor implements Runnable, ContractCommand {
   @CommandLine.Option(
       names = {"-h", "--help"},
       usageHelp = true,
       description = "display this help and exit")
   boolean help;
 
+  @CommandLine.Option(
+      names = {"--from-file"},
+      paramLabel = "file",
+      description =
+          "add the assets read line by line from the file instead, e.g. : book \"Lord of the Rings\"")
+  private File file;
+
+  @CommandLine.Option(
+      names = {"--chunk-size"},
+      description = "the number of assets added per contract execution with --from-file",
+      defaultValue = "500")
+  private int chunkSize;
+
   @CommandLine.Parameters(
       index = "0",
+      arity = "0..1",
       paramLabel = "asset_type",
       description = "the asset type, e.g : book ")
   private String type;
 
   @CommandLine.Parameters(
       index = "1",
+      arity = "0..1",
       paramLabel = "asset",
       description = "the asset description, e.g : Lord of the Rings")
   private String asset;
 
+  @Override
+  public String contractName() {
+    return AddAssetContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    return Json.createObjectBuilder()
+        .add(AddAssetContract.TYPE, type)
+        .add(AddAssetContract.ASSET, asset)
+        .add(AddAssetContract.TIMESTAMP, new Date().getTime())
+        .add(AddAssetContract.ID, getHashHexString(type + "_" + asset))
+        .build();
+  }
+
   @Override
   public void run() {
-    JsonObject argument =
+    if (file != null) {
+      addFromFile();
+    } else if (type == null || asset == null) {
+      err.println("Missing asset_type and asset, or --from-file");
+    } else {
+      executeContract(contractName(), buildArgument());
+    }
+  }
+
+  private void addFromFile() {
+    if (chunkSize < 1 || chunkSize > BatchAddAssetContract.MAX_ASSETS) {
+      err.println("--chunk-size must be between 1 and " + BatchAddAssetContract.MAX_ASSETS);
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      executeOnLedger((clientService) -> addChunks(reader, clientService));
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
+  }
+
+  /**
+   * Add the assets of the file, one {@link BatchAddAssetContract} execution per chunk. <br>
+   * The assets that could not be added are printed with their line number.
+   */
+  private void addChunks(BufferedReader reader, ClientService clientService) throws Exception {
+    JsonArrayBuilder failures = Json.createArrayBuilder();
+    List<Integer> lines = new ArrayList<>();
+    JsonArrayBuilder chunk = Json.createArrayBuilder();
+    int added = 0;
+
+    String text;
+    int line = 0;
+    boolean stopped = false;
+    while (!stopped && (text = reader.readLine()) != null) {
+      line++;
+      String[] tokens = Batch.tokenize(text);
+      if (tokens.length == 0 || tokens[0].startsWith("#")) {
+        continue;
+      }
+      if (tokens.length != 2) {
+        failures.add(failure(line, "Expected asset_type and asset"));
+        continue;
+      }
+      chunk.add(
+          Json.createObjectBuilder()
+              .add(BatchAddAssetContract.TYPE, tokens[0])
+              .add(BatchAddAssetContract.ASSET, tokens[1])
+              .add(BatchAddAssetContract.TIMESTAMP, new Date().getTime())
+              .add(BatchAddAssetContract.ID, getHashHexString(tokens[0] + "_" + tokens[1])));
+      lines.add(line);
+
+      if (lines.size() == chunkSize) {
+        int chunkAdded = addChunk(clientService, chunk, lines, failures);
+        stopped = chunkAdded < 0;
+        added += Math.max(chunkAdded, 0);
+        chunk = Json.createArrayBuilder();
+        lines.clear();
+      }
+    }
+    if (!stopped && !lines.isEmpty()) {
+      added += Math.max(addChunk(clientService, chunk, lines, failures), 0);
+    }
+
+    prettyPrintJson(
         Json.createObjectBuilder()
-            .add(AddAssetContract.TYPE, type)
-            .add(AddAssetContract.ASSET, asset)
-            .add(AddAssetContract.TIMESTAMP, new Date().getTime())
-            .add(AddAssetContract.ID, getHashHexString(type + "_" + asset))
-            .build();
+            .add(BatchAddAssetContract.ADDED, added)
+            .add("failures", failures)
+            .build());
+  }
+
+  /**
+   * Execute {@link BatchAddAssetContract} for one chunk
+   *
+   * @return the number of assets added, or -1 if the execution failed
+   */
+  private int addChunk(
+      ClientService clientService,
+      JsonArrayBuilder chunk,
+      List<Integer> lines,
+      JsonArrayBuilder failures)
+      throws Exception {
+    JsonObject argument =
+        Json.createObjectBuilder().add(BatchAddAssetContract.ASSETS, chunk).build();
+    Optional<JsonObject> result =
+        callContract(clientService, BatchAddAssetContract.class.getCanonicalName(), argument);
+    if (!result.isPresent()) {
+      err.println("Stopped at line " + lines.get(0) + ", the assets before it were added");
+      return -1;
+    }
+
+    JsonArray results = result.get().getJsonArray(BatchAddAssetContract.RESULTS);
+    for (int i = 0; i < results.size(); i++) {
+      JsonObject entry = results.getJsonObject(i);
+      if (!"success".equals(entry.getString("result"))) {
+        failures.add(failure(lines.get(i), entry.getString("message")));
+      }
+    }
+    return result.get().getInt(BatchAddAssetContract.ADDED);
+  }
 
-    executeContract(AddAssetContract.class.getCanonicalName(), argument);
+  private JsonObject failure(int line, String message) {
+    return Json.createObjectBuilder().add("line", line).add("message", message).build();
   }
 }
@@ -1,13 +1,14 @@
 package com.scalar.am.command;
 
 import com.scalar.am.contract.AddTypeContract;
+import java.util.Date;
 import javax.json.Json;
 import javax.json.JsonObject;
 import picocli.CommandLine;
 
 /** This class defines the behaviour of <em>add-type</em> CLI command */
 @CommandLine.Command(name = "add-type", description = "Add the asset type")
-public class AddType extends LedgerClientExecutor implements Runnable {
+public class AddType extends LedgerClientExecutor implements Runnable, ContractCommand {
 
   @CommandLine.Option(
       names = {"-h", "--help"},
@@ -15,15 +16,34 @@ public class AddType extends LedgerClientExecutor implements Runnable {
       description = "display this help and exit")
   private boolean help;
 
+  @CommandLine.Option(
+      names = {"--shards"},
+      description = "the number of keys the assets of the type are listed in",
+      defaultValue = "1")
+  private int shards;
+
   @CommandLine.Parameters(
       index = "0",
       paramLabel = "asset_type",
       description = "the asset type to add, e.g. : book")
   private String type;
 
+  @Override
+  public String contractName() {
+    return AddTypeContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    return Json.createObjectBuilder()
+        .add(AddTypeContract.NAME, type)
+        .add(AddTypeContract.SHARDS, shards)
+        .add(AddTypeContract.TIMESTAMP, new Date().getTime())
+        .build();
+  }
+
   @Override
   public void run() {
-    JsonObject argument = Json.createObjectBuilder().add(AddTypeContract.NAME, type).build();
-    this.executeContract(AddTypeContract.class.getCanonicalName(), argument);
+    this.executeContract(contractName(), buildArgument());
   }
 }
@@ -3,11 +3,12 @@ package com.scalar.am.command;
 import com.scalar.am.contract.AssetHistoryContract;
 import javax.json.Json;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 import picocli.CommandLine;
 
 /** This class defines the behaviour of <em>asset-history</em> CLI command */
 @CommandLine.Command(name = "asset-history", description = "List the assets of the given asset-id")
-public class AssetHistory extends LedgerClientExecutor implements Runnable {
+public class AssetHistory extends LedgerClientExecutor implements Runnable, ContractCommand {
 
   @CommandLine.Option(
       names = {"-h", "--help"},
@@ -15,19 +16,74 @@ public class AssetHistory extends LedgerClientExecutor implements Runnable {
       description = "display this help and exit")
   boolean help;
 
+  @CommandLine.Option(
+      names = {"--start-age"},
+      description = "only the records from this age, inclusive")
+  private Integer startAge;
+
+  @CommandLine.Option(
+      names = {"--end-age"},
+      description = "only the records up to this age, inclusive")
+  private Integer endAge;
+
+  @CommandLine.Option(
+      names = {"--from"},
+      description = "only the records from this timestamp in milliseconds, inclusive")
+  private Long from;
+
+  @CommandLine.Option(
+      names = {"--to"},
+      description = "only the records up to this timestamp in milliseconds, inclusive")
+  private Long to;
+
+  @CommandLine.Option(
+      names = {"--limit"},
+      description = "the maximum number of records to return")
+  private Integer limit;
+
+  @CommandLine.Option(
+      names = {"--newest-first"},
+      description = "return the most recent records first")
+  private boolean newestFirst;
+
   @CommandLine.Parameters(
       arity = "1..*",
       paramLabel = "arguments",
       description = "can be <type> <name> or <id> directly.")
   private String[] arguments;
 
+  @Override
+  public String contractName() {
+    return AssetHistoryContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    JsonObjectBuilder builder =
+        Json.createObjectBuilder().add(AssetHistoryContract.ID, getAssetId(arguments));
+    if (startAge != null) {
+      builder.add(AssetHistoryContract.START_AGE, startAge);
+    }
+    if (endAge != null) {
+      builder.add(AssetHistoryContract.END_AGE, endAge);
+    }
+    if (from != null) {
+      builder.add(AssetHistoryContract.START_TIMESTAMP, from);
+    }
+    if (to != null) {
+      builder.add(AssetHistoryContract.END_TIMESTAMP, to);
+    }
+    if (limit != null) {
+      builder.add(AssetHistoryContract.LIMIT, limit);
+    }
+    if (newestFirst) {
+      builder.add(AssetHistoryContract.ORDER, AssetHistoryContract.DESC);
+    }
+    return builder.build();
+  }
+
   @Override
   public void run() {
-    String id =
-        (arguments.length == 1)
-            ? arguments[0]
-            : getHashHexString(arguments[0] + "_" + arguments[1]);
-    JsonObject argument = Json.createObjectBuilder().add(AssetHistoryContract.ID, id).build();
-    executeContract(AssetHistoryContract.class.getCanonicalName(), argument);
+    executeContract(contractName(), buildArgument());
   }
 }
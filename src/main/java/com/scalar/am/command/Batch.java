@@ -0,0 +1,210 @@
+package com.scalar.am.command;
+
+import com.scalar.am.AssetManager;
+import com.scalar.client.config.ClientConfig;
+import com.scalar.client.service.ClientService;
+import com.scalar.client.service.StatusCode;
+import com.scalar.rpc.ledger.ContractExecutionResponse;
+import com.scalar.rpc.ledger.LedgerValidationResponse;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>batch</em> CLI command */
+@CommandLine.Command(
+    name = "batch",
+    description = "Execute the commands read line by line from a file or the standard input")
+public class Batch extends LedgerClientExecutor implements Runnable {
+  static final String LINE = "line";
+  static final String STATUS = "status";
+  static final String RESULT = "result";
+  static final String ERROR = "error";
+
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--concurrency"},
+      description = "the number of contract executions in flight",
+      defaultValue = "8")
+  private int concurrency;
+
+  @CommandLine.Parameters(
+      index = "0",
+      arity = "0..1",
+      paramLabel = "file",
+      description = "the file to read commands from, e.g. : add book \"Lord of the Rings\"")
+  private File file;
+
+  private final AtomicLong failures = new AtomicLong();
+
+  @Override
+  public void run() {
+    try (BufferedReader reader =
+        (file != null)
+            ? Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)
+            : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+      ClientConfig config = loadClientConfig();
+      executeOnLedger((clientService) -> process(reader, config, clientService));
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
+  }
+
+  private void process(BufferedReader reader, ClientConfig config, ClientService service)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    // Stop reading ahead while every worker is busy, so memory stays flat for any input size
+    Semaphore inFlight = new Semaphore(concurrency);
+    long start = System.nanoTime();
+    long executed = 0;
+
+    try {
+      String text;
+      int line = 0;
+      while ((text = reader.readLine()) != null) {
+        line++;
+        String[] tokens = tokenize(text);
+        if (tokens.length == 0 || tokens[0].startsWith("#")) {
+          continue;
+        }
+
+        final int number = line;
+        inFlight.acquire();
+        executed++;
+        executor.execute(
+            () -> {
+              try {
+                print(execute(number, tokens, config, service));
+              } finally {
+                inFlight.release();
+              }
+            });
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    double seconds = (System.nanoTime() - start) / 1e9;
+    err.println(
+        String.format(
+            "Executed %d commands in %.3f s (%.1f commands/s), %d failures",
+            executed, seconds, seconds > 0 ? executed / seconds : 0, failures.get()));
+  }
+
+  private JsonObject execute(
+      int line, String[] tokens, ClientConfig config, ClientService service) {
+    JsonObjectBuilder builder = Json.createObjectBuilder().add(LINE, line);
+    try {
+      Object command = parse(tokens);
+      if (command instanceof ContractCommand) {
+        ContractCommand contractCommand = (ContractCommand) command;
+        String contractId = contractCommand.contractName() + "_" + config.getCertHolderId();
+        ContractExecutionResponse response =
+            executeTimed(
+                service,
+                contractCommand.contractName(),
+                contractId,
+                contractCommand.buildArgument());
+        builder.add(STATUS, response.getStatus());
+        if (response.getStatus() != StatusCode.OK.get()) {
+          failures.incrementAndGet();
+          return builder.add(ERROR, response.getMessage()).build();
+        }
+        JsonReader reader = Json.createReader(new StringReader(response.getResult()));
+        return builder.add(RESULT, reader.readObject()).build();
+      } else if (command instanceof ValidateAsset) {
+        String id = ((ValidateAsset) command).assetId();
+        LedgerValidationResponse response = validateTimed(service, id);
+        builder.add(STATUS, response.getStatus());
+        if (response.getStatus() != StatusCode.OK.get()) {
+          failures.incrementAndGet();
+          return builder.add(ERROR, response.getMessage()).build();
+        }
+        return builder.add(RESULT, "Asset " + id + " is untampered").build();
+      }
+      failures.incrementAndGet();
+      return builder.add(ERROR, "Command " + tokens[0] + " can not be used in a batch").build();
+    } catch (Exception e) {
+      failures.incrementAndGet();
+      return builder.add(ERROR, String.valueOf(e.getMessage())).build();
+    }
+  }
+
+  /**
+   * Parse the command line with the same definitions as the CLI
+   *
+   * @return the command object populated with the arguments
+   */
+  static Object parse(String[] tokens) {
+    CommandLine.ParseResult result = new CommandLine(new AssetManager()).parseArgs(tokens);
+    if (!result.hasSubcommand()) {
+      throw new CommandLine.PicocliException("Missing command");
+    }
+    return result.subcommand().commandSpec().userObject();
+  }
+
+  private void print(JsonObject result) {
+    String line = result.toString();
+    synchronized (out) {
+      out.println(line);
+    }
+  }
+
+  /**
+   * Split a line into arguments the way a shell would for simple quoting
+   *
+   * @param line the command line, e.g. : add book "Lord of the Rings"
+   * @return the arguments
+   */
+  static String[] tokenize(String line) {
+    List<String> tokens = new ArrayList<>();
+    StringBuilder token = new StringBuilder();
+    boolean inToken = false;
+    char quote = 0;
+    for (char c : line.toCharArray()) {
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        } else {
+          token.append(c);
+        }
+      } else if (c == '"' || c == '\'') {
+        quote = c;
+        inToken = true;
+      } else if (Character.isWhitespace(c)) {
+        if (inToken) {
+          tokens.add(token.toString());
+          token.setLength(0);
+          inToken = false;
+        }
+      } else {
+        token.append(c);
+        inToken = true;
+      }
+    }
+    if (inToken) {
+      tokens.add(token.toString());
+    }
+    return tokens.toArray(new String[0]);
+  }
+}
@@ -0,0 +1,60 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.BuildStatusIndexContract;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>build-index</em> CLI command */
+@CommandLine.Command(
+    name = "build-index",
+    description = "Build the status index of an asset type registered before it existed")
+public class BuildIndex extends LedgerClientExecutor implements Runnable {
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--chunk-size"},
+      description = "the number of assets indexed per contract execution",
+      defaultValue = "1000")
+  private int chunkSize;
+
+  @CommandLine.Parameters(
+      index = "0",
+      paramLabel = "asset_type",
+      description = "the asset type to index, e.g. : book")
+  private String type;
+
+  @Override
+  public void run() {
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(BuildStatusIndexContract.TYPE, type)
+            .add(BuildStatusIndexContract.LIMIT, chunkSize)
+            .build();
+    try {
+      LedgerExecutorFunction f =
+          (clientService) -> {
+            while (true) {
+              Optional<JsonObject> result =
+                  callContract(
+                      clientService, BuildStatusIndexContract.class.getCanonicalName(), argument);
+              if (!result.isPresent()) {
+                return;
+              }
+              prettyPrintJson(result.get());
+              if (result.get().getBoolean(BuildStatusIndexContract.COMPLETED, true)) {
+                return;
+              }
+            }
+          };
+      executeOnLedger(f);
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.CheckpointContract;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>checkpoint</em> CLI command */
+@CommandLine.Command(
+    name = "checkpoint",
+    description = "Fold the history of the asset into a summary record")
+public class Checkpoint extends LedgerClientExecutor implements Runnable, ContractCommand {
+
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--age"},
+      description = "fold the history up to this age, inclusive, instead of all of it")
+  private Integer age;
+
+  @CommandLine.Parameters(
+      arity = "1..*",
+      paramLabel = "arguments",
+      description = "can be <type> <name> or <id> directly.")
+  private String[] arguments;
+
+  @Override
+  public String contractName() {
+    return CheckpointContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    JsonObjectBuilder builder =
+        Json.createObjectBuilder().add(CheckpointContract.ASSET_ID, getAssetId(arguments));
+    if (age != null) {
+      builder.add(CheckpointContract.AGE, age);
+    }
+    return builder.build();
+  }
+
+  @Override
+  public void run() {
+    executeContract(contractName(), buildArgument());
+  }
+}
@@ -0,0 +1,34 @@
+package com.scalar.am.command;
+
+import com.scalar.client.config.ClientConfig;
+import com.scalar.client.service.ClientService;
+import java.io.PrintStream;
+import picocli.CommandLine;
+
+/**
+ * Picocli factory binding the commands it creates to a shared {@link ClientService} <br>
+ * Commands created by this factory print to the given streams instead of the standard ones.
+ */
+public class CommandFactory implements CommandLine.IFactory {
+  private final ClientConfig config;
+  private final ClientService service;
+  private final PrintStream out;
+  private final PrintStream err;
+
+  public CommandFactory(
+      ClientConfig config, ClientService service, PrintStream out, PrintStream err) {
+    this.config = config;
+    this.service = service;
+    this.out = out;
+    this.err = err;
+  }
+
+  @Override
+  public <K> K create(Class<K> cls) throws Exception {
+    K command = cls.getDeclaredConstructor().newInstance();
+    if (command instanceof LedgerClientExecutor) {
+      ((LedgerClientExecutor) command).bind(config, service, out, err);
+    }
+    return command;
+  }
+}
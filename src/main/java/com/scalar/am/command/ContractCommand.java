@@ -0,0 +1,13 @@
+package com.scalar.am.command;
+
+import javax.json.JsonObject;
+
+/** A command which executes a single contract, so that its argument can be built on its own */
+interface ContractCommand {
+
+  /** @return the canonical name of the contract to execute */
+  String contractName();
+
+  /** @return the argument passed to the contract */
+  JsonObject buildArgument();
+}
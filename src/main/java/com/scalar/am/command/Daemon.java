@@ -0,0 +1,62 @@
+package com.scalar.am.command;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.scalar.am.daemon.DaemonServer;
+import com.scalar.am.metrics.MetricsExporter;
+import com.scalar.client.config.ClientConfig;
+import com.scalar.client.service.ClientModule;
+import com.scalar.client.service.ClientService;
+import java.io.File;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>daemon</em> CLI command */
+@CommandLine.Command(
+    name = "daemon",
+    description = "Keep a connection to the ledger open and serve the other commands")
+public class Daemon extends LedgerClientExecutor implements Runnable {
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--port"},
+      description = "the local port to listen on, 0 picks a free one",
+      defaultValue = "0")
+  private int port;
+
+  @CommandLine.Option(
+      names = {"--threads"},
+      description = "the number of commands served concurrently",
+      defaultValue = "16")
+  private int threads;
+
+  @CommandLine.Option(
+      names = {"--metrics-port"},
+      description =
+          "serve the metrics of the requests in the Prometheus format on"
+              + " http://localhost:<port>/metrics, 0 picks a free port")
+  private Integer metricsPort;
+
+  @CommandLine.Option(
+      names = {"--metrics-file"},
+      paramLabel = "file",
+      description = "write the metrics of the requests in the Prometheus format to the file")
+  private File metricsFile;
+
+  @Override
+  public void run() {
+    try {
+      ClientConfig config = loadClientConfig();
+      Injector injector = Guice.createInjector(new ClientModule(config));
+      try (ClientService clientService = injector.getInstance(ClientService.class);
+          MetricsExporter exporter = exportMetrics(metricsPort, metricsFile)) {
+        new DaemonServer(config, clientService).serve(port, threads, err);
+      }
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
+  }
+}
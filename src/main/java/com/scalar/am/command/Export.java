@@ -0,0 +1,316 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.AssetHistoryContract;
+import com.scalar.am.contract.ChangesContract;
+import com.scalar.am.contract.ListContract;
+import com.scalar.am.contract.ListTypeContract;
+import com.scalar.client.service.ClientService;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>export</em> CLI command */
+@CommandLine.Command(
+    name = "export",
+    description = "Write the types, assets and histories of the holder to an NDJSON file")
+public class Export extends LedgerClientExecutor implements Runnable {
+  static final String KIND = "kind";
+  static final String TYPE = "type";
+  static final String ASSET = "asset";
+  static final String HISTORY = "history";
+  static final String ID = "id";
+  static final String TOKENS = "tokens";
+  static final String AGES = "ages";
+  private static final String SUCCESS = "success";
+
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--gzip"},
+      description = "compress the output with gzip")
+  private boolean gzip;
+
+  @CommandLine.Option(
+      names = {"--concurrency"},
+      description = "the number of asset histories fetched in parallel",
+      defaultValue = "8")
+  private int concurrency;
+
+  @CommandLine.Option(
+      names = {"--page-size"},
+      description = "the number of assets or history entries fetched per contract execution",
+      defaultValue = "1000")
+  private int pageSize;
+
+  @CommandLine.Option(
+      names = {"--watermark"},
+      paramLabel = "file",
+      description =
+          "export only the changes since the export that wrote this file, and write it at the end")
+  private File watermark;
+
+  @CommandLine.Parameters(index = "0", paramLabel = "file", description = "the file to write")
+  private File file;
+
+  private final AtomicLong lines = new AtomicLong();
+  private final Map<String, Integer> exportedAges = new ConcurrentHashMap<>();
+  private volatile boolean stopped;
+
+  @Override
+  public void run() {
+    if (concurrency < 1 || pageSize < 1) {
+      err.println("--concurrency and --page-size must be at least 1");
+      return;
+    }
+    try {
+      JsonObject previous = Json.createObjectBuilder().build();
+      if (watermark != null && watermark.exists()) {
+        try (Reader reader = Files.newBufferedReader(watermark.toPath(), StandardCharsets.UTF_8);
+            JsonReader jsonReader = Json.createReader(reader)) {
+          previous = jsonReader.readObject();
+        }
+      }
+      OutputStream stream = Files.newOutputStream(file.toPath());
+      if (gzip) {
+        stream = new GZIPOutputStream(stream);
+      }
+      JsonObject since = previous;
+      try (Writer writer =
+          new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+        executeOnLedger((clientService) -> export(writer, since, clientService));
+      }
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
+  }
+
+  /**
+   * Write one line per type, per asset and per history entry, the type and asset lines first as
+   * they are listed, the history lines as they are fetched with at most {@link #concurrency} assets
+   * in flight. <br>
+   * With a previous watermark, only the assets changed since it are written, along with the history
+   * entries after the last age it holds for each of them. The other types are written in full,
+   * listed page by page.
+   */
+  private void export(Writer writer, JsonObject since, ClientService clientService)
+      throws Exception {
+    long start = System.nanoTime();
+    JsonObject previousTokens =
+        since.containsKey(TOKENS)
+            ? since.getJsonObject(TOKENS)
+            : Json.createObjectBuilder().build();
+    /*
+     * The age of the last history entry exported per asset. The ages are those of the ledger, so the
+     * clock of the client does not decide which entries are exported again. A watermark written
+     * before the ages were kept has none, the changed assets are then exported with their whole
+     * history.
+     */
+    JsonObject previousAges =
+        since.containsKey(AGES) ? since.getJsonObject(AGES) : Json.createObjectBuilder().build();
+    previousAges.forEach((id, age) -> exportedAges.put(id, ((JsonNumber) age).intValue()));
+
+    Optional<JsonObject> types =
+        callContract(
+            clientService,
+            ListTypeContract.class.getCanonicalName(),
+            Json.createObjectBuilder().build());
+    if (!types.isPresent()) {
+      return;
+    }
+    JsonArray typeList =
+        types.get().containsKey(ListTypeContract.TYPES)
+            ? types.get().getJsonArray(ListTypeContract.TYPES)
+            : Json.createArrayBuilder().build();
+
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    // Stop listing while every history is in flight, so memory stays flat for any data size
+    Semaphore inFlight = new Semaphore(concurrency);
+    JsonObjectBuilder tokens = Json.createObjectBuilder();
+    long assets = 0;
+    try {
+      for (JsonObject type : typeList.getValuesAs(JsonObject.class)) {
+        String name = type.getString(ListTypeContract.TYPE);
+        JsonObjectBuilder typeLine = Json.createObjectBuilder().add(KIND, TYPE);
+        type.forEach(typeLine::add);
+        write(writer, typeLine.build());
+
+        /*
+         * The changes since the previous export, or only the token to start from, taken before the
+         * assets are listed page by page so that the changes made meanwhile are in the next export
+         */
+        String token = previousTokens.containsKey(name) ? previousTokens.getString(name) : "";
+        Optional<JsonObject> changes =
+            callContract(
+                clientService,
+                ChangesContract.class.getCanonicalName(),
+                Json.createObjectBuilder()
+                    .add(ChangesContract.TYPE, name)
+                    .add(ChangesContract.SINCE, token)
+                    .add(ChangesContract.TOKEN_ONLY, token.isEmpty())
+                    .build());
+        if (!changes.isPresent()) {
+          stopped = true;
+          break;
+        }
+        boolean tracked = SUCCESS.equals(changes.get().getString("result"));
+        if (tracked) {
+          tokens.add(name, changes.get().getString(ChangesContract.TOKEN));
+        }
+        if (tracked && !token.isEmpty()) {
+          for (JsonObject asset : changes.get().getJsonArray(name).getValuesAs(JsonObject.class)) {
+            String id = asset.getString(ListContract.ID);
+            int fromAge = exportedAges.containsKey(id) ? exportedAges.get(id) + 1 : 0;
+            exportAsset(writer, name, asset, fromAge, executor, inFlight, clientService);
+            assets++;
+          }
+          continue;
+        }
+
+        JsonValue cursor = null;
+        do {
+          JsonObjectBuilder argument =
+              Json.createObjectBuilder()
+                  .add(ListContract.TYPE, name)
+                  .add(ListContract.LIMIT, pageSize);
+          if (cursor != null) {
+            argument.add(ListContract.CURSOR, cursor);
+          }
+          Optional<JsonObject> page =
+              callContract(clientService, ListContract.class.getCanonicalName(), argument.build());
+          if (!page.isPresent()) {
+            stopped = true;
+            break;
+          }
+          for (JsonObject asset : page.get().getJsonArray(name).getValuesAs(JsonObject.class)) {
+            exportAsset(writer, name, asset, 0, executor, inFlight, clientService);
+            assets++;
+          }
+          cursor = page.get().get(ListContract.NEXT_CURSOR);
+        } while (cursor != null && !stopped);
+        if (stopped) {
+          break;
+        }
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    if (stopped) {
+      err.println("Export stopped, the watermark is not updated");
+    } else if (watermark != null) {
+      JsonObjectBuilder ages = Json.createObjectBuilder();
+      exportedAges.forEach(ages::add);
+      JsonObject newWatermark =
+          Json.createObjectBuilder().add(TOKENS, tokens).add(AGES, ages).build();
+      Files.write(watermark.toPath(), newWatermark.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    err.println(
+        String.format(
+            "Exported %d types, %d assets and %d lines in %.3f s",
+            typeList.size(), assets, lines.get(), seconds));
+  }
+
+  /** Write the asset line, then fetch and write its history once fewer assets are in flight */
+  private void exportAsset(
+      Writer writer,
+      String type,
+      JsonObject asset,
+      int fromAge,
+      ExecutorService executor,
+      Semaphore inFlight,
+      ClientService clientService)
+      throws Exception {
+    JsonObjectBuilder line = Json.createObjectBuilder().add(KIND, ASSET).add(TYPE, type);
+    asset.forEach(line::add);
+    write(writer, line.build());
+
+    String id = asset.getString(ListContract.ID);
+    inFlight.acquire();
+    executor.execute(
+        () -> {
+          try {
+            exportHistory(writer, id, fromAge, clientService);
+          } catch (Exception e) {
+            e.printStackTrace(err);
+            stopped = true;
+          } finally {
+            inFlight.release();
+          }
+        });
+  }
+
+  /**
+   * Write the history of the asset from the given age, one page at a time, and keep the age of the
+   * last entry written for the watermark
+   */
+  private void exportHistory(Writer writer, String id, int fromAge, ClientService clientService)
+      throws Exception {
+    int startAge = fromAge;
+    while (!stopped) {
+      JsonObjectBuilder argument =
+          Json.createObjectBuilder()
+              .add(AssetHistoryContract.ID, id)
+              .add(AssetHistoryContract.START_AGE, startAge)
+              .add(AssetHistoryContract.LIMIT, pageSize);
+      Optional<JsonObject> history =
+          callContract(
+              clientService, AssetHistoryContract.class.getCanonicalName(), argument.build());
+      if (!history.isPresent()) {
+        stopped = true;
+        return;
+      }
+      if (!history.get().containsKey(AssetHistoryContract.HISTORY)) {
+        return;
+      }
+      JsonArray entries = history.get().getJsonArray(AssetHistoryContract.HISTORY);
+      for (JsonObject entry : entries.getValuesAs(JsonObject.class)) {
+        JsonObjectBuilder line = Json.createObjectBuilder().add(KIND, HISTORY).add(ID, id);
+        entry.forEach(line::add);
+        write(writer, line.build());
+        startAge = entry.getInt(AssetHistoryContract.AGE) + 1;
+        exportedAges.put(id, startAge - 1);
+      }
+      if (entries.size() < pageSize) {
+        return;
+      }
+    }
+  }
+
+  private void write(Writer writer, JsonObject line) throws IOException {
+    String text = line.toString();
+    synchronized (writer) {
+      writer.write(text);
+      writer.write('\n');
+    }
+    lines.incrementAndGet();
+  }
+}
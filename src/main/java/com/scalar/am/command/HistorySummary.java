@@ -0,0 +1,48 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.HistorySummaryContract;
+import javax.json.Json;
+import javax.json.JsonObject;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>history-summary</em> CLI command */
+@CommandLine.Command(
+    name = "history-summary",
+    description = "Summarize the history of the asset from its latest checkpoint")
+public class HistorySummary extends LedgerClientExecutor implements Runnable, ContractCommand {
+
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--verify"},
+      description = "check the checkpoint against the history it was built from")
+  private boolean verify;
+
+  @CommandLine.Parameters(
+      arity = "1..*",
+      paramLabel = "arguments",
+      description = "can be <type> <name> or <id> directly.")
+  private String[] arguments;
+
+  @Override
+  public String contractName() {
+    return HistorySummaryContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    return Json.createObjectBuilder()
+        .add(HistorySummaryContract.ASSET_ID, getAssetId(arguments))
+        .add(HistorySummaryContract.VERIFY, verify)
+        .build();
+  }
+
+  @Override
+  public void run() {
+    executeContract(contractName(), buildArgument());
+  }
+}
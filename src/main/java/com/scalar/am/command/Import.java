@@ -0,0 +1,436 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.BatchAddAssetContract;
+import com.scalar.client.service.ClientService;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>import</em> CLI command */
+@CommandLine.Command(
+    name = "import",
+    description =
+        "Add the assets of a CSV or NDJSON file, resuming where a previous import stopped")
+public class Import extends LedgerClientExecutor implements Runnable {
+  static final String CSV = "csv";
+  static final String NDJSON = "ndjson";
+  static final String TYPE = "type";
+  static final String ASSET = "asset";
+  static final String NAME = "name";
+
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--format"},
+      description = "csv or ndjson, guessed from the file extension by default")
+  private String format;
+
+  @CommandLine.Option(
+      names = {"--batch-size"},
+      description = "the number of assets added per contract execution",
+      defaultValue = "500")
+  private int batchSize;
+
+  @CommandLine.Option(
+      names = {"--concurrency"},
+      description = "the number of contract executions in flight",
+      defaultValue = "4")
+  private int concurrency;
+
+  @CommandLine.Option(
+      names = {"--journal"},
+      paramLabel = "file",
+      description = "the file recording the imported lines, <file>.journal by default")
+  private File journal;
+
+  @CommandLine.Parameters(
+      index = "0",
+      paramLabel = "file",
+      description =
+          "the file to import, e.g. : a CSV file with a `type,asset` header, or an NDJSON file"
+              + " with one {\"type\": ..., \"asset\": ...} per line")
+  private File file;
+
+  private final AtomicLong added = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong submitted = new AtomicLong();
+  private volatile boolean stopped;
+
+  @Override
+  public void run() {
+    if (batchSize < 1 || batchSize > BatchAddAssetContract.MAX_ASSETS) {
+      err.println("--batch-size must be between 1 and " + BatchAddAssetContract.MAX_ASSETS);
+      return;
+    }
+    if (concurrency < 1) {
+      err.println("--concurrency must be at least 1");
+      return;
+    }
+    String fileFormat =
+        (format != null) ? format : file.getName().endsWith("." + CSV) ? CSV : NDJSON;
+    if (!CSV.equals(fileFormat) && !NDJSON.equals(fileFormat)) {
+      err.println("--format must be " + CSV + " or " + NDJSON);
+      return;
+    }
+    File journalFile = (journal != null) ? journal : new File(file.getPath() + ".journal");
+
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      TreeMap<Integer, Integer> imported = readJournal(journalFile);
+      try (Writer journalWriter =
+          Files.newBufferedWriter(
+              journalFile.toPath(),
+              StandardCharsets.UTF_8,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.APPEND)) {
+        executeOnLedger(
+            (clientService) ->
+                importRows(reader, CSV.equals(fileFormat), imported, journalWriter, clientService));
+      }
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
+  }
+
+  /**
+   * Read the file line by line and add the assets in batches of {@link #batchSize}, with at most
+   * {@link #concurrency} batches in flight. <br>
+   * Reading waits while every batch is in flight, so memory stays flat for any file size. Lines
+   * recorded in the journal by a previous import are skipped.
+   */
+  private void importRows(
+      BufferedReader reader,
+      boolean csv,
+      TreeMap<Integer, Integer> imported,
+      Writer journalWriter,
+      ClientService clientService)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    Semaphore inFlight = new Semaphore(concurrency);
+    long start = System.nanoTime();
+    long skipped = 0;
+    JsonArrayBuilder batch = Json.createArrayBuilder();
+    List<Integer> lines = new ArrayList<>();
+
+    try {
+      RowReader rows = new RowReader(reader, csv);
+      while (!stopped && rows.next()) {
+        int line = rows.line();
+        Map.Entry<Integer, Integer> range = imported.floorEntry(line);
+        if (range != null && line <= range.getValue()) {
+          skipped++;
+          continue;
+        }
+
+        String[] row = rows.row();
+        if (row == null) {
+          printFailure(line, "Expected " + (csv ? "type and asset columns" : "type and asset"));
+          failed.incrementAndGet();
+          continue;
+        }
+        batch.add(
+            Json.createObjectBuilder()
+                .add(BatchAddAssetContract.TYPE, row[0])
+                .add(BatchAddAssetContract.ASSET, row[1])
+                .add(BatchAddAssetContract.TIMESTAMP, new Date().getTime())
+                .add(BatchAddAssetContract.ID, getHashHexString(row[0] + "_" + row[1])));
+        lines.add(line);
+
+        if (lines.size() == batchSize) {
+          submit(executor, inFlight, batch.build(), lines, journalWriter, clientService, start);
+          batch = Json.createArrayBuilder();
+          lines = new ArrayList<>();
+        }
+      }
+      if (!stopped && !lines.isEmpty()) {
+        submit(executor, inFlight, batch.build(), lines, journalWriter, clientService, start);
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    if (stopped) {
+      err.println("Import stopped, run the same command again to resume it");
+    }
+    out.println(
+        Json.createObjectBuilder()
+            .add("added", added.get())
+            .add("failed", failed.get())
+            .add("skipped", skipped)
+            .add("completed", !stopped)
+            .build());
+  }
+
+  /** Execute {@link BatchAddAssetContract} for one batch once fewer batches are in flight */
+  private void submit(
+      ExecutorService executor,
+      Semaphore inFlight,
+      JsonArray batch,
+      List<Integer> lines,
+      Writer journalWriter,
+      ClientService clientService,
+      long start)
+      throws InterruptedException {
+    inFlight.acquire();
+    executor.execute(
+        () -> {
+          try {
+            addBatch(batch, lines, journalWriter, clientService, start);
+          } finally {
+            inFlight.release();
+          }
+        });
+  }
+
+  private void addBatch(
+      JsonArray batch,
+      List<Integer> lines,
+      Writer journalWriter,
+      ClientService clientService,
+      long start) {
+    if (stopped) {
+      return;
+    }
+    long batchStart = System.nanoTime();
+    Optional<JsonObject> result;
+    try {
+      JsonObject argument =
+          Json.createObjectBuilder().add(BatchAddAssetContract.ASSETS, batch).build();
+      result =
+          callContract(clientService, BatchAddAssetContract.class.getCanonicalName(), argument);
+    } catch (Exception e) {
+      e.printStackTrace(err);
+      result = Optional.empty();
+    }
+    long latency = System.nanoTime() - batchStart;
+    if (!result.isPresent()) {
+      // The lines of the batch are not journaled, so they are submitted again on resume
+      stopped = true;
+      return;
+    }
+
+    JsonArray results = result.get().getJsonArray(BatchAddAssetContract.RESULTS);
+    for (int i = 0; i < results.size(); i++) {
+      JsonObject entry = results.getJsonObject(i);
+      if (!"success".equals(entry.getString("result"))) {
+        printFailure(lines.get(i), entry.getString("message"));
+      }
+    }
+    added.addAndGet(result.get().getInt(BatchAddAssetContract.ADDED));
+    failed.addAndGet(result.get().getInt(BatchAddAssetContract.FAILED));
+
+    int first = lines.get(0);
+    int last = lines.get(lines.size() - 1);
+    try {
+      synchronized (journalWriter) {
+        journalWriter.write(first + "-" + last + System.lineSeparator());
+        journalWriter.flush();
+      }
+    } catch (IOException e) {
+      e.printStackTrace(err);
+      stopped = true;
+    }
+
+    long rows = submitted.addAndGet(lines.size());
+    double seconds = (System.nanoTime() - start) / 1e9;
+    err.println(
+        String.format(
+            "Lines %d-%d: %d added, %d failed in %.1f ms, %d rows at %.1f rows/s",
+            first,
+            last,
+            result.get().getInt(BatchAddAssetContract.ADDED),
+            result.get().getInt(BatchAddAssetContract.FAILED),
+            latency / 1e6,
+            rows,
+            seconds > 0 ? rows / seconds : 0));
+  }
+
+  private void printFailure(int line, String message) {
+    String failure =
+        Json.createObjectBuilder().add("line", line).add("message", message).build().toString();
+    synchronized (out) {
+      out.println(failure);
+    }
+  }
+
+  /**
+   * Read the line ranges of the batches added by previous imports of the file
+   *
+   * @return the last line of each range by its first line
+   */
+  static TreeMap<Integer, Integer> readJournal(File journalFile) throws IOException {
+    TreeMap<Integer, Integer> imported = new TreeMap<>();
+    if (!journalFile.exists()) {
+      return imported;
+    }
+    for (String text : Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8)) {
+      String[] range = text.trim().split("-");
+      if (range.length == 2) {
+        try {
+          imported.put(Integer.parseInt(range[0]), Integer.parseInt(range[1]));
+        } catch (NumberFormatException e) {
+          // A line cut short by a crash is ignored, so its batch is imported again
+        }
+      }
+    }
+    return imported;
+  }
+
+  /**
+   * The lines of a file to import, skipping blank lines and the header of a CSV file, which is its
+   * first line that is not blank
+   */
+  static class RowReader {
+    private final BufferedReader reader;
+    private final boolean csv;
+    private int[] columns = {0, 1}; // the type and asset columns of a CSV file without header
+    private boolean started;
+    private int line;
+    private String text;
+
+    RowReader(BufferedReader reader, boolean csv) {
+      this.reader = reader;
+      this.csv = csv;
+    }
+
+    /** @return true if there is another row, false at the end of the file */
+    boolean next() throws IOException {
+      while ((text = reader.readLine()) != null) {
+        line++;
+        if (text.trim().isEmpty()) {
+          continue;
+        }
+        if (csv && !started) {
+          started = true;
+          int[] header = csvHeader(text);
+          if (header != null) {
+            columns = header;
+            continue;
+          }
+        }
+        started = true;
+        return true;
+      }
+      return false;
+    }
+
+    /** @return the line number of the current row, from 1 */
+    int line() {
+      return line;
+    }
+
+    /** @return the type and asset of the current row, or null if they are missing */
+    String[] row() {
+      try {
+        return csv ? csvRow(text, columns) : ndjsonRow(text);
+      } catch (RuntimeException e) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * @return the type and asset columns named by the line, or null if it is not a header, i.e. it
+   *     has no type column
+   */
+  static int[] csvHeader(String text) {
+    List<String> header = new ArrayList<>();
+    for (String column : parseCsv(text)) {
+      header.add(column.trim().toLowerCase());
+    }
+    if (!header.contains(TYPE)) {
+      return null;
+    }
+    return new int[] {
+      header.indexOf(TYPE), header.contains(ASSET) ? header.indexOf(ASSET) : header.indexOf(NAME)
+    };
+  }
+
+  /** @return the type and asset of the row, or null if they are missing */
+  private static String[] csvRow(String text, int[] columns) {
+    List<String> fields = parseCsv(text);
+    if (columns[1] < 0 || fields.size() <= Math.max(columns[0], columns[1])) {
+      return null;
+    }
+    String type = fields.get(columns[0]).trim();
+    String asset = fields.get(columns[1]).trim();
+    return (type.isEmpty() || asset.isEmpty()) ? null : new String[] {type, asset};
+  }
+
+  /** @return the type and asset of the row, or null if they are missing */
+  private static String[] ndjsonRow(String text) {
+    JsonObject row;
+    try (JsonReader reader = Json.createReader(new StringReader(text))) {
+      row = reader.readObject();
+    }
+    String asset = row.containsKey(ASSET) ? ASSET : NAME;
+    if (row.get(TYPE) == null
+        || row.get(TYPE).getValueType() != JsonValue.ValueType.STRING
+        || row.get(asset) == null
+        || row.get(asset).getValueType() != JsonValue.ValueType.STRING) {
+      return null;
+    }
+    return new String[] {row.getString(TYPE), row.getString(asset)};
+  }
+
+  /**
+   * Split a CSV line into fields, e.g. : book,"Lord of the Rings, Part 1"
+   *
+   * @param line the line, in which quoted fields may hold commas and doubled quotes
+   * @return the fields
+   */
+  static List<String> parseCsv(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+}
@@ -3,8 +3,20 @@ package com.scalar.am.command;
 import com.scalar.am.contract.AddAssetContract;
 import com.scalar.am.contract.AddTypeContract;
 import com.scalar.am.contract.AssetHistoryContract;
+import com.scalar.am.contract.BatchAddAssetContract;
+import com.scalar.am.contract.BatchStatusChangeContract;
+import com.scalar.am.contract.BuildStatusIndexContract;
+import com.scalar.am.contract.ChangesContract;
+import com.scalar.am.contract.CheckpointContract;
+import com.scalar.am.contract.HistorySummaryContract;
 import com.scalar.am.contract.ListContract;
 import com.scalar.am.contract.ListTypeContract;
+import com.scalar.am.contract.LoanStatsContract;
+import com.scalar.am.contract.LoansContract;
+import com.scalar.am.contract.MigrateContract;
+import com.scalar.am.contract.OverviewContract;
+import com.scalar.am.contract.SearchContract;
+import com.scalar.am.contract.StatsContract;
 import com.scalar.am.contract.StatusChangeContract;
 import com.scalar.client.config.ClientConfig;
 import com.scalar.client.service.ClientService;
@@ -24,6 +36,7 @@ import java.util.Properties;
 import java.util.UUID;
 import javax.json.Json;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 import picocli.CommandLine;
 
 /** This class defines the behaviour of <em>init</em> CLI command */
@@ -54,6 +67,13 @@ public class Init extends LedgerClientExecutor implements Runnable {
       defaultValue = "")
   private String credential;
 
+  @CommandLine.Option(
+      names = {"-ledger-stats"},
+      description =
+          "register the contracts so that their results hold their ledger operations, reported"
+              + " by the local server only")
+  private boolean ledgerStats;
+
   @CommandLine.Option(
       names = {"-h"},
       usageHelp = true,
@@ -147,9 +167,25 @@ public class Init extends LedgerClientExecutor implements Runnable {
             ListTypeContract.class,
             ListContract.class,
             StatusChangeContract.class,
-            AssetHistoryContract.class);
-
-    JsonObject property = Json.createObjectBuilder().add("holderId", holderId).build();
+            AssetHistoryContract.class,
+            BuildStatusIndexContract.class,
+            BatchAddAssetContract.class,
+            BatchStatusChangeContract.class,
+            StatsContract.class,
+            LoansContract.class,
+            CheckpointContract.class,
+            HistorySummaryContract.class,
+            ChangesContract.class,
+            MigrateContract.class,
+            LoanStatsContract.class,
+            SearchContract.class,
+            OverviewContract.class);
+
+    JsonObjectBuilder propertyBuilder = Json.createObjectBuilder().add("holderId", holderId);
+    if (ledgerStats) {
+      propertyBuilder.add("stats", true);
+    }
+    JsonObject property = propertyBuilder.build();
 
     for (Class<?> contract : contracts) {
       File file = new File(CONTRACT_DIR + File.separator + contract.getSimpleName() + ".class");
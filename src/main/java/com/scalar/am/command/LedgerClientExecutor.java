@@ -2,6 +2,8 @@ package com.scalar.am.command;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.scalar.am.metrics.MetricsExporter;
+import com.scalar.am.metrics.MetricsRegistry;
 import com.scalar.client.config.ClientConfig;
 import com.scalar.client.service.ClientModule;
 import com.scalar.client.service.ClientService;
@@ -9,23 +11,73 @@ import com.scalar.client.service.StatusCode;
 import com.scalar.rpc.ledger.ContractExecutionResponse;
 import com.scalar.rpc.ledger.LedgerValidationResponse;
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import javax.json.Json;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 import javax.json.JsonReader;
 import javax.json.JsonWriter;
 import javax.json.JsonWriterFactory;
 import javax.json.stream.JsonGenerator;
 import javax.xml.bind.DatatypeConverter;
+import picocli.CommandLine;
 
 /** Class used to execute method on a {@link com.scalar.ledger.ledger.Ledger} */
 abstract class LedgerClientExecutor {
+  static final String LEDGER_STATS = "ledgerStats";
+  // How often the metrics file of a long-running command is rewritten, in seconds
+  static final int METRICS_FILE_INTERVAL = 10;
 
-  private ClientConfig loadClientConfig() throws Exception {
+  @CommandLine.Option(
+      names = {"--stats"},
+      description =
+          "print the ledger operations of each contract execution to the standard error. Only"
+              + " works against am local-server with contracts registered with init -ledger-stats:"
+              + " a Scalar DL network does not report them")
+  boolean stats;
+
+  @CommandLine.Option(
+      names = {"--metrics-summary"},
+      paramLabel = "file",
+      description =
+          "append the number, status and latency of the requests made by the command to the file,"
+              + " as one JSON object per line")
+  File metricsSummary;
+
+  protected PrintStream out = System.out;
+  protected PrintStream err = System.err;
+  protected final MetricsRegistry metrics = new MetricsRegistry(MetricsRegistry.getDefault());
+
+  private boolean statsMissingReported;
+  private ClientConfig sharedConfig;
+  private ClientService sharedService;
+
+  /**
+   * Bind this command to an already connected {@link ClientService}. <br>
+   * Used by the daemon so that commands reuse its connection and write to the forwarded streams.
+   */
+  void bind(ClientConfig config, ClientService service, PrintStream out, PrintStream err) {
+    this.sharedConfig = config;
+    this.sharedService = service;
+    this.out = out;
+    this.err = err;
+  }
+
+  protected ClientConfig loadClientConfig() throws Exception {
+    if (sharedConfig != null) {
+      return sharedConfig;
+    }
     File file = new File(System.getProperty("user.dir") + File.separator + "client.properties");
     return new ClientConfig(file);
   }
@@ -41,63 +93,201 @@ abstract class LedgerClientExecutor {
    */
   protected void executeContract(String contractName, JsonObject contractParameter) {
     try {
-      ClientConfig config = loadClientConfig();
-      String contractId = contractName + "_" + config.getCertHolderId();
-
       LedgerExecutorFunction f =
-          (clientService) -> {
-            JsonObject object =
-                (contractParameter != null)
-                    ? contractParameter
-                    : Json.createObjectBuilder().build();
-            ContractExecutionResponse response = clientService.executeContract(contractId, object);
-            if (response.getStatus() != StatusCode.OK.get()) {
-              System.err.println("Error during contract execution");
-              System.err.println("Status code: " + response.getStatus());
-              System.err.println("Message: " + response.getMessage());
-              return;
-            }
-            JsonReader reader = Json.createReader(new StringReader(response.getResult()));
-            prettyPrintJson((JsonObject) reader.read());
-          };
+          (clientService) ->
+              callContract(clientService, contractName, contractParameter)
+                  .ifPresent(this::prettyPrintJson);
 
       this.executeOnLedger(f);
     } catch (Exception e) {
-      e.printStackTrace();
-      ;
+      e.printStackTrace(err);
+    }
+  }
+
+  /**
+   * Execute the contract with the given client and return its result. <br>
+   * Errors are printed to the standard error.
+   *
+   * @param clientService the client connected to the ledger
+   * @param contractName the contract name
+   * @param contractParameter the parameter that will be passed to the contract
+   * @return the result of the contract, or empty if the execution failed
+   */
+  protected Optional<JsonObject> callContract(
+      ClientService clientService, String contractName, JsonObject contractParameter)
+      throws Exception {
+    String contractId = contractName + "_" + loadClientConfig().getCertHolderId();
+    JsonObject object =
+        (contractParameter != null) ? contractParameter : Json.createObjectBuilder().build();
+    ContractExecutionResponse response =
+        executeTimed(clientService, contractName, contractId, object);
+    if (response.getStatus() != StatusCode.OK.get()) {
+      err.println("Error during contract execution");
+      err.println("Status code: " + response.getStatus());
+      err.println("Message: " + response.getMessage());
+      return Optional.empty();
+    }
+    JsonReader reader = Json.createReader(new StringReader(response.getResult()));
+    JsonObject result = (JsonObject) reader.read();
+    if (!result.containsKey(LEDGER_STATS)) {
+      if (stats && !statsMissingReported) {
+        err.println(
+            "[Stats] not reported by the ledger: only am local-server reports them, for the"
+                + " contracts registered with init -ledger-stats");
+        statsMissingReported = true;
+      }
+      return Optional.of(result);
+    }
+
+    // The ledger operations are printed apart, so the result is the same with or without them
+    if (stats) {
+      err.println(
+          "[Stats] "
+              + Json.createObjectBuilder()
+                  .add("contract", contractName)
+                  .add(LEDGER_STATS, result.get(LEDGER_STATS))
+                  .build());
     }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    result.forEach(
+        (key, value) -> {
+          if (!LEDGER_STATS.equals(key)) {
+            builder.add(key, value);
+          }
+        });
+    return Optional.of(builder.build());
   }
 
   protected void validateAsset(String id) {
     try {
       LedgerExecutorFunction f =
           (clientService) -> {
-            LedgerValidationResponse response = clientService.validateLedger(id);
+            LedgerValidationResponse response = validateTimed(clientService, id);
             if (response.getStatus() != StatusCode.OK.get()) {
-              System.err.println("Error during asset validate");
-              System.err.println("Status code: " + response.getStatus());
-              System.err.println("Message: " + response.getMessage());
+              err.println("Error during asset validate");
+              err.println("Status code: " + response.getStatus());
+              err.println("Message: " + response.getMessage());
               return;
             }
-            System.out.println("Asset " + id + " is untampered");
+            out.println("Asset " + id + " is untampered");
           };
 
       executeOnLedger(f);
     } catch (Exception e) {
-      e.printStackTrace();
+      e.printStackTrace(err);
     }
   }
 
   /**
-   * Execute the function on the ledger passed on the configuration
+   * Execute the function on the ledger passed on the configuration. <br>
+   * When the command is bound to a shared {@link ClientService}, it is reused and left open.
    *
    * @param f the function to execute
    */
   protected final void executeOnLedger(LedgerExecutorFunction f) throws Exception {
-    ClientConfig config = loadClientConfig();
-    Injector injector = Guice.createInjector(new ClientModule(config));
-    try (ClientService clientService = injector.getInstance(ClientService.class)) {
-      f.execute(clientService);
+    try {
+      if (sharedService != null) {
+        f.execute(sharedService);
+        return;
+      }
+      ClientConfig config = loadClientConfig();
+      Injector injector = Guice.createInjector(new ClientModule(config));
+      try (ClientService clientService = injector.getInstance(ClientService.class)) {
+        f.execute(clientService);
+      }
+    } finally {
+      appendMetricsSummary();
+    }
+  }
+
+  /**
+   * Execute the contract and record the execution in {@link #metrics}
+   *
+   * @param clientService the client connected to the ledger
+   * @param contractName the contract name, which the execution is recorded under
+   * @param contractId the id the contract was registered with
+   * @param argument the argument of the contract
+   * @return the response of the ledger
+   */
+  protected ContractExecutionResponse executeTimed(
+      ClientService clientService, String contractName, String contractId, JsonObject argument)
+      throws Exception {
+    long argumentBytes = argument.toString().getBytes(StandardCharsets.UTF_8).length;
+    long start = System.nanoTime();
+    ContractExecutionResponse response;
+    try {
+      response = clientService.executeContract(contractId, argument);
+    } catch (Exception | Error e) {
+      metrics.recordExecution(
+          contractName, MetricsRegistry.EXCEPTION, System.nanoTime() - start, argumentBytes, 0);
+      throw e;
+    }
+    long nanos = System.nanoTime() - start;
+    String result = response.getResult();
+    metrics.recordExecution(
+        contractName,
+        MetricsRegistry.statusName(response.getStatus()),
+        nanos,
+        argumentBytes,
+        (result != null) ? result.getBytes(StandardCharsets.UTF_8).length : 0);
+    return response;
+  }
+
+  /** Validate the asset and record the validation in {@link #metrics} */
+  protected LedgerValidationResponse validateTimed(ClientService clientService, String id)
+      throws Exception {
+    long start = System.nanoTime();
+    try {
+      LedgerValidationResponse response = clientService.validateLedger(id);
+      metrics.recordValidation(
+          MetricsRegistry.statusName(response.getStatus()), System.nanoTime() - start);
+      return response;
+    } catch (Exception | Error e) {
+      metrics.recordValidation(MetricsRegistry.EXCEPTION, System.nanoTime() - start);
+      throw e;
+    }
+  }
+
+  /**
+   * Expose the metrics of every request of the process while a long-running command runs
+   *
+   * @param port the local port to serve them on, or null
+   * @param file the file to write them to, or null
+   * @return the exporter to close when the command ends
+   */
+  protected MetricsExporter exportMetrics(Integer port, File file) throws IOException {
+    MetricsExporter exporter = new MetricsExporter(MetricsRegistry.getDefault());
+    if (port != null) {
+      err.println("Metrics served on http://localhost:" + exporter.serve(port) + "/metrics");
+    }
+    if (file != null) {
+      exporter.writeEvery(file, METRICS_FILE_INTERVAL);
+    }
+    return exporter;
+  }
+
+  /** Append what {@link #metrics} recorded so far to {@link #metricsSummary}, if set */
+  private void appendMetricsSummary() {
+    if (metricsSummary == null || metrics.isEmpty()) {
+      return;
+    }
+    CommandLine.Command command = getClass().getAnnotation(CommandLine.Command.class);
+    JsonObjectBuilder summary =
+        Json.createObjectBuilder()
+            .add("timestamp", System.currentTimeMillis())
+            .add("command", (command != null) ? command.name() : getClass().getSimpleName());
+    metrics.toJson().forEach(summary::add);
+    String line = summary.build().toString() + System.lineSeparator();
+    try {
+      synchronized (LedgerClientExecutor.class) {
+        Files.write(
+            metricsSummary.toPath(),
+            line.getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND);
+      }
+    } catch (IOException e) {
+      e.printStackTrace(err);
     }
   }
 
@@ -108,14 +298,17 @@ abstract class LedgerClientExecutor {
    */
   protected void prettyPrintJson(JsonObject jsonObject) {
     if (jsonObject != null) {
-      System.out.println("[Return]");
+      out.println("[Return]");
       Map<String, Object> config = new HashMap<>(1);
       config.put(JsonGenerator.PRETTY_PRINTING, true);
       JsonWriterFactory factory = Json.createWriterFactory(config);
-      JsonWriter writer = factory.createWriter(System.out);
-      writer.writeObject(jsonObject);
-      System.out.println("");
-      writer.close();
+      // Write into a buffer so that closing the writer does not close the output stream
+      StringWriter buffer = new StringWriter();
+      try (JsonWriter writer = factory.createWriter(buffer)) {
+        writer.writeObject(jsonObject);
+      }
+      out.print(buffer.toString());
+      out.println("");
     }
   }
 
@@ -124,6 +317,18 @@ abstract class LedgerClientExecutor {
     void execute(ClientService service) throws Exception;
   }
 
+  /**
+   * Get the asset id from the command arguments
+   *
+   * @param arguments either <em>type name</em> or the <em>id</em> of the asset
+   * @return the asset id
+   */
+  protected static String getAssetId(String[] arguments) {
+    return (arguments.length == 1)
+        ? arguments[0]
+        : getHashHexString(arguments[0] + "_" + arguments[1]);
+  }
+
   protected static String getHashHexString(String name) {
     String hashed = null;
     try {
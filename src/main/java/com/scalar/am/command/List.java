@@ -1,13 +1,17 @@
 package com.scalar.am.command;
 
+import com.scalar.am.contract.ChangesContract;
 import com.scalar.am.contract.ListContract;
+import java.util.Optional;
 import javax.json.Json;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
 import picocli.CommandLine;
 
 /** This class defines the behaviour of <em>list</em> CLI command */
 @CommandLine.Command(name = "list", description = "List the assets of the given type")
-public class List extends LedgerClientExecutor implements Runnable {
+public class List extends LedgerClientExecutor implements Runnable, ContractCommand {
 
   @CommandLine.Option(
       names = {"-h", "--help"},
@@ -15,15 +19,79 @@ public class List extends LedgerClientExecutor implements Runnable {
       description = "display this help and exit")
   boolean help;
 
+  @CommandLine.Option(
+      names = {"--page-size"},
+      description = "print the assets page by page, with at most this number per page")
+  private int pageSize;
+
+  @CommandLine.Option(
+      names = {"--since"},
+      description =
+          "print only the assets changed since the token printed by a previous call, or every"
+              + " asset and the token when empty")
+  private String since;
+
   @CommandLine.Parameters(
       index = "0",
       paramLabel = "asset_type",
       description = "the asset type to get, e.g. : book")
   private String type;
 
+  @Override
+  public String contractName() {
+    if (since != null) {
+      return ChangesContract.class.getCanonicalName();
+    }
+    return ListContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    if (since != null) {
+      return Json.createObjectBuilder()
+          .add(ChangesContract.TYPE, type)
+          .add(ChangesContract.SINCE, since)
+          .build();
+    }
+    return buildArgument(null);
+  }
+
+  private JsonObject buildArgument(JsonValue cursor) {
+    JsonObjectBuilder builder = Json.createObjectBuilder().add(ListContract.TYPE, type);
+    if (pageSize > 0) {
+      builder.add(ListContract.LIMIT, pageSize);
+    }
+    if (cursor != null) {
+      builder.add(ListContract.CURSOR, cursor);
+    }
+    return builder.build();
+  }
+
   @Override
   public void run() {
-    JsonObject argument = Json.createObjectBuilder().add(ListContract.TYPE, type).build();
-    executeContract(ListContract.class.getCanonicalName(), argument);
+    if (pageSize <= 0 || since != null) {
+      executeContract(contractName(), buildArgument());
+      return;
+    }
+
+    try {
+      // Each page is printed as soon as it is received, then the next one is requested
+      LedgerExecutorFunction f =
+          (clientService) -> {
+            JsonValue cursor = null;
+            do {
+              Optional<JsonObject> page =
+                  callContract(clientService, contractName(), buildArgument(cursor));
+              if (!page.isPresent()) {
+                return;
+              }
+              prettyPrintJson(page.get());
+              cursor = page.get().get(ListContract.NEXT_CURSOR);
+            } while (cursor != null);
+          };
+      executeOnLedger(f);
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
   }
 }
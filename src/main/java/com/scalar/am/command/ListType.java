@@ -2,10 +2,11 @@ package com.scalar.am.command;
 
 import com.scalar.am.contract.ListTypeContract;
 import javax.json.Json;
+import javax.json.JsonObject;
 import picocli.CommandLine;
 
 @CommandLine.Command(name = "list-type", description = "List the existing types of asset")
-public class ListType extends LedgerClientExecutor implements Runnable {
+public class ListType extends LedgerClientExecutor implements Runnable, ContractCommand {
 
   @CommandLine.Option(
       names = {"-h", "--help"},
@@ -13,8 +14,18 @@ public class ListType extends LedgerClientExecutor implements Runnable {
       description = "display this help and exit")
   boolean help;
 
+  @Override
+  public String contractName() {
+    return ListTypeContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    return Json.createObjectBuilder().build();
+  }
+
   @Override
   public void run() {
-    executeContract(ListTypeContract.class.getCanonicalName(), Json.createObjectBuilder().build());
+    executeContract(contractName(), buildArgument());
   }
 }
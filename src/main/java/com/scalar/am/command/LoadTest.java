@@ -0,0 +1,722 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.AddAssetContract;
+import com.scalar.am.contract.AddTypeContract;
+import com.scalar.am.contract.AssetHistoryContract;
+import com.scalar.am.contract.BatchAddAssetContract;
+import com.scalar.am.contract.ListContract;
+import com.scalar.am.contract.StatusChangeContract;
+import com.scalar.am.metrics.MetricsExporter;
+import com.scalar.client.service.ClientService;
+import com.scalar.client.service.StatusCode;
+import com.scalar.rpc.ledger.ContractExecutionResponse;
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonWriter;
+import javax.json.JsonWriterFactory;
+import javax.json.stream.JsonGenerator;
+import org.HdrHistogram.Histogram;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>loadtest</em> CLI command */
+@CommandLine.Command(
+    name = "loadtest",
+    description =
+        "Execute a mix of operations on the ledger and report their throughput and latency")
+public class LoadTest extends LedgerClientExecutor implements Runnable {
+  static final String TEXT = "text";
+  static final String JSON = "json";
+  static final String UNIFORM = "uniform";
+  static final String ZIPFIAN = "zipfian";
+  private static final String SUCCESS = "success";
+  private static final int HISTORY_LIMIT = 10;
+  private static final int SETUP_BATCH_SIZE = 500;
+  // Latencies are recorded in microseconds, from 1 microsecond to 1 hour with 3 significant digits
+  private static final long HIGHEST_LATENCY = TimeUnit.HOURS.toMicros(1);
+
+  enum Operation {
+    ADD,
+    BORROW,
+    RETURN,
+    LIST,
+    HISTORY,
+    VALIDATE;
+
+    String label() {
+      return name().toLowerCase();
+    }
+  }
+
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--mix"},
+      paramLabel = "operation=weight",
+      description =
+          "the weight of an operation among add, borrow, return, list, history and validate, e.g."
+              + " : --mix borrow=3 --mix return=3 --mix history=4, by default add=5 borrow=20"
+              + " return=20 list=10 history=40 validate=5")
+  private Map<String, Integer> mix;
+
+  @CommandLine.Option(
+      names = {"--rate"},
+      description =
+          "the target number of operations per second, started on schedule whatever the latency;"
+              + " 0, the default, runs a closed loop where each worker starts an operation when"
+              + " the previous one completes",
+      defaultValue = "0")
+  private double rate;
+
+  @CommandLine.Option(
+      names = {"--concurrency"},
+      description = "the number of operations in flight at most",
+      defaultValue = "8")
+  private int concurrency;
+
+  @CommandLine.Option(
+      names = {"--duration"},
+      paramLabel = "seconds",
+      description = "how long operations are measured",
+      defaultValue = "60")
+  private int duration;
+
+  @CommandLine.Option(
+      names = {"--warmup"},
+      paramLabel = "seconds",
+      description = "how long operations are executed before being measured",
+      defaultValue = "0")
+  private int warmup;
+
+  @CommandLine.Option(
+      names = {"--type"},
+      description = "the asset type the operations apply to, created if it does not exist",
+      defaultValue = "loadtest")
+  private String type;
+
+  @CommandLine.Option(
+      names = {"--assets"},
+      description = "the number of assets of the type the operations pick from",
+      defaultValue = "1000")
+  private int assets;
+
+  @CommandLine.Option(
+      names = {"--skip-setup"},
+      description = "do not add the assets, they were added by a previous load test")
+  private boolean skipSetup;
+
+  @CommandLine.Option(
+      names = {"--distribution"},
+      description = "how assets are picked, uniform or zipfian",
+      defaultValue = UNIFORM)
+  private String distribution;
+
+  @CommandLine.Option(
+      names = {"--zipf-exponent"},
+      description = "the skew of the zipfian distribution, the higher the hotter the first assets",
+      defaultValue = "0.99")
+  private double zipfExponent;
+
+  @CommandLine.Option(
+      names = {"--seed"},
+      description = "the seed of the operation and asset choices",
+      defaultValue = "0")
+  private long seed;
+
+  @CommandLine.Option(
+      names = {"--format"},
+      description = "text or json, the format of the report printed to the standard output",
+      defaultValue = TEXT)
+  private String format;
+
+  @CommandLine.Option(
+      names = {"--output"},
+      paramLabel = "file",
+      description = "also write the report as JSON to the file")
+  private File output;
+
+  @CommandLine.Option(
+      names = {"--metrics-port"},
+      description =
+          "serve the metrics of the requests in the Prometheus format on"
+              + " http://localhost:<port>/metrics, 0 picks a free port")
+  private Integer metricsPort;
+
+  @CommandLine.Option(
+      names = {"--metrics-file"},
+      paramLabel = "file",
+      description = "write the metrics of the requests in the Prometheus format to the file")
+  private File metricsFile;
+
+  private final AtomicLong executed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong added = new AtomicLong();
+
+  @Override
+  public void run() {
+    Map<Operation, Integer> weights;
+    try {
+      weights = weights();
+    } catch (IllegalArgumentException e) {
+      err.println(e.getMessage());
+      return;
+    }
+    if (concurrency < 1) {
+      err.println("--concurrency must be at least 1");
+      return;
+    }
+    if (duration < 1 || warmup < 0) {
+      err.println("--duration must be at least 1 and --warmup at least 0");
+      return;
+    }
+    if (assets < 1) {
+      err.println("--assets must be at least 1");
+      return;
+    }
+    if (!UNIFORM.equals(distribution) && !ZIPFIAN.equals(distribution)) {
+      err.println("--distribution must be " + UNIFORM + " or " + ZIPFIAN);
+      return;
+    }
+    if (ZIPFIAN.equals(distribution) && (zipfExponent <= 0 || zipfExponent >= 1)) {
+      err.println("--zipf-exponent must be greater than 0 and less than 1");
+      return;
+    }
+    if (!TEXT.equals(format) && !JSON.equals(format)) {
+      err.println("--format must be " + TEXT + " or " + JSON);
+      return;
+    }
+
+    try (MetricsExporter exporter = exportMetrics(metricsPort, metricsFile)) {
+      executeOnLedger(
+          (clientService) -> {
+            if (!skipSetup && !setUp(clientService)) {
+              return;
+            }
+            JsonObject report = load(clientService, weights);
+            if (JSON.equals(format)) {
+              out.println(report.toString());
+            } else {
+              printReport(report);
+            }
+            if (output != null) {
+              try (Writer writer =
+                  Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(prettyJson(report));
+              }
+            }
+          });
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
+  }
+
+  /** @return the weight of every operation of the mix, in the order of {@link Operation} */
+  private Map<Operation, Integer> weights() {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    if (mix == null || mix.isEmpty()) {
+      weights.put(Operation.ADD, 5);
+      weights.put(Operation.BORROW, 20);
+      weights.put(Operation.RETURN, 20);
+      weights.put(Operation.LIST, 10);
+      weights.put(Operation.HISTORY, 40);
+      weights.put(Operation.VALIDATE, 5);
+      return weights;
+    }
+    for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+      Operation operation = null;
+      for (Operation o : Operation.values()) {
+        if (o.label().equals(entry.getKey())) {
+          operation = o;
+        }
+      }
+      if (operation == null || entry.getValue() < 0) {
+        throw new IllegalArgumentException(
+            "--mix must be <operation>=<weight>, the operation being add, borrow, return, list,"
+                + " history or validate and the weight at least 0");
+      }
+      weights.put(operation, entry.getValue());
+    }
+    if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+      throw new IllegalArgumentException("--mix must give a weight to at least one operation");
+    }
+    return weights;
+  }
+
+  /**
+   * Register the type if needed and add the assets the operations pick from, in batches. <br>
+   * Assets added by a previous load test of the same type are reported as failed by the contract
+   * and left as they are.
+   *
+   * @return false if the ledger could not be prepared
+   */
+  private boolean setUp(ClientService clientService) throws Exception {
+    JsonObject typeArgument =
+        Json.createObjectBuilder()
+            .add(AddTypeContract.NAME, type)
+            .add(AddTypeContract.TIMESTAMP, new Date().getTime())
+            .build();
+    ContractExecutionResponse typeResponse =
+        executeTimed(
+            clientService,
+            AddTypeContract.class.getCanonicalName(),
+            contractId(AddTypeContract.class),
+            typeArgument);
+    if (typeResponse.getStatus() != StatusCode.OK.get()) {
+      err.println("Could not register type " + type + ": " + typeResponse.getMessage());
+      return false;
+    }
+
+    for (int from = 0; from < assets; from += SETUP_BATCH_SIZE) {
+      JsonArrayBuilder batch = Json.createArrayBuilder();
+      for (int asset = from; asset < Math.min(assets, from + SETUP_BATCH_SIZE); asset++) {
+        batch.add(
+            Json.createObjectBuilder()
+                .add(BatchAddAssetContract.TYPE, type)
+                .add(BatchAddAssetContract.ASSET, assetName(asset))
+                .add(BatchAddAssetContract.TIMESTAMP, new Date().getTime())
+                .add(BatchAddAssetContract.ID, assetId(asset)));
+      }
+      JsonObject argument =
+          Json.createObjectBuilder().add(BatchAddAssetContract.ASSETS, batch).build();
+      ContractExecutionResponse response =
+          executeTimed(
+              clientService,
+              BatchAddAssetContract.class.getCanonicalName(),
+              contractId(BatchAddAssetContract.class),
+              argument);
+      if (response.getStatus() != StatusCode.OK.get()) {
+        err.println("Could not add the assets: " + response.getMessage());
+        return false;
+      }
+    }
+    err.println("Type " + type + " holds the " + assets + " assets of the load test");
+    return true;
+  }
+
+  /**
+   * Execute the operations with {@link #concurrency} workers for the warmup then the duration. <br>
+   * With a target rate, operation i is due at <code>start + i / rate</code>, and its latency is
+   * measured from that time rather than from when a worker could start it, so the time operations
+   * wait behind a slow one is counted: the latencies are free from coordinated omission. In a
+   * closed loop nothing is due, so the latencies are reported as measured: they leave out the
+   * operations a stall delayed, and an open loop is needed to see them.
+   */
+  private JsonObject load(ClientService clientService, Map<Operation, Integer> weights)
+      throws Exception {
+    long start = System.nanoTime();
+    long measureStart = start + TimeUnit.SECONDS.toNanos(warmup);
+    long end = measureStart + TimeUnit.SECONDS.toNanos(duration);
+    long interval = (rate > 0) ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+    AtomicLong due = new AtomicLong();
+    Picker picker =
+        UNIFORM.equals(distribution) ? new Uniform(assets) : new Zipfian(assets, zipfExponent);
+
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+    progress.scheduleAtFixedRate(
+        () ->
+            err.println(
+                String.format(
+                    "%.0f s: %d operations, %d failed",
+                    (System.nanoTime() - start) / 1e9, executed.get(), failed.get())),
+        10,
+        10,
+        TimeUnit.SECONDS);
+    List<Future<Map<Operation, Measure>>> workers = new ArrayList<>();
+    try {
+      for (int worker = 0; worker < concurrency; worker++) {
+        Random random = new Random(seed + worker);
+        workers.add(
+            executor.submit(
+                () -> {
+                  Map<Operation, Measure> measures = new EnumMap<>(Operation.class);
+                  for (Operation operation : weights.keySet()) {
+                    measures.put(operation, new Measure());
+                  }
+                  while (true) {
+                    long scheduled;
+                    if (interval > 0) {
+                      scheduled = start + due.getAndIncrement() * interval;
+                      if (scheduled >= end) {
+                        break;
+                      }
+                      long wait;
+                      while ((wait = scheduled - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                      }
+                    } else {
+                      scheduled = System.nanoTime();
+                      if (scheduled >= end) {
+                        break;
+                      }
+                    }
+                    Operation operation = pick(weights, random);
+                    long started = System.nanoTime();
+                    Outcome outcome = execute(clientService, operation, picker.next(random));
+                    long completed = System.nanoTime();
+                    executed.incrementAndGet();
+                    if (outcome == Outcome.ERROR) {
+                      failed.incrementAndGet();
+                    }
+                    if (scheduled >= measureStart) {
+                      measures
+                          .get(operation)
+                          .record(outcome, completed - scheduled, completed - started);
+                    }
+                  }
+                  return measures;
+                }));
+      }
+
+      Map<Operation, Measure> measures = new EnumMap<>(Operation.class);
+      for (Operation operation : weights.keySet()) {
+        measures.put(operation, new Measure());
+      }
+      for (Future<Map<Operation, Measure>> worker : workers) {
+        worker.get().forEach((operation, measure) -> measures.get(operation).add(measure));
+      }
+      return report(measures, (end - measureStart) / 1e9);
+    } finally {
+      progress.shutdownNow();
+      executor.shutdownNow();
+    }
+  }
+
+  private Operation pick(Map<Operation, Integer> weights, Random random) {
+    int total = 0;
+    for (int weight : weights.values()) {
+      total += weight;
+    }
+    int drawn = random.nextInt(total);
+    for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+      drawn -= entry.getValue();
+      if (drawn < 0) {
+        return entry.getKey();
+      }
+    }
+    throw new AssertionError();
+  }
+
+  /**
+   * Execute one operation on the given asset. <br>
+   * A borrow of a borrowed asset or a return of a returned one is rejected by the contract, it is a
+   * completed operation whose latency is measured like the others.
+   */
+  private Outcome execute(ClientService clientService, Operation operation, int asset) {
+    try {
+      if (operation == Operation.VALIDATE) {
+        int status = validateTimed(clientService, assetId(asset)).getStatus();
+        return (status == StatusCode.OK.get()) ? Outcome.SUCCESS : Outcome.ERROR;
+      }
+
+      ContractExecutionResponse response;
+      switch (operation) {
+        case ADD:
+          String name =
+              "loadtest-" + seed + "-" + System.nanoTime() + "-" + added.getAndIncrement();
+          response =
+              executeTimed(
+                  clientService,
+                  AddAssetContract.class.getCanonicalName(),
+                  contractId(AddAssetContract.class),
+                  Json.createObjectBuilder()
+                      .add(AddAssetContract.TYPE, type)
+                      .add(AddAssetContract.ASSET, name)
+                      .add(AddAssetContract.TIMESTAMP, new Date().getTime())
+                      .add(AddAssetContract.ID, getHashHexString(type + "_" + name))
+                      .build());
+          break;
+        case BORROW:
+        case RETURN:
+          response =
+              executeTimed(
+                  clientService,
+                  StatusChangeContract.class.getCanonicalName(),
+                  contractId(StatusChangeContract.class),
+                  Json.createObjectBuilder()
+                      .add(StatusChangeContract.ASSET_ID, assetId(asset))
+                      .add(StatusChangeContract.TIMESTAMP, new Date().getTime())
+                      .add(
+                          StatusChangeContract.STATUS,
+                          (operation == Operation.BORROW)
+                              ? StatusChangeContract.ON_LOAN
+                              : StatusChangeContract.IN_STOCK)
+                      .add(StatusChangeContract.TYPE, type)
+                      .build());
+          break;
+        case LIST:
+          response =
+              executeTimed(
+                  clientService,
+                  ListContract.class.getCanonicalName(),
+                  contractId(ListContract.class),
+                  Json.createObjectBuilder()
+                      .add(ListContract.TYPE, type)
+                      .add(ListContract.LIMIT, 100)
+                      .build());
+          break;
+        default:
+          response =
+              executeTimed(
+                  clientService,
+                  AssetHistoryContract.class.getCanonicalName(),
+                  contractId(AssetHistoryContract.class),
+                  Json.createObjectBuilder()
+                      .add(AssetHistoryContract.ID, assetId(asset))
+                      .add(AssetHistoryContract.LIMIT, HISTORY_LIMIT)
+                      .build());
+      }
+      if (response.getStatus() != StatusCode.OK.get()) {
+        return Outcome.ERROR;
+      }
+      try (JsonReader reader = Json.createReader(new StringReader(response.getResult()))) {
+        return SUCCESS.equals(reader.readObject().getString("result"))
+            ? Outcome.SUCCESS
+            : Outcome.REJECTED;
+      }
+    } catch (Exception e) {
+      return Outcome.ERROR;
+    }
+  }
+
+  private JsonObject report(Map<Operation, Measure> measures, double seconds) {
+    JsonObjectBuilder operations = Json.createObjectBuilder();
+    Measure total = new Measure();
+    for (Map.Entry<Operation, Measure> entry : measures.entrySet()) {
+      operations.add(entry.getKey().label(), entry.getValue().toJson(seconds));
+      total.add(entry.getValue());
+    }
+    JsonObjectBuilder report =
+        Json.createObjectBuilder()
+            .add("mode", (rate > 0) ? "open" : "closed")
+            .add("concurrency", concurrency)
+            .add("duration", duration)
+            .add("warmup", warmup)
+            .add("distribution", distribution)
+            .add("assets", assets);
+    if (rate > 0) {
+      report.add("rate", rate);
+    }
+    return report.add("operations", operations).add("total", total.toJson(seconds)).build();
+  }
+
+  private void printReport(JsonObject report) {
+    out.println(
+        String.format(
+            "%s loop, %d workers, %d s, %s assets",
+            report.getString("mode"), concurrency, duration, distribution + " over " + assets));
+    out.println(
+        String.format(
+            "%-10s %10s %9s %7s %10s %10s %10s %10s %10s",
+            "operation",
+            "count",
+            "rejected",
+            "errors",
+            "ops/s",
+            "p50 ms",
+            "p99 ms",
+            "p999 ms",
+            "max ms"));
+    Map<String, JsonObject> rows = new LinkedHashMap<>();
+    JsonObject operations = report.getJsonObject("operations");
+    operations.keySet().forEach(label -> rows.put(label, operations.getJsonObject(label)));
+    rows.put("total", report.getJsonObject("total"));
+    rows.forEach(
+        (label, row) -> {
+          JsonObject latency = row.getJsonObject("latency");
+          out.println(
+              String.format(
+                  "%-10s %10d %9d %7d %10.1f %10.2f %10.2f %10.2f %10.2f",
+                  label,
+                  row.getJsonNumber("count").longValue(),
+                  row.getJsonNumber("rejected").longValue(),
+                  row.getJsonNumber("errors").longValue(),
+                  row.getJsonNumber("throughput").doubleValue(),
+                  latency.getJsonNumber("p50").doubleValue(),
+                  latency.getJsonNumber("p99").doubleValue(),
+                  latency.getJsonNumber("p999").doubleValue(),
+                  latency.getJsonNumber("max").doubleValue()));
+        });
+    if (rate > 0) {
+      double achieved = report.getJsonObject("total").getJsonNumber("throughput").doubleValue();
+      if (achieved < 0.95 * rate) {
+        err.println(
+            String.format(
+                "The target rate of %.1f ops/s was not reached, raise --concurrency", rate));
+      }
+    }
+  }
+
+  private String prettyJson(JsonObject report) {
+    Map<String, Object> config = new LinkedHashMap<>();
+    config.put(JsonGenerator.PRETTY_PRINTING, true);
+    JsonWriterFactory factory = Json.createWriterFactory(config);
+    StringWriter buffer = new StringWriter();
+    try (JsonWriter writer = factory.createWriter(buffer)) {
+      writer.writeObject(report);
+    }
+    return buffer.toString();
+  }
+
+  private String contractId(Class<?> contract) throws Exception {
+    return contract.getCanonicalName() + "_" + loadClientConfig().getCertHolderId();
+  }
+
+  private String assetName(int asset) {
+    return "loadtest-" + asset;
+  }
+
+  /** @return the id of the asset, the one am add gives it */
+  private String assetId(int asset) {
+    return getHashHexString(type + "_" + assetName(asset));
+  }
+
+  private enum Outcome {
+    SUCCESS,
+    REJECTED,
+    ERROR
+  }
+
+  /** The latencies and outcomes of one operation, recorded by one worker or merged */
+  private class Measure {
+    // From the due time of the operation, i.e. what a user would see
+    private final Histogram latency = new Histogram(HIGHEST_LATENCY, 3);
+    // From the actual start of the operation, i.e. the time spent in the ledger
+    private final Histogram serviceTime = new Histogram(HIGHEST_LATENCY, 3);
+    private long rejected;
+    private long errors;
+
+    void record(Outcome outcome, long latencyNanos, long serviceTimeNanos) {
+      latency.recordValue(micros(latencyNanos));
+      serviceTime.recordValue(micros(serviceTimeNanos));
+      if (outcome == Outcome.REJECTED) {
+        rejected++;
+      } else if (outcome == Outcome.ERROR) {
+        errors++;
+      }
+    }
+
+    void add(Measure other) {
+      latency.add(other.latency);
+      serviceTime.add(other.serviceTime);
+      rejected += other.rejected;
+      errors += other.errors;
+    }
+
+    JsonObject toJson(double seconds) {
+      return Json.createObjectBuilder()
+          .add("count", latency.getTotalCount())
+          .add("rejected", rejected)
+          .add("errors", errors)
+          .add("throughput", latency.getTotalCount() / seconds)
+          .add("latency", percentiles(latency))
+          .add("serviceTime", percentiles(serviceTime))
+          .build();
+    }
+
+    /** @return the percentiles of the histogram, in milliseconds */
+    private JsonObject percentiles(Histogram histogram) {
+      boolean empty = histogram.getTotalCount() == 0;
+      return Json.createObjectBuilder()
+          .add("mean", empty ? 0 : histogram.getMean() / 1000)
+          .add("p50", histogram.getValueAtPercentile(50) / 1000.0)
+          .add("p90", histogram.getValueAtPercentile(90) / 1000.0)
+          .add("p99", histogram.getValueAtPercentile(99) / 1000.0)
+          .add("p999", histogram.getValueAtPercentile(99.9) / 1000.0)
+          .add("max", histogram.getMaxValue() / 1000.0)
+          .build();
+    }
+
+    private long micros(long nanos) {
+      return Math.min(HIGHEST_LATENCY, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+  }
+
+  interface Picker {
+    /** @return the number of the asset the next operation applies to */
+    int next(Random random);
+  }
+
+  static class Uniform implements Picker {
+    private final int items;
+
+    Uniform(int items) {
+      this.items = items;
+    }
+
+    @Override
+    public int next(Random random) {
+      return random.nextInt(items);
+    }
+  }
+
+  /**
+   * Pick asset i with a probability proportional to <code>1 / (i + 1)^exponent</code>, with the
+   * algorithm of Gray et al., "Quickly Generating Billion-Record Synthetic Databases", as YCSB
+   * does.
+   */
+  /** The YCSB generator of Zipfian-distributed items, item 0 being the most frequent */
+  static class Zipfian implements Picker {
+    private final int items;
+    private final double zipfExponent;
+    private final double alpha;
+    private final double zetan;
+    private final double eta;
+
+    Zipfian(int items, double zipfExponent) {
+      this.items = items;
+      this.zipfExponent = zipfExponent;
+      double zeta2 = zeta(2);
+      this.zetan = zeta(items);
+      this.alpha = 1 / (1 - zipfExponent);
+      this.eta = (1 - Math.pow(2.0 / items, 1 - zipfExponent)) / (1 - zeta2 / zetan);
+    }
+
+    private double zeta(int n) {
+      double sum = 0;
+      for (int i = 1; i <= n; i++) {
+        sum += 1 / Math.pow(i, zipfExponent);
+      }
+      return sum;
+    }
+
+    @Override
+    public int next(Random random) {
+      double u = random.nextDouble();
+      double uz = u * zetan;
+      if (uz < 1) {
+        return 0;
+      }
+      if (uz < 1 + Math.pow(0.5, zipfExponent)) {
+        return Math.min(1, items - 1);
+      }
+      return Math.min(items - 1, (int) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+  }
+}
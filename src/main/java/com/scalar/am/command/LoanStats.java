@@ -0,0 +1,54 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.LoanStatsContract;
+import java.util.Date;
+import javax.json.Json;
+import javax.json.JsonObject;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>loan-stats</em> CLI command */
+@CommandLine.Command(
+    name = "loan-stats",
+    description =
+        "Show the average, median, 95th percentile and longest loan durations of the type, and"
+            + " the assets on loan for too long")
+public class LoanStats extends LedgerClientExecutor implements Runnable, ContractCommand {
+  private static final long DAY = 24 * 60 * 60 * 1000L;
+
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--overdue-days"},
+      description = "the number of days after which a loan is overdue",
+      defaultValue = "14")
+  private int overdueDays;
+
+  @CommandLine.Parameters(
+      index = "0",
+      paramLabel = "asset_type",
+      description = "the asset type, e.g. : book")
+  private String type;
+
+  @Override
+  public String contractName() {
+    return LoanStatsContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    return Json.createObjectBuilder()
+        .add(LoanStatsContract.TYPE, type)
+        .add(LoanStatsContract.TIMESTAMP, new Date().getTime())
+        .add(LoanStatsContract.OVERDUE_AFTER, overdueDays * DAY)
+        .build();
+  }
+
+  @Override
+  public void run() {
+    executeContract(contractName(), buildArgument());
+  }
+}
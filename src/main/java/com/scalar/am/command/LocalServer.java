@@ -0,0 +1,109 @@
+package com.scalar.am.command;
+
+import com.scalar.am.ledger.FaultInjector;
+import com.scalar.am.ledger.InMemoryLedger;
+import com.scalar.am.ledger.LocalLedgerServer;
+import com.scalar.am.ledger.LocalLedgerService;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>local-server</em> CLI command */
+@CommandLine.Command(
+    name = "local-server",
+    description =
+        "Serve the contracts from memory in place of a Scalar DL network, for tests on one machine")
+public class LocalServer extends LedgerClientExecutor implements Runnable {
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--port"},
+      description = "the port to listen on, 0 picks a free one",
+      defaultValue = "50051")
+  private int port;
+
+  @CommandLine.Option(
+      names = {"--bind"},
+      paramLabel = "address",
+      description =
+          "the address to listen on, the loopback interface by default. The server runs the"
+              + " contracts sent by any client, so only bind it to an address trusted clients alone"
+              + " can reach")
+  private String bind;
+
+  @CommandLine.Option(
+      names = {"--latency"},
+      paramLabel = "ms",
+      description = "the delay of every execution and validation",
+      defaultValue = "0")
+  private long latency;
+
+  @CommandLine.Option(
+      names = {"--jitter"},
+      paramLabel = "ms",
+      description = "the maximum random delay added to every execution and validation",
+      defaultValue = "0")
+  private long jitter;
+
+  @CommandLine.Option(
+      names = {"--slow-rate"},
+      description = "the fraction of executions and validations delayed by --slow-latency more",
+      defaultValue = "0")
+  private double slowRate;
+
+  @CommandLine.Option(
+      names = {"--slow-latency"},
+      paramLabel = "ms",
+      description = "the delay added to the slow executions and validations",
+      defaultValue = "0")
+  private long slowLatency;
+
+  @CommandLine.Option(
+      names = {"--error-rate"},
+      description = "the fraction of executions and validations that fail",
+      defaultValue = "0")
+  private double errorRate;
+
+  @CommandLine.Option(
+      names = {"--seed"},
+      description = "the seed of the delays and failures",
+      defaultValue = "0")
+  private long seed;
+
+  @Override
+  public void run() {
+    FaultInjector faults;
+    try {
+      faults = new FaultInjector(latency, jitter, slowRate, slowLatency, errorRate, seed);
+    } catch (IllegalArgumentException e) {
+      err.println(e.getMessage());
+      return;
+    }
+    InetAddress address;
+    try {
+      address = (bind != null) ? InetAddress.getByName(bind) : InetAddress.getLoopbackAddress();
+    } catch (UnknownHostException e) {
+      err.println("Unknown address: " + bind);
+      return;
+    }
+    if (!address.isLoopbackAddress()) {
+      err.println(
+          "Warning: the local ledger runs the contracts of any client that can reach "
+              + address.getHostAddress()
+              + ", without checking their signature");
+    }
+    LocalLedgerService service = new LocalLedgerService(new InMemoryLedger(), faults);
+    try (LocalLedgerServer server = new LocalLedgerServer(address, port, service).start()) {
+      out.println(
+          "Local ledger listening on " + address.getHostAddress() + " port " + server.getPort());
+      out.flush();
+      server.awaitTermination();
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
+  }
+}
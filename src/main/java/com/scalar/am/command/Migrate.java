@@ -0,0 +1,66 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.MigrateContract;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>migrate</em> CLI command */
+@CommandLine.Command(
+    name = "migrate",
+    description =
+        "Append the latest status of the assets of a type in the compact format to their history."
+            + " Assets borrowed or returned since the compact format exists are skipped")
+public class Migrate extends LedgerClientExecutor implements Runnable {
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--chunk-size"},
+      description = "the number of type list records read per contract execution",
+      defaultValue = "500")
+  private int chunkSize;
+
+  @CommandLine.Parameters(
+      index = "0",
+      paramLabel = "asset_type",
+      description = "the asset type to migrate, e.g. : book")
+  private String type;
+
+  @Override
+  public void run() {
+    try {
+      // Each chunk is migrated in its own execution, from where the previous one stopped
+      LedgerExecutorFunction f =
+          (clientService) -> {
+            JsonValue cursor = null;
+            do {
+              JsonObjectBuilder argument =
+                  Json.createObjectBuilder()
+                      .add(MigrateContract.TYPE, type)
+                      .add(MigrateContract.LIMIT, chunkSize);
+              if (cursor != null) {
+                argument.add(MigrateContract.CURSOR, cursor);
+              }
+              Optional<JsonObject> result =
+                  callContract(
+                      clientService, MigrateContract.class.getCanonicalName(), argument.build());
+              if (!result.isPresent()) {
+                return;
+              }
+              prettyPrintJson(result.get());
+              cursor = result.get().get(MigrateContract.NEXT_CURSOR);
+            } while (cursor != null);
+          };
+      executeOnLedger(f);
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.LoansContract;
+import javax.json.Json;
+import javax.json.JsonObject;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>my-loans</em> CLI command */
+@CommandLine.Command(name = "my-loans", description = "List the assets you have on loan")
+public class MyLoans extends LedgerClientExecutor implements Runnable, ContractCommand {
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @Override
+  public String contractName() {
+    return LoansContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    return Json.createObjectBuilder().build();
+  }
+
+  @Override
+  public void run() {
+    executeContract(contractName(), buildArgument());
+  }
+}
@@ -0,0 +1,96 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.OverviewContract;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>overview</em> CLI command */
+@CommandLine.Command(
+    name = "overview",
+    description = "List the assets and their status for every type, with one contract execution")
+public class Overview extends LedgerClientExecutor implements Runnable, ContractCommand {
+  private static final String SUCCESS = "success";
+
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--limit"},
+      description = "the maximum number of assets to list per type, all of them by default",
+      defaultValue = "0")
+  private int limit;
+
+  @CommandLine.Option(
+      names = {"--type-limit"},
+      paramLabel = "type=limit",
+      description = "the maximum number of assets to list for the given type, e.g. : book=10")
+  private Map<String, Integer> typeLimits;
+
+  @CommandLine.Option(
+      names = {"--fields"},
+      split = ",",
+      paramLabel = "field",
+      description =
+          "the fields of the assets to list among id, name, timestamp, status and holderId, all"
+              + " of them by default")
+  private List<String> fields;
+
+  @Override
+  public String contractName() {
+    return OverviewContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    JsonObjectBuilder argument = Json.createObjectBuilder();
+    if (limit > 0) {
+      argument.add(OverviewContract.LIMIT, limit);
+    }
+    if (typeLimits != null) {
+      JsonObjectBuilder limits = Json.createObjectBuilder();
+      typeLimits.forEach(limits::add);
+      argument.add(OverviewContract.LIMITS, limits);
+    }
+    if (fields != null) {
+      JsonArrayBuilder fieldsBuilder = Json.createArrayBuilder();
+      fields.forEach(fieldsBuilder::add);
+      argument.add(OverviewContract.FIELDS, fieldsBuilder);
+    }
+    return argument.build();
+  }
+
+  /** Print one line per type as soon as the overview is received, so it can be piped per type */
+  @Override
+  public void run() {
+    try {
+      executeOnLedger(
+          (clientService) -> {
+            Optional<JsonObject> overview =
+                callContract(clientService, contractName(), buildArgument());
+            if (!overview.isPresent()) {
+              return;
+            }
+            if (!SUCCESS.equals(overview.get().getString("result"))) {
+              prettyPrintJson(overview.get());
+              return;
+            }
+            for (JsonObject type :
+                overview.get().getJsonArray(OverviewContract.TYPES).getValuesAs(JsonObject.class)) {
+              out.println(type.toString());
+            }
+            out.flush();
+          });
+    } catch (Exception e) {
+      e.printStackTrace(err);
+    }
+  }
+}
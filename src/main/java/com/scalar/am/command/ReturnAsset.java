@@ -1,37 +1,67 @@
 package com.scalar.am.command;
 
+import com.scalar.am.contract.BatchStatusChangeContract;
 import com.scalar.am.contract.StatusChangeContract;
 import java.util.Date;
 import javax.json.Json;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 import picocli.CommandLine;
 
 @CommandLine.Command(name = "return", description = "Return the asset")
-public class ReturnAsset extends LedgerClientExecutor implements Runnable {
+public class ReturnAsset extends LedgerClientExecutor implements Runnable, ContractCommand {
   @CommandLine.Option(
       names = {"-h", "--help"},
       usageHelp = true,
       description = "display this help and exit")
   boolean help;
 
+  @CommandLine.Option(
+      names = {"--ids"},
+      description = "the arguments are the ids of several assets, all changed or none")
+  private boolean ids;
+
   @CommandLine.Parameters(
       arity = "1..*",
       paramLabel = "arguments",
-      description = "can be <type> <name> or <id> directly.")
+      description = "can be <type> <name> or <id> directly, or <id>... with --ids.")
   private String[] arguments;
 
   @Override
-  public void run() {
-    String id =
-        (arguments.length == 1)
-            ? arguments[0]
-            : getHashHexString(arguments[0] + "_" + arguments[1]);
-    JsonObject argument =
+  public String contractName() {
+    return ids
+        ? BatchStatusChangeContract.class.getCanonicalName()
+        : StatusChangeContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    if (ids) {
+      JsonArrayBuilder assetIds = Json.createArrayBuilder();
+      for (String id : arguments) {
+        assetIds.add(id);
+      }
+      return Json.createObjectBuilder()
+          .add(BatchStatusChangeContract.ASSET_IDS, assetIds)
+          .add(BatchStatusChangeContract.TIMESTAMP, new Date().getTime())
+          .add(BatchStatusChangeContract.STATUS, BatchStatusChangeContract.IN_STOCK)
+          .build();
+    }
+    JsonObjectBuilder builder =
         Json.createObjectBuilder()
-            .add(StatusChangeContract.ASSET_ID, id)
+            .add(StatusChangeContract.ASSET_ID, getAssetId(arguments))
             .add(StatusChangeContract.TIMESTAMP, new Date().getTime())
-            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
-            .build();
-    executeContract(StatusChangeContract.class.getCanonicalName(), argument);
+            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK);
+    if (arguments.length > 1) {
+      // Lets the contract find the status index of assets registered without their type
+      builder.add(StatusChangeContract.TYPE, arguments[0]);
+    }
+    return builder.build();
+  }
+
+  @Override
+  public void run() {
+    executeContract(contractName(), buildArgument());
   }
 }
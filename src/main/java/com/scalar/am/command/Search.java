@@ -0,0 +1,59 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.SearchContract;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>search</em> CLI command */
+@CommandLine.Command(
+    name = "search",
+    description = "List the assets of the type whose name starts with the prefix, ignoring case")
+public class Search extends LedgerClientExecutor implements Runnable, ContractCommand {
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Option(
+      names = {"--limit"},
+      description = "the maximum number of assets to list, all of them by default",
+      defaultValue = "0")
+  private int limit;
+
+  @CommandLine.Parameters(
+      index = "0",
+      paramLabel = "asset_type",
+      description = "the asset type, e.g. : book")
+  private String type;
+
+  @CommandLine.Parameters(
+      index = "1",
+      paramLabel = "prefix",
+      description = "the beginning of the asset name, e.g. : hum")
+  private String prefix;
+
+  @Override
+  public String contractName() {
+    return SearchContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    JsonObjectBuilder argument =
+        Json.createObjectBuilder()
+            .add(SearchContract.TYPE, type)
+            .add(SearchContract.PREFIX, prefix);
+    if (limit > 0) {
+      argument.add(SearchContract.LIMIT, limit);
+    }
+    return argument.build();
+  }
+
+  @Override
+  public void run() {
+    executeContract(contractName(), buildArgument());
+  }
+}
@@ -0,0 +1,39 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.StatsContract;
+import javax.json.Json;
+import javax.json.JsonObject;
+import picocli.CommandLine;
+
+/** This class defines the behaviour of <em>stats</em> CLI command */
+@CommandLine.Command(
+    name = "stats",
+    description = "Count the assets of the type, in total, in stock and on loan")
+public class Stats extends LedgerClientExecutor implements Runnable, ContractCommand {
+  @CommandLine.Option(
+      names = {"-h", "--help"},
+      usageHelp = true,
+      description = "display this help and exit")
+  boolean help;
+
+  @CommandLine.Parameters(
+      index = "0",
+      paramLabel = "asset_type",
+      description = "the asset type, e.g. : book")
+  private String type;
+
+  @Override
+  public String contractName() {
+    return StatsContract.class.getCanonicalName();
+  }
+
+  @Override
+  public JsonObject buildArgument() {
+    return Json.createObjectBuilder().add(StatsContract.TYPE, type).build();
+  }
+
+  @Override
+  public void run() {
+    executeContract(contractName(), buildArgument());
+  }
+}
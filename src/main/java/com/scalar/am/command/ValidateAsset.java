@@ -18,13 +18,13 @@ public class ValidateAsset extends LedgerClientExecutor implements Runnable {
       description = "the asset <type> <name> or <id> directly")
   private String[] arguments;
 
+  /** @return the id of the asset to validate */
+  String assetId() {
+    return getAssetId(arguments);
+  }
+
   @Override
   public void run() {
-    String id =
-        (arguments.length == 1)
-            ? arguments[0]
-            : getHashHexString(arguments[0] + "_" + arguments[1]);
-
-    validateAsset(id);
+    validateAsset(assetId());
   }
 }
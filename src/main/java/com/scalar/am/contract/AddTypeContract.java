@@ -2,17 +2,39 @@ package com.scalar.am.contract;
 
 import com.scalar.ledger.asset.Asset;
 import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.database.AssetFilter;
 import com.scalar.ledger.exception.ContractContextException;
 import com.scalar.ledger.ledger.Ledger;
 import java.util.Optional;
 import javax.json.Json;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 
 public class AddTypeContract extends Contract {
 
   public static final String NAME = "name";
   public static final String TYPE = "type";
+  public static final String TYPES = "types";
+  public static final String AGE = "age";
+  public static final String TIMESTAMP = "timestamp";
   public static final String HOLDER_ID = "holderId";
+  public static final String ASSETS = "assets";
+  public static final String SHARDS = "shards";
+  public static final int MAX_SHARDS = 256;
+  public static final String INDEX_SUFFIX = "#index";
+  public static final String STATS_SUFFIX = "#stats";
+  public static final String CHANGES_SUFFIX = "#changes";
+  public static final String DURATIONS_SUFFIX = "#durations";
+  public static final String NAMES_SUFFIX = "#names";
+  public static final String BUCKETS = "buckets";
+  public static final String COUNT = "count";
+  public static final String SUM = "sum";
+  public static final String MAX = "max";
+  public static final String COUNTS = "counts";
+  public static final String TOTAL = "total";
+  public static final String IN_STOCK = "in-stock";
+  public static final String ON_LOAN = "on-loan";
 
   private static final String RESULT = "result";
   private static final String SUCCESS = "success";
@@ -30,6 +52,18 @@ public class AddTypeContract extends Contract {
 
     String holderId = property.get().getString(HOLDER_ID);
     String name = argument.getString(NAME);
+    int shards = argument.getInt(SHARDS, 1);
+    if (shards < 1 || shards > MAX_SHARDS) {
+      throw new ContractContextException("wrong argument.");
+    }
+
+    // The keys of a type are <type>#<suffix>, which a name holding # could collide with
+    if (name.contains("#")) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "Type name " + name + " can not contain #.")
+          .build();
+    }
 
     Optional<Asset> type = ledger.get(holderId + "-" + name);
     if (type.isPresent()) {
@@ -39,10 +73,84 @@ public class AddTypeContract extends Contract {
           .build();
     }
 
-    ledger.put(holderId + "-" + name, Json.createObjectBuilder().build());
+    /*
+     * The index of a list key is split into buckets of key: <type>#index#<bucket>, the bucket of an
+     * asset being chosen from its id, so that a status change rewrites the entries of one bucket
+     * instead of every asset of the type. The record of key: <type>#index only holds
+     * { "buckets": N }. The index starts with one bucket, and AddAssetContract adds one whenever a
+     * bucket grows past MAX_BUCKET_ENTRIES entries, so that the buckets follow the number of assets.
+     */
+    JsonObject emptyIndex = Json.createObjectBuilder().add(BUCKETS, 1).build();
+    JsonObject emptyChanges =
+        Json.createObjectBuilder().add(ASSETS, Json.createObjectBuilder()).build();
+    JsonObject emptyStats =
+        Json.createObjectBuilder().add(TOTAL, 0).add(IN_STOCK, 0).add(ON_LOAN, 0).build();
+    JsonObject emptyDurations =
+        Json.createObjectBuilder()
+            .add(COUNT, 0)
+            .add(SUM, 0)
+            .add(MAX, 0)
+            .add(COUNTS, Json.createArrayBuilder())
+            .build();
+    if (shards == 1) {
+      ledger.put(holderId + "-" + name, Json.createObjectBuilder().build());
+      ledger.put(holderId + "-" + name + INDEX_SUFFIX, emptyIndex);
+      ledger.put(holderId + "-" + name + STATS_SUFFIX, emptyStats);
+      ledger.put(holderId + "-" + name + CHANGES_SUFFIX, emptyChanges);
+      ledger.put(holderId + "-" + name + DURATIONS_SUFFIX, emptyDurations);
+    } else {
+      // The assets are listed in keys: <type>#0 ... <type>#N-1, each with its index, counters,
+      // change log and loan durations
+      ledger.put(holderId + "-" + name, Json.createObjectBuilder().add(SHARDS, shards).build());
+      for (int shard = 0; shard < shards; shard++) {
+        ledger.put(holderId + "-" + name + "#" + shard, Json.createObjectBuilder().build());
+        ledger.put(holderId + "-" + name + "#" + shard + INDEX_SUFFIX, emptyIndex);
+        ledger.put(holderId + "-" + name + "#" + shard + STATS_SUFFIX, emptyStats);
+        ledger.put(holderId + "-" + name + "#" + shard + CHANGES_SUFFIX, emptyChanges);
+        ledger.put(holderId + "-" + name + "#" + shard + DURATIONS_SUFFIX, emptyDurations);
+      }
+    }
+    // The names are indexed per type, whatever the shard of the assets
+    ledger.put(
+        holderId + "-" + name + NAMES_SUFFIX,
+        Json.createObjectBuilder().add(BUCKETS, Json.createArrayBuilder()).build());
+
+    /*
+     * Each record of key: type holds the name of the type it registers, and the snapshot of all the
+     * registered types so that they are listed with one read, e.g. { "name": "phone", "types": [ {
+     * "name": "book", "age": 0, "timestamp": ... }, { "name": "phone", "age": 1, "timestamp": ... }
+     * ] }. Records written before the snapshot only hold the name, their history is read once to
+     * build it.
+     */
+    Optional<Asset> registry = ledger.get(holderId + "-" + TYPE);
+    JsonArrayBuilder typesBuilder = Json.createArrayBuilder();
+    int age = 0;
+    if (registry.isPresent()) {
+      age = registry.get().age() + 1;
+      JsonObject data = registry.get().data();
+      if (data.containsKey(TYPES)) {
+        data.getJsonArray(TYPES).forEach(typesBuilder::add);
+      } else {
+        for (Asset history : ledger.scan(new AssetFilter(holderId + "-" + TYPE))) {
+          typesBuilder.add(
+              Json.createObjectBuilder()
+                  .add(NAME, history.data().getString(NAME))
+                  .add(AGE, history.age()));
+        }
+      }
+    }
+
+    JsonObjectBuilder newTypeBuilder = Json.createObjectBuilder().add(NAME, name).add(AGE, age);
+    if (argument.containsKey(TIMESTAMP)) {
+      newTypeBuilder.add(TIMESTAMP, argument.getJsonNumber(TIMESTAMP).longValue());
+    }
+    if (shards > 1) {
+      newTypeBuilder.add(SHARDS, shards);
+    }
+    typesBuilder.add(newTypeBuilder);
 
-    JsonObject newType = Json.createObjectBuilder().add(NAME, name).build();
-    ledger.get(holderId + "-" + TYPE);
+    JsonObject newType =
+        Json.createObjectBuilder().add(NAME, name).add(TYPES, typesBuilder).build();
     ledger.put(holderId + "-" + TYPE, newType);
 
     return Json.createObjectBuilder()
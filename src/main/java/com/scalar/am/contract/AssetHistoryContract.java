@@ -5,6 +5,7 @@ import com.scalar.ledger.contract.Contract;
 import com.scalar.ledger.database.AssetFilter;
 import com.scalar.ledger.exception.ContractContextException;
 import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import javax.json.Json;
@@ -20,6 +21,24 @@ public class AssetHistoryContract extends Contract {
   public static final String AGE = "age";
   public static final String HISTORY = "history";
   public static final String HOLDER_ID = "holderId";
+  public static final String START_AGE = "start_age";
+  public static final String END_AGE = "end_age";
+  public static final String START_TIMESTAMP = "start_timestamp";
+  public static final String END_TIMESTAMP = "end_timestamp";
+  public static final String LIMIT = "limit";
+  public static final String ORDER = "order";
+  public static final String ASC = "asc";
+  public static final String DESC = "desc";
+  public static final String TYPE = "type";
+  public static final String SHARD = "shard";
+  public static final String ON_LOAN = "on-loan";
+  public static final String IN_STOCK = "in-stock";
+  public static final String VERSION = "v";
+  public static final String V2_HOLDER_ID = "h";
+  public static final String V2_TIMESTAMP = "t";
+  public static final String V2_STATUS = "s";
+  public static final String V2_TYPE = "y";
+  public static final String V2_SHARD = "k";
 
   private static final String RESULT = "result";
   private static final String SUCCESS = "success";
@@ -38,10 +57,85 @@ public class AssetHistoryContract extends Contract {
     String holderId = property.get().getString(HOLDER_ID);
     String id = argument.getString(ID);
 
-    AssetFilter filter = new AssetFilter(holderId + "-" + id);
-    List<Asset> borrowingHistory = ledger.scan(filter);
+    /*
+     * The age bounds, the order and the limit are given to the scan. Timestamps are not part of
+     * the filter, but the records of an asset are written in time order, so timestamp bounds are
+     * turned into age bounds by a binary search over the ages, reading one record per step, before
+     * the range is scanned. Records out of the timestamp bounds are still skipped, and the range is
+     * then read chunk by chunk until the limit is reached.
+     */
+    boolean descending = DESC.equals(argument.getString(ORDER, ASC));
+    int startAge = argument.getInt(START_AGE, 0);
+    int endAge = argument.getInt(END_AGE, Integer.MAX_VALUE);
+    long startTimestamp =
+        argument.containsKey(START_TIMESTAMP)
+            ? argument.getJsonNumber(START_TIMESTAMP).longValue()
+            : Long.MIN_VALUE;
+    long endTimestamp =
+        argument.containsKey(END_TIMESTAMP)
+            ? argument.getJsonNumber(END_TIMESTAMP).longValue()
+            : Long.MAX_VALUE;
+    int limit = argument.getInt(LIMIT, 0);
+    boolean timeBounded =
+        argument.containsKey(START_TIMESTAMP) || argument.containsKey(END_TIMESTAMP);
+    boolean bounded =
+        timeBounded || argument.containsKey(START_AGE) || argument.containsKey(END_AGE);
 
-    if (borrowingHistory.isEmpty()) {
+    String key = holderId + "-" + id;
+    if (timeBounded) {
+      Optional<Asset> latest = ledger.get(key);
+      if (!latest.isPresent()) {
+        return Json.createObjectBuilder()
+            .add(RESULT, FAILURE)
+            .add(MESSAGE, "This asset is not registered")
+            .build();
+      }
+      endAge = Math.min(endAge, latest.get().age());
+      if (startTimestamp > Long.MIN_VALUE) {
+        startAge = firstAgeAfter(ledger, key, startAge, endAge, startTimestamp - 1);
+      }
+      if (endTimestamp < Long.MAX_VALUE) {
+        endAge = firstAgeAfter(ledger, key, startAge, endAge, endTimestamp) - 1;
+      }
+    }
+
+    List<Asset> borrowingHistory = new ArrayList<>();
+    while (startAge <= endAge) {
+      AssetFilter filter =
+          new AssetFilter(key)
+              .withStartAge(startAge, true)
+              .withAgeOrder(descending ? AssetFilter.AgeOrder.DESC : AssetFilter.AgeOrder.ASC);
+      if (endAge != Integer.MAX_VALUE) {
+        filter.withEndAge(endAge, true);
+      }
+      if (limit > 0) {
+        filter.withLimit(limit);
+      }
+      List<Asset> chunk = ledger.scan(filter);
+
+      for (Asset history : chunk) {
+        long timestamp = decode(history.data()).getJsonNumber(TIMESTAMP).longValue();
+        if (timestamp >= startTimestamp && timestamp <= endTimestamp) {
+          borrowingHistory.add(history);
+          if (borrowingHistory.size() == limit) {
+            break;
+          }
+        }
+      }
+
+      if (!timeBounded || limit <= 0 || chunk.size() < limit || borrowingHistory.size() == limit) {
+        break;
+      }
+      // Continue after the last scanned record
+      int lastAge = chunk.get(chunk.size() - 1).age();
+      if (descending) {
+        endAge = lastAge - 1;
+      } else {
+        startAge = lastAge + 1;
+      }
+    }
+
+    if (borrowingHistory.isEmpty() && !timeBounded && (!bounded || !ledger.get(key).isPresent())) {
       return Json.createObjectBuilder()
           .add(RESULT, FAILURE)
           .add(MESSAGE, "This asset is not registered")
@@ -49,15 +143,16 @@ public class AssetHistoryContract extends Contract {
     }
 
     JsonArrayBuilder builder = Json.createArrayBuilder();
-    JsonObjectBuilder borrowingRecordBuilder = Json.createObjectBuilder();
     for (Asset history : borrowingHistory) {
+      JsonObject data = decode(history.data());
+      JsonObjectBuilder borrowingRecordBuilder = Json.createObjectBuilder();
       borrowingRecordBuilder
-          .add(TIMESTAMP, history.data().getJsonNumber(TIMESTAMP).longValue())
-          .add(STATUS, history.data().getString(STATUS))
+          .add(TIMESTAMP, data.getJsonNumber(TIMESTAMP).longValue())
+          .add(STATUS, data.getString(STATUS))
           .add(AGE, history.age());
 
-      if (history.data().containsKey(HOLDER_ID)) {
-        borrowingRecordBuilder.add(HOLDER_ID, history.data().getString(HOLDER_ID));
+      if (data.containsKey(HOLDER_ID)) {
+        borrowingRecordBuilder.add(HOLDER_ID, data.getString(HOLDER_ID));
       }
       builder.add(borrowingRecordBuilder.build());
     }
@@ -68,4 +163,50 @@ public class AssetHistoryContract extends Contract {
         .add(HISTORY, builder.build())
         .build();
   }
+
+  /**
+   * @return the first age from <code>startAge</code> to <code>endAge</code> whose record was
+   *     written after <code>timestamp</code>, or <code>endAge + 1</code> if there is none
+   */
+  private int firstAgeAfter(Ledger ledger, String key, int startAge, int endAge, long timestamp) {
+    int low = startAge;
+    int high = endAge + 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      List<Asset> record =
+          ledger.scan(new AssetFilter(key).withStartAge(middle, true).withEndAge(middle, true));
+      if (record.isEmpty()
+          || decode(record.get(0).data()).getJsonNumber(TIMESTAMP).longValue() <= timestamp) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @return the status record in its original form, e.g. { "holderId": ..., "timestamp": ...,
+   *     "status": "on-loan", "type": ..., "shard": ... }, whether it was written in it or in the
+   *     compact form of version 2
+   */
+  private JsonObject decode(JsonObject data) {
+    if (data.getInt(VERSION, 1) < 2) {
+      return data;
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    if (data.containsKey(V2_HOLDER_ID)) {
+      builder.add(HOLDER_ID, data.getString(V2_HOLDER_ID));
+    }
+    builder
+        .add(TIMESTAMP, data.getJsonNumber(V2_TIMESTAMP).longValue())
+        .add(STATUS, data.getInt(V2_STATUS) == 1 ? ON_LOAN : IN_STOCK);
+    if (data.containsKey(V2_TYPE)) {
+      builder.add(TYPE, data.getString(V2_TYPE));
+    }
+    if (data.containsKey(V2_SHARD)) {
+      builder.add(SHARD, data.getInt(V2_SHARD));
+    }
+    return builder.build();
+  }
 }
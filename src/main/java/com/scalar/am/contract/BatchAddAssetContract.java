@@ -0,0 +1,561 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+public class BatchAddAssetContract extends Contract {
+
+  public static final String ASSETS = "assets";
+  public static final String ASSET = "asset";
+  public static final String TIMESTAMP = "timestamp";
+  public static final String ID = "id";
+  public static final String NAME = "name";
+  public static final String STATUS = "status";
+  public static final String TYPE = "type";
+  public static final String HOLDER_ID = "holderId";
+  public static final String AGE = "age";
+  public static final String SHARDS = "shards";
+  public static final String SHARD = "shard";
+  public static final String INDEX_SUFFIX = "#index";
+  public static final String STATS_SUFFIX = "#stats";
+  public static final String CHANGES_SUFFIX = "#changes";
+  public static final String NAMES_SUFFIX = "#names";
+  public static final String BUCKETS = "buckets";
+  public static final String SPLIT = "split";
+  public static final int BUCKET_LENGTH = 3;
+  public static final int MAX_BUCKET_ENTRIES = 256;
+  public static final String TOTAL = "total";
+  public static final int AGGREGATE_SHARDS = 16;
+  public static final String RESULTS = "results";
+  public static final String ADDED = "added";
+  public static final String FAILED = "failed";
+  public static final int MAX_ASSETS = 1000;
+  public static final String VERSION = "v";
+  public static final String V2_HOLDER_ID = "h";
+  public static final String V2_TIMESTAMP = "t";
+  public static final String V2_STATUS = "s";
+  public static final String V2_TYPE = "y";
+  public static final String V2_SHARD = "k";
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+  private static final String IN_STOCK = "in-stock";
+  private static final String ON_LOAN = "on-loan";
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!(argument.get(ASSETS) instanceof JsonArray)) {
+      throw new ContractContextException("wrong argument.");
+    }
+    JsonArray assets = argument.getJsonArray(ASSETS);
+    if (assets.isEmpty() || assets.size() > MAX_ASSETS) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+
+    /*
+     * Each key is read and written at most once per execution: the header of every distinct type,
+     * then the list key and index of every shard assets are added to. The assets added to the same
+     * list key are written as one record { "assets": [ { "id": ..., "name": ... }, ... ] }, which
+     * readers of the list treat as several assets sharing the same age.
+     */
+    Map<String, Optional<Asset>> types = new HashMap<>();
+    Map<String, Optional<Asset>> lists = new HashMap<>();
+    Map<String, List<JsonObject>> added = new LinkedHashMap<>();
+    Map<String, Map<String, String>> addedNames = new LinkedHashMap<>();
+    Set<String> ids = new HashSet<>();
+    JsonArrayBuilder results = Json.createArrayBuilder();
+    int addedCount = 0;
+
+    for (JsonValue value : assets) {
+      if (value.getValueType() != JsonValue.ValueType.OBJECT) {
+        results.add(failure(null, "wrong argument."));
+        continue;
+      }
+      JsonObject entry = (JsonObject) value;
+      if (!(entry.get(ASSET) instanceof JsonString)
+          || !(entry.get(TIMESTAMP) instanceof JsonNumber)
+          || !(entry.get(TYPE) instanceof JsonString)
+          || !(entry.get(ID) instanceof JsonString)) {
+        results.add(failure(entry.getString(ID, null), "wrong argument."));
+        continue;
+      }
+
+      String type = entry.getString(TYPE);
+      String id = entry.getString(ID);
+      Optional<Asset> typeAsset =
+          types.computeIfAbsent(type, (name) -> ledger.get(holderId + "-" + name));
+      if (!typeAsset.isPresent()) {
+        results.add(failure(id, "Type " + type + " not found. Use am add-type to create it."));
+        continue;
+      }
+      if (!ids.add(id)) {
+        results.add(failure(id, "This asset is already in the batch."));
+        continue;
+      }
+      if (ledger.get(holderId + "-" + id).isPresent()) {
+        results.add(failure(id, "This asset is already registered."));
+        continue;
+      }
+
+      int shards = typeAsset.get().data().getInt(SHARDS, 1);
+      int shard = Math.floorMod(id.hashCode(), shards);
+      String listKey = (shards > 1) ? holderId + "-" + type + "#" + shard : holderId + "-" + type;
+      Optional<Asset> listAsset =
+          lists.computeIfAbsent(listKey, (key) -> (shards > 1) ? ledger.get(key) : typeAsset);
+      if (!listAsset.isPresent()) {
+        results.add(failure(id, "Shard " + shard + " of type " + type + " not found."));
+        continue;
+      }
+
+      JsonObjectBuilder statusBuilder =
+          Json.createObjectBuilder()
+              .add(TIMESTAMP, entry.getJsonNumber(TIMESTAMP).longValue())
+              .add(STATUS, IN_STOCK)
+              .add(TYPE, type);
+      if (shards > 1) {
+        statusBuilder.add(SHARD, shard);
+      }
+      ledger.put(holderId + "-" + id, encode(statusBuilder.build()));
+
+      added.computeIfAbsent(listKey, (key) -> new ArrayList<>()).add(entry);
+      addedNames
+          .computeIfAbsent(type, (key) -> new LinkedHashMap<>())
+          .put(id, entry.getString(ASSET));
+      results.add(Json.createObjectBuilder().add(ID, id).add(RESULT, SUCCESS));
+      addedCount++;
+    }
+
+    for (Map.Entry<String, List<JsonObject>> list : added.entrySet()) {
+      String listKey = list.getKey();
+      List<JsonObject> entries = list.getValue();
+      int age = lists.get(listKey).get().age() + 1;
+
+      // A single asset is written the same way as AddAssetContract does
+      if (entries.size() == 1) {
+        ledger.put(
+            listKey,
+            Json.createObjectBuilder()
+                .add(ID, entries.get(0).getString(ID))
+                .add(NAME, entries.get(0).getString(ASSET))
+                .build());
+      } else {
+        JsonArrayBuilder names = Json.createArrayBuilder();
+        for (JsonObject entry : entries) {
+          names.add(
+              Json.createObjectBuilder()
+                  .add(ID, entry.getString(ID))
+                  .add(NAME, entry.getString(ASSET)));
+        }
+        ledger.put(listKey, Json.createObjectBuilder().add(ASSETS, names).build());
+      }
+
+      Optional<Asset> index = ledger.get(listKey + INDEX_SUFFIX);
+      if (index.isPresent()) {
+        Map<String, JsonObject> indexed = new LinkedHashMap<>();
+        for (JsonObject entry : entries) {
+          JsonObject indexEntry =
+              Json.createObjectBuilder()
+                  .add(NAME, entry.getString(ASSET))
+                  .add(AGE, age)
+                  .add(TIMESTAMP, entry.getJsonNumber(TIMESTAMP).longValue())
+                  .add(STATUS, IN_STOCK)
+                  .build();
+          indexed.put(entry.getString(ID), indexEntry);
+        }
+        putIndexEntries(ledger, listKey + INDEX_SUFFIX, index.get().data(), indexed);
+        appendChanges(ledger, listKey + CHANGES_SUFFIX, new LinkedHashMap<>(indexed));
+      }
+      List<String> listed = new ArrayList<>();
+      entries.forEach((entry) -> listed.add(entry.getString(ID)));
+      updateStats(ledger, listKey + STATS_SUFFIX, listed, 1, 1, 0);
+    }
+    // The names are indexed per type, whatever the shard of the assets
+    addedNames.forEach(
+        (type, typeNames) -> updateNames(ledger, holderId + "-" + type + NAMES_SUFFIX, typeNames));
+
+    return Json.createObjectBuilder()
+        .add(RESULT, SUCCESS)
+        .add(MESSAGE, addedCount + " of " + assets.size() + " assets put.")
+        .add(ADDED, addedCount)
+        .add(FAILED, assets.size() - addedCount)
+        .add(RESULTS, results)
+        .build();
+  }
+
+  /**
+   * Put the given entries into the status index of a list key. Only the buckets of the given assets
+   * are written, or the index record itself if it was built before the index was split into
+   * buckets. The index grows by one bucket when a bucket written holds more than MAX_BUCKET_ENTRIES
+   * entries, so that the buckets stay small whatever the number of assets of the type.
+   */
+  private void putIndexEntries(
+      Ledger ledger, String indexKey, JsonObject index, Map<String, JsonObject> entries) {
+    if (!index.containsKey(BUCKETS)) {
+      JsonObjectBuilder assets = Json.createObjectBuilder();
+      index.getJsonObject(ASSETS).forEach(assets::add);
+      entries.forEach(assets::add);
+      JsonObjectBuilder recordBuilder = Json.createObjectBuilder();
+      index.forEach(recordBuilder::add);
+      ledger.put(indexKey, recordBuilder.add(ASSETS, assets).build());
+      return;
+    }
+
+    int buckets = index.getInt(BUCKETS);
+    Map<Integer, Map<String, JsonValue>> loaded = new TreeMap<>();
+    Set<Integer> written = new TreeSet<>();
+    entries.forEach(
+        (id, entry) -> {
+          int bucket = indexBucket(id, buckets);
+          loadBucket(ledger, indexKey, loaded, bucket).put(id, entry);
+          written.add(bucket);
+        });
+    int newBuckets = splitBuckets(ledger, indexKey, loaded, written, buckets, entries.size());
+    putBuckets(ledger, indexKey, loaded, written);
+    if (newBuckets != buckets) {
+      JsonObjectBuilder indexBuilder = Json.createObjectBuilder();
+      index.forEach(indexBuilder::add);
+      ledger.put(indexKey, indexBuilder.add(BUCKETS, newBuckets).build());
+    }
+  }
+
+  /**
+   * Add buckets to an index while one of the loaded buckets holds more than MAX_BUCKET_ENTRIES
+   * entries, at most maxSplits times. The buckets are split in turn as in linear hashing: the
+   * entries of the bucket next to split are shared between it and the bucket added after the last
+   * one, and the entries of the other buckets stay where they are. The buckets changed are added to
+   * <code>written</code>.
+   *
+   * @return the new number of buckets
+   */
+  private int splitBuckets(
+      Ledger ledger,
+      String indexKey,
+      Map<Integer, Map<String, JsonValue>> loaded,
+      Set<Integer> written,
+      int buckets,
+      int maxSplits) {
+    for (int splits = 0;
+        splits < maxSplits
+            && loaded.values().stream().anyMatch((b) -> b.size() > MAX_BUCKET_ENTRIES);
+        splits++) {
+      int split = buckets - Integer.highestOneBit(buckets);
+      Map<String, JsonValue> moved = new LinkedHashMap<>();
+      Iterator<Map.Entry<String, JsonValue>> entries =
+          loadBucket(ledger, indexKey, loaded, split).entrySet().iterator();
+      while (entries.hasNext()) {
+        Map.Entry<String, JsonValue> entry = entries.next();
+        if (indexBucket(entry.getKey(), buckets + 1) != split) {
+          moved.put(entry.getKey(), entry.getValue());
+          entries.remove();
+        }
+      }
+      loaded.put(buckets, moved);
+      written.add(split);
+      written.add(buckets);
+      buckets++;
+    }
+    return buckets;
+  }
+
+  /** Write the given buckets of an index from their loaded entries. */
+  private void putBuckets(
+      Ledger ledger,
+      String indexKey,
+      Map<Integer, Map<String, JsonValue>> loaded,
+      Set<Integer> written) {
+    for (int bucket : written) {
+      JsonObjectBuilder assets = Json.createObjectBuilder();
+      loaded.get(bucket).forEach(assets::add);
+      ledger.put(indexKey + "#" + bucket, Json.createObjectBuilder().add(ASSETS, assets).build());
+    }
+  }
+
+  /**
+   * @return the entries of a bucket of the index, read once per execution and kept in <code>loaded
+   *     </code>, where they are updated before the bucket is written
+   */
+  private Map<String, JsonValue> loadBucket(
+      Ledger ledger, String indexKey, Map<Integer, Map<String, JsonValue>> loaded, int bucket) {
+    return loaded.computeIfAbsent(
+        bucket,
+        (b) -> {
+          Map<String, JsonValue> assets = new LinkedHashMap<>();
+          Optional<Asset> entries = ledger.get(indexKey + "#" + b);
+          if (entries.isPresent()) {
+            assets.putAll(entries.get().data().getJsonObject(ASSETS));
+          }
+          return assets;
+        });
+  }
+
+  /**
+   * @return the bucket of the index entry of an asset among the given number of buckets. The
+   *     buckets are addressed as in linear hashing: an asset is in bucket hash mod 2^k, or hash mod
+   *     2^(k-1) if that bucket is not split yet, where 2^(k-1) <= buckets < 2^k. The bits of the
+   *     hash are reversed, so that the bucket does not follow the shard chosen from the hash
+   *     itself.
+   */
+  private int indexBucket(String id, int buckets) {
+    int hash = Integer.reverse(id.hashCode() * 0x9E3779B9) >>> 1;
+    int half = Integer.highestOneBit(buckets);
+    int bucket = hash % (half * 2);
+    return bucket < buckets ? bucket : hash % half;
+  }
+
+  private JsonObjectBuilder failure(String id, String message) {
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    if (id != null) {
+      builder.add(ID, id);
+    }
+    return builder.add(RESULT, FAILURE).add(MESSAGE, message);
+  }
+
+  /**
+   * @return the key of the shard of an aggregate record that an asset is counted in: <key>#<shard>.
+   *     The counters, change logs, loan durations and loans are split into AGGREGATE_SHARDS shards
+   *     chosen from the asset ids, so that changes of different assets seldom write the same
+   *     record. The readers merge the shards.
+   */
+  private String aggregateKey(String key, String id) {
+    return key + "#" + ((id.hashCode() * 0x9E3779B9) >>> 16) % AGGREGATE_SHARDS;
+  }
+
+  /** @return the given values of assets grouped by the shard of key: key they are counted in */
+  private <T> Map<String, Map<String, T>> byAggregateShard(String key, Map<String, T> values) {
+    Map<String, Map<String, T>> shards = new TreeMap<>();
+    values.forEach(
+        (id, value) ->
+            shards
+                .computeIfAbsent(aggregateKey(key, id), (shardKey) -> new LinkedHashMap<>())
+                .put(id, value));
+    return shards;
+  }
+
+  /**
+   * Add the given numbers to the counters of a list key for each of the given assets. The numbers
+   * are added to the shards of key: <type>#stats#<shard> the assets are counted in, and the record
+   * of key: <type>#stats keeps the counters as they were built. <br>
+   * Nothing is done if the type has no counters yet, they are then built with its index.
+   */
+  private void updateStats(
+      Ledger ledger, String statsKey, Collection<String> ids, int total, int inStock, int onLoan) {
+    if (!ledger.get(statsKey).isPresent()) {
+      return;
+    }
+    Map<String, Integer> counts = new TreeMap<>();
+    ids.forEach((id) -> counts.merge(aggregateKey(statsKey, id), 1, Integer::sum));
+    counts.forEach(
+        (shardKey, count) -> {
+          Optional<JsonObject> stats = ledger.get(shardKey).map(Asset::data);
+          ledger.put(
+              shardKey,
+              Json.createObjectBuilder()
+                  .add(TOTAL, stats.map((data) -> data.getInt(TOTAL)).orElse(0) + count * total)
+                  .add(
+                      IN_STOCK,
+                      stats.map((data) -> data.getInt(IN_STOCK)).orElse(0) + count * inStock)
+                  .add(
+                      ON_LOAN, stats.map((data) -> data.getInt(ON_LOAN)).orElse(0) + count * onLoan)
+                  .build());
+        });
+  }
+
+  /**
+   * Record the new index entries of the changed assets in the change log of a list key, split into
+   * the shards of key: <type>#changes#<shard> the assets are counted in, whose ages order the
+   * changes for ChangesContract. Nothing is done if the type has no change log yet.
+   */
+  private void appendChanges(Ledger ledger, String changesKey, Map<String, JsonValue> assets) {
+    if (!ledger.get(changesKey).isPresent()) {
+      return;
+    }
+    byAggregateShard(changesKey, assets)
+        .forEach(
+            (shardKey, entries) -> {
+              JsonObjectBuilder assetsBuilder = Json.createObjectBuilder();
+              entries.forEach(assetsBuilder::add);
+              ledger.put(shardKey, Json.createObjectBuilder().add(ASSETS, assetsBuilder).build());
+            });
+  }
+
+  /**
+   * Add the names of new assets to the name buckets of their type, and register the buckets that
+   * did not exist yet in the record of key: namesKey. <br>
+   * Nothing is done if the type has no name index yet, it is then built with its status index.
+   */
+  private void updateNames(Ledger ledger, String namesKey, Map<String, String> names) {
+    Optional<Asset> directory = ledger.get(namesKey);
+    if (!directory.isPresent()) {
+      return;
+    }
+    putNames(ledger, namesKey, directory.get().data(), names);
+  }
+
+  /**
+   * Add names to the name buckets of key: namesKey#<bucket>, and write the record of key: namesKey
+   * if buckets were added. A bucket holding more than MAX_BUCKET_ENTRIES names is split: its names
+   * move to the buckets one character longer, except those as long as its own prefix, and it is
+   * listed under `split` so that the names added later go to the longer buckets as well, e.g. {
+   * "buckets": [ "hum", "huma", "humb" ], "split": [ "hum" ] }.
+   */
+  private void putNames(
+      Ledger ledger, String namesKey, JsonObject directory, Map<String, String> names) {
+    Set<String> buckets = new TreeSet<>();
+    Set<String> split = new TreeSet<>();
+    if (directory.containsKey(BUCKETS)) {
+      directory
+          .getJsonArray(BUCKETS)
+          .getValuesAs(JsonString.class)
+          .forEach((bucket) -> buckets.add(bucket.getString()));
+    }
+    if (directory.containsKey(SPLIT)) {
+      directory
+          .getJsonArray(SPLIT)
+          .getValuesAs(JsonString.class)
+          .forEach((bucket) -> split.add(bucket.getString()));
+    }
+    int listed = buckets.size() + split.size();
+
+    Map<String, Map<String, String>> loaded = new TreeMap<>();
+    names.forEach(
+        (id, name) ->
+            loadNames(ledger, namesKey, loaded, buckets, bucket(name, split)).put(id, name));
+
+    boolean splitting = true;
+    while (splitting) {
+      splitting = false;
+      for (String bucket : new ArrayList<>(loaded.keySet())) {
+        Map<String, String> entries = loaded.get(bucket);
+        if (entries.size() <= MAX_BUCKET_ENTRIES
+            || entries.values().stream()
+                .noneMatch((name) -> normalize(name).length() > bucket.length())) {
+          continue;
+        }
+        split.add(bucket);
+        Iterator<Map.Entry<String, String>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+          Map.Entry<String, String> entry = iterator.next();
+          String longer = bucket(entry.getValue(), split);
+          if (!longer.equals(bucket)) {
+            loadNames(ledger, namesKey, loaded, buckets, longer)
+                .put(entry.getKey(), entry.getValue());
+            iterator.remove();
+          }
+        }
+        splitting = true;
+      }
+    }
+
+    loaded.forEach(
+        (bucket, entries) -> {
+          JsonObjectBuilder assets = Json.createObjectBuilder();
+          entries.forEach(assets::add);
+          ledger.put(
+              namesKey + "#" + bucket, Json.createObjectBuilder().add(ASSETS, assets).build());
+        });
+    if (!directory.containsKey(BUCKETS) || buckets.size() + split.size() != listed) {
+      JsonArrayBuilder bucketsBuilder = Json.createArrayBuilder();
+      buckets.forEach(bucketsBuilder::add);
+      JsonObjectBuilder directoryBuilder = Json.createObjectBuilder().add(BUCKETS, bucketsBuilder);
+      if (!split.isEmpty()) {
+        JsonArrayBuilder splitBuilder = Json.createArrayBuilder();
+        split.forEach(splitBuilder::add);
+        directoryBuilder.add(SPLIT, splitBuilder);
+      }
+      ledger.put(namesKey, directoryBuilder.build());
+    }
+  }
+
+  /** @return the names of a bucket by id, read from the ledger the first time if it is listed */
+  private Map<String, String> loadNames(
+      Ledger ledger,
+      String namesKey,
+      Map<String, Map<String, String>> loaded,
+      Set<String> buckets,
+      String bucket) {
+    Map<String, String> entries = loaded.get(bucket);
+    if (entries == null) {
+      entries = new LinkedHashMap<>();
+      if (buckets.contains(bucket)) {
+        Optional<Asset> current = ledger.get(namesKey + "#" + bucket);
+        if (current.isPresent()) {
+          JsonObject assets = current.get().data().getJsonObject(ASSETS);
+          for (String id : assets.keySet()) {
+            entries.put(id, assets.getString(id));
+          }
+        }
+      }
+      buckets.add(bucket);
+      loaded.put(bucket, entries);
+    }
+    return entries;
+  }
+
+  private String normalize(String name) {
+    return name.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * @return the bucket of a name, its first BUCKET_LENGTH characters once trimmed and lower-cased,
+   *     one character longer for each split bucket it starts with
+   */
+  private String bucket(String name, Set<String> split) {
+    String normalized = normalize(name);
+    String bucket = normalized.substring(0, Math.min(BUCKET_LENGTH, normalized.length()));
+    while (split.contains(bucket) && normalized.length() > bucket.length()) {
+      bucket = normalized.substring(0, bucket.length() + 1);
+    }
+    return bucket;
+  }
+
+  /**
+   * @return the status record in the compact form of version 2, e.g. { "v": 2, "h": ..., "t": ...,
+   *     "s": 1, "y": ..., "k": ... }, the status being coded as 0 for in-stock and 1 for on-loan
+   */
+  private JsonObject encode(JsonObject data) {
+    JsonObjectBuilder builder = Json.createObjectBuilder().add(VERSION, 2);
+    if (data.containsKey(HOLDER_ID)) {
+      builder.add(V2_HOLDER_ID, data.getString(HOLDER_ID));
+    }
+    builder
+        .add(V2_TIMESTAMP, data.getJsonNumber(TIMESTAMP).longValue())
+        .add(V2_STATUS, ON_LOAN.equals(data.getString(STATUS)) ? 1 : 0);
+    if (data.containsKey(TYPE)) {
+      builder.add(V2_TYPE, data.getString(TYPE));
+    }
+    if (data.containsKey(SHARD)) {
+      builder.add(V2_SHARD, data.getInt(SHARD));
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,578 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+public class BatchStatusChangeContract extends Contract {
+
+  public static final String ASSET_IDS = "asset_ids";
+  public static final String TIMESTAMP = "timestamp";
+  public static final String STATUS = "status";
+  public static final String HOLDER_ID = "holderId";
+  public static final String TYPE = "type";
+  public static final String TYPES = "types";
+  public static final String ID = "id";
+  public static final String NAME = "name";
+  public static final String AGE = "age";
+  public static final String ASSETS = "assets";
+  public static final String SHARD = "shard";
+  public static final String BLOCKED = "blocked";
+  public static final String INDEX_SUFFIX = "#index";
+  public static final String BUCKETS = "buckets";
+  public static final String STATS_SUFFIX = "#stats";
+  public static final String CHANGES_SUFFIX = "#changes";
+  public static final String DURATIONS_SUFFIX = "#durations";
+  public static final String COUNT = "count";
+  public static final String SUM = "sum";
+  public static final String MAX = "max";
+  public static final String COUNTS = "counts";
+  public static final String LOANS_SUFFIX = "#loans";
+  public static final int AGGREGATE_SHARDS = 16;
+  public static final String TOTAL = "total";
+  public static final int MAX_ASSETS = 100;
+  public static final String VERSION = "v";
+  public static final String V2_HOLDER_ID = "h";
+  public static final String V2_TIMESTAMP = "t";
+  public static final String V2_STATUS = "s";
+  public static final String V2_TYPE = "y";
+  public static final String V2_SHARD = "k";
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+
+  private static final long HOUR = 60 * 60 * 1000L;
+  private static final long DAY = 24 * HOUR;
+  // The upper bounds of the buckets of the loan durations histogram, in milliseconds
+  private static final long[] DURATION_BOUNDS = {
+    HOUR, 4 * HOUR, 12 * HOUR, DAY, 2 * DAY, 3 * DAY, 5 * DAY, 7 * DAY, 10 * DAY, 14 * DAY,
+    21 * DAY, 30 * DAY, 45 * DAY, 60 * DAY, 90 * DAY, 180 * DAY, 365 * DAY
+  };
+
+  public static final String ON_LOAN = "on-loan";
+  public static final String IN_STOCK = "in-stock";
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!(argument.get(ASSET_IDS) instanceof JsonArray)
+        || !argument.containsKey(STATUS)
+        || !argument.containsKey(TIMESTAMP)) {
+      throw new ContractContextException("wrong argument.");
+    }
+    JsonArray assetIds = argument.getJsonArray(ASSET_IDS);
+    String newStatus = argument.getString(STATUS);
+    if (assetIds.isEmpty()
+        || assetIds.size() > MAX_ASSETS
+        || !(ON_LOAN.equals(newStatus) || IN_STOCK.equals(newStatus))) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+    long timestamp = argument.getJsonNumber(TIMESTAMP).longValue();
+    // Records written before the status index existed do not know their type
+    String defaultType = argument.getString(TYPE, null);
+    List<String> typeNames = null; // read once, if an asset of unknown type is met
+
+    /*
+     * Every asset is checked with the rules of StatusChangeContract before anything is written, so
+     * that either all of them change status or none does and the blocking ones are reported.
+     */
+    Map<String, JsonObject> newRecords = new LinkedHashMap<>();
+    Map<String, String> indexKeys = new LinkedHashMap<>();
+    Map<String, Long> durations = new HashMap<>();
+    JsonArrayBuilder blocked = Json.createArrayBuilder();
+    boolean isBlocked = false;
+    for (JsonValue value : assetIds) {
+      if (value.getValueType() != JsonValue.ValueType.STRING) {
+        throw new ContractContextException("wrong argument.");
+      }
+      String id = ((JsonString) value).getString();
+      String message = null;
+
+      Optional<Asset> asset =
+          newRecords.containsKey(id) ? Optional.empty() : ledger.get(holderId + "-" + id);
+      JsonObject data = asset.isPresent() ? decode(asset.get().data()) : null;
+      if (newRecords.containsKey(id)) {
+        message = "Asset is listed twice.";
+      } else if (data == null) {
+        message = "Asset not found.";
+      } else if (!data.containsKey(STATUS)) {
+        message = String.format("%s is not an asset", id);
+      } else if (data.getString(STATUS).equals(newStatus)) {
+        message =
+            String.format(
+                "Asset is already %s.", ON_LOAN.equals(newStatus) ? "borrowed" : "returned");
+      } else if (IN_STOCK.equals(newStatus) && !data.containsKey(HOLDER_ID)) {
+        message = "Can not return asset without holderId";
+      } else if (IN_STOCK.equals(newStatus) && !data.getString(HOLDER_ID).equals(holderId)) {
+        message = "Can not return asset borrowed by another user";
+      }
+      if (message != null) {
+        blocked.add(Json.createObjectBuilder().add(ID, id).add(MESSAGE, message));
+        isBlocked = true;
+        continue;
+      }
+
+      JsonObjectBuilder newDataBuilder = Json.createObjectBuilder();
+      if (ON_LOAN.equals(newStatus)) {
+        newDataBuilder.add(HOLDER_ID, holderId);
+      }
+      newDataBuilder.add(TIMESTAMP, timestamp).add(STATUS, newStatus);
+      String type = data.getString(TYPE, defaultType);
+      if (type == null) {
+        // Found in the index holding the asset, the new record holds it
+        if (typeNames == null) {
+          typeNames = typeNames(ledger, holderId);
+        }
+        type = findIndexedType(ledger, holderId, id, typeNames);
+      }
+      if (type != null) {
+        newDataBuilder.add(TYPE, type);
+        // Assets of a sharded type are listed in key: <type>#<shard>
+        String listKey = holderId + "-" + type;
+        if (data.containsKey(SHARD)) {
+          listKey = listKey + "#" + data.getInt(SHARD);
+        }
+        indexKeys.put(id, listKey + INDEX_SUFFIX);
+      }
+      if (data.containsKey(SHARD)) {
+        newDataBuilder.add(SHARD, data.getInt(SHARD));
+      }
+      newRecords.put(id, newDataBuilder.build());
+      if (IN_STOCK.equals(newStatus)) {
+        // The current record was written when the asset was borrowed
+        durations.put(id, Math.max(0, timestamp - data.getJsonNumber(TIMESTAMP).longValue()));
+      }
+    }
+
+    if (isBlocked) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "No asset changed, some of them can not be changed.")
+          .add(BLOCKED, blocked)
+          .build();
+    }
+
+    newRecords.forEach((id, newData) -> ledger.put(holderId + "-" + id, encode(newData)));
+    updateLoans(ledger, holderId + "-" + holderId + LOANS_SUFFIX, newRecords);
+
+    // Assets sharing an index are updated with one write of it
+    Map<String, Map<String, JsonObject>> indexes = new LinkedHashMap<>();
+    indexKeys.forEach(
+        (id, indexKey) ->
+            indexes
+                .computeIfAbsent(indexKey, (key) -> new LinkedHashMap<>())
+                .put(id, newRecords.get(id)));
+    indexes.forEach(
+        (indexKey, changes) -> {
+          JsonObject changed = updateIndex(ledger, indexKey, changes);
+          String listKey = indexKey.substring(0, indexKey.length() - INDEX_SUFFIX.length());
+          if (!changed.isEmpty()) {
+            appendChanges(ledger, listKey + CHANGES_SUFFIX, changed);
+          }
+          int borrowed = ON_LOAN.equals(newStatus) ? 1 : -1;
+          updateStats(ledger, listKey + STATS_SUFFIX, changes.keySet(), 0, -borrowed, borrowed);
+          if (IN_STOCK.equals(newStatus)) {
+            Map<String, Long> returned = new LinkedHashMap<>();
+            changes.keySet().forEach((id) -> returned.put(id, durations.get(id)));
+            updateDurations(ledger, listKey + DURATIONS_SUFFIX, returned);
+          }
+        });
+
+    return Json.createObjectBuilder()
+        .add(RESULT, SUCCESS)
+        .add(
+            MESSAGE,
+            newRecords.size() + " assets " + (ON_LOAN.equals(newStatus) ? "borrowed" : "returned"))
+        .build();
+  }
+
+  /**
+   * @return the names of the types registered by the holder, read from the snapshot of the latest
+   *     record of key: type, or from its history if it was written before the snapshot
+   */
+  private List<String> typeNames(Ledger ledger, String holderId) {
+    List<String> names = new ArrayList<>();
+    Optional<Asset> registry = ledger.get(holderId + "-" + TYPE);
+    if (!registry.isPresent()) {
+      return names;
+    }
+    if (registry.get().data().containsKey(TYPES)) {
+      for (JsonObject t : registry.get().data().getJsonArray(TYPES).getValuesAs(JsonObject.class)) {
+        names.add(t.getString(NAME));
+      }
+    } else {
+      for (Asset history : ledger.scan(new AssetFilter(holderId + "-" + TYPE))) {
+        names.add(history.data().getString(NAME));
+      }
+    }
+    return names;
+  }
+
+  /**
+   * @return the type whose status index holds the asset, or null if none does. Only the bucket of
+   *     the asset is read in the index of each type. Sharded types are left out, their assets are
+   *     always registered with their type.
+   */
+  private String findIndexedType(Ledger ledger, String holderId, String id, List<String> names) {
+    for (String name : names) {
+      String indexKey = holderId + "-" + name + INDEX_SUFFIX;
+      Optional<Asset> index = ledger.get(indexKey);
+      if (!index.isPresent()) {
+        continue;
+      }
+      String bucketKey = indexBucketKey(indexKey, index.get().data(), id);
+      Optional<JsonObject> bucket =
+          bucketKey.equals(indexKey)
+              ? Optional.of(index.get().data())
+              : ledger.get(bucketKey).map(Asset::data);
+      if (bucket.isPresent() && bucket.get().getJsonObject(ASSETS).containsKey(id)) {
+        return name;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Add the borrowed assets to the loans of the holder and remove the returned ones. The loans are
+   * kept in the shards of key: <holderId>#loans#<shard> the assets are counted in, and the loans
+   * recorded in key: <holderId>#loans before it was sharded are removed from it when returned.
+   */
+  private void updateLoans(Ledger ledger, String loansKey, Map<String, JsonObject> newRecords) {
+    Optional<Asset> unsharded = ledger.get(loansKey);
+    if (unsharded.isPresent()) {
+      JsonObject assets = unsharded.get().data().getJsonObject(ASSETS);
+      if (newRecords.keySet().stream().anyMatch(assets::containsKey)) {
+        JsonObjectBuilder assetsBuilder = Json.createObjectBuilder();
+        assets.forEach(
+            (key, value) -> {
+              if (!newRecords.containsKey(key)) {
+                assetsBuilder.add(key, value);
+              }
+            });
+        ledger.put(loansKey, Json.createObjectBuilder().add(ASSETS, assetsBuilder).build());
+      }
+    }
+
+    for (Map.Entry<String, Map<String, JsonObject>> shard :
+        byAggregateShard(loansKey, newRecords).entrySet()) {
+      Map<String, JsonObject> records = shard.getValue();
+      Optional<Asset> loans = ledger.get(shard.getKey());
+      JsonObjectBuilder assetsBuilder = Json.createObjectBuilder();
+      if (loans.isPresent()) {
+        loans
+            .get()
+            .data()
+            .getJsonObject(ASSETS)
+            .forEach(
+                (key, value) -> {
+                  if (!records.containsKey(key)) {
+                    assetsBuilder.add(key, value);
+                  }
+                });
+      }
+      boolean borrowed = false;
+      for (Map.Entry<String, JsonObject> record : records.entrySet()) {
+        JsonObject newData = record.getValue();
+        if (!ON_LOAN.equals(newData.getString(STATUS))) {
+          continue;
+        }
+        JsonObjectBuilder entryBuilder =
+            Json.createObjectBuilder().add(TIMESTAMP, newData.getJsonNumber(TIMESTAMP).longValue());
+        if (newData.containsKey(TYPE)) {
+          entryBuilder.add(TYPE, newData.getString(TYPE));
+        }
+        assetsBuilder.add(record.getKey(), entryBuilder);
+        borrowed = true;
+      }
+      if (loans.isPresent() || borrowed) {
+        ledger.put(shard.getKey(), Json.createObjectBuilder().add(ASSETS, assetsBuilder).build());
+      }
+    }
+  }
+
+  /**
+   * Update the entries of the assets in the status index of their type. <br>
+   * Nothing is done if the type has no index, and assets not indexed yet are skipped, in which case
+   * the index build will read their latest status. Only the buckets of the assets are read and
+   * written, or the index record itself if it was built before the index was split into buckets.
+   *
+   * @return the new entries of the assets that were updated
+   */
+  private JsonObject updateIndex(Ledger ledger, String indexKey, Map<String, JsonObject> changes) {
+    JsonObjectBuilder changedBuilder = Json.createObjectBuilder();
+    Optional<Asset> index = ledger.get(indexKey);
+    if (!index.isPresent()) {
+      return changedBuilder.build();
+    }
+
+    // Assets sharing a bucket are updated with one write of it
+    Map<String, Map<String, JsonObject>> buckets = new TreeMap<>();
+    changes.forEach(
+        (id, newData) ->
+            buckets
+                .computeIfAbsent(
+                    indexBucketKey(indexKey, index.get().data(), id),
+                    (key) -> new LinkedHashMap<>())
+                .put(id, newData));
+
+    for (Map.Entry<String, Map<String, JsonObject>> bucketChanges : buckets.entrySet()) {
+      String bucketKey = bucketChanges.getKey();
+      Optional<JsonObject> bucket =
+          bucketKey.equals(indexKey)
+              ? Optional.of(index.get().data())
+              : ledger.get(bucketKey).map(Asset::data);
+      if (!bucket.isPresent()) {
+        continue;
+      }
+      JsonObject assets = bucket.get().getJsonObject(ASSETS);
+
+      JsonObjectBuilder assetsBuilder = Json.createObjectBuilder();
+      assets.forEach(assetsBuilder::add);
+      boolean changed = false;
+      for (Map.Entry<String, JsonObject> change : bucketChanges.getValue().entrySet()) {
+        String id = change.getKey();
+        if (!assets.containsKey(id)) {
+          continue;
+        }
+        JsonObject entry = assets.getJsonObject(id);
+        JsonObject newData = change.getValue();
+        JsonObjectBuilder entryBuilder =
+            Json.createObjectBuilder()
+                .add(NAME, entry.getString(NAME))
+                .add(AGE, entry.getInt(AGE))
+                .add(TIMESTAMP, newData.getJsonNumber(TIMESTAMP).longValue())
+                .add(STATUS, newData.getString(STATUS));
+        if (newData.containsKey(HOLDER_ID)) {
+          entryBuilder.add(HOLDER_ID, newData.getString(HOLDER_ID));
+        }
+        JsonObject newEntry = entryBuilder.build();
+        assetsBuilder.add(id, newEntry);
+        changedBuilder.add(id, newEntry);
+        changed = true;
+      }
+      if (!changed) {
+        continue;
+      }
+
+      JsonObjectBuilder bucketBuilder = Json.createObjectBuilder();
+      bucket.get().forEach(bucketBuilder::add);
+      ledger.put(bucketKey, bucketBuilder.add(ASSETS, assetsBuilder).build());
+    }
+    return changedBuilder.build();
+  }
+
+  /**
+   * @return the key of the shard of an aggregate record that an asset is counted in: <key>#<shard>.
+   *     The counters, change logs, loan durations and loans are split into AGGREGATE_SHARDS shards
+   *     chosen from the asset ids, so that changes of different assets seldom write the same
+   *     record. The readers merge the shards.
+   */
+  private String aggregateKey(String key, String id) {
+    return key + "#" + ((id.hashCode() * 0x9E3779B9) >>> 16) % AGGREGATE_SHARDS;
+  }
+
+  /** @return the given values of assets grouped by the shard of key: key they are counted in */
+  private <T> Map<String, Map<String, T>> byAggregateShard(String key, Map<String, T> values) {
+    Map<String, Map<String, T>> shards = new TreeMap<>();
+    values.forEach(
+        (id, value) ->
+            shards
+                .computeIfAbsent(aggregateKey(key, id), (shardKey) -> new LinkedHashMap<>())
+                .put(id, value));
+    return shards;
+  }
+
+  /**
+   * @return the key holding the index entry of an asset, <indexKey>#<bucket> for an index split
+   *     into buckets, or the index key itself for an index built before
+   */
+  private String indexBucketKey(String indexKey, JsonObject index, String id) {
+    if (!index.containsKey(BUCKETS)) {
+      return indexKey;
+    }
+    return indexKey + "#" + indexBucket(id, index.getInt(BUCKETS));
+  }
+
+  /**
+   * @return the bucket of the index entry of an asset among the given number of buckets. The
+   *     buckets are addressed as in linear hashing: an asset is in bucket hash mod 2^k, or hash mod
+   *     2^(k-1) if that bucket is not split yet, where 2^(k-1) <= buckets < 2^k. The bits of the
+   *     hash are reversed, so that the bucket does not follow the shard chosen from the hash
+   *     itself.
+   */
+  private int indexBucket(String id, int buckets) {
+    int hash = Integer.reverse(id.hashCode() * 0x9E3779B9) >>> 1;
+    int half = Integer.highestOneBit(buckets);
+    int bucket = hash % (half * 2);
+    return bucket < buckets ? bucket : hash % half;
+  }
+
+  /**
+   * Add the given numbers to the counters of a list key for each of the given assets. The numbers
+   * are added to the shards of key: <type>#stats#<shard> the assets are counted in, and the record
+   * of key: <type>#stats keeps the counters as they were built. <br>
+   * Nothing is done if the type has no counters yet, they are then built with its index.
+   */
+  private void updateStats(
+      Ledger ledger, String statsKey, Collection<String> ids, int total, int inStock, int onLoan) {
+    if (!ledger.get(statsKey).isPresent()) {
+      return;
+    }
+    Map<String, Integer> counts = new TreeMap<>();
+    ids.forEach((id) -> counts.merge(aggregateKey(statsKey, id), 1, Integer::sum));
+    counts.forEach(
+        (shardKey, count) -> {
+          Optional<JsonObject> stats = ledger.get(shardKey).map(Asset::data);
+          ledger.put(
+              shardKey,
+              Json.createObjectBuilder()
+                  .add(TOTAL, stats.map((data) -> data.getInt(TOTAL)).orElse(0) + count * total)
+                  .add(
+                      IN_STOCK,
+                      stats.map((data) -> data.getInt(IN_STOCK)).orElse(0) + count * inStock)
+                  .add(
+                      ON_LOAN, stats.map((data) -> data.getInt(ON_LOAN)).orElse(0) + count * onLoan)
+                  .build());
+        });
+  }
+
+  /**
+   * Record the new index entries of the changed assets in the change log of a list key, split into
+   * the shards of key: <type>#changes#<shard> the assets are counted in, whose ages order the
+   * changes for ChangesContract. Nothing is done if the type has no change log yet.
+   */
+  private void appendChanges(Ledger ledger, String changesKey, Map<String, JsonValue> assets) {
+    if (!ledger.get(changesKey).isPresent()) {
+      return;
+    }
+    byAggregateShard(changesKey, assets)
+        .forEach(
+            (shardKey, entries) -> {
+              JsonObjectBuilder assetsBuilder = Json.createObjectBuilder();
+              entries.forEach(assetsBuilder::add);
+              ledger.put(shardKey, Json.createObjectBuilder().add(ASSETS, assetsBuilder).build());
+            });
+  }
+
+  /**
+   * @return the status record in the compact form of version 2, e.g. { "v": 2, "h": ..., "t": ...,
+   *     "s": 1, "y": ..., "k": ... }, the status being coded as 0 for in-stock and 1 for on-loan
+   */
+  private JsonObject encode(JsonObject data) {
+    JsonObjectBuilder builder = Json.createObjectBuilder().add(VERSION, 2);
+    if (data.containsKey(HOLDER_ID)) {
+      builder.add(V2_HOLDER_ID, data.getString(HOLDER_ID));
+    }
+    builder
+        .add(V2_TIMESTAMP, data.getJsonNumber(TIMESTAMP).longValue())
+        .add(V2_STATUS, ON_LOAN.equals(data.getString(STATUS)) ? 1 : 0);
+    if (data.containsKey(TYPE)) {
+      builder.add(V2_TYPE, data.getString(TYPE));
+    }
+    if (data.containsKey(SHARD)) {
+      builder.add(V2_SHARD, data.getInt(SHARD));
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return the status record in its original form, e.g. { "holderId": ..., "timestamp": ...,
+   *     "status": "on-loan", "type": ..., "shard": ... }, whether it was written in it or in the
+   *     compact form of version 2
+   */
+  private JsonObject decode(JsonObject data) {
+    if (data.getInt(VERSION, 1) < 2) {
+      return data;
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    if (data.containsKey(V2_HOLDER_ID)) {
+      builder.add(HOLDER_ID, data.getString(V2_HOLDER_ID));
+    }
+    builder
+        .add(TIMESTAMP, data.getJsonNumber(V2_TIMESTAMP).longValue())
+        .add(STATUS, data.getInt(V2_STATUS) == 1 ? ON_LOAN : IN_STOCK);
+    if (data.containsKey(V2_TYPE)) {
+      builder.add(TYPE, data.getString(V2_TYPE));
+    }
+    if (data.containsKey(V2_SHARD)) {
+      builder.add(SHARD, data.getInt(V2_SHARD));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Add the durations of returned loans to the histogram of a list key, kept in the shards of key:
+   * <type>#durations#<shard> the assets are counted in, whose bucket i counts the loans of at most
+   * DURATION_BOUNDS[i] milliseconds and last bucket the longer ones. <br>
+   * Nothing is done if the type has no histogram yet, it is then started with its index.
+   */
+  private void updateDurations(Ledger ledger, String durationsKey, Map<String, Long> durations) {
+    if (!ledger.get(durationsKey).isPresent()) {
+      return;
+    }
+    for (Map.Entry<String, Map<String, Long>> shard :
+        byAggregateShard(durationsKey, durations).entrySet()) {
+      Optional<Asset> histogram = ledger.get(shard.getKey());
+      long[] newCounts = new long[DURATION_BOUNDS.length + 1];
+      long count = 0;
+      long sum = 0;
+      long max = 0;
+      if (histogram.isPresent()) {
+        JsonObject data = histogram.get().data();
+        JsonArray counts = data.getJsonArray(COUNTS);
+        for (int i = 0; i < counts.size(); i++) {
+          newCounts[i] = counts.getJsonNumber(i).longValue();
+        }
+        count = data.getJsonNumber(COUNT).longValue();
+        sum = data.getJsonNumber(SUM).longValue();
+        max = data.getJsonNumber(MAX).longValue();
+      }
+      for (long duration : shard.getValue().values()) {
+        int bucket = 0;
+        while (bucket < DURATION_BOUNDS.length && duration > DURATION_BOUNDS[bucket]) {
+          bucket++;
+        }
+        newCounts[bucket]++;
+        count++;
+        sum += duration;
+        max = Math.max(max, duration);
+      }
+
+      JsonArrayBuilder countsBuilder = Json.createArrayBuilder();
+      for (long bucketCount : newCounts) {
+        countsBuilder.add(bucketCount);
+      }
+      ledger.put(
+          shard.getKey(),
+          Json.createObjectBuilder()
+              .add(COUNT, count)
+              .add(SUM, sum)
+              .add(MAX, max)
+              .add(COUNTS, countsBuilder)
+              .build());
+    }
+  }
+}
@@ -0,0 +1,604 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+public class BuildStatusIndexContract extends Contract {
+
+  public static final String TYPE = "type";
+  public static final String LIMIT = "limit";
+  public static final String ID = "id";
+  public static final String NAME = "name";
+  public static final String AGE = "age";
+  public static final String TIMESTAMP = "timestamp";
+  public static final String STATUS = "status";
+  public static final String HOLDER_ID = "holderId";
+  public static final String ASSETS = "assets";
+  public static final String BUILDING = "building";
+  public static final String COMPLETED = "completed";
+  public static final String INDEXED = "indexed";
+  public static final String SHARDS = "shards";
+  public static final String INDEX_SUFFIX = "#index";
+  public static final int MAX_BUCKET_ENTRIES = 256;
+  public static final int AGGREGATE_SHARDS = 16;
+  public static final String STATS_SUFFIX = "#stats";
+  public static final String CHANGES_SUFFIX = "#changes";
+  public static final String DURATIONS_SUFFIX = "#durations";
+  public static final String NAMES_SUFFIX = "#names";
+  public static final String BUCKETS = "buckets";
+  public static final String SPLIT = "split";
+  public static final int BUCKET_LENGTH = 3;
+  public static final String COUNT = "count";
+  public static final String SUM = "sum";
+  public static final String MAX = "max";
+  public static final String COUNTS = "counts";
+  public static final String LOANS_SUFFIX = "#loans";
+  public static final String TOTAL = "total";
+  public static final String IN_STOCK = "in-stock";
+  public static final String ON_LOAN = "on-loan";
+  public static final String SHARD = "shard";
+  public static final String VERSION = "v";
+  public static final String V2_HOLDER_ID = "h";
+  public static final String V2_TIMESTAMP = "t";
+  public static final String V2_STATUS = "s";
+  public static final String V2_TYPE = "y";
+  public static final String V2_SHARD = "k";
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!argument.containsKey(TYPE)) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+    String type = argument.getString(TYPE);
+    int limit = argument.getInt(LIMIT, 0);
+
+    Optional<Asset> typeAsset = ledger.get(holderId + "-" + type);
+    if (!typeAsset.isPresent()) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "Type " + type + " not found. Use am add-type to create it.")
+          .build();
+    }
+    int shards = typeAsset.get().data().getInt(SHARDS, 1);
+    if (shards > 1) {
+      // Sharded types were introduced after the index and are created with one per shard
+      List<JsonObject> indexes = new ArrayList<>();
+      for (int shard = 0; shard < shards; shard++) {
+        String listKey = holderId + "-" + type + "#" + shard;
+        Optional<Asset> index = ledger.get(listKey + INDEX_SUFFIX);
+        if (index.isPresent() && !index.get().data().containsKey(BUILDING)) {
+          JsonObject assets = readCompleteIndex(ledger, listKey + INDEX_SUFFIX, index.get().data());
+          buildMissingStats(ledger, holderId, type, listKey, assets);
+          indexes.add(assets);
+        }
+      }
+      if (indexes.size() == shards) {
+        putMissingNames(ledger, holderId + "-" + type, indexes);
+      }
+      return Json.createObjectBuilder()
+          .add(RESULT, SUCCESS)
+          .add(MESSAGE, "Index of type " + type + " is already built.")
+          .add(COMPLETED, true)
+          .add(INDEXED, 0)
+          .build();
+    }
+
+    /*
+     * The index is built over several executions when a limit is given. Until it is complete, it
+     * holds the age of the next type history entry to index under `building`, and the list falls
+     * back to reading the type history. Assets added or updated meanwhile are kept up to date by
+     * AddAssetContract and StatusChangeContract, so entries already indexed are not read again.
+     * The entries are written in the buckets of key: <type>#index#<bucket> chosen from their ids,
+     * and only the buckets of the assets indexed by the execution are read and written.
+     */
+    String typeKey = holderId + "-" + type;
+    String indexKey = typeKey + INDEX_SUFFIX;
+    Optional<Asset> index = ledger.get(indexKey);
+    int from = 1; // age 0 is the initial record of the type
+    int buckets = 1; // more are added while the buckets are filled
+    Map<Integer, Map<String, JsonValue>> loaded = new TreeMap<>();
+    Set<Integer> written = new TreeSet<>();
+    if (index.isPresent()) {
+      JsonObject data = index.get().data();
+      if (!data.containsKey(BUILDING)) {
+        JsonObject assets = readCompleteIndex(ledger, indexKey, data);
+        buildMissingStats(ledger, holderId, type, typeKey, assets);
+        putMissingNames(ledger, typeKey, Collections.singletonList(assets));
+        return Json.createObjectBuilder()
+            .add(RESULT, SUCCESS)
+            .add(MESSAGE, "Index of type " + type + " is already built.")
+            .add(COMPLETED, true)
+            .add(INDEXED, 0)
+            .build();
+      }
+      from = data.getInt(BUILDING);
+      if (data.containsKey(BUCKETS)) {
+        buckets = data.getInt(BUCKETS);
+      } else {
+        // The build was started before the index was split into buckets, its entries are moved
+        int bucketCount = buckets;
+        data.getJsonObject(ASSETS)
+            .forEach(
+                (id, entry) -> {
+                  int bucket = indexBucket(id, bucketCount);
+                  loadBucket(ledger, indexKey, loaded, bucket).put(id, entry);
+                  written.add(bucket);
+                });
+      }
+    }
+
+    AssetFilter filter =
+        new AssetFilter(typeKey).withStartAge(from, true).withAgeOrder(AssetFilter.AgeOrder.ASC);
+    if (limit > 0) {
+      filter.withLimit(limit);
+    }
+    List<Asset> history = ledger.scan(filter);
+
+    int indexed = 0;
+    int next = from;
+    for (Asset asset : history) {
+      next = Math.max(next, asset.age() + 1);
+      JsonObject data = asset.data();
+      // A record holds one asset, or the assets added by one BatchAddAssetContract execution
+      List<JsonObject> added = new ArrayList<>();
+      if (data.containsKey(ID)) {
+        added.add(data);
+      } else if (data.containsKey(ASSETS)) {
+        added.addAll(data.getJsonArray(ASSETS).getValuesAs(JsonObject.class));
+      }
+
+      for (JsonObject name : added) {
+        String id = name.getString(ID);
+        int bucket = indexBucket(id, buckets);
+        Map<String, JsonValue> assets = loadBucket(ledger, indexKey, loaded, bucket);
+        if (assets.containsKey(id)) {
+          continue;
+        }
+
+        Optional<Asset> borrowingStatus = ledger.get(holderId + "-" + id);
+        if (!borrowingStatus.isPresent()) {
+          continue;
+        }
+        JsonObject status = decode(borrowingStatus.get().data());
+
+        JsonObjectBuilder entryBuilder =
+            Json.createObjectBuilder()
+                .add(NAME, name.getString(NAME))
+                .add(AGE, asset.age())
+                .add(TIMESTAMP, status.getJsonNumber(TIMESTAMP).longValue())
+                .add(STATUS, status.getString(STATUS));
+        if (status.containsKey(HOLDER_ID)) {
+          entryBuilder.add(HOLDER_ID, status.getString(HOLDER_ID));
+        }
+        assets.put(id, entryBuilder.build());
+        written.add(bucket);
+        indexed++;
+      }
+    }
+
+    boolean completed = limit <= 0 || history.size() < limit;
+    int loadedEntries = loaded.values().stream().mapToInt(Map::size).sum();
+    buckets = splitBuckets(ledger, indexKey, loaded, written, buckets, loadedEntries);
+    putBuckets(ledger, indexKey, loaded, written);
+    JsonObjectBuilder indexBuilder = Json.createObjectBuilder().add(BUCKETS, buckets);
+    if (!completed) {
+      indexBuilder.add(BUILDING, next);
+    }
+    ledger.put(indexKey, indexBuilder.build());
+    if (completed) {
+      // The counters are kept up to date from now on, like the index
+      JsonObjectBuilder assetsBuilder = Json.createObjectBuilder();
+      for (int bucket = 0; bucket < buckets; bucket++) {
+        loadBucket(ledger, indexKey, loaded, bucket).forEach(assetsBuilder::add);
+      }
+      JsonObject newAssets = assetsBuilder.build();
+      putStats(ledger, typeKey, newAssets);
+      putLoans(ledger, holderId, type, newAssets);
+      putMissingRecords(ledger, typeKey);
+      putMissingNames(ledger, typeKey, Collections.singletonList(newAssets));
+    }
+
+    return Json.createObjectBuilder()
+        .add(RESULT, SUCCESS)
+        .add(MESSAGE, indexed + " assets of type " + type + " indexed.")
+        .add(COMPLETED, completed)
+        .add(INDEXED, indexed)
+        .build();
+  }
+
+  /**
+   * Build the counters and loans of a list key from the entries of its complete index if the
+   * counters are missing, and start its change log and loan durations if missing.
+   */
+  private void buildMissingStats(
+      Ledger ledger, String holderId, String type, String listKey, JsonObject assets) {
+    if (!ledger.get(listKey + STATS_SUFFIX).isPresent()) {
+      putStats(ledger, listKey, assets);
+      putLoans(ledger, holderId, type, assets);
+    }
+    putMissingRecords(ledger, listKey);
+  }
+
+  /**
+   * @return the entries of a complete status index, merged from its buckets. An index built before
+   *     the index was split into buckets is split, so that the status changes from now on rewrite
+   *     the entries of one bucket.
+   */
+  private JsonObject readCompleteIndex(Ledger ledger, String indexKey, JsonObject index) {
+    if (index.containsKey(BUCKETS)) {
+      JsonObjectBuilder assets = Json.createObjectBuilder();
+      for (int bucket = 0; bucket < index.getInt(BUCKETS); bucket++) {
+        Optional<Asset> entries = ledger.get(indexKey + "#" + bucket);
+        if (entries.isPresent()) {
+          entries.get().data().getJsonObject(ASSETS).forEach(assets::add);
+        }
+      }
+      return assets.build();
+    }
+
+    JsonObject assets = index.getJsonObject(ASSETS);
+    Map<Integer, Map<String, JsonValue>> loaded = new TreeMap<>();
+    loaded.put(0, new LinkedHashMap<>(assets));
+    Set<Integer> written = new TreeSet<>(Collections.singleton(0));
+    int buckets = splitBuckets(ledger, indexKey, loaded, written, 1, assets.size());
+    putBuckets(ledger, indexKey, loaded, written);
+    ledger.put(indexKey, Json.createObjectBuilder().add(BUCKETS, buckets).build());
+    return assets;
+  }
+
+  /**
+   * @return the entries of a bucket of the index, read once per execution and kept in <code>loaded
+   *     </code>, where they are updated before the bucket is written
+   */
+  private Map<String, JsonValue> loadBucket(
+      Ledger ledger, String indexKey, Map<Integer, Map<String, JsonValue>> loaded, int bucket) {
+    return loaded.computeIfAbsent(
+        bucket,
+        (b) -> {
+          Map<String, JsonValue> assets = new LinkedHashMap<>();
+          Optional<Asset> entries = ledger.get(indexKey + "#" + b);
+          if (entries.isPresent()) {
+            assets.putAll(entries.get().data().getJsonObject(ASSETS));
+          }
+          return assets;
+        });
+  }
+
+  /**
+   * @return the bucket of the index entry of an asset among the given number of buckets. The
+   *     buckets are addressed as in linear hashing: an asset is in bucket hash mod 2^k, or hash mod
+   *     2^(k-1) if that bucket is not split yet, where 2^(k-1) <= buckets < 2^k. The bits of the
+   *     hash are reversed, so that the bucket does not follow the shard chosen from the hash
+   *     itself.
+   */
+  private int indexBucket(String id, int buckets) {
+    int hash = Integer.reverse(id.hashCode() * 0x9E3779B9) >>> 1;
+    int half = Integer.highestOneBit(buckets);
+    int bucket = hash % (half * 2);
+    return bucket < buckets ? bucket : hash % half;
+  }
+
+  /**
+   * Add buckets to an index while one of the loaded buckets holds more than MAX_BUCKET_ENTRIES
+   * entries, at most maxSplits times. The buckets are split in turn as in linear hashing: the
+   * entries of the bucket next to split are shared between it and the bucket added after the last
+   * one, and the entries of the other buckets stay where they are. The buckets changed are added to
+   * <code>written</code>.
+   *
+   * @return the new number of buckets
+   */
+  private int splitBuckets(
+      Ledger ledger,
+      String indexKey,
+      Map<Integer, Map<String, JsonValue>> loaded,
+      Set<Integer> written,
+      int buckets,
+      int maxSplits) {
+    for (int splits = 0;
+        splits < maxSplits
+            && loaded.values().stream().anyMatch((b) -> b.size() > MAX_BUCKET_ENTRIES);
+        splits++) {
+      int split = buckets - Integer.highestOneBit(buckets);
+      Map<String, JsonValue> moved = new LinkedHashMap<>();
+      Iterator<Map.Entry<String, JsonValue>> entries =
+          loadBucket(ledger, indexKey, loaded, split).entrySet().iterator();
+      while (entries.hasNext()) {
+        Map.Entry<String, JsonValue> entry = entries.next();
+        if (indexBucket(entry.getKey(), buckets + 1) != split) {
+          moved.put(entry.getKey(), entry.getValue());
+          entries.remove();
+        }
+      }
+      loaded.put(buckets, moved);
+      written.add(split);
+      written.add(buckets);
+      buckets++;
+    }
+    return buckets;
+  }
+
+  /** Write the given buckets of an index from their loaded entries. */
+  private void putBuckets(
+      Ledger ledger,
+      String indexKey,
+      Map<Integer, Map<String, JsonValue>> loaded,
+      Set<Integer> written) {
+    for (int bucket : written) {
+      JsonObjectBuilder assets = Json.createObjectBuilder();
+      loaded.get(bucket).forEach(assets::add);
+      ledger.put(indexKey + "#" + bucket, Json.createObjectBuilder().add(ASSETS, assets).build());
+    }
+  }
+
+  /**
+   * Start the change log and the loan durations of a list key if it has none. Changes and returns
+   * are recorded in them from now on, the assets changed before are listed from the index, and the
+   * loans returned before are not counted.
+   */
+  private void putMissingRecords(Ledger ledger, String listKey) {
+    if (!ledger.get(listKey + CHANGES_SUFFIX).isPresent()) {
+      ledger.put(
+          listKey + CHANGES_SUFFIX,
+          Json.createObjectBuilder().add(ASSETS, Json.createObjectBuilder()).build());
+    }
+    if (!ledger.get(listKey + DURATIONS_SUFFIX).isPresent()) {
+      ledger.put(
+          listKey + DURATIONS_SUFFIX,
+          Json.createObjectBuilder()
+              .add(COUNT, 0)
+              .add(SUM, 0)
+              .add(MAX, 0)
+              .add(COUNTS, Json.createArrayBuilder())
+              .build());
+    }
+  }
+
+  /**
+   * Build the name index of a type from the indexes of its list keys if it has none. Assets added
+   * from now on are indexed by AddAssetContract and BatchAddAssetContract.
+   */
+  private void putMissingNames(Ledger ledger, String typeKey, List<JsonObject> indexes) {
+    if (ledger.get(typeKey + NAMES_SUFFIX).isPresent()) {
+      return;
+    }
+    Map<String, String> names = new LinkedHashMap<>();
+    for (JsonObject assets : indexes) {
+      for (String id : assets.keySet()) {
+        names.put(id, assets.getJsonObject(id).getString(NAME));
+      }
+    }
+    putNames(ledger, typeKey + NAMES_SUFFIX, Json.createObjectBuilder().build(), names);
+  }
+
+  /**
+   * Add names to the name buckets of key: namesKey#<bucket>, and write the record of key: namesKey
+   * if buckets were added. A bucket holding more than MAX_BUCKET_ENTRIES names is split: its names
+   * move to the buckets one character longer, except those as long as its own prefix, and it is
+   * listed under `split` so that the names added later go to the longer buckets as well, e.g. {
+   * "buckets": [ "hum", "huma", "humb" ], "split": [ "hum" ] }.
+   */
+  private void putNames(
+      Ledger ledger, String namesKey, JsonObject directory, Map<String, String> names) {
+    Set<String> buckets = new TreeSet<>();
+    Set<String> split = new TreeSet<>();
+    if (directory.containsKey(BUCKETS)) {
+      directory
+          .getJsonArray(BUCKETS)
+          .getValuesAs(JsonString.class)
+          .forEach((bucket) -> buckets.add(bucket.getString()));
+    }
+    if (directory.containsKey(SPLIT)) {
+      directory
+          .getJsonArray(SPLIT)
+          .getValuesAs(JsonString.class)
+          .forEach((bucket) -> split.add(bucket.getString()));
+    }
+    int listed = buckets.size() + split.size();
+
+    Map<String, Map<String, String>> loaded = new TreeMap<>();
+    names.forEach(
+        (id, name) ->
+            loadNames(ledger, namesKey, loaded, buckets, bucket(name, split)).put(id, name));
+
+    boolean splitting = true;
+    while (splitting) {
+      splitting = false;
+      for (String bucket : new ArrayList<>(loaded.keySet())) {
+        Map<String, String> entries = loaded.get(bucket);
+        if (entries.size() <= MAX_BUCKET_ENTRIES
+            || entries.values().stream()
+                .noneMatch((name) -> normalize(name).length() > bucket.length())) {
+          continue;
+        }
+        split.add(bucket);
+        Iterator<Map.Entry<String, String>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+          Map.Entry<String, String> entry = iterator.next();
+          String longer = bucket(entry.getValue(), split);
+          if (!longer.equals(bucket)) {
+            loadNames(ledger, namesKey, loaded, buckets, longer)
+                .put(entry.getKey(), entry.getValue());
+            iterator.remove();
+          }
+        }
+        splitting = true;
+      }
+    }
+
+    loaded.forEach(
+        (bucket, entries) -> {
+          JsonObjectBuilder assets = Json.createObjectBuilder();
+          entries.forEach(assets::add);
+          ledger.put(
+              namesKey + "#" + bucket, Json.createObjectBuilder().add(ASSETS, assets).build());
+        });
+    if (!directory.containsKey(BUCKETS) || buckets.size() + split.size() != listed) {
+      JsonArrayBuilder bucketsBuilder = Json.createArrayBuilder();
+      buckets.forEach(bucketsBuilder::add);
+      JsonObjectBuilder directoryBuilder = Json.createObjectBuilder().add(BUCKETS, bucketsBuilder);
+      if (!split.isEmpty()) {
+        JsonArrayBuilder splitBuilder = Json.createArrayBuilder();
+        split.forEach(splitBuilder::add);
+        directoryBuilder.add(SPLIT, splitBuilder);
+      }
+      ledger.put(namesKey, directoryBuilder.build());
+    }
+  }
+
+  /** @return the names of a bucket by id, read from the ledger the first time if it is listed */
+  private Map<String, String> loadNames(
+      Ledger ledger,
+      String namesKey,
+      Map<String, Map<String, String>> loaded,
+      Set<String> buckets,
+      String bucket) {
+    Map<String, String> entries = loaded.get(bucket);
+    if (entries == null) {
+      entries = new LinkedHashMap<>();
+      if (buckets.contains(bucket)) {
+        Optional<Asset> current = ledger.get(namesKey + "#" + bucket);
+        if (current.isPresent()) {
+          JsonObject assets = current.get().data().getJsonObject(ASSETS);
+          for (String id : assets.keySet()) {
+            entries.put(id, assets.getString(id));
+          }
+        }
+      }
+      buckets.add(bucket);
+      loaded.put(bucket, entries);
+    }
+    return entries;
+  }
+
+  private String normalize(String name) {
+    return name.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * @return the bucket of a name, its first BUCKET_LENGTH characters once trimmed and lower-cased,
+   *     one character longer for each split bucket it starts with
+   */
+  private String bucket(String name, Set<String> split) {
+    String normalized = normalize(name);
+    String bucket = normalized.substring(0, Math.min(BUCKET_LENGTH, normalized.length()));
+    while (split.contains(bucket) && normalized.length() > bucket.length()) {
+      bucket = normalized.substring(0, bucket.length() + 1);
+    }
+    return bucket;
+  }
+
+  /**
+   * Add the assets on loan to the loans of their holder, for the assets borrowed before the loans
+   * were kept. Assets borrowed since then are already there. The loans are added to the shards of
+   * key: <holderId>#loans#<shard> chosen from the asset ids, as StatusChangeContract does.
+   */
+  private void putLoans(Ledger ledger, String holderId, String type, JsonObject assets) {
+    Map<String, JsonObjectBuilder> loansByShard = new TreeMap<>();
+    for (String id : assets.keySet()) {
+      JsonObject entry = assets.getJsonObject(id);
+      if (!ON_LOAN.equals(entry.getString(STATUS)) || !entry.containsKey(HOLDER_ID)) {
+        continue;
+      }
+      String loansKey = holderId + "-" + entry.getString(HOLDER_ID) + LOANS_SUFFIX;
+      loansByShard
+          .computeIfAbsent(aggregateKey(loansKey, id), (shard) -> Json.createObjectBuilder())
+          .add(
+              id,
+              Json.createObjectBuilder()
+                  .add(TIMESTAMP, entry.getJsonNumber(TIMESTAMP).longValue())
+                  .add(TYPE, type));
+    }
+
+    for (Map.Entry<String, JsonObjectBuilder> shardLoans : loansByShard.entrySet()) {
+      JsonObjectBuilder loansBuilder = shardLoans.getValue();
+      Optional<Asset> loans = ledger.get(shardLoans.getKey());
+      if (loans.isPresent()) {
+        loans.get().data().getJsonObject(ASSETS).forEach(loansBuilder::add);
+      }
+      ledger.put(shardLoans.getKey(), Json.createObjectBuilder().add(ASSETS, loansBuilder).build());
+    }
+  }
+
+  /**
+   * @return the key of the shard of an aggregate record that an asset is counted in: <key>#<shard>,
+   *     as chosen by StatusChangeContract
+   */
+  private String aggregateKey(String key, String id) {
+    return key + "#" + ((id.hashCode() * 0x9E3779B9) >>> 16) % AGGREGATE_SHARDS;
+  }
+
+  private void putStats(Ledger ledger, String listKey, JsonObject assets) {
+    int inStock = 0;
+    int onLoan = 0;
+    for (String id : assets.keySet()) {
+      String status = assets.getJsonObject(id).getString(STATUS);
+      if (IN_STOCK.equals(status)) {
+        inStock++;
+      } else if (ON_LOAN.equals(status)) {
+        onLoan++;
+      }
+    }
+    ledger.put(
+        listKey + STATS_SUFFIX,
+        Json.createObjectBuilder()
+            .add(TOTAL, assets.size())
+            .add(IN_STOCK, inStock)
+            .add(ON_LOAN, onLoan)
+            .build());
+  }
+
+  /**
+   * @return the status record in its original form, e.g. { "holderId": ..., "timestamp": ...,
+   *     "status": "on-loan", "type": ..., "shard": ... }, whether it was written in it or in the
+   *     compact form of version 2
+   */
+  private JsonObject decode(JsonObject data) {
+    if (data.getInt(VERSION, 1) < 2) {
+      return data;
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    if (data.containsKey(V2_HOLDER_ID)) {
+      builder.add(HOLDER_ID, data.getString(V2_HOLDER_ID));
+    }
+    builder
+        .add(TIMESTAMP, data.getJsonNumber(V2_TIMESTAMP).longValue())
+        .add(STATUS, data.getInt(V2_STATUS) == 1 ? ON_LOAN : IN_STOCK);
+    if (data.containsKey(V2_TYPE)) {
+      builder.add(TYPE, data.getString(V2_TYPE));
+    }
+    if (data.containsKey(V2_SHARD)) {
+      builder.add(SHARD, data.getInt(V2_SHARD));
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,238 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+public class ChangesContract extends Contract {
+
+  public static final String TYPE = "type";
+  public static final String SINCE = "since";
+  public static final String TOKEN = "token";
+  public static final String TOKEN_ONLY = "token_only";
+  public static final String ID = "id";
+  public static final String STATUS = "status";
+  public static final String NAME = "name";
+  public static final String TIMESTAMP = "timestamp";
+  public static final String HOLDER_ID = "holderId";
+  public static final String AGE = "age";
+  public static final String ASSETS = "assets";
+  public static final String BUILDING = "building";
+  public static final String SHARDS = "shards";
+  public static final String INDEX_SUFFIX = "#index";
+  public static final String BUCKETS = "buckets";
+  public static final String CHANGES_SUFFIX = "#changes";
+  public static final int AGGREGATE_SHARDS = 16;
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!argument.containsKey(TYPE)) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+    String type = argument.getString(TYPE);
+    String since = argument.getString(SINCE, "");
+    boolean tokenOnly = argument.getBoolean(TOKEN_ONLY, false);
+
+    Optional<Asset> typeAsset = ledger.get(holderId + "-" + type);
+    if (!typeAsset.isPresent()) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "Type " + type + " not found. Use am add-type to create it.")
+          .build();
+    }
+    int shards = typeAsset.get().data().getInt(SHARDS, 1);
+
+    /*
+     * Every addition and status change of an indexed asset also writes its new index entry to the
+     * change log of key: <type>#changes, or <type>#<shard>#changes for a sharded type, as one
+     * record { "assets": { <id>: { "name": ..., "age": ..., "timestamp": ..., "status": ... } } }.
+     * The log is split into the AGGREGATE_SHARDS shards of key: <type>#changes#<shard> chosen from
+     * the asset ids, and the record of key: <type>#changes only tells that the changes are tracked,
+     * along with the changes recorded before the log was sharded. The token is the latest age of
+     * each shard of the log, -1 for an empty one, e.g. "12,7,-1,...", so the changes after it are
+     * read with one scan per shard, without reading the assets that did not change. A token taken
+     * before the log was sharded holds the latest age of key: <type>#changes instead, the changes
+     * after which are read along with every shard. Without a token, every asset is listed from the
+     * index along with the token to start from, or with `token_only` only the token is returned,
+     * for a client that lists the assets page by page with ListContract after taking it.
+     */
+    int[] ages = new int[shards * AGGREGATE_SHARDS];
+    Arrays.fill(ages, -1);
+    int[] unshardedAges = null;
+    if (!since.isEmpty()) {
+      String[] positions = since.split(",");
+      if (positions.length == shards) {
+        unshardedAges = new int[shards];
+      } else if (positions.length != ages.length) {
+        throw new ContractContextException("wrong argument.");
+      }
+      try {
+        for (int i = 0; i < positions.length; i++) {
+          int age = Integer.parseInt(positions[i].trim());
+          if (unshardedAges != null) {
+            unshardedAges[i] = age;
+          } else {
+            ages[i] = age;
+          }
+        }
+      } catch (NumberFormatException e) {
+        throw new ContractContextException("wrong argument.");
+      }
+    }
+
+    Map<String, JsonObject> changed = new LinkedHashMap<>();
+    StringBuilder token = new StringBuilder();
+    for (int shard = 0; shard < shards; shard++) {
+      String listKey = (shards > 1) ? holderId + "-" + type + "#" + shard : holderId + "-" + type;
+      Optional<Asset> changes = ledger.get(listKey + CHANGES_SUFFIX);
+      if (!changes.isPresent()) {
+        return notTracked(type);
+      }
+
+      if (since.isEmpty()) {
+        Optional<Asset> index = ledger.get(listKey + INDEX_SUFFIX);
+        if (!index.isPresent() || index.get().data().containsKey(BUILDING)) {
+          return notTracked(type);
+        }
+        if (!tokenOnly) {
+          listIndex(readIndex(ledger, listKey + INDEX_SUFFIX, index.get().data()))
+              .forEach((entry) -> changed.put(entry.getString(ID), entry));
+        }
+      } else if (unshardedAges != null && unshardedAges[shard] < changes.get().age()) {
+        addChanges(changed, listChanges(ledger, listKey + CHANGES_SUFFIX, unshardedAges[shard]));
+      }
+
+      for (int aggregateShard = 0; aggregateShard < AGGREGATE_SHARDS; aggregateShard++) {
+        String changesKey = listKey + CHANGES_SUFFIX + "#" + aggregateShard;
+        int position = shard * AGGREGATE_SHARDS + aggregateShard;
+        int age = ledger.get(changesKey).map(Asset::age).orElse(-1);
+        if (!since.isEmpty() && ages[position] < age) {
+          addChanges(changed, listChanges(ledger, changesKey, ages[position]));
+        }
+        token.append(position == 0 ? "" : ",").append(age);
+      }
+    }
+
+    JsonArrayBuilder assetsBuilder = Json.createArrayBuilder();
+    for (JsonObject entry : changed.values()) {
+      JsonObjectBuilder statusBuilder =
+          Json.createObjectBuilder()
+              .add(ID, entry.getString(ID))
+              .add(NAME, entry.getString(NAME))
+              .add(TIMESTAMP, entry.getJsonNumber(TIMESTAMP).longValue())
+              .add(STATUS, entry.getString(STATUS));
+      if (entry.containsKey(HOLDER_ID)) {
+        statusBuilder.add(HOLDER_ID, entry.getString(HOLDER_ID));
+      }
+      assetsBuilder.add(statusBuilder.build());
+    }
+
+    return Json.createObjectBuilder()
+        .add(RESULT, SUCCESS)
+        .add(MESSAGE, "get changes completed.")
+        .add(type, assetsBuilder.build())
+        .add(TOKEN, token.toString())
+        .build();
+  }
+
+  private JsonObject notTracked(String type) {
+    return Json.createObjectBuilder()
+        .add(RESULT, FAILURE)
+        .add(
+            MESSAGE,
+            "Changes of type " + type + " are not tracked. Use am build-index to track them.")
+        .build();
+  }
+
+  /**
+   * Add the changes read from a change log to the changes read so far, an asset changed in several
+   * logs being listed once with its entry of the log read last
+   */
+  private void addChanges(Map<String, JsonObject> changed, List<JsonObject> changes) {
+    for (JsonObject entry : changes) {
+      changed.remove(entry.getString(ID));
+      changed.put(entry.getString(ID), entry);
+    }
+  }
+
+  /**
+   * @return the entries of the status index of a list key, merged from its buckets, or read from
+   *     the index record itself if it was built before the index was split into buckets
+   */
+  private JsonObject readIndex(Ledger ledger, String indexKey, JsonObject index) {
+    if (!index.containsKey(BUCKETS)) {
+      return index.getJsonObject(ASSETS);
+    }
+    JsonObjectBuilder assets = Json.createObjectBuilder();
+    for (int bucket = 0; bucket < index.getInt(BUCKETS); bucket++) {
+      Optional<Asset> entries = ledger.get(indexKey + "#" + bucket);
+      if (entries.isPresent()) {
+        entries.get().data().getJsonObject(ASSETS).forEach(assets::add);
+      }
+    }
+    return assets.build();
+  }
+
+  /** @return every asset of the index, in the order they were added */
+  private List<JsonObject> listIndex(JsonObject assets) {
+    List<String> ids = new ArrayList<>(assets.keySet());
+    ids.sort(Comparator.comparingInt(id -> assets.getJsonObject(id).getInt(AGE)));
+    List<JsonObject> entries = new ArrayList<>();
+    for (String id : ids) {
+      JsonObjectBuilder entryBuilder = Json.createObjectBuilder().add(ID, id);
+      assets.getJsonObject(id).forEach(entryBuilder::add);
+      entries.add(entryBuilder.build());
+    }
+    return entries;
+  }
+
+  /**
+   * @return the latest entry of every asset changed after the given age of the change log, in the
+   *     order of their latest change
+   */
+  private List<JsonObject> listChanges(Ledger ledger, String changesKey, int age) {
+    List<Asset> records =
+        ledger.scan(
+            new AssetFilter(changesKey)
+                .withStartAge(age + 1, true)
+                .withAgeOrder(AssetFilter.AgeOrder.ASC));
+
+    Map<String, JsonObject> latest = new LinkedHashMap<>();
+    for (Asset record : records) {
+      record
+          .data()
+          .getJsonObject(ASSETS)
+          .forEach(
+              (id, entry) -> {
+                latest.remove(id);
+                JsonObjectBuilder entryBuilder = Json.createObjectBuilder().add(ID, id);
+                ((JsonObject) entry).forEach(entryBuilder::add);
+                latest.put(id, entryBuilder.build());
+              });
+    }
+    return new ArrayList<>(latest.values());
+  }
+}
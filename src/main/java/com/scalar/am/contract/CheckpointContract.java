@@ -0,0 +1,190 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.xml.bind.DatatypeConverter;
+
+public class CheckpointContract extends Contract {
+
+  public static final String ASSET_ID = "asset_id";
+  public static final String AGE = "age";
+  public static final String HOLDER_ID = "holderId";
+  public static final String TIMESTAMP = "timestamp";
+  public static final String STATUS = "status";
+  public static final String LOANS = "loans";
+  public static final String TIME_ON_LOAN = "time_on_loan";
+  public static final String LOAN_START = "loan_start";
+  public static final String LAST_HOLDER = "last_holder";
+  public static final String DIGEST = "digest";
+  public static final String CHECKPOINT_SUFFIX = "#checkpoint";
+  public static final String TYPE = "type";
+  public static final String SHARD = "shard";
+  public static final String VERSION = "v";
+  public static final String V2_HOLDER_ID = "h";
+  public static final String V2_TIMESTAMP = "t";
+  public static final String V2_STATUS = "s";
+  public static final String V2_TYPE = "y";
+  public static final String V2_SHARD = "k";
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+  private static final String ON_LOAN = "on-loan";
+  private static final String IN_STOCK = "in-stock";
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!argument.containsKey(ASSET_ID)) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+    String id = argument.getString(ASSET_ID);
+    int age = argument.getInt(AGE, Integer.MAX_VALUE);
+
+    /*
+     * The checkpoint of key: <id>#checkpoint folds the history of the asset up to its age into the
+     * number of loans, the total time on loan, the last holder and the latest status. It is
+     * extended from the previous checkpoint, so each history entry is read once. The digest chains
+     * the entries folded so far, so that HistorySummaryContract can check a checkpoint against the
+     * history it was built from.
+     */
+    String checkpointKey = holderId + "-" + id + CHECKPOINT_SUFFIX;
+    Optional<Asset> previous = ledger.get(checkpointKey);
+    JsonObject summary =
+        previous.isPresent()
+            ? previous.get().data()
+            : Json.createObjectBuilder()
+                .add(AGE, -1)
+                .add(LOANS, 0)
+                .add(TIME_ON_LOAN, 0)
+                .add(DIGEST, "")
+                .build();
+    int from = summary.getInt(AGE) + 1;
+    if (age < from) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "History is already checkpointed up to age " + (from - 1) + ".")
+          .build();
+    }
+
+    AssetFilter filter =
+        new AssetFilter(holderId + "-" + id)
+            .withStartAge(from, true)
+            .withAgeOrder(AssetFilter.AgeOrder.ASC);
+    if (age != Integer.MAX_VALUE) {
+      filter.withEndAge(age, true);
+    }
+    List<Asset> history = ledger.scan(filter);
+    if (history.isEmpty()) {
+      if (!previous.isPresent()) {
+        return Json.createObjectBuilder()
+            .add(RESULT, FAILURE)
+            .add(MESSAGE, "Asset not found.")
+            .build();
+      }
+      return Json.createObjectBuilder()
+          .add(RESULT, SUCCESS)
+          .add(MESSAGE, "Checkpoint is up to date.")
+          .add(AGE, summary.getInt(AGE))
+          .build();
+    }
+
+    for (Asset entry : history) {
+      summary = fold(summary, entry);
+    }
+    ledger.put(checkpointKey, summary);
+
+    return Json.createObjectBuilder()
+        .add(RESULT, SUCCESS)
+        .add(MESSAGE, "History checkpointed up to age " + summary.getInt(AGE) + ".")
+        .add(AGE, summary.getInt(AGE))
+        .build();
+  }
+
+  /** Fold one history entry into the summary of the entries before it */
+  private JsonObject fold(JsonObject summary, Asset entry) {
+    JsonObject data = decode(entry.data());
+    String status = data.getString(STATUS);
+    long timestamp = data.getJsonNumber(TIMESTAMP).longValue();
+    int loans = summary.getInt(LOANS);
+    long timeOnLoan = summary.getJsonNumber(TIME_ON_LOAN).longValue();
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+
+    if (ON_LOAN.equals(status) && summary.containsKey(LOAN_START)) {
+      builder.add(LOAN_START, summary.getJsonNumber(LOAN_START).longValue());
+    } else if (ON_LOAN.equals(status)) {
+      loans++;
+      builder.add(LOAN_START, timestamp);
+    } else if (IN_STOCK.equals(status) && summary.containsKey(LOAN_START)) {
+      timeOnLoan += timestamp - summary.getJsonNumber(LOAN_START).longValue();
+    }
+    if (ON_LOAN.equals(status) && data.containsKey(HOLDER_ID)) {
+      builder.add(LAST_HOLDER, data.getString(HOLDER_ID));
+    } else if (summary.containsKey(LAST_HOLDER)) {
+      builder.add(LAST_HOLDER, summary.getString(LAST_HOLDER));
+    }
+
+    // The digest chains the entries as written, whatever the version of their record
+    return builder
+        .add(AGE, entry.age())
+        .add(STATUS, status)
+        .add(TIMESTAMP, timestamp)
+        .add(LOANS, loans)
+        .add(TIME_ON_LOAN, timeOnLoan)
+        .add(DIGEST, digest(summary.getString(DIGEST), entry.age(), entry.data()))
+        .build();
+  }
+
+  /** @return the SHA-256 of the previous digest followed by the age and the data of the entry */
+  private String digest(String previous, int age, JsonObject data) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      String chained = previous + "|" + age + ":" + data.toString();
+      return DatatypeConverter.printHexBinary(
+          sha256.digest(chained.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new ContractContextException("SHA-256 is not available.");
+    }
+  }
+
+  /**
+   * @return the status record in its original form, e.g. { "holderId": ..., "timestamp": ...,
+   *     "status": "on-loan", "type": ..., "shard": ... }, whether it was written in it or in the
+   *     compact form of version 2
+   */
+  private JsonObject decode(JsonObject data) {
+    if (data.getInt(VERSION, 1) < 2) {
+      return data;
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    if (data.containsKey(V2_HOLDER_ID)) {
+      builder.add(HOLDER_ID, data.getString(V2_HOLDER_ID));
+    }
+    builder
+        .add(TIMESTAMP, data.getJsonNumber(V2_TIMESTAMP).longValue())
+        .add(STATUS, data.getInt(V2_STATUS) == 1 ? ON_LOAN : IN_STOCK);
+    if (data.containsKey(V2_TYPE)) {
+      builder.add(TYPE, data.getString(V2_TYPE));
+    }
+    if (data.containsKey(V2_SHARD)) {
+      builder.add(SHARD, data.getInt(V2_SHARD));
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,198 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.xml.bind.DatatypeConverter;
+
+public class HistorySummaryContract extends Contract {
+
+  public static final String ASSET_ID = "asset_id";
+  public static final String VERIFY = "verify";
+  public static final String VERIFIED = "verified";
+  public static final String CHECKPOINT_AGE = "checkpoint_age";
+  public static final String AGE = "age";
+  public static final String HOLDER_ID = "holderId";
+  public static final String TIMESTAMP = "timestamp";
+  public static final String STATUS = "status";
+  public static final String LOANS = "loans";
+  public static final String TIME_ON_LOAN = "time_on_loan";
+  public static final String LOAN_START = "loan_start";
+  public static final String LAST_HOLDER = "last_holder";
+  public static final String DIGEST = "digest";
+  public static final String CHECKPOINT_SUFFIX = "#checkpoint";
+  public static final String TYPE = "type";
+  public static final String SHARD = "shard";
+  public static final String VERSION = "v";
+  public static final String V2_HOLDER_ID = "h";
+  public static final String V2_TIMESTAMP = "t";
+  public static final String V2_STATUS = "s";
+  public static final String V2_TYPE = "y";
+  public static final String V2_SHARD = "k";
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+  private static final String ON_LOAN = "on-loan";
+  private static final String IN_STOCK = "in-stock";
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!argument.containsKey(ASSET_ID)) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+    String id = argument.getString(ASSET_ID);
+    boolean verify = argument.getBoolean(VERIFY, false);
+
+    /*
+     * The summary is the latest checkpoint written by CheckpointContract, extended with the
+     * entries after it, so only those entries are read. When verifying, the history up to the
+     * checkpoint is folded again and must give the same summary and digest.
+     */
+    Optional<Asset> checkpoint = ledger.get(holderId + "-" + id + CHECKPOINT_SUFFIX);
+    JsonObject summary = checkpoint.isPresent() ? checkpoint.get().data() : initialSummary();
+    int checkpointAge = summary.getInt(AGE);
+
+    List<Asset> history =
+        ledger.scan(
+            new AssetFilter(holderId + "-" + id)
+                .withStartAge(checkpointAge + 1, true)
+                .withAgeOrder(AssetFilter.AgeOrder.ASC));
+    if (history.isEmpty() && !checkpoint.isPresent()) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "Asset not found.")
+          .build();
+    }
+    for (Asset entry : history) {
+      summary = fold(summary, entry);
+    }
+
+    boolean verified = true;
+    if (verify && checkpoint.isPresent()) {
+      JsonObject recomputed = initialSummary();
+      List<Asset> checkpointed =
+          ledger.scan(
+              new AssetFilter(holderId + "-" + id)
+                  .withStartAge(0, true)
+                  .withEndAge(checkpointAge, true)
+                  .withAgeOrder(AssetFilter.AgeOrder.ASC));
+      for (Asset entry : checkpointed) {
+        recomputed = fold(recomputed, entry);
+      }
+      verified = recomputed.equals(checkpoint.get().data());
+    }
+
+    JsonObjectBuilder result =
+        Json.createObjectBuilder()
+            .add(RESULT, verified ? SUCCESS : FAILURE)
+            .add(
+                MESSAGE,
+                verified
+                    ? "get history summary completed."
+                    : "Checkpoint does not match the history.")
+            .add(ASSET_ID, id)
+            .add(CHECKPOINT_AGE, checkpointAge);
+    summary.forEach(result::add);
+    if (verify) {
+      result.add(VERIFIED, verified);
+    }
+    return result.build();
+  }
+
+  private JsonObject initialSummary() {
+    return Json.createObjectBuilder()
+        .add(AGE, -1)
+        .add(LOANS, 0)
+        .add(TIME_ON_LOAN, 0)
+        .add(DIGEST, "")
+        .build();
+  }
+
+  /** Fold one history entry into the summary of the entries before it */
+  private JsonObject fold(JsonObject summary, Asset entry) {
+    JsonObject data = decode(entry.data());
+    String status = data.getString(STATUS);
+    long timestamp = data.getJsonNumber(TIMESTAMP).longValue();
+    int loans = summary.getInt(LOANS);
+    long timeOnLoan = summary.getJsonNumber(TIME_ON_LOAN).longValue();
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+
+    if (ON_LOAN.equals(status) && summary.containsKey(LOAN_START)) {
+      builder.add(LOAN_START, summary.getJsonNumber(LOAN_START).longValue());
+    } else if (ON_LOAN.equals(status)) {
+      loans++;
+      builder.add(LOAN_START, timestamp);
+    } else if (IN_STOCK.equals(status) && summary.containsKey(LOAN_START)) {
+      timeOnLoan += timestamp - summary.getJsonNumber(LOAN_START).longValue();
+    }
+    if (ON_LOAN.equals(status) && data.containsKey(HOLDER_ID)) {
+      builder.add(LAST_HOLDER, data.getString(HOLDER_ID));
+    } else if (summary.containsKey(LAST_HOLDER)) {
+      builder.add(LAST_HOLDER, summary.getString(LAST_HOLDER));
+    }
+
+    // The digest chains the entries as written, whatever the version of their record
+    return builder
+        .add(AGE, entry.age())
+        .add(STATUS, status)
+        .add(TIMESTAMP, timestamp)
+        .add(LOANS, loans)
+        .add(TIME_ON_LOAN, timeOnLoan)
+        .add(DIGEST, digest(summary.getString(DIGEST), entry.age(), entry.data()))
+        .build();
+  }
+
+  /** @return the SHA-256 of the previous digest followed by the age and the data of the entry */
+  private String digest(String previous, int age, JsonObject data) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      String chained = previous + "|" + age + ":" + data.toString();
+      return DatatypeConverter.printHexBinary(
+          sha256.digest(chained.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new ContractContextException("SHA-256 is not available.");
+    }
+  }
+
+  /**
+   * @return the status record in its original form, e.g. { "holderId": ..., "timestamp": ...,
+   *     "status": "on-loan", "type": ..., "shard": ... }, whether it was written in it or in the
+   *     compact form of version 2
+   */
+  private JsonObject decode(JsonObject data) {
+    if (data.getInt(VERSION, 1) < 2) {
+      return data;
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    if (data.containsKey(V2_HOLDER_ID)) {
+      builder.add(HOLDER_ID, data.getString(V2_HOLDER_ID));
+    }
+    builder
+        .add(TIMESTAMP, data.getJsonNumber(V2_TIMESTAMP).longValue())
+        .add(STATUS, data.getInt(V2_STATUS) == 1 ? ON_LOAN : IN_STOCK);
+    if (data.containsKey(V2_TYPE)) {
+      builder.add(TYPE, data.getString(V2_TYPE));
+    }
+    if (data.containsKey(V2_SHARD)) {
+      builder.add(SHARD, data.getInt(V2_SHARD));
+    }
+    return builder.build();
+  }
+}
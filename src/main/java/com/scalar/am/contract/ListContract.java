@@ -5,12 +5,17 @@ import com.scalar.ledger.contract.Contract;
 import com.scalar.ledger.database.AssetFilter;
 import com.scalar.ledger.exception.ContractContextException;
 import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
+import javax.json.JsonNumber;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonValue;
 
 public class ListContract extends Contract {
 
@@ -20,6 +25,25 @@ public class ListContract extends Contract {
   public static final String NAME = "name";
   public static final String TIMESTAMP = "timestamp";
   public static final String HOLDER_ID = "holderId";
+  public static final String AGE = "age";
+  public static final String ASSETS = "assets";
+  public static final String BUILDING = "building";
+  public static final String SHARDS = "shards";
+  public static final String INDEX_SUFFIX = "#index";
+  public static final String BUCKETS = "buckets";
+  public static final String BUCKET = "bucket";
+  public static final String LIMIT = "limit";
+  public static final String CURSOR = "cursor";
+  public static final String NEXT_CURSOR = "next_cursor";
+  public static final String SHARD = "shard";
+  public static final String ON_LOAN = "on-loan";
+  public static final String IN_STOCK = "in-stock";
+  public static final String VERSION = "v";
+  public static final String V2_HOLDER_ID = "h";
+  public static final String V2_TIMESTAMP = "t";
+  public static final String V2_STATUS = "s";
+  public static final String V2_TYPE = "y";
+  public static final String V2_SHARD = "k";
 
   private static final String RESULT = "result";
   private static final String SUCCESS = "success";
@@ -37,11 +61,10 @@ public class ListContract extends Contract {
 
     String holderId = property.get().getString(HOLDER_ID);
     String type = argument.getString(TYPE);
-    AssetFilter filter = new AssetFilter(holderId + "-" + type);
+    int limit = argument.getInt(LIMIT, 0);
 
-    List<Asset> assetList = ledger.scan(filter);
-
-    if (assetList.isEmpty()) { // means the type is not created yet
+    Optional<Asset> typeAsset = ledger.get(holderId + "-" + type);
+    if (!typeAsset.isPresent()) { // means the type is not created yet
       return Json.createObjectBuilder()
           .add(RESULT, FAILURE)
           .add(MESSAGE, "Type " + type + " not found. Use am add-type to create it.")
@@ -58,42 +81,283 @@ public class ListContract extends Contract {
      * For each book we have another key: book_<id> to store its borrowing status E.g. history of
      * book_ff02d8f3e5a85419df55ced87bf1bd68 = [ { "timestamp": ..., "status": "in-stock" }, // age:
      * 0 { "timestamp": ..., "status": "on-loan" }, // age: 1 ]
+     *
+     * A type created with several shards keeps { "shards": N } as the only record of key: <type>,
+     * and the list above is split into keys: <type>#0 ... <type>#N-1, the shard of an asset being
+     * chosen from its id. The shards are listed one after the other.
      */
-    JsonArrayBuilder assetsBuilder = Json.createArrayBuilder();
-    for (Asset asset : assetList) {
-      JsonObject data = asset.data();
-      if (data.size() == 0) { // initiated one, ignore it
-        continue;
-      }
-      String id = data.getString(ID);
-      String name = data.getString(NAME);
-
-      Optional<Asset> borrowingStatus = ledger.get(holderId + "-" + id);
-      if (!borrowingStatus.isPresent()) {
-        /**
-         * Abnormal case. We found an asset in list but no borrowing status record. Just ignore it
-         */
-        continue;
+    int shards = typeAsset.get().data().getInt(SHARDS, 1);
+
+    /*
+     * A page holds the assets after the cursor, which is the age of the last listed asset in the
+     * history, prefixed with its shard as "<shard>:<age>" when the type is sharded. The buckets of
+     * an index split into buckets are listed one after the other, and the cursor is then
+     * "<shard>:<bucket>:<age>" whether the type is sharded or not.
+     */
+    int[] position = parseCursor(argument.get(CURSOR), shards);
+    int shard = position[0];
+    int bucket = position[1];
+    int cursor = position[2];
+
+    List<JsonObject> page = new ArrayList<>();
+    boolean hasNext = false;
+    for (; shard < shards; shard++, bucket = -1, cursor = -1) {
+      String listKey = (shards > 1) ? holderId + "-" + type + "#" + shard : holderId + "-" + type;
+      int remaining = limit - page.size();
+      // one more than needed to know if there is a next page
+      List<JsonObject> entries =
+          listShard(ledger, holderId, listKey, bucket, cursor, (limit > 0) ? remaining + 1 : 0);
+
+      if (limit > 0 && entries.size() >= remaining) {
+        // Assets added in one batch share an age, so a page is never cut in the middle of them
+        int end = remaining;
+        while (end > 0 && end < entries.size() && samePosition(entries, end - 1, end)) {
+          end++;
+        }
+        page.addAll(entries.subList(0, end));
+        hasNext = entries.size() > remaining || shard + 1 < shards;
+        JsonObject last = page.get(page.size() - 1);
+        bucket = last.getInt(BUCKET, -1);
+        cursor = last.getInt(AGE);
+        break;
       }
+      page.addAll(entries);
+    }
 
+    JsonArrayBuilder assetsBuilder = Json.createArrayBuilder();
+    for (JsonObject entry : page) {
       JsonObjectBuilder statusBuilder = Json.createObjectBuilder();
       statusBuilder
-          .add(ID, id)
-          .add(NAME, name)
-          .add(TIMESTAMP, borrowingStatus.get().data().getJsonNumber(TIMESTAMP).longValue())
-          .add(STATUS, borrowingStatus.get().data().getString(STATUS));
+          .add(ID, entry.getString(ID))
+          .add(NAME, entry.getString(NAME))
+          .add(TIMESTAMP, entry.getJsonNumber(TIMESTAMP).longValue())
+          .add(STATUS, entry.getString(STATUS));
 
-      if (borrowingStatus.get().data().containsKey(HOLDER_ID)) {
-        statusBuilder.add(HOLDER_ID, borrowingStatus.get().data().getString(HOLDER_ID));
+      if (entry.containsKey(HOLDER_ID)) {
+        statusBuilder.add(HOLDER_ID, entry.getString(HOLDER_ID));
       }
 
       assetsBuilder.add(statusBuilder.build());
     }
 
-    return Json.createObjectBuilder()
-        .add(RESULT, SUCCESS)
-        .add(MESSAGE, "get list completed.")
-        .add(type, assetsBuilder.build())
-        .build();
+    JsonObjectBuilder result =
+        Json.createObjectBuilder()
+            .add(RESULT, SUCCESS)
+            .add(MESSAGE, "get list completed.")
+            .add(type, assetsBuilder.build());
+    if (hasNext && bucket >= 0) {
+      result.add(NEXT_CURSOR, shard + ":" + bucket + ":" + cursor);
+    } else if (hasNext && shards > 1) {
+      result.add(NEXT_CURSOR, shard + ":" + cursor);
+    } else if (hasNext) {
+      result.add(NEXT_CURSOR, cursor);
+    }
+    return result.build();
+  }
+
+  /**
+   * @return the shard, the bucket and the age of the cursor, e.g. 3, "1:3" or "1:5:3", the bucket
+   *     being -1 if the cursor has none, or the start of the first shard if there is no cursor
+   */
+  private int[] parseCursor(JsonValue cursorValue, int shards) {
+    int shard = 0;
+    int bucket = -1;
+    int age = -1;
+    if (cursorValue instanceof JsonNumber && ((JsonNumber) cursorValue).isIntegral()) {
+      age = ((JsonNumber) cursorValue).intValue();
+    } else if (cursorValue instanceof JsonString) {
+      String[] position = ((JsonString) cursorValue).getString().split(":", -1);
+      if (position.length != 2 && position.length != 3) {
+        throw new ContractContextException("wrong argument.");
+      }
+      try {
+        shard = Integer.parseInt(position[0]);
+        if (position.length == 3) {
+          bucket = Integer.parseInt(position[1]);
+          if (bucket < 0) {
+            throw new ContractContextException("wrong argument.");
+          }
+        }
+        age = Integer.parseInt(position[position.length - 1]);
+      } catch (NumberFormatException e) {
+        throw new ContractContextException("wrong argument.");
+      }
+    } else if (cursorValue != null && cursorValue != JsonValue.NULL) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (shard < 0 || shard >= shards || age < -1) {
+      throw new ContractContextException("wrong argument.");
+    }
+    return new int[] {shard, bucket, age};
+  }
+
+  private boolean samePosition(List<JsonObject> entries, int i, int j) {
+    return entries.get(i).getInt(BUCKET, -1) == entries.get(j).getInt(BUCKET, -1)
+        && entries.get(i).getInt(AGE) == entries.get(j).getInt(AGE);
+  }
+
+  /**
+   * List the assets of one list key added after the given position. <br>
+   * The status index of the key is used when it is complete, so the list is built with one read per
+   * bucket instead of one read per asset, and only the buckets needed for the page are read.
+   *
+   * @return at least <code>max</code> entries if there are, and more only to complete the assets
+   *     sharing the age of the last one in its bucket, or all of them if <code>max</code> is 0,
+   *     holding the id, name, age, timestamp, status and holder of each asset, and its bucket if
+   *     the index is split into buckets, in the order they were added in each bucket, or in the
+   *     order they were added if <code>max</code> is 0
+   */
+  private List<JsonObject> listShard(
+      Ledger ledger, String holderId, String listKey, int bucket, int cursor, int max) {
+    List<JsonObject> entries = new ArrayList<>();
+
+    Optional<Asset> index = ledger.get(listKey + INDEX_SUFFIX);
+    if (index.isPresent() && !index.get().data().containsKey(BUILDING)) {
+      JsonObject data = index.get().data();
+      if (!data.containsKey(BUCKETS)) {
+        // The index was built before it was split into buckets
+        if (bucket >= 0) {
+          cursor = -1;
+        }
+        addIndexEntries(entries, data.getJsonObject(ASSETS), -1, cursor, max);
+        return entries;
+      }
+
+      int buckets = data.getInt(BUCKETS);
+      if (bucket >= buckets) {
+        throw new ContractContextException("wrong argument.");
+      }
+      if (bucket < 0) {
+        // A cursor without bucket was taken before the index was split into buckets, the key is
+        // listed again from its start so that no asset is left out
+        bucket = 0;
+        cursor = -1;
+      }
+      for (; bucket < buckets && (max <= 0 || entries.size() < max); bucket++, cursor = -1) {
+        Optional<Asset> assets = ledger.get(listKey + INDEX_SUFFIX + "#" + bucket);
+        if (assets.isPresent()) {
+          addIndexEntries(entries, assets.get().data().getJsonObject(ASSETS), bucket, cursor, max);
+        }
+      }
+      if (max <= 0) {
+        // Without pages, the assets are listed in the order they were added whatever their bucket
+        entries.sort(Comparator.comparingInt(entry -> entry.getInt(AGE)));
+      }
+      return entries;
+    }
+    if (bucket >= 0) {
+      // The cursor was taken from an index that is not readable anymore
+      cursor = -1;
+    }
+
+    int from = cursor + 1;
+    while (true) {
+      AssetFilter filter =
+          new AssetFilter(listKey).withStartAge(from, true).withAgeOrder(AssetFilter.AgeOrder.ASC);
+      int requested = max - entries.size();
+      if (max > 0) {
+        filter.withLimit(requested);
+      }
+      List<Asset> assetList = ledger.scan(filter);
+
+      for (Asset asset : assetList) {
+        from = asset.age() + 1;
+        JsonObject data = asset.data();
+        // A record holds one asset, or the assets added by one BatchAddAssetContract execution
+        List<JsonObject> added = new ArrayList<>();
+        if (data.containsKey(ID)) {
+          added.add(data);
+        } else if (data.containsKey(ASSETS)) {
+          added.addAll(data.getJsonArray(ASSETS).getValuesAs(JsonObject.class));
+        } // otherwise the initiated one, ignore it
+
+        for (JsonObject name : added) {
+          String id = name.getString(ID);
+
+          Optional<Asset> borrowingStatus = ledger.get(holderId + "-" + id);
+          if (!borrowingStatus.isPresent()) {
+            /**
+             * Abnormal case. We found an asset in list but no borrowing status record. Just ignore
+             * it
+             */
+            continue;
+          }
+          JsonObject status = decode(borrowingStatus.get().data());
+
+          JsonObjectBuilder entryBuilder =
+              Json.createObjectBuilder()
+                  .add(ID, id)
+                  .add(NAME, name.getString(NAME))
+                  .add(AGE, asset.age())
+                  .add(TIMESTAMP, status.getJsonNumber(TIMESTAMP).longValue())
+                  .add(STATUS, status.getString(STATUS));
+          if (status.containsKey(HOLDER_ID)) {
+            entryBuilder.add(HOLDER_ID, status.getString(HOLDER_ID));
+          }
+          entries.add(entryBuilder.build());
+        }
+      }
+
+      // Records without a status were skipped, read further until the page is full
+      if (max <= 0 || entries.size() >= max || assetList.size() < requested) {
+        return entries;
+      }
+    }
+  }
+
+  /**
+   * Add the entries of an index, or of one of its buckets, added after the given age to the list,
+   * in the order of the type history, i.e. the registration order. <br>
+   * Adding stops after <code>max</code> entries in total, unless 0, once the assets sharing the age
+   * of the last one are added.
+   */
+  private void addIndexEntries(
+      List<JsonObject> entries, JsonObject assets, int bucket, int cursor, int max) {
+    List<String> ids = new ArrayList<>();
+    for (String id : assets.keySet()) {
+      if (assets.getJsonObject(id).getInt(AGE) > cursor) {
+        ids.add(id);
+      }
+    }
+    ids.sort(Comparator.comparingInt(id -> assets.getJsonObject(id).getInt(AGE)));
+    int last = -1;
+    for (String id : ids) {
+      int age = assets.getJsonObject(id).getInt(AGE);
+      if (max > 0 && entries.size() >= max && age != last) {
+        break;
+      }
+      JsonObjectBuilder entryBuilder = Json.createObjectBuilder().add(ID, id);
+      assets.getJsonObject(id).forEach(entryBuilder::add);
+      if (bucket >= 0) {
+        entryBuilder.add(BUCKET, bucket);
+      }
+      entries.add(entryBuilder.build());
+      last = age;
+    }
+  }
+
+  /**
+   * @return the status record in its original form, e.g. { "holderId": ..., "timestamp": ...,
+   *     "status": "on-loan", "type": ..., "shard": ... }, whether it was written in it or in the
+   *     compact form of version 2
+   */
+  private JsonObject decode(JsonObject data) {
+    if (data.getInt(VERSION, 1) < 2) {
+      return data;
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    if (data.containsKey(V2_HOLDER_ID)) {
+      builder.add(HOLDER_ID, data.getString(V2_HOLDER_ID));
+    }
+    builder
+        .add(TIMESTAMP, data.getJsonNumber(V2_TIMESTAMP).longValue())
+        .add(STATUS, data.getInt(V2_STATUS) == 1 ? ON_LOAN : IN_STOCK);
+    if (data.containsKey(V2_TYPE)) {
+      builder.add(TYPE, data.getString(V2_TYPE));
+    }
+    if (data.containsKey(V2_SHARD)) {
+      builder.add(SHARD, data.getInt(V2_SHARD));
+    }
+    return builder.build();
   }
 }
@@ -11,11 +11,13 @@ import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 
 public class ListTypeContract extends Contract {
 
   public static final String TYPE = "type";
   public static final String AGE = "age";
+  public static final String TIMESTAMP = "timestamp";
   public static final String TYPES = "types";
   public static final String NAME = "name";
   public static final String HOLDER_ID = "holderId";
@@ -33,14 +35,8 @@ public class ListTypeContract extends Contract {
 
     String holderId = property.get().getString(HOLDER_ID);
 
-    /**
-     * Registered types will be put into key: type, thus the history of key: type is just the list
-     * of registered types E.g. history of type = [ { "name": "book" }, // age: 0 { "name": "phone"
-     * } // age: 1 ]
-     */
-    AssetFilter filter = new AssetFilter(holderId + "-" + TYPE);
-    List<Asset> history = ledger.scan(filter);
-    if (history.isEmpty()) {
+    Optional<Asset> registry = ledger.get(holderId + "-" + TYPE);
+    if (!registry.isPresent()) {
       return Json.createObjectBuilder()
           .add(RESULT, FAILURE)
           .add(MESSAGE, "No types were registered. Use am add-type to create one.")
@@ -48,10 +44,33 @@ public class ListTypeContract extends Contract {
     }
 
     JsonArrayBuilder builder = Json.createArrayBuilder();
-    for (Asset h : history) {
-      JsonObject type =
-          Json.createObjectBuilder().add(TYPE, h.data().getString(NAME)).add(AGE, h.age()).build();
-      builder.add(type);
+    if (registry.get().data().containsKey(TYPES)) {
+      // The latest record holds the snapshot of all the registered types
+      for (JsonObject t : registry.get().data().getJsonArray(TYPES).getValuesAs(JsonObject.class)) {
+        JsonObjectBuilder type =
+            Json.createObjectBuilder().add(TYPE, t.getString(NAME)).add(AGE, t.getInt(AGE));
+        // The types registered before the timestamp was recorded have none
+        if (t.containsKey(TIMESTAMP)) {
+          type.add(TIMESTAMP, t.getJsonNumber(TIMESTAMP).longValue());
+        }
+        builder.add(type);
+      }
+    } else {
+      /**
+       * Registered types will be put into key: type, thus the history of key: type is just the list
+       * of registered types E.g. history of type = [ { "name": "book" }, // age: 0 { "name":
+       * "phone" } // age: 1 ]
+       */
+      AssetFilter filter = new AssetFilter(holderId + "-" + TYPE);
+      List<Asset> history = ledger.scan(filter);
+      for (Asset h : history) {
+        JsonObject type =
+            Json.createObjectBuilder()
+                .add(TYPE, h.data().getString(NAME))
+                .add(AGE, h.age())
+                .build();
+        builder.add(type);
+      }
     }
     JsonArray types = builder.build();
 
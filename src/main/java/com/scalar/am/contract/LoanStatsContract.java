@@ -0,0 +1,190 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+public class LoanStatsContract extends Contract {
+
+  public static final String TYPE = "type";
+  public static final String TIMESTAMP = "timestamp";
+  public static final String OVERDUE_AFTER = "overdue_after";
+  public static final String HOLDER_ID = "holderId";
+  public static final String SHARDS = "shards";
+  public static final String ID = "id";
+  public static final String NAME = "name";
+  public static final String STATUS = "status";
+  public static final String ASSETS = "assets";
+  public static final String BUILDING = "building";
+  public static final String INDEX_SUFFIX = "#index";
+  public static final String BUCKETS = "buckets";
+  public static final String DURATIONS_SUFFIX = "#durations";
+  public static final int AGGREGATE_SHARDS = 16;
+  public static final String COUNT = "count";
+  public static final String SUM = "sum";
+  public static final String MAX = "max";
+  public static final String COUNTS = "counts";
+  public static final String LOANS = "loans";
+  public static final String AVERAGE = "average";
+  public static final String P50 = "p50";
+  public static final String P95 = "p95";
+  public static final String OVERDUE = "overdue";
+  public static final String ON_LOAN = "on-loan";
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+
+  private static final long HOUR = 60 * 60 * 1000L;
+  private static final long DAY = 24 * HOUR;
+  // The upper bounds of the buckets of the loan durations histogram, in milliseconds
+  private static final long[] DURATION_BOUNDS = {
+    HOUR, 4 * HOUR, 12 * HOUR, DAY, 2 * DAY, 3 * DAY, 5 * DAY, 7 * DAY, 10 * DAY, 14 * DAY,
+    21 * DAY, 30 * DAY, 45 * DAY, 60 * DAY, 90 * DAY, 180 * DAY, 365 * DAY
+  };
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!argument.containsKey(TYPE) || !argument.containsKey(TIMESTAMP)) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+    String type = argument.getString(TYPE);
+    long now = argument.getJsonNumber(TIMESTAMP).longValue();
+    long overdueAfter =
+        argument.containsKey(OVERDUE_AFTER)
+            ? argument.getJsonNumber(OVERDUE_AFTER).longValue()
+            : 14 * DAY;
+
+    Optional<Asset> typeAsset = ledger.get(holderId + "-" + type);
+    if (!typeAsset.isPresent()) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "Type " + type + " not found. Use am add-type to create it.")
+          .build();
+    }
+
+    /*
+     * Every return folds the duration of the loan into the histogram of key: <type>#durations, or
+     * <type>#<shard>#durations for a sharded type, as { "count": ..., "sum": ..., "max": ...,
+     * "counts": [ ... ] }, the durations being in milliseconds. The percentiles are read from the
+     * histogram, so they are the upper bound of the bucket they fall in, or the longest loan if it
+     * is shorter. The assets on loan for longer than `overdue_after` are read from the index.
+     */
+    int shards = typeAsset.get().data().getInt(SHARDS, 1);
+    long[] counts = new long[DURATION_BOUNDS.length + 1];
+    long count = 0;
+    long sum = 0;
+    long max = 0;
+    JsonArrayBuilder overdue = Json.createArrayBuilder();
+    for (int shard = 0; shard < shards; shard++) {
+      String listKey = (shards > 1) ? holderId + "-" + type + "#" + shard : holderId + "-" + type;
+      Optional<Asset> histogram = ledger.get(listKey + DURATIONS_SUFFIX);
+      Optional<Asset> index = ledger.get(listKey + INDEX_SUFFIX);
+      if (!histogram.isPresent()
+          || !index.isPresent()
+          || index.get().data().containsKey(BUILDING)) {
+        return Json.createObjectBuilder()
+            .add(RESULT, FAILURE)
+            .add(
+                MESSAGE,
+                "Loan statistics of type "
+                    + type
+                    + " are not built. Use am build-index to build them.")
+            .build();
+      }
+
+      // The loans returned since the histogram was started are counted in its shards
+      List<JsonObject> histograms = new ArrayList<>();
+      histograms.add(histogram.get().data());
+      for (int aggregateShard = 0; aggregateShard < AGGREGATE_SHARDS; aggregateShard++) {
+        ledger
+            .get(listKey + DURATIONS_SUFFIX + "#" + aggregateShard)
+            .ifPresent((shardHistogram) -> histograms.add(shardHistogram.data()));
+      }
+      for (JsonObject data : histograms) {
+        JsonArray shardCounts = data.getJsonArray(COUNTS);
+        for (int i = 0; i < shardCounts.size(); i++) {
+          counts[i] += shardCounts.getJsonNumber(i).longValue();
+        }
+        count += data.getJsonNumber(COUNT).longValue();
+        sum += data.getJsonNumber(SUM).longValue();
+        max = Math.max(max, data.getJsonNumber(MAX).longValue());
+      }
+
+      JsonObject assets = readIndex(ledger, listKey + INDEX_SUFFIX, index.get().data());
+      for (String id : assets.keySet()) {
+        JsonObject entry = assets.getJsonObject(id);
+        long since = entry.getJsonNumber(TIMESTAMP).longValue();
+        if (ON_LOAN.equals(entry.getString(STATUS)) && now - since > overdueAfter) {
+          JsonObjectBuilder overdueBuilder =
+              Json.createObjectBuilder()
+                  .add(ID, id)
+                  .add(NAME, entry.getString(NAME))
+                  .add(TIMESTAMP, since);
+          if (entry.containsKey(HOLDER_ID)) {
+            overdueBuilder.add(HOLDER_ID, entry.getString(HOLDER_ID));
+          }
+          overdue.add(overdueBuilder);
+        }
+      }
+    }
+
+    return Json.createObjectBuilder()
+        .add(RESULT, SUCCESS)
+        .add(MESSAGE, "get loan stats completed.")
+        .add(TYPE, type)
+        .add(LOANS, count)
+        .add(AVERAGE, (count > 0) ? sum / count : 0)
+        .add(P50, percentile(counts, count, max, 0.50))
+        .add(P95, percentile(counts, count, max, 0.95))
+        .add(MAX, max)
+        .add(OVERDUE, overdue)
+        .build();
+  }
+
+  /** @return the upper bound of the bucket holding the given percentile, at most the max */
+  private long percentile(long[] counts, long count, long max, double percentile) {
+    long rank = (long) Math.ceil(percentile * count);
+    long cumulated = 0;
+    for (int i = 0; i < DURATION_BOUNDS.length; i++) {
+      cumulated += counts[i];
+      if (cumulated >= rank) {
+        return Math.min(DURATION_BOUNDS[i], max);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * @return the entries of the status index of a list key, merged from its buckets, or read from
+   *     the index record itself if it was built before the index was split into buckets
+   */
+  private JsonObject readIndex(Ledger ledger, String indexKey, JsonObject index) {
+    if (!index.containsKey(BUCKETS)) {
+      return index.getJsonObject(ASSETS);
+    }
+    JsonObjectBuilder assets = Json.createObjectBuilder();
+    for (int bucket = 0; bucket < index.getInt(BUCKETS); bucket++) {
+      Optional<Asset> entries = ledger.get(indexKey + "#" + bucket);
+      if (entries.isPresent()) {
+        entries.get().data().getJsonObject(ASSETS).forEach(assets::add);
+      }
+    }
+    return assets.build();
+  }
+}
@@ -0,0 +1,70 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+public class LoansContract extends Contract {
+
+  public static final String HOLDER_ID = "holderId";
+  public static final String ID = "id";
+  public static final String TYPE = "type";
+  public static final String TIMESTAMP = "timestamp";
+  public static final String ASSETS = "assets";
+  public static final String LOANS = "loans";
+  public static final String LOANS_SUFFIX = "#loans";
+  public static final int AGGREGATE_SHARDS = 16;
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String MESSAGE = "message";
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+
+    /*
+     * The assets on loan are kept in the AGGREGATE_SHARDS shards of key: <holderId>#loans#<shard>
+     * by StatusChangeContract and BatchStatusChangeContract, so this reads the same records
+     * whatever the number of assets. Key: <holderId>#loans holds the loans recorded before they
+     * were sharded.
+     */
+    String loansKey = holderId + "-" + holderId + LOANS_SUFFIX;
+    List<String> keys = new ArrayList<>();
+    keys.add(loansKey);
+    for (int shard = 0; shard < AGGREGATE_SHARDS; shard++) {
+      keys.add(loansKey + "#" + shard);
+    }
+    JsonArrayBuilder loansBuilder = Json.createArrayBuilder();
+    for (String key : keys) {
+      Optional<Asset> loans = ledger.get(key);
+      if (!loans.isPresent()) {
+        continue;
+      }
+      JsonObject assets = loans.get().data().getJsonObject(ASSETS);
+      for (String id : assets.keySet()) {
+        JsonObjectBuilder loanBuilder = Json.createObjectBuilder().add(ID, id);
+        assets.getJsonObject(id).forEach(loanBuilder::add);
+        loansBuilder.add(loanBuilder);
+      }
+    }
+
+    return Json.createObjectBuilder()
+        .add(RESULT, SUCCESS)
+        .add(MESSAGE, "get loans completed.")
+        .add(LOANS, loansBuilder)
+        .build();
+  }
+}
@@ -0,0 +1,192 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+public class MigrateContract extends Contract {
+
+  public static final String TYPE = "type";
+  public static final String LIMIT = "limit";
+  public static final String CURSOR = "cursor";
+  public static final String NEXT_CURSOR = "next_cursor";
+  public static final String MIGRATED = "migrated";
+  public static final String ID = "id";
+  public static final String TIMESTAMP = "timestamp";
+  public static final String STATUS = "status";
+  public static final String HOLDER_ID = "holderId";
+  public static final String ASSETS = "assets";
+  public static final String SHARDS = "shards";
+  public static final String SHARD = "shard";
+  public static final String ON_LOAN = "on-loan";
+  public static final String VERSION = "v";
+  public static final String V2_HOLDER_ID = "h";
+  public static final String V2_TIMESTAMP = "t";
+  public static final String V2_STATUS = "s";
+  public static final String V2_TYPE = "y";
+  public static final String V2_SHARD = "k";
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!argument.containsKey(TYPE)) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+    String type = argument.getString(TYPE);
+    int limit = argument.getInt(LIMIT, 0);
+
+    Optional<Asset> typeAsset = ledger.get(holderId + "-" + type);
+    if (!typeAsset.isPresent()) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "Type " + type + " not found. Use am add-type to create it.")
+          .build();
+    }
+    int shards = typeAsset.get().data().getInt(SHARDS, 1);
+
+    /*
+     * The history of a key can not be rewritten, so the latest status record of each asset of the
+     * type is put again in the compact form of version 2, which every contract reads as well as the
+     * original one. This appends one record to the history of each migrated asset, so only the assets
+     * whose latest record is still in the original form are migrated: every other contract already
+     * writes version 2. The assets are read in the order of the type list, at most `limit` list
+     * records per execution, and the cursor is the age of the last list record read, prefixed with
+     * its shard as "<shard>:<age>" when the type is sharded. Running the migration again is therefore
+     * harmless.
+     */
+    int[] position = parseCursor(argument.get(CURSOR), shards);
+    int shard = position[0];
+    int cursor = position[1];
+
+    int migrated = 0;
+    int read = 0;
+    boolean hasNext = false;
+    for (; shard < shards; shard++, cursor = -1) {
+      String listKey = (shards > 1) ? holderId + "-" + type + "#" + shard : holderId + "-" + type;
+      AssetFilter filter =
+          new AssetFilter(listKey)
+              .withStartAge(cursor + 1, true)
+              .withAgeOrder(AssetFilter.AgeOrder.ASC);
+      if (limit > 0) {
+        filter.withLimit(limit - read);
+      }
+      List<Asset> records = ledger.scan(filter);
+
+      for (Asset record : records) {
+        cursor = record.age();
+        JsonObject data = record.data();
+        // A record holds one asset, or the assets added by one BatchAddAssetContract execution
+        List<JsonObject> added = new ArrayList<>();
+        if (data.containsKey(ID)) {
+          added.add(data);
+        } else if (data.containsKey(ASSETS)) {
+          added.addAll(data.getJsonArray(ASSETS).getValuesAs(JsonObject.class));
+        } // otherwise the initiated one, ignore it
+
+        for (JsonObject name : added) {
+          String key = holderId + "-" + name.getString(ID);
+          Optional<Asset> status = ledger.get(key);
+          if (!status.isPresent() || status.get().data().getInt(VERSION, 1) >= 2) {
+            continue;
+          }
+          JsonObjectBuilder statusBuilder = Json.createObjectBuilder();
+          status.get().data().forEach(statusBuilder::add);
+          // Records written before the status index existed do not know their type
+          if (!status.get().data().containsKey(TYPE)) {
+            statusBuilder.add(TYPE, type);
+          }
+          ledger.put(key, encode(statusBuilder.build()));
+          migrated++;
+        }
+      }
+
+      read += records.size();
+      if (limit > 0 && read >= limit) {
+        hasNext = true;
+        break;
+      }
+    }
+
+    JsonObjectBuilder result =
+        Json.createObjectBuilder()
+            .add(RESULT, SUCCESS)
+            .add(MESSAGE, migrated + " assets of type " + type + " migrated.")
+            .add(MIGRATED, migrated);
+    if (hasNext && shards > 1) {
+      result.add(NEXT_CURSOR, shard + ":" + cursor);
+    } else if (hasNext) {
+      result.add(NEXT_CURSOR, cursor);
+    }
+    return result.build();
+  }
+
+  /**
+   * @return the shard and the age of the cursor, e.g. 3 or "1:3", or the start of the first shard
+   *     if there is none
+   */
+  private int[] parseCursor(JsonValue cursorValue, int shards) {
+    int shard = 0;
+    int age = -1;
+    if (cursorValue instanceof JsonNumber && ((JsonNumber) cursorValue).isIntegral()) {
+      age = ((JsonNumber) cursorValue).intValue();
+    } else if (cursorValue instanceof JsonString) {
+      String[] position = ((JsonString) cursorValue).getString().split(":", -1);
+      if (position.length != 2) {
+        throw new ContractContextException("wrong argument.");
+      }
+      try {
+        shard = Integer.parseInt(position[0]);
+        age = Integer.parseInt(position[1]);
+      } catch (NumberFormatException e) {
+        throw new ContractContextException("wrong argument.");
+      }
+    } else if (cursorValue != null && cursorValue != JsonValue.NULL) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (shard < 0 || shard >= shards || age < -1) {
+      throw new ContractContextException("wrong argument.");
+    }
+    return new int[] {shard, age};
+  }
+
+  /**
+   * @return the status record in the compact form of version 2, e.g. { "v": 2, "h": ..., "t": ...,
+   *     "s": 1, "y": ..., "k": ... }, the status being coded as 0 for in-stock and 1 for on-loan
+   */
+  private JsonObject encode(JsonObject data) {
+    JsonObjectBuilder builder = Json.createObjectBuilder().add(VERSION, 2);
+    if (data.containsKey(HOLDER_ID)) {
+      builder.add(V2_HOLDER_ID, data.getString(HOLDER_ID));
+    }
+    builder
+        .add(V2_TIMESTAMP, data.getJsonNumber(TIMESTAMP).longValue())
+        .add(V2_STATUS, ON_LOAN.equals(data.getString(STATUS)) ? 1 : 0);
+    if (data.containsKey(TYPE)) {
+      builder.add(V2_TYPE, data.getString(TYPE));
+    }
+    if (data.containsKey(SHARD)) {
+      builder.add(V2_SHARD, data.getInt(SHARD));
+    }
+    return builder.build();
+  }
+}
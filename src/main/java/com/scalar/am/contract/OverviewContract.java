@@ -0,0 +1,278 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+
+public class OverviewContract extends Contract {
+
+  public static final String LIMIT = "limit";
+  public static final String LIMITS = "limits";
+  public static final String FIELDS = "fields";
+  public static final String TYPE = "type";
+  public static final String TYPES = "types";
+  public static final String TRUNCATED = "truncated";
+  public static final String ID = "id";
+  public static final String STATUS = "status";
+  public static final String NAME = "name";
+  public static final String TIMESTAMP = "timestamp";
+  public static final String HOLDER_ID = "holderId";
+  public static final String AGE = "age";
+  public static final String ASSETS = "assets";
+  public static final String BUILDING = "building";
+  public static final String SHARDS = "shards";
+  public static final String INDEX_SUFFIX = "#index";
+  public static final String BUCKETS = "buckets";
+  public static final String SHARD = "shard";
+  public static final String ON_LOAN = "on-loan";
+  public static final String IN_STOCK = "in-stock";
+  public static final String VERSION = "v";
+  public static final String V2_HOLDER_ID = "h";
+  public static final String V2_TIMESTAMP = "t";
+  public static final String V2_STATUS = "s";
+  public static final String V2_TYPE = "y";
+  public static final String V2_SHARD = "k";
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+  private static final List<String> ALL_FIELDS =
+      Arrays.asList(ID, NAME, TIMESTAMP, STATUS, HOLDER_ID);
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+    int limit = argument.getInt(LIMIT, 0);
+    JsonObject limits =
+        argument.containsKey(LIMITS)
+            ? argument.getJsonObject(LIMITS)
+            : Json.createObjectBuilder().build();
+    List<String> fields = new ArrayList<>();
+    if (argument.containsKey(FIELDS)) {
+      for (JsonString field : argument.getJsonArray(FIELDS).getValuesAs(JsonString.class)) {
+        if (!ALL_FIELDS.contains(field.getString())) {
+          throw new ContractContextException("wrong argument.");
+        }
+        fields.add(field.getString());
+      }
+    } else {
+      fields.addAll(ALL_FIELDS);
+    }
+
+    Optional<Asset> registry = ledger.get(holderId + "-" + TYPE);
+    if (!registry.isPresent()) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "No types were registered. Use am add-type to create one.")
+          .build();
+    }
+
+    /*
+     * The types are read from the snapshot of the registry, or from its history when it was written
+     * before the snapshot, then the assets of each type from the status index of its list keys, or
+     * from the list keys and the status of each asset when there is no complete index, as
+     * ListContract does. At most `limits.<type>`, or else `limit`, assets are returned per type in
+     * the order they were added, the type being marked as truncated when it has more.
+     */
+    List<String> typeNames = new ArrayList<>();
+    if (registry.get().data().containsKey(TYPES)) {
+      for (JsonObject t : registry.get().data().getJsonArray(TYPES).getValuesAs(JsonObject.class)) {
+        typeNames.add(t.getString(NAME));
+      }
+    } else {
+      for (Asset history : ledger.scan(new AssetFilter(holderId + "-" + TYPE))) {
+        typeNames.add(history.data().getString(NAME));
+      }
+    }
+
+    JsonArrayBuilder typesBuilder = Json.createArrayBuilder();
+    int listed = 0;
+    for (String type : typeNames) {
+      Optional<Asset> typeAsset = ledger.get(holderId + "-" + type);
+      if (!typeAsset.isPresent()) {
+        continue;
+      }
+      int typeLimit = limits.getInt(type, limit);
+      int shards = typeAsset.get().data().getInt(SHARDS, 1);
+
+      List<JsonObject> entries = new ArrayList<>();
+      for (int shard = 0; shard < shards; shard++) {
+        String listKey = (shards > 1) ? holderId + "-" + type + "#" + shard : holderId + "-" + type;
+        // one more than needed to know if the type is truncated
+        int max = (typeLimit > 0) ? typeLimit + 1 - entries.size() : 0;
+        entries.addAll(listShard(ledger, holderId, listKey, max));
+        if (typeLimit > 0 && entries.size() > typeLimit) {
+          break;
+        }
+      }
+      boolean truncated = typeLimit > 0 && entries.size() > typeLimit;
+      if (truncated) {
+        entries = entries.subList(0, typeLimit);
+      }
+
+      JsonArrayBuilder assetsBuilder = Json.createArrayBuilder();
+      for (JsonObject entry : entries) {
+        JsonObjectBuilder statusBuilder = Json.createObjectBuilder();
+        for (String field : fields) {
+          if (entry.containsKey(field)) {
+            statusBuilder.add(field, entry.get(field));
+          }
+        }
+        assetsBuilder.add(statusBuilder);
+      }
+      listed += entries.size();
+
+      JsonObjectBuilder typeBuilder =
+          Json.createObjectBuilder().add(TYPE, type).add(ASSETS, assetsBuilder);
+      if (truncated) {
+        typeBuilder.add(TRUNCATED, true);
+      }
+      typesBuilder.add(typeBuilder);
+    }
+
+    return Json.createObjectBuilder()
+        .add(RESULT, SUCCESS)
+        .add(MESSAGE, listed + " assets of " + typeNames.size() + " types listed.")
+        .add(TYPES, typesBuilder)
+        .build();
+  }
+
+  /**
+   * @return the entries of the status index of a list key, merged from its buckets, or read from
+   *     the index record itself if it was built before the index was split into buckets
+   */
+  private JsonObject readIndex(Ledger ledger, String indexKey, JsonObject index) {
+    if (!index.containsKey(BUCKETS)) {
+      return index.getJsonObject(ASSETS);
+    }
+    JsonObjectBuilder assets = Json.createObjectBuilder();
+    for (int bucket = 0; bucket < index.getInt(BUCKETS); bucket++) {
+      Optional<Asset> entries = ledger.get(indexKey + "#" + bucket);
+      if (entries.isPresent()) {
+        entries.get().data().getJsonObject(ASSETS).forEach(assets::add);
+      }
+    }
+    return assets.build();
+  }
+
+  /**
+   * List the assets of one list key. <br>
+   * The status index of the key is used when it is complete, so the list is built with one read per
+   * bucket instead of one read per asset.
+   *
+   * @return at least <code>max</code> entries if there are, or all of them if <code>max</code> is
+   *     0, holding the id, name, age, timestamp, status and holder of each asset, in the order they
+   *     were added
+   */
+  private List<JsonObject> listShard(Ledger ledger, String holderId, String listKey, int max) {
+    List<JsonObject> entries = new ArrayList<>();
+
+    Optional<Asset> index = ledger.get(listKey + INDEX_SUFFIX);
+    if (index.isPresent() && !index.get().data().containsKey(BUILDING)) {
+      JsonObject assets = readIndex(ledger, listKey + INDEX_SUFFIX, index.get().data());
+      List<String> ids = new ArrayList<>(assets.keySet());
+      // Keep the order of the type history, i.e. the registration order
+      ids.sort(Comparator.comparingInt(id -> assets.getJsonObject(id).getInt(AGE)));
+      for (String id : ids) {
+        if (max > 0 && entries.size() >= max) {
+          break;
+        }
+        JsonObjectBuilder entryBuilder = Json.createObjectBuilder().add(ID, id);
+        assets.getJsonObject(id).forEach(entryBuilder::add);
+        entries.add(entryBuilder.build());
+      }
+      return entries;
+    }
+
+    int from = 0;
+    while (true) {
+      AssetFilter filter =
+          new AssetFilter(listKey).withStartAge(from, true).withAgeOrder(AssetFilter.AgeOrder.ASC);
+      int requested = max - entries.size();
+      if (max > 0) {
+        filter.withLimit(requested);
+      }
+      List<Asset> assetList = ledger.scan(filter);
+
+      for (Asset asset : assetList) {
+        from = asset.age() + 1;
+        JsonObject data = asset.data();
+        // A record holds one asset, or the assets added by one BatchAddAssetContract execution
+        List<JsonObject> added = new ArrayList<>();
+        if (data.containsKey(ID)) {
+          added.add(data);
+        } else if (data.containsKey(ASSETS)) {
+          added.addAll(data.getJsonArray(ASSETS).getValuesAs(JsonObject.class));
+        } // otherwise the initiated one, ignore it
+
+        for (JsonObject name : added) {
+          String id = name.getString(ID);
+          Optional<Asset> borrowingStatus = ledger.get(holderId + "-" + id);
+          if (!borrowingStatus.isPresent()) {
+            continue;
+          }
+          JsonObject status = decode(borrowingStatus.get().data());
+
+          JsonObjectBuilder entryBuilder =
+              Json.createObjectBuilder()
+                  .add(ID, id)
+                  .add(NAME, name.getString(NAME))
+                  .add(AGE, asset.age())
+                  .add(TIMESTAMP, status.getJsonNumber(TIMESTAMP).longValue())
+                  .add(STATUS, status.getString(STATUS));
+          if (status.containsKey(HOLDER_ID)) {
+            entryBuilder.add(HOLDER_ID, status.getString(HOLDER_ID));
+          }
+          entries.add(entryBuilder.build());
+        }
+      }
+
+      // Records without a status were skipped, read further until enough assets are listed
+      if (max <= 0 || entries.size() >= max || assetList.size() < requested) {
+        return entries;
+      }
+    }
+  }
+
+  /**
+   * @return the status record in its original form, e.g. { "holderId": ..., "timestamp": ...,
+   *     "status": "on-loan", "type": ..., "shard": ... }, whether it was written in it or in the
+   *     compact form of version 2
+   */
+  private JsonObject decode(JsonObject data) {
+    if (data.getInt(VERSION, 1) < 2) {
+      return data;
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    if (data.containsKey(V2_HOLDER_ID)) {
+      builder.add(HOLDER_ID, data.getString(V2_HOLDER_ID));
+    }
+    builder
+        .add(TIMESTAMP, data.getJsonNumber(V2_TIMESTAMP).longValue())
+        .add(STATUS, data.getInt(V2_STATUS) == 1 ? ON_LOAN : IN_STOCK);
+    if (data.containsKey(V2_TYPE)) {
+      builder.add(TYPE, data.getString(V2_TYPE));
+    }
+    if (data.containsKey(V2_SHARD)) {
+      builder.add(SHARD, data.getInt(V2_SHARD));
+    }
+    return builder.build();
+  }
+}
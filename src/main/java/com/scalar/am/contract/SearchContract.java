@@ -0,0 +1,146 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+
+public class SearchContract extends Contract {
+
+  public static final String TYPE = "type";
+  public static final String PREFIX = "prefix";
+  public static final String LIMIT = "limit";
+  public static final String ID = "id";
+  public static final String NAME = "name";
+  public static final String HOLDER_ID = "holderId";
+  public static final String ASSETS = "assets";
+  public static final String NAMES_SUFFIX = "#names";
+  public static final String BUCKETS = "buckets";
+  public static final String SPLIT = "split";
+  public static final int BUCKET_LENGTH = 3;
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!argument.containsKey(TYPE) || !argument.containsKey(PREFIX)) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+    String type = argument.getString(TYPE);
+    String prefix = argument.getString(PREFIX).trim().toLowerCase(Locale.ROOT);
+    int limit = argument.getInt(LIMIT, 0);
+    if (prefix.isEmpty()) {
+      throw new ContractContextException("wrong argument.");
+    }
+
+    Optional<Asset> typeAsset = ledger.get(holderId + "-" + type);
+    if (!typeAsset.isPresent()) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "Type " + type + " not found. Use am add-type to create it.")
+          .build();
+    }
+
+    /*
+     * The names of a type are indexed in buckets of key: <type>#names#<bucket>, the bucket being the
+     * first BUCKET_LENGTH characters of the trimmed and lower-cased name, or one character longer
+     * for each bucket it starts with that is listed under `split` in the record of key:
+     * <type>#names. A prefix longer than its bucket is searched in that bucket only, any other in
+     * the buckets it starts, which are listed in the same record. The other buckets are not read.
+     */
+    String namesKey = holderId + "-" + type + NAMES_SUFFIX;
+    Optional<Asset> directory = ledger.get(namesKey);
+    if (!directory.isPresent()) {
+      return notIndexed(type);
+    }
+    Set<String> split = new HashSet<>();
+    if (directory.get().data().containsKey(SPLIT)) {
+      for (JsonString bucket :
+          directory.get().data().getJsonArray(SPLIT).getValuesAs(JsonString.class)) {
+        split.add(bucket.getString());
+      }
+    }
+    String prefixBucket = bucket(prefix, split);
+    List<String> buckets = new ArrayList<>();
+    if (prefix.length() > prefixBucket.length()) {
+      buckets.add(prefixBucket);
+    } else {
+      for (JsonString bucket :
+          directory.get().data().getJsonArray(BUCKETS).getValuesAs(JsonString.class)) {
+        if (bucket.getString().startsWith(prefix)) {
+          buckets.add(bucket.getString());
+        }
+      }
+    }
+
+    List<JsonObject> found = new ArrayList<>();
+    for (String bucket : buckets) {
+      Optional<Asset> names = ledger.get(namesKey + "#" + bucket);
+      if (!names.isPresent()) {
+        continue;
+      }
+      JsonObject assets = names.get().data().getJsonObject(ASSETS);
+      for (String id : assets.keySet()) {
+        String name = assets.getString(id);
+        if (name.trim().toLowerCase(Locale.ROOT).startsWith(prefix)) {
+          found.add(Json.createObjectBuilder().add(ID, id).add(NAME, name).build());
+        }
+      }
+    }
+    found.sort(
+        Comparator.comparing(
+                (JsonObject asset) -> asset.getString(NAME).trim().toLowerCase(Locale.ROOT))
+            .thenComparing(asset -> asset.getString(ID)));
+
+    JsonArrayBuilder assetsBuilder = Json.createArrayBuilder();
+    for (JsonObject asset : (limit > 0 && found.size() > limit) ? found.subList(0, limit) : found) {
+      assetsBuilder.add(asset);
+    }
+
+    return Json.createObjectBuilder()
+        .add(RESULT, SUCCESS)
+        .add(MESSAGE, "search completed.")
+        .add(type, assetsBuilder.build())
+        .build();
+  }
+
+  /**
+   * @return the bucket of a name, its first BUCKET_LENGTH characters once trimmed and lower-cased,
+   *     one character longer for each split bucket it starts with
+   */
+  private String bucket(String normalized, Set<String> split) {
+    String bucket = normalized.substring(0, Math.min(BUCKET_LENGTH, normalized.length()));
+    while (split.contains(bucket) && normalized.length() > bucket.length()) {
+      bucket = normalized.substring(0, bucket.length() + 1);
+    }
+    return bucket;
+  }
+
+  private JsonObject notIndexed(String type) {
+    return Json.createObjectBuilder()
+        .add(RESULT, FAILURE)
+        .add(
+            MESSAGE,
+            "Names of type " + type + " are not indexed. Use am build-index to index them.")
+        .build();
+  }
+}
@@ -0,0 +1,94 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+
+public class StatsContract extends Contract {
+
+  public static final String TYPE = "type";
+  public static final String HOLDER_ID = "holderId";
+  public static final String SHARDS = "shards";
+  public static final String STATS_SUFFIX = "#stats";
+  public static final int AGGREGATE_SHARDS = 16;
+  public static final String TOTAL = "total";
+  public static final String IN_STOCK = "in-stock";
+  public static final String ON_LOAN = "on-loan";
+
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String FAILURE = "failure";
+  private static final String MESSAGE = "message";
+
+  @Override
+  public JsonObject invoke(Ledger ledger, JsonObject argument, Optional<JsonObject> property) {
+    if (!argument.containsKey(TYPE)) {
+      throw new ContractContextException("wrong argument.");
+    }
+    if (!property.isPresent() || !property.get().containsKey(HOLDER_ID)) {
+      throw new ContractContextException("property: `" + HOLDER_ID + "` is mandatory.");
+    }
+
+    String holderId = property.get().getString(HOLDER_ID);
+    String type = argument.getString(TYPE);
+
+    Optional<Asset> typeAsset = ledger.get(holderId + "-" + type);
+    if (!typeAsset.isPresent()) {
+      return Json.createObjectBuilder()
+          .add(RESULT, FAILURE)
+          .add(MESSAGE, "Type " + type + " not found. Use am add-type to create it.")
+          .build();
+    }
+
+    /*
+     * The counters of key: <type>#stats are updated in the same execution as every addition and
+     * status change, so they are read instead of the assets. A sharded type has counters per
+     * shard, in keys: <type>#0#stats ... <type>#N-1#stats, which are summed up. The record of
+     * each key holds the counters as they were built, and the changes since are counted in its
+     * AGGREGATE_SHARDS shards of key: <type>#stats#<shard>, which are added to them.
+     */
+    int shards = typeAsset.get().data().getInt(SHARDS, 1);
+    int total = 0;
+    int inStock = 0;
+    int onLoan = 0;
+    for (int shard = 0; shard < shards; shard++) {
+      String listKey = (shards > 1) ? holderId + "-" + type + "#" + shard : holderId + "-" + type;
+      Optional<Asset> stats = ledger.get(listKey + STATS_SUFFIX);
+      if (!stats.isPresent()) {
+        return Json.createObjectBuilder()
+            .add(RESULT, FAILURE)
+            .add(
+                MESSAGE,
+                "Statistics of type " + type + " are not built. Use am build-index to build them.")
+            .build();
+      }
+      List<JsonObject> counters = new ArrayList<>();
+      counters.add(stats.get().data());
+      for (int aggregateShard = 0; aggregateShard < AGGREGATE_SHARDS; aggregateShard++) {
+        ledger
+            .get(listKey + STATS_SUFFIX + "#" + aggregateShard)
+            .ifPresent((shardStats) -> counters.add(shardStats.data()));
+      }
+      for (JsonObject data : counters) {
+        total += data.getInt(TOTAL);
+        inStock += data.getInt(IN_STOCK);
+        onLoan += data.getInt(ON_LOAN);
+      }
+    }
+
+    return Json.createObjectBuilder()
+        .add(RESULT, SUCCESS)
+        .add(MESSAGE, "get stats completed.")
+        .add(TYPE, type)
+        .add(TOTAL, total)
+        .add(IN_STOCK, inStock)
+        .add(ON_LOAN, onLoan)
+        .build();
+  }
+}
@@ -2,12 +2,23 @@ package com.scalar.am.contract;
 
 import com.scalar.ledger.asset.Asset;
 import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.database.AssetFilter;
 import com.scalar.ledger.exception.ContractContextException;
 import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
 
 public class StatusChangeContract extends Contract {
 
@@ -15,12 +26,44 @@ public class StatusChangeContract extends Contract {
   public static final String TIMESTAMP = "timestamp";
   public static final String STATUS = "status";
   public static final String HOLDER_ID = "holderId";
+  public static final String TYPE = "type";
+  public static final String TYPES = "types";
+  public static final String NAME = "name";
+  public static final String AGE = "age";
+  public static final String ASSETS = "assets";
+  public static final String SHARD = "shard";
+  public static final String INDEX_SUFFIX = "#index";
+  public static final String BUCKETS = "buckets";
+  public static final String STATS_SUFFIX = "#stats";
+  public static final String CHANGES_SUFFIX = "#changes";
+  public static final String DURATIONS_SUFFIX = "#durations";
+  public static final String COUNT = "count";
+  public static final String SUM = "sum";
+  public static final String MAX = "max";
+  public static final String COUNTS = "counts";
+  public static final String LOANS_SUFFIX = "#loans";
+  public static final int AGGREGATE_SHARDS = 16;
+  public static final String TOTAL = "total";
+  public static final String VERSION = "v";
+  public static final String V2_HOLDER_ID = "h";
+  public static final String V2_TIMESTAMP = "t";
+  public static final String V2_STATUS = "s";
+  public static final String V2_TYPE = "y";
+  public static final String V2_SHARD = "k";
 
   private static final String RESULT = "result";
   private static final String SUCCESS = "success";
   private static final String FAILURE = "failure";
   private static final String MESSAGE = "message";
 
+  private static final long HOUR = 60 * 60 * 1000L;
+  private static final long DAY = 24 * HOUR;
+  // The upper bounds of the buckets of the loan durations histogram, in milliseconds
+  private static final long[] DURATION_BOUNDS = {
+    HOUR, 4 * HOUR, 12 * HOUR, DAY, 2 * DAY, 3 * DAY, 5 * DAY, 7 * DAY, 10 * DAY, 14 * DAY,
+    21 * DAY, 30 * DAY, 45 * DAY, 60 * DAY, 90 * DAY, 180 * DAY, 365 * DAY
+  };
+
   public static final String ON_LOAN = "on-loan";
   public static final String IN_STOCK = "in-stock";
 
@@ -48,7 +91,7 @@ public class StatusChangeContract extends Contract {
           .build();
     }
 
-    JsonObject data = asset.get().data();
+    JsonObject data = decode(asset.get().data());
     if (!data.containsKey(STATUS)) {
       return Json.createObjectBuilder()
           .add(RESULT, FAILURE)
@@ -78,6 +121,13 @@ public class StatusChangeContract extends Contract {
           .build();
     }
 
+    // Records written before the status index existed do not know their type, which is then given
+    // or found in the index holding the asset. The new record holds it.
+    String type = data.containsKey(TYPE) ? data.getString(TYPE) : argument.getString(TYPE, null);
+    if (type == null) {
+      type = findIndexedType(ledger, holderId, id, typeNames(ledger, holderId));
+    }
+
     JsonObjectBuilder newDataBuilder = Json.createObjectBuilder();
     if (newStatus.equals(ON_LOAN)) {
       newDataBuilder.add(HOLDER_ID, holderId).add(TIMESTAMP, timestamp).add(STATUS, newStatus);
@@ -96,10 +146,384 @@ public class StatusChangeContract extends Contract {
       }
       newDataBuilder.add(TIMESTAMP, timestamp).add(STATUS, newStatus);
     }
-    ledger.put(holderId + "-" + id, newDataBuilder.build());
+    if (type != null) {
+      newDataBuilder.add(TYPE, type);
+    }
+    // Assets of a sharded type are listed in key: <type>#<shard>
+    String listKey = holderId + "-" + type;
+    if (data.containsKey(SHARD)) {
+      newDataBuilder.add(SHARD, data.getInt(SHARD));
+      listKey = listKey + "#" + data.getInt(SHARD);
+    }
+    JsonObject newData = newDataBuilder.build();
+    ledger.put(holderId + "-" + id, encode(newData));
+
+    updateLoans(
+        ledger, holderId + "-" + holderId + LOANS_SUFFIX, Collections.singletonMap(id, newData));
+    if (type != null) {
+      JsonObject entry = updateIndex(ledger, listKey + INDEX_SUFFIX, id, newData);
+      if (entry != null) {
+        appendChanges(
+            ledger, listKey + CHANGES_SUFFIX, Json.createObjectBuilder().add(id, entry).build());
+      }
+      int borrowed = ON_LOAN.equals(newStatus) ? 1 : -1;
+      updateStats(
+          ledger, listKey + STATS_SUFFIX, Collections.singleton(id), 0, -borrowed, borrowed);
+      if (IN_STOCK.equals(newStatus)) {
+        // The current record was written when the asset was borrowed
+        long duration = Math.max(0, timestamp - data.getJsonNumber(TIMESTAMP).longValue());
+        updateDurations(ledger, listKey + DURATIONS_SUFFIX, Collections.singletonMap(id, duration));
+      }
+    }
     return Json.createObjectBuilder()
         .add(RESULT, SUCCESS)
         .add(MESSAGE, ON_LOAN.equals(newStatus) ? "Borrowed" : "Returned")
         .build();
   }
+
+  /**
+   * @return the names of the types registered by the holder, read from the snapshot of the latest
+   *     record of key: type, or from its history if it was written before the snapshot
+   */
+  private List<String> typeNames(Ledger ledger, String holderId) {
+    List<String> names = new ArrayList<>();
+    Optional<Asset> registry = ledger.get(holderId + "-" + TYPE);
+    if (!registry.isPresent()) {
+      return names;
+    }
+    if (registry.get().data().containsKey(TYPES)) {
+      for (JsonObject t : registry.get().data().getJsonArray(TYPES).getValuesAs(JsonObject.class)) {
+        names.add(t.getString(NAME));
+      }
+    } else {
+      for (Asset history : ledger.scan(new AssetFilter(holderId + "-" + TYPE))) {
+        names.add(history.data().getString(NAME));
+      }
+    }
+    return names;
+  }
+
+  /**
+   * @return the type whose status index holds the asset, or null if none does. Only the bucket of
+   *     the asset is read in the index of each type. Sharded types are left out, their assets are
+   *     always registered with their type.
+   */
+  private String findIndexedType(Ledger ledger, String holderId, String id, List<String> names) {
+    for (String name : names) {
+      String indexKey = holderId + "-" + name + INDEX_SUFFIX;
+      Optional<Asset> index = ledger.get(indexKey);
+      if (!index.isPresent()) {
+        continue;
+      }
+      String bucketKey = indexBucketKey(indexKey, index.get().data(), id);
+      Optional<JsonObject> bucket =
+          bucketKey.equals(indexKey)
+              ? Optional.of(index.get().data())
+              : ledger.get(bucketKey).map(Asset::data);
+      if (bucket.isPresent() && bucket.get().getJsonObject(ASSETS).containsKey(id)) {
+        return name;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Add the borrowed assets to the loans of the holder and remove the returned ones. The loans are
+   * kept in the shards of key: <holderId>#loans#<shard> the assets are counted in, and the loans
+   * recorded in key: <holderId>#loans before it was sharded are removed from it when returned.
+   */
+  private void updateLoans(Ledger ledger, String loansKey, Map<String, JsonObject> newRecords) {
+    Optional<Asset> unsharded = ledger.get(loansKey);
+    if (unsharded.isPresent()) {
+      JsonObject assets = unsharded.get().data().getJsonObject(ASSETS);
+      if (newRecords.keySet().stream().anyMatch(assets::containsKey)) {
+        JsonObjectBuilder assetsBuilder = Json.createObjectBuilder();
+        assets.forEach(
+            (key, value) -> {
+              if (!newRecords.containsKey(key)) {
+                assetsBuilder.add(key, value);
+              }
+            });
+        ledger.put(loansKey, Json.createObjectBuilder().add(ASSETS, assetsBuilder).build());
+      }
+    }
+
+    for (Map.Entry<String, Map<String, JsonObject>> shard :
+        byAggregateShard(loansKey, newRecords).entrySet()) {
+      Map<String, JsonObject> records = shard.getValue();
+      Optional<Asset> loans = ledger.get(shard.getKey());
+      JsonObjectBuilder assetsBuilder = Json.createObjectBuilder();
+      if (loans.isPresent()) {
+        loans
+            .get()
+            .data()
+            .getJsonObject(ASSETS)
+            .forEach(
+                (key, value) -> {
+                  if (!records.containsKey(key)) {
+                    assetsBuilder.add(key, value);
+                  }
+                });
+      }
+      boolean borrowed = false;
+      for (Map.Entry<String, JsonObject> record : records.entrySet()) {
+        JsonObject newData = record.getValue();
+        if (!ON_LOAN.equals(newData.getString(STATUS))) {
+          continue;
+        }
+        JsonObjectBuilder entryBuilder =
+            Json.createObjectBuilder().add(TIMESTAMP, newData.getJsonNumber(TIMESTAMP).longValue());
+        if (newData.containsKey(TYPE)) {
+          entryBuilder.add(TYPE, newData.getString(TYPE));
+        }
+        assetsBuilder.add(record.getKey(), entryBuilder);
+        borrowed = true;
+      }
+      if (loans.isPresent() || borrowed) {
+        ledger.put(shard.getKey(), Json.createObjectBuilder().add(ASSETS, assetsBuilder).build());
+      }
+    }
+  }
+
+  /**
+   * Update the entry of the asset in the status index of its type. <br>
+   * Nothing is done if the type has no index, or if the asset is not indexed yet, in which case the
+   * index build will read its latest status.
+   *
+   * @return the new entry of the asset, or null if nothing was done
+   */
+  private JsonObject updateIndex(Ledger ledger, String indexKey, String id, JsonObject newData) {
+    Optional<Asset> index = ledger.get(indexKey);
+    if (!index.isPresent()) {
+      return null;
+    }
+    // Only the bucket of the asset is read and written, or the index record itself if it was built
+    // before the index was split into buckets
+    String bucketKey = indexBucketKey(indexKey, index.get().data(), id);
+    Optional<JsonObject> bucket =
+        bucketKey.equals(indexKey)
+            ? Optional.of(index.get().data())
+            : ledger.get(bucketKey).map(Asset::data);
+    if (!bucket.isPresent() || !bucket.get().getJsonObject(ASSETS).containsKey(id)) {
+      return null;
+    }
+    JsonObject assets = bucket.get().getJsonObject(ASSETS);
+
+    JsonObject entry = assets.getJsonObject(id);
+    JsonObjectBuilder entryBuilder =
+        Json.createObjectBuilder()
+            .add(NAME, entry.getString(NAME))
+            .add(AGE, entry.getInt(AGE))
+            .add(TIMESTAMP, newData.getJsonNumber(TIMESTAMP).longValue())
+            .add(STATUS, newData.getString(STATUS));
+    if (newData.containsKey(HOLDER_ID)) {
+      entryBuilder.add(HOLDER_ID, newData.getString(HOLDER_ID));
+    }
+
+    JsonObjectBuilder assetsBuilder = Json.createObjectBuilder();
+    assets.forEach(assetsBuilder::add);
+    JsonObject newEntry = entryBuilder.build();
+    assetsBuilder.add(id, newEntry);
+
+    JsonObjectBuilder bucketBuilder = Json.createObjectBuilder();
+    bucket.get().forEach(bucketBuilder::add);
+    ledger.put(bucketKey, bucketBuilder.add(ASSETS, assetsBuilder).build());
+    return newEntry;
+  }
+
+  /**
+   * @return the key of the shard of an aggregate record that an asset is counted in: <key>#<shard>.
+   *     The counters, change logs, loan durations and loans are split into AGGREGATE_SHARDS shards
+   *     chosen from the asset ids, so that changes of different assets seldom write the same
+   *     record. The readers merge the shards.
+   */
+  private String aggregateKey(String key, String id) {
+    return key + "#" + ((id.hashCode() * 0x9E3779B9) >>> 16) % AGGREGATE_SHARDS;
+  }
+
+  /** @return the given values of assets grouped by the shard of key: key they are counted in */
+  private <T> Map<String, Map<String, T>> byAggregateShard(String key, Map<String, T> values) {
+    Map<String, Map<String, T>> shards = new TreeMap<>();
+    values.forEach(
+        (id, value) ->
+            shards
+                .computeIfAbsent(aggregateKey(key, id), (shardKey) -> new LinkedHashMap<>())
+                .put(id, value));
+    return shards;
+  }
+
+  /**
+   * @return the key holding the index entry of an asset, <indexKey>#<bucket> for an index split
+   *     into buckets, or the index key itself for an index built before
+   */
+  private String indexBucketKey(String indexKey, JsonObject index, String id) {
+    if (!index.containsKey(BUCKETS)) {
+      return indexKey;
+    }
+    return indexKey + "#" + indexBucket(id, index.getInt(BUCKETS));
+  }
+
+  /**
+   * @return the bucket of the index entry of an asset among the given number of buckets. The
+   *     buckets are addressed as in linear hashing: an asset is in bucket hash mod 2^k, or hash mod
+   *     2^(k-1) if that bucket is not split yet, where 2^(k-1) <= buckets < 2^k. The bits of the
+   *     hash are reversed, so that the bucket does not follow the shard chosen from the hash
+   *     itself.
+   */
+  private int indexBucket(String id, int buckets) {
+    int hash = Integer.reverse(id.hashCode() * 0x9E3779B9) >>> 1;
+    int half = Integer.highestOneBit(buckets);
+    int bucket = hash % (half * 2);
+    return bucket < buckets ? bucket : hash % half;
+  }
+
+  /**
+   * Add the given numbers to the counters of a list key for each of the given assets. The numbers
+   * are added to the shards of key: <type>#stats#<shard> the assets are counted in, and the record
+   * of key: <type>#stats keeps the counters as they were built. <br>
+   * Nothing is done if the type has no counters yet, they are then built with its index.
+   */
+  private void updateStats(
+      Ledger ledger, String statsKey, Collection<String> ids, int total, int inStock, int onLoan) {
+    if (!ledger.get(statsKey).isPresent()) {
+      return;
+    }
+    Map<String, Integer> counts = new TreeMap<>();
+    ids.forEach((id) -> counts.merge(aggregateKey(statsKey, id), 1, Integer::sum));
+    counts.forEach(
+        (shardKey, count) -> {
+          Optional<JsonObject> stats = ledger.get(shardKey).map(Asset::data);
+          ledger.put(
+              shardKey,
+              Json.createObjectBuilder()
+                  .add(TOTAL, stats.map((data) -> data.getInt(TOTAL)).orElse(0) + count * total)
+                  .add(
+                      IN_STOCK,
+                      stats.map((data) -> data.getInt(IN_STOCK)).orElse(0) + count * inStock)
+                  .add(
+                      ON_LOAN, stats.map((data) -> data.getInt(ON_LOAN)).orElse(0) + count * onLoan)
+                  .build());
+        });
+  }
+
+  /**
+   * Record the new index entries of the changed assets in the change log of a list key, split into
+   * the shards of key: <type>#changes#<shard> the assets are counted in, whose ages order the
+   * changes for ChangesContract. Nothing is done if the type has no change log yet.
+   */
+  private void appendChanges(Ledger ledger, String changesKey, Map<String, JsonValue> assets) {
+    if (!ledger.get(changesKey).isPresent()) {
+      return;
+    }
+    byAggregateShard(changesKey, assets)
+        .forEach(
+            (shardKey, entries) -> {
+              JsonObjectBuilder assetsBuilder = Json.createObjectBuilder();
+              entries.forEach(assetsBuilder::add);
+              ledger.put(shardKey, Json.createObjectBuilder().add(ASSETS, assetsBuilder).build());
+            });
+  }
+
+  /**
+   * @return the status record in the compact form of version 2, e.g. { "v": 2, "h": ..., "t": ...,
+   *     "s": 1, "y": ..., "k": ... }, the status being coded as 0 for in-stock and 1 for on-loan
+   */
+  private JsonObject encode(JsonObject data) {
+    if (!data.containsKey(STATUS)
+        || !(ON_LOAN.equals(data.getString(STATUS)) || IN_STOCK.equals(data.getString(STATUS)))) {
+      throw new ContractContextException("wrong argument.");
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder().add(VERSION, 2);
+    if (data.containsKey(HOLDER_ID)) {
+      builder.add(V2_HOLDER_ID, data.getString(HOLDER_ID));
+    }
+    builder
+        .add(V2_TIMESTAMP, data.getJsonNumber(TIMESTAMP).longValue())
+        .add(V2_STATUS, ON_LOAN.equals(data.getString(STATUS)) ? 1 : 0);
+    if (data.containsKey(TYPE)) {
+      builder.add(V2_TYPE, data.getString(TYPE));
+    }
+    if (data.containsKey(SHARD)) {
+      builder.add(V2_SHARD, data.getInt(SHARD));
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return the status record in its original form, e.g. { "holderId": ..., "timestamp": ...,
+   *     "status": "on-loan", "type": ..., "shard": ... }, whether it was written in it or in the
+   *     compact form of version 2
+   */
+  private JsonObject decode(JsonObject data) {
+    if (data.getInt(VERSION, 1) < 2) {
+      return data;
+    }
+    JsonObjectBuilder builder = Json.createObjectBuilder();
+    if (data.containsKey(V2_HOLDER_ID)) {
+      builder.add(HOLDER_ID, data.getString(V2_HOLDER_ID));
+    }
+    builder
+        .add(TIMESTAMP, data.getJsonNumber(V2_TIMESTAMP).longValue())
+        .add(STATUS, data.getInt(V2_STATUS) == 1 ? ON_LOAN : IN_STOCK);
+    if (data.containsKey(V2_TYPE)) {
+      builder.add(TYPE, data.getString(V2_TYPE));
+    }
+    if (data.containsKey(V2_SHARD)) {
+      builder.add(SHARD, data.getInt(V2_SHARD));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Add the durations of returned loans to the histogram of a list key, kept in the shards of key:
+   * <type>#durations#<shard> the assets are counted in, whose bucket i counts the loans of at most
+   * DURATION_BOUNDS[i] milliseconds and last bucket the longer ones. <br>
+   * Nothing is done if the type has no histogram yet, it is then started with its index.
+   */
+  private void updateDurations(Ledger ledger, String durationsKey, Map<String, Long> durations) {
+    if (!ledger.get(durationsKey).isPresent()) {
+      return;
+    }
+    for (Map.Entry<String, Map<String, Long>> shard :
+        byAggregateShard(durationsKey, durations).entrySet()) {
+      Optional<Asset> histogram = ledger.get(shard.getKey());
+      long[] newCounts = new long[DURATION_BOUNDS.length + 1];
+      long count = 0;
+      long sum = 0;
+      long max = 0;
+      if (histogram.isPresent()) {
+        JsonObject data = histogram.get().data();
+        JsonArray counts = data.getJsonArray(COUNTS);
+        for (int i = 0; i < counts.size(); i++) {
+          newCounts[i] = counts.getJsonNumber(i).longValue();
+        }
+        count = data.getJsonNumber(COUNT).longValue();
+        sum = data.getJsonNumber(SUM).longValue();
+        max = data.getJsonNumber(MAX).longValue();
+      }
+      for (long duration : shard.getValue().values()) {
+        int bucket = 0;
+        while (bucket < DURATION_BOUNDS.length && duration > DURATION_BOUNDS[bucket]) {
+          bucket++;
+        }
+        newCounts[bucket]++;
+        count++;
+        sum += duration;
+        max = Math.max(max, duration);
+      }
+
+      JsonArrayBuilder countsBuilder = Json.createArrayBuilder();
+      for (long bucketCount : newCounts) {
+        countsBuilder.add(bucketCount);
+      }
+      ledger.put(
+          shard.getKey(),
+          Json.createObjectBuilder()
+              .add(COUNT, count)
+              .add(SUM, sum)
+              .add(MAX, max)
+              .add(COUNTS, countsBuilder)
+              .build());
+    }
+  }
 }
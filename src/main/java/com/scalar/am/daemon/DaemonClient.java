@@ -0,0 +1,100 @@
+package com.scalar.am.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Properties;
+
+/** Forward a command to a running {@link DaemonServer} and replay its output */
+public class DaemonClient {
+  /**
+   * Commands which must run in the calling process, e.g. because they read the standard input, or
+   * the files and the server they use are those of the caller
+   */
+  private static final List<String> LOCAL_COMMANDS =
+      Arrays.asList("init", "daemon", "batch", "local-server", "loadtest", "import", "export");
+
+  private DaemonClient() {}
+
+  /**
+   * Forward the command to the daemon of the working directory, if any
+   *
+   * @param args the command line arguments
+   * @return the exit code of the command, or empty if it was not forwarded
+   */
+  public static OptionalInt forward(String[] args) {
+    File daemonFile = new File(DaemonProtocol.DAEMON_FILE);
+    if (args.length == 0 || LOCAL_COMMANDS.contains(args[0]) || !daemonFile.exists()) {
+      return OptionalInt.empty();
+    }
+
+    Properties prop = new Properties();
+    try (InputStream input = new FileInputStream(daemonFile)) {
+      prop.load(input);
+    } catch (IOException e) {
+      return OptionalInt.empty();
+    }
+
+    Socket socket;
+    try {
+      int port = Integer.parseInt(prop.getProperty(DaemonProtocol.PORT));
+      socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    } catch (IOException | NumberFormatException e) {
+      // Stale daemon file, run the command locally
+      return OptionalInt.empty();
+    }
+
+    try (Socket s = socket;
+        DataOutputStream output =
+            new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+        DataInputStream input = new DataInputStream(new BufferedInputStream(s.getInputStream()))) {
+      output.writeUTF(prop.getProperty(DaemonProtocol.TOKEN, ""));
+      output.writeBoolean(System.console() != null);
+      output.writeInt(args.length);
+      for (String arg : args) {
+        output.writeUTF(arg);
+      }
+      output.flush();
+
+      return OptionalInt.of(replay(input));
+    } catch (IOException e) {
+      System.err.println("Lost the connection to the daemon: " + e.getMessage());
+      return OptionalInt.of(1);
+    }
+  }
+
+  private static int replay(DataInputStream input) throws IOException {
+    byte[] buffer = new byte[8192];
+    while (true) {
+      byte channel = input.readByte();
+      int length = input.readInt();
+      if (channel == DaemonProtocol.EXIT) {
+        System.out.flush();
+        System.err.flush();
+        return length;
+      }
+
+      PrintStream target = channel == DaemonProtocol.STDERR ? System.err : System.out;
+      while (length > 0) {
+        int read = input.read(buffer, 0, Math.min(buffer.length, length));
+        if (read < 0) {
+          throw new IOException("unexpected end of stream");
+        }
+        target.write(buffer, 0, read);
+        length -= read;
+      }
+      target.flush();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.scalar.am.daemon;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Wire format shared by {@link DaemonServer} and {@link DaemonClient} <br>
+ * A request is the token, the ANSI flag and the argv of the command. The response is a sequence of
+ * frames: one byte for the channel, then an int length and the bytes written to that channel. The
+ * {@link #EXIT} frame carries the exit code of the command instead and ends the response.
+ */
+final class DaemonProtocol {
+  static final String DAEMON_FILE = System.getProperty("user.dir") + File.separator + "am.daemon";
+  static final String PORT = "port";
+  static final String TOKEN = "token";
+
+  static final byte STDOUT = 1;
+  static final byte STDERR = 2;
+  static final byte EXIT = 0;
+
+  private DaemonProtocol() {}
+
+  /** Output stream writing every chunk as a frame on the given channel */
+  static class FrameOutputStream extends OutputStream {
+    private final DataOutputStream connection;
+    private final byte channel;
+
+    FrameOutputStream(DataOutputStream connection, byte channel) {
+      this.connection = connection;
+      this.channel = channel;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0) {
+        return;
+      }
+      synchronized (connection) {
+        connection.writeByte(channel);
+        connection.writeInt(length);
+        connection.write(bytes, offset, length);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      synchronized (connection) {
+        connection.flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      // The connection is owned by the server, a command closing its output must not end it
+      flush();
+    }
+  }
+}
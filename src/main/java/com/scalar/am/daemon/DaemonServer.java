@@ -0,0 +1,162 @@
+package com.scalar.am.daemon;
+
+import com.scalar.am.AssetManager;
+import com.scalar.am.command.CommandFactory;
+import com.scalar.client.config.ClientConfig;
+import com.scalar.client.service.ClientService;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.xml.bind.DatatypeConverter;
+import picocli.CommandLine;
+
+/**
+ * Serve the commands forwarded by {@link DaemonClient} with a single {@link ClientService} <br>
+ * Java 8 has no Unix domain sockets, so the server listens on the loopback interface only and
+ * publishes its port with a random token in a file readable by the owner only.
+ */
+public class DaemonServer {
+  private final ClientConfig config;
+  private final ClientService service;
+  private final String token;
+
+  public DaemonServer(ClientConfig config, ClientService service) {
+    this.config = config;
+    this.service = service;
+    byte[] bytes = new byte[16];
+    new SecureRandom().nextBytes(bytes);
+    this.token = DatatypeConverter.printHexBinary(bytes);
+  }
+
+  /**
+   * Accept forwarded commands until the process is stopped
+   *
+   * @param port the local port to listen on, 0 picks a free one
+   * @param threads the number of commands served concurrently
+   * @param err the stream the port listened on is reported to
+   */
+  public void serve(int port, int threads, PrintStream err) throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    File daemonFile = new File(DaemonProtocol.DAEMON_FILE);
+    try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+      publish(daemonFile, serverSocket.getLocalPort());
+      Runtime.getRuntime().addShutdownHook(new Thread(daemonFile::delete));
+      err.println("Daemon listening on port " + serverSocket.getLocalPort());
+
+      while (!serverSocket.isClosed()) {
+        Socket socket = serverSocket.accept();
+        executor.execute(() -> handle(socket));
+      }
+    } finally {
+      executor.shutdownNow();
+      daemonFile.delete();
+    }
+  }
+
+  /**
+   * Write the port and the token to the daemon file. They are written to a temporary file created
+   * readable by the owner only, which is then moved into place, so that the token is never readable
+   * by other users.
+   */
+  private void publish(File daemonFile, int port) throws IOException {
+    Properties prop = new Properties();
+    prop.setProperty(DaemonProtocol.PORT, Integer.toString(port));
+    prop.setProperty(DaemonProtocol.TOKEN, token);
+
+    Path target = daemonFile.getAbsoluteFile().toPath();
+    Path temp;
+    try {
+      temp =
+          Files.createTempFile(
+              target.getParent(),
+              DaemonProtocol.DAEMON_FILE,
+              ".tmp",
+              PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    } catch (UnsupportedOperationException e) {
+      temp = Files.createTempFile(target.getParent(), DaemonProtocol.DAEMON_FILE, ".tmp");
+      temp.toFile().setReadable(false, false);
+      temp.toFile().setReadable(true, true);
+    }
+    try {
+      try (OutputStream output = Files.newOutputStream(temp)) {
+        prop.store(output, null);
+      }
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private void handle(Socket socket) {
+    try (Socket s = socket;
+        DataInputStream input = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+        DataOutputStream output =
+            new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+      byte[] received = input.readUTF().getBytes(StandardCharsets.UTF_8);
+      if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), received)) {
+        return;
+      }
+      boolean ansi = input.readBoolean();
+      String[] args = new String[input.readInt()];
+      for (int i = 0; i < args.length; i++) {
+        args[i] = input.readUTF();
+      }
+
+      PrintStream out =
+          new PrintStream(
+              new DaemonProtocol.FrameOutputStream(output, DaemonProtocol.STDOUT), true, "UTF-8");
+      PrintStream err =
+          new PrintStream(
+              new DaemonProtocol.FrameOutputStream(output, DaemonProtocol.STDERR), true, "UTF-8");
+      int exitCode = execute(args, ansi, out, err);
+      out.flush();
+      err.flush();
+
+      synchronized (output) {
+        output.writeByte(DaemonProtocol.EXIT);
+        output.writeInt(exitCode);
+        output.flush();
+      }
+    } catch (IOException e) {
+      // The client went away, nothing is left to report to
+    }
+  }
+
+  /** Run the command the same way {@link AssetManager#main(String[])} does in a fresh JVM */
+  private int execute(String[] args, boolean ansi, PrintStream out, PrintStream err) {
+    CommandLine.Help.Ansi mode = ansi ? CommandLine.Help.Ansi.ON : CommandLine.Help.Ansi.OFF;
+    CommandLine commandLine =
+        new CommandLine(new AssetManager(), new CommandFactory(config, service, out, err));
+    try {
+      commandLine.parseWithHandlers(
+          new CommandLine.RunLast().useOut(out).useAnsi(mode),
+          new CommandLine.DefaultExceptionHandler<List<Object>>().useErr(err).useAnsi(mode),
+          args);
+      return 0;
+    } catch (CommandLine.ExecutionException e) {
+      // An uncaught exception ends the JVM with status 1
+      err.print("Exception in thread \"main\" ");
+      e.printStackTrace(err);
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.scalar.am.ledger;
+
+import java.util.Random;
+
+/**
+ * Slow down or fail the requests served by {@link LocalLedgerService}, so that the behaviour of the
+ * client under latency and errors can be measured on one machine. <br>
+ * Every request is delayed by <code>latency</code> plus a random jitter of at most <code>jitter
+ * </code> milliseconds, and a fraction <code>slowRate</code> of them by <code>slowLatency</code>
+ * more, to produce a tail. A fraction <code>errorRate</code> of them fail without being executed.
+ */
+public class FaultInjector {
+  public static final FaultInjector NONE = new FaultInjector(0, 0, 0, 0, 0, 0);
+
+  private final long latency;
+  private final long jitter;
+  private final double slowRate;
+  private final long slowLatency;
+  private final double errorRate;
+  private final Random random;
+
+  /**
+   * @param latency the delay of every request, in milliseconds
+   * @param jitter the maximum random delay added to every request, in milliseconds
+   * @param slowRate the fraction of requests delayed by <code>slowLatency</code> more, from 0 to 1
+   * @param slowLatency the delay added to the slow requests, in milliseconds
+   * @param errorRate the fraction of requests that fail, from 0 to 1
+   * @param seed the seed of the random choices
+   */
+  public FaultInjector(
+      long latency, long jitter, double slowRate, long slowLatency, double errorRate, long seed) {
+    if (latency < 0 || jitter < 0 || slowLatency < 0) {
+      throw new IllegalArgumentException("latencies must be at least 0");
+    }
+    if (slowRate < 0 || slowRate > 1 || errorRate < 0 || errorRate > 1) {
+      throw new IllegalArgumentException("rates must be between 0 and 1");
+    }
+    this.latency = latency;
+    this.jitter = jitter;
+    this.slowRate = slowRate;
+    this.slowLatency = slowLatency;
+    this.errorRate = errorRate;
+    this.random = new Random(seed);
+  }
+
+  /** @return the delay of the next request, in milliseconds */
+  long nextDelay() {
+    long delay = latency;
+    if (jitter > 0) {
+      delay += (long) (random.nextDouble() * (jitter + 1));
+    }
+    if (slowRate > 0 && random.nextDouble() < slowRate) {
+      delay += slowLatency;
+    }
+    return delay;
+  }
+
+  /** @return true if the next request must fail */
+  boolean nextFails() {
+    return errorRate > 0 && random.nextDouble() < errorRate;
+  }
+
+  /** Wait for the delay of the next request */
+  void delay() throws InterruptedException {
+    long delay = nextDelay();
+    if (delay > 0) {
+      Thread.sleep(delay);
+    }
+  }
+}
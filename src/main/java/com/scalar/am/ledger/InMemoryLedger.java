@@ -0,0 +1,147 @@
+package com.scalar.am.ledger;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.json.JsonObject;
+
+/**
+ * A {@link Ledger} keeping the history of every key in memory, to run the contracts without a
+ * Scalar DL network in tests, benchmarks and local runs. <br>
+ * Every put appends a record to the history of its key with the next age, starting from 0, and a
+ * get returns the latest record. A scan returns the records of a key within the ages of the filter,
+ * in the order of the filter or in ascending order of age if it has none, at most as many as its
+ * limit unless the limit is 0. Histories are never rewritten. <br>
+ * The number of gets, puts, scans and scanned records are counted, so that the cost of a contract
+ * can be measured in ledger operations.
+ */
+public class InMemoryLedger implements Ledger {
+  private final Map<String, List<Asset>> histories = new ConcurrentHashMap<>();
+  private final AtomicLong gets = new AtomicLong();
+  private final AtomicLong puts = new AtomicLong();
+  private final AtomicLong scans = new AtomicLong();
+  private final AtomicLong scanned = new AtomicLong();
+
+  @Override
+  public Optional<Asset> get(String assetId) {
+    gets.incrementAndGet();
+    List<Asset> history = histories.get(assetId);
+    if (history == null) {
+      return Optional.empty();
+    }
+    synchronized (history) {
+      // The history is created just before its first record is appended
+      return history.isEmpty() ? Optional.empty() : Optional.of(history.get(history.size() - 1));
+    }
+  }
+
+  @Override
+  public List<Asset> scan(AssetFilter filter) {
+    scans.incrementAndGet();
+    List<Asset> history = histories.get(filter.getId());
+    if (history == null) {
+      return Collections.emptyList();
+    }
+    List<Asset> records;
+    synchronized (history) {
+      records = new ArrayList<>(history);
+    }
+
+    // The age of a record is its position in the history
+    int from = 0;
+    int to = records.size() - 1;
+    if (filter.getStartAge().isPresent()) {
+      int start = filter.getStartAge().get();
+      from = Math.max(from, filter.isStartInclusive() ? start : start + 1);
+    }
+    if (filter.getEndAge().isPresent()) {
+      int end = filter.getEndAge().get();
+      to = Math.min(to, filter.isEndInclusive() ? end : end - 1);
+    }
+    if (from > to) {
+      return Collections.emptyList();
+    }
+    List<Asset> result = new ArrayList<>(records.subList(from, to + 1));
+    if (filter.getAgeOrder().orElse(AssetFilter.AgeOrder.ASC) == AssetFilter.AgeOrder.DESC) {
+      Collections.reverse(result);
+    }
+    if (filter.getLimit() > 0 && result.size() > filter.getLimit()) {
+      result = result.subList(0, filter.getLimit());
+    }
+    scanned.addAndGet(result.size());
+    return result;
+  }
+
+  @Override
+  public void put(String assetId, JsonObject data) {
+    puts.incrementAndGet();
+    List<Asset> history = histories.computeIfAbsent(assetId, (id) -> new ArrayList<>());
+    synchronized (history) {
+      history.add(new InMemoryAsset(assetId, history.size(), data));
+    }
+  }
+
+  /** @return the number of keys with at least one record */
+  public int size() {
+    return histories.size();
+  }
+
+  public long getCount() {
+    return gets.get();
+  }
+
+  public long putCount() {
+    return puts.get();
+  }
+
+  public long scanCount() {
+    return scans.get();
+  }
+
+  /** @return the number of records returned by all the scans */
+  public long scannedCount() {
+    return scanned.get();
+  }
+
+  /** Reset the operation counters, e.g. once the ledger is filled and before measuring */
+  public void resetCounters() {
+    gets.set(0);
+    puts.set(0);
+    scans.set(0);
+    scanned.set(0);
+  }
+
+  static class InMemoryAsset implements Asset {
+    private final String id;
+    private final int age;
+    private final JsonObject data;
+
+    InMemoryAsset(String id, int age, JsonObject data) {
+      this.id = id;
+      this.age = age;
+      this.data = data;
+    }
+
+    @Override
+    public String id() {
+      return id;
+    }
+
+    @Override
+    public int age() {
+      return age;
+    }
+
+    @Override
+    public JsonObject data() {
+      return data;
+    }
+  }
+}
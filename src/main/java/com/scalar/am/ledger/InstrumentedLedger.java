@@ -0,0 +1,104 @@
+package com.scalar.am.ledger;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.List;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+
+/**
+ * A {@link Ledger} counting the operations one contract execution makes on the ledger it wraps, and
+ * the time they take. <br>
+ * An instance is used by one execution at a time, so it is not thread-safe.
+ */
+public class InstrumentedLedger implements Ledger {
+  public static final String GETS = "gets";
+  public static final String PUTS = "puts";
+  public static final String SCANS = "scans";
+  public static final String SCANNED = "scanned";
+  public static final String LEDGER_MILLIS = "ledgerMillis";
+  public static final String ELAPSED_MILLIS = "elapsedMillis";
+
+  private final Ledger ledger;
+  private final long start = System.nanoTime();
+  private long gets;
+  private long puts;
+  private long scans;
+  private long scanned;
+  private long ledgerNanos;
+
+  public InstrumentedLedger(Ledger ledger) {
+    this.ledger = ledger;
+  }
+
+  @Override
+  public Optional<Asset> get(String assetId) {
+    long started = System.nanoTime();
+    try {
+      return ledger.get(assetId);
+    } finally {
+      gets++;
+      ledgerNanos += System.nanoTime() - started;
+    }
+  }
+
+  @Override
+  public List<Asset> scan(AssetFilter filter) {
+    long started = System.nanoTime();
+    List<Asset> assets = null;
+    try {
+      assets = ledger.scan(filter);
+      return assets;
+    } finally {
+      scans++;
+      scanned += (assets != null) ? assets.size() : 0;
+      ledgerNanos += System.nanoTime() - started;
+    }
+  }
+
+  @Override
+  public void put(String assetId, JsonObject data) {
+    long started = System.nanoTime();
+    try {
+      ledger.put(assetId, data);
+    } finally {
+      puts++;
+      ledgerNanos += System.nanoTime() - started;
+    }
+  }
+
+  public long getCount() {
+    return gets;
+  }
+
+  public long putCount() {
+    return puts;
+  }
+
+  public long scanCount() {
+    return scans;
+  }
+
+  /** @return the number of records returned by the scans */
+  public long scannedCount() {
+    return scanned;
+  }
+
+  /**
+   * @return the operations counted so far, e.g. { "gets": 3, "puts": 1, "scans": 0, "scanned": 0,
+   *     "ledgerMillis": 0.02, "elapsedMillis": 0.35 }, the elapsed time being measured from the
+   *     creation of this ledger
+   */
+  public JsonObject toJson() {
+    return Json.createObjectBuilder()
+        .add(GETS, gets)
+        .add(PUTS, puts)
+        .add(SCANS, scans)
+        .add(SCANNED, scanned)
+        .add(LEDGER_MILLIS, ledgerNanos / 1e6)
+        .add(ELAPSED_MILLIS, (System.nanoTime() - start) / 1e6)
+        .build();
+  }
+}
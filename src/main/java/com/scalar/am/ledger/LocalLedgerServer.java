@@ -0,0 +1,58 @@
+package com.scalar.am.ledger;
+
+import io.grpc.Server;
+import io.grpc.netty.NettyServerBuilder;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A gRPC server serving a {@link LocalLedgerService}, e.g. for tests and load tests. <br>
+ * The service runs the contract bytecode sent by any client without checking signatures, so the
+ * server listens on the loopback interface unless another address is given explicitly.
+ */
+public class LocalLedgerServer implements AutoCloseable {
+  private final Server server;
+
+  /**
+   * @param port the port to listen on the loopback interface, 0 picks a free one
+   * @param service the service to serve
+   */
+  public LocalLedgerServer(int port, LocalLedgerService service) {
+    this(InetAddress.getLoopbackAddress(), port, service);
+  }
+
+  /**
+   * @param address the address to listen on
+   * @param port the port to listen on, 0 picks a free one
+   * @param service the service to serve
+   */
+  public LocalLedgerServer(InetAddress address, int port, LocalLedgerService service) {
+    this.server =
+        NettyServerBuilder.forAddress(new InetSocketAddress(address, port))
+            .addService(service)
+            .build();
+  }
+
+  public LocalLedgerServer start() throws IOException {
+    server.start();
+    return this;
+  }
+
+  /** @return the port the server listens on, once started */
+  public int getPort() {
+    return server.getPort();
+  }
+
+  /** Wait until the server is shut down, e.g. by the process being stopped */
+  public void awaitTermination() throws InterruptedException {
+    server.awaitTermination();
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    server.shutdown();
+    server.awaitTermination(5, TimeUnit.SECONDS);
+  }
+}
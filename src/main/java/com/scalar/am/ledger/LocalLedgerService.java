@@ -0,0 +1,266 @@
+package com.scalar.am.ledger;
+
+import com.scalar.client.service.StatusCode;
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import com.scalar.rpc.ledger.CertificateRegistrationRequest;
+import com.scalar.rpc.ledger.ContractExecutionRequest;
+import com.scalar.rpc.ledger.ContractExecutionResponse;
+import com.scalar.rpc.ledger.ContractRegistrationRequest;
+import com.scalar.rpc.ledger.LedgerGrpc;
+import com.scalar.rpc.ledger.LedgerServiceResponse;
+import com.scalar.rpc.ledger.LedgerValidationRequest;
+import com.scalar.rpc.ledger.LedgerValidationResponse;
+import io.grpc.stub.StreamObserver;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+
+/**
+ * A stand-in for a Scalar DL network serving the requests of {@link
+ * com.scalar.client.service.ClientService} on one machine: certificate and contract registration,
+ * contract execution and validation. <br>
+ * The registered contract classes are loaded from the bytecode sent by the client and executed
+ * against an {@link InMemoryLedger}, one execution at a time: the puts of an execution are applied
+ * once it succeeds, and discarded if it throws. Signatures are not verified and the histories are
+ * not hashed, so validation only checks that the asset exists. <br>
+ * Every execution and validation is first delayed, and possibly failed, by a {@link FaultInjector}.
+ * <br>
+ * The results of the contracts registered with the property <code>"stats": true</code> hold the
+ * operations the execution made on the ledger, counted by an {@link InstrumentedLedger}, under
+ * <code>ledgerStats</code>.
+ */
+public class LocalLedgerService extends LedgerGrpc.LedgerImplBase {
+  // The status codes of Scalar DL other than OK
+  static final int CONTRACT_NOT_FOUND = 404;
+  static final int CERTIFICATE_ALREADY_REGISTERED = 405;
+  static final int CONTRACT_ALREADY_REGISTERED = 406;
+  static final int INVALID_REQUEST = 407;
+  static final int CONTRACT_CONTEXTUAL_ERROR = 408;
+  static final int ASSET_NOT_FOUND = 409;
+  static final int UNLOADABLE_CONTRACT = 402;
+  static final int DATABASE_ERROR = 500;
+  static final int RUNTIME_ERROR = 502;
+  // The keys the client adds to the argument of a contract
+  static final String CONTRACT_ID = "contract_id";
+  static final String PREFIXED_CONTRACT_ID = "_contract_id_";
+  // The property registering a contract with its ledger operations added to its results
+  static final String STATS = "stats";
+  static final String LEDGER_STATS = "ledgerStats";
+
+  private final InMemoryLedger ledger;
+  private final FaultInjector faults;
+  private final Map<String, Integer> certificates = new ConcurrentHashMap<>();
+  private final Map<String, RegisteredContract> contracts = new ConcurrentHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+
+  public LocalLedgerService(InMemoryLedger ledger, FaultInjector faults) {
+    this.ledger = ledger;
+    this.faults = faults;
+  }
+
+  @Override
+  public void registerCert(
+      CertificateRegistrationRequest request, StreamObserver<LedgerServiceResponse> observer) {
+    String key = request.getCertHolderId() + "_" + request.getCertVersion();
+    if (certificates.putIfAbsent(key, request.getCertVersion()) != null) {
+      respond(observer, CERTIFICATE_ALREADY_REGISTERED, "The certificate is already registered.");
+      return;
+    }
+    respond(observer, StatusCode.OK.get(), "");
+  }
+
+  @Override
+  public void registerContract(
+      ContractRegistrationRequest request, StreamObserver<LedgerServiceResponse> observer) {
+    if (contracts.containsKey(request.getContractId())) {
+      respond(observer, CONTRACT_ALREADY_REGISTERED, "The contract is already registered.");
+      return;
+    }
+
+    Contract contract;
+    Optional<JsonObject> properties;
+    try {
+      // One class loader per contract, so that the same class can be registered under several ids
+      byte[] byteCode = request.getContractByteCode().toByteArray();
+      Class<?> contractClass =
+          new ContractLoader().define(request.getContractBinaryName(), byteCode);
+      contract = (Contract) contractClass.getDeclaredConstructor().newInstance();
+      String text = request.getContractProperties();
+      properties = (text == null || text.isEmpty()) ? Optional.empty() : Optional.of(parse(text));
+    } catch (Exception | LinkageError e) {
+      respond(observer, UNLOADABLE_CONTRACT, "The contract can not be loaded: " + e);
+      return;
+    }
+
+    if (contracts.putIfAbsent(request.getContractId(), new RegisteredContract(contract, properties))
+        != null) {
+      respond(observer, CONTRACT_ALREADY_REGISTERED, "The contract is already registered.");
+      return;
+    }
+    respond(observer, StatusCode.OK.get(), "");
+  }
+
+  @Override
+  public void executeContract(
+      ContractExecutionRequest request, StreamObserver<ContractExecutionResponse> observer) {
+    ContractExecutionResponse.Builder response = ContractExecutionResponse.newBuilder();
+    try {
+      faults.delay();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (faults.nextFails()) {
+      observer.onNext(response.setStatus(DATABASE_ERROR).setMessage("Injected failure.").build());
+      observer.onCompleted();
+      return;
+    }
+
+    JsonObject argument;
+    try {
+      argument = parse(request.getContractArgument());
+    } catch (JsonException | ClassCastException e) {
+      observer.onNext(
+          response
+              .setStatus(INVALID_REQUEST)
+              .setMessage("The argument is not a JSON object.")
+              .build());
+      observer.onCompleted();
+      return;
+    }
+    String contractId =
+        argument.getString(CONTRACT_ID, argument.getString(PREFIXED_CONTRACT_ID, ""));
+    RegisteredContract registered = contracts.get(contractId);
+    if (registered == null) {
+      observer.onNext(
+          response
+              .setStatus(CONTRACT_NOT_FOUND)
+              .setMessage("Contract " + contractId + " is not registered.")
+              .build());
+      observer.onCompleted();
+      return;
+    }
+
+    lock.lock();
+    try {
+      Transaction transaction = new Transaction();
+      boolean stats =
+          registered.properties.isPresent() && registered.properties.get().getBoolean(STATS, false);
+      InstrumentedLedger instrumented = stats ? new InstrumentedLedger(transaction) : null;
+      JsonObject result =
+          registered.contract.invoke(
+              stats ? instrumented : transaction, argument, registered.properties);
+      transaction.commit();
+      if (stats && result != null) {
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        result.forEach(builder::add);
+        result = builder.add(LEDGER_STATS, instrumented.toJson()).build();
+      }
+      response.setStatus(StatusCode.OK.get()).setResult(result == null ? "" : result.toString());
+    } catch (ContractContextException e) {
+      response.setStatus(CONTRACT_CONTEXTUAL_ERROR).setMessage(e.getMessage());
+    } catch (RuntimeException e) {
+      response.setStatus(RUNTIME_ERROR).setMessage(e.toString());
+    } finally {
+      lock.unlock();
+    }
+    observer.onNext(response.build());
+    observer.onCompleted();
+  }
+
+  /**
+   * The contracts of this application prefix their keys with the holder id, so the asset is looked
+   * up under its id and under the id prefixed by the holder id of the request.
+   */
+  @Override
+  public void validateLedger(
+      LedgerValidationRequest request, StreamObserver<LedgerValidationResponse> observer) {
+    LedgerValidationResponse.Builder response = LedgerValidationResponse.newBuilder();
+    try {
+      faults.delay();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (faults.nextFails()) {
+      response.setStatus(DATABASE_ERROR).setMessage("Injected failure.");
+    } else if (ledger.get(request.getAssetId()).isPresent()
+        || ledger.get(request.getCertHolderId() + "-" + request.getAssetId()).isPresent()) {
+      response.setStatus(StatusCode.OK.get());
+    } else {
+      response.setStatus(ASSET_NOT_FOUND).setMessage("The asset is not found.");
+    }
+    observer.onNext(response.build());
+    observer.onCompleted();
+  }
+
+  private void respond(StreamObserver<LedgerServiceResponse> observer, int status, String message) {
+    observer.onNext(
+        LedgerServiceResponse.newBuilder().setStatus(status).setMessage(message).build());
+    observer.onCompleted();
+  }
+
+  private static JsonObject parse(String text) {
+    try (JsonReader reader = Json.createReader(new StringReader(text))) {
+      return reader.readObject();
+    }
+  }
+
+  private static class RegisteredContract {
+    private final Contract contract;
+    private final Optional<JsonObject> properties;
+
+    RegisteredContract(Contract contract, Optional<JsonObject> properties) {
+      this.contract = contract;
+      this.properties = properties;
+    }
+  }
+
+  private static class ContractLoader extends ClassLoader {
+    ContractLoader() {
+      super(LocalLedgerService.class.getClassLoader());
+    }
+
+    Class<?> define(String name, byte[] byteCode) {
+      return defineClass(name, byteCode, 0, byteCode.length);
+    }
+  }
+
+  /**
+   * The ledger seen by one execution: reads go to the ledger as it was before the execution, puts
+   * are kept until it succeeds.
+   */
+  private class Transaction implements Ledger {
+    private final Map<String, JsonObject> writes = new LinkedHashMap<>();
+
+    @Override
+    public Optional<Asset> get(String assetId) {
+      return ledger.get(assetId);
+    }
+
+    @Override
+    public List<Asset> scan(AssetFilter filter) {
+      return ledger.scan(filter);
+    }
+
+    @Override
+    public void put(String assetId, JsonObject data) {
+      writes.put(assetId, data);
+    }
+
+    void commit() {
+      writes.forEach(ledger::put);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.scalar.am.ledger;
+
+import com.scalar.am.contract.AddTypeContract;
+import com.scalar.am.contract.BatchAddAssetContract;
+import com.scalar.am.contract.BatchStatusChangeContract;
+import com.scalar.ledger.contract.Contract;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Optional;
+import java.util.Random;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+
+/**
+ * Fill a {@link Ledger} with synthetic types, assets and borrowing histories. <br>
+ * The data is written by executing the contracts of the application, so the type lists, status
+ * records, indexes and counters are the ones a Scalar DL network would hold for the same commands.
+ * The same seed generates the same data.
+ */
+public class SyntheticDataGenerator {
+  private static final long START_TIMESTAMP = 1546300800000L; // 2019-01-01T00:00:00Z
+  private static final long HOUR = 60 * 60 * 1000L;
+  private static final String[] WORDS = {
+    "Java",
+    "History",
+    "Ocean",
+    "Garden",
+    "Winter",
+    "Atlas",
+    "Comic",
+    "Human",
+    "Night",
+    "River",
+    "Secret",
+    "Stone",
+    "Travel",
+    "Umbrella",
+    "Violin",
+    "Whale"
+  };
+  private static final String RESULT = "result";
+  private static final String SUCCESS = "success";
+  private static final String MESSAGE = "message";
+
+  private final Ledger ledger;
+  private final JsonObject property;
+  private final Random random;
+  private long timestamp = START_TIMESTAMP;
+  private int generatedTypes;
+
+  public SyntheticDataGenerator(Ledger ledger, String holderId, long seed) {
+    this.ledger = ledger;
+    this.property = Json.createObjectBuilder().add(AddTypeContract.HOLDER_ID, holderId).build();
+    this.random = new Random(seed);
+  }
+
+  /** @return the name of the generated type of the given number */
+  public static String typeName(int type) {
+    return "type" + type;
+  }
+
+  /** @return the id of the generated asset of the given numbers */
+  public static String assetId(int type, int asset) {
+    return typeName(type) + "-" + asset;
+  }
+
+  /**
+   * Register the given number of types, add the given number of assets to each of them, then change
+   * the status of every asset the given number of times, borrowing and returning it in turn. <br>
+   * The history of the status of each asset thus holds <code>changes + 1</code> records. Every
+   * batch of changes happens between 1 hour and 20 days after the previous one. <br>
+   * The types are numbered after the ones generated by the previous calls, so that types of
+   * different sizes can be generated in the same ledger.
+   *
+   * @param types the number of types
+   * @param assets the number of assets per type
+   * @param changes the number of status changes per asset
+   * @param shards the number of shards of each type, 1 for unsharded types
+   */
+  public void generate(int types, int assets, int changes, int shards) {
+    int first = generatedTypes;
+    generatedTypes += types;
+    for (int type = first; type < generatedTypes; type++) {
+      JsonObject argument =
+          Json.createObjectBuilder()
+              .add(AddTypeContract.NAME, typeName(type))
+              .add(AddTypeContract.SHARDS, shards)
+              .add(AddTypeContract.TIMESTAMP, timestamp)
+              .build();
+      execute(new AddTypeContract(), argument);
+
+      for (int from = 0; from < assets; from += BatchAddAssetContract.MAX_ASSETS) {
+        JsonArrayBuilder batch = Json.createArrayBuilder();
+        for (int asset = from;
+            asset < Math.min(assets, from + BatchAddAssetContract.MAX_ASSETS);
+            asset++) {
+          batch.add(
+              Json.createObjectBuilder()
+                  .add(BatchAddAssetContract.TYPE, typeName(type))
+                  .add(BatchAddAssetContract.ID, assetId(type, asset))
+                  .add(BatchAddAssetContract.ASSET, name(asset))
+                  .add(BatchAddAssetContract.TIMESTAMP, timestamp));
+        }
+        execute(
+            new BatchAddAssetContract(),
+            Json.createObjectBuilder().add(BatchAddAssetContract.ASSETS, batch).build());
+      }
+    }
+
+    for (int change = 0; change < changes; change++) {
+      String status =
+          (change % 2 == 0)
+              ? BatchStatusChangeContract.ON_LOAN
+              : BatchStatusChangeContract.IN_STOCK;
+      for (int type = first; type < generatedTypes; type++) {
+        for (int from = 0; from < assets; from += BatchStatusChangeContract.MAX_ASSETS) {
+          timestamp += HOUR + (long) (random.nextDouble() * 20 * 24 * HOUR);
+          JsonArrayBuilder ids = Json.createArrayBuilder();
+          for (int asset = from;
+              asset < Math.min(assets, from + BatchStatusChangeContract.MAX_ASSETS);
+              asset++) {
+            ids.add(assetId(type, asset));
+          }
+          JsonObject argument =
+              Json.createObjectBuilder()
+                  .add(BatchStatusChangeContract.ASSET_IDS, ids)
+                  .add(BatchStatusChangeContract.STATUS, status)
+                  .add(BatchStatusChangeContract.TIMESTAMP, timestamp)
+                  .build();
+          execute(new BatchStatusChangeContract(), argument);
+        }
+      }
+    }
+  }
+
+  private String name(int asset) {
+    return WORDS[random.nextInt(WORDS.length)]
+        + " "
+        + WORDS[random.nextInt(WORDS.length)]
+        + " "
+        + asset;
+  }
+
+  private void execute(Contract contract, JsonObject argument) {
+    JsonObject result = contract.invoke(ledger, argument, Optional.of(property));
+    if (!SUCCESS.equals(result.getString(RESULT))) {
+      throw new IllegalStateException(result.getString(MESSAGE));
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.scalar.am.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expose the metrics of a {@link MetricsRegistry} in the Prometheus text format while a command
+ * runs, on <code>http://localhost:&lt;port&gt;/metrics</code> or in a file rewritten at a fixed
+ * interval, e.g. for the textfile collector of the node exporter. <br>
+ * The HTTP server listens on the loopback interface only.
+ */
+public class MetricsExporter implements AutoCloseable {
+  static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private final MetricsRegistry registry;
+  private HttpServer server;
+  private ScheduledExecutorService writer;
+  private File file;
+
+  public MetricsExporter(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * Serve the metrics over HTTP
+   *
+   * @param port the local port to listen on, 0 picks a free one
+   * @return the port listened on
+   */
+  public int serve(int port) throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    server.createContext(
+        "/metrics",
+        (exchange) -> {
+          byte[] body = prometheusText().getBytes(StandardCharsets.UTF_8);
+          exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+          }
+        });
+    server.start();
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Write the metrics to the file every given seconds and when closed. <br>
+   * The file is replaced at once, so a reader never sees it half written.
+   */
+  public void writeEvery(File file, int seconds) {
+    this.file = file;
+    writer = Executors.newSingleThreadScheduledExecutor();
+    writer.scheduleAtFixedRate(
+        () -> {
+          try {
+            write(file);
+          } catch (IOException e) {
+            e.printStackTrace();
+          }
+        },
+        seconds,
+        seconds,
+        TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (server != null) {
+      server.stop(0);
+    }
+    if (writer != null) {
+      writer.shutdownNow();
+      write(file);
+    }
+  }
+
+  private String prometheusText() throws IOException {
+    StringWriter text = new StringWriter();
+    registry.writePrometheus(text);
+    return text.toString();
+  }
+
+  private void write(File file) throws IOException {
+    Path target = file.toPath().toAbsolutePath();
+    Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+    try (Writer output = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+      output.write(prometheusText());
+    }
+    Files.move(
+        temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,265 @@
+package com.scalar.am.metrics;
+
+import com.scalar.client.service.StatusCode;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * The contract executions and validations made by the client, counted per contract and status code,
+ * with their latency and the size of the arguments and results. <br>
+ * Every record is also made in the parent registry, if any, so that a command can report its own
+ * executions while the process-wide {@link #getDefault() default} registry holds them all. <br>
+ * The metrics can be written in the Prometheus text format, or summarized as JSON.
+ */
+public class MetricsRegistry {
+  /** The status of a request that failed before the ledger answered, e.g. it is unreachable */
+  public static final String EXCEPTION = "EXCEPTION";
+
+  static final double[] SECONDS_BUCKETS = {
+    0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+  };
+  static final double[] BYTES_BUCKETS = {
+    64, 256, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304
+  };
+
+  private static final MetricsRegistry DEFAULT = new MetricsRegistry(null);
+
+  private final MetricsRegistry parent;
+  private final ConcurrentMap<String, Requests> executions = new ConcurrentHashMap<>();
+  private final Requests validations = new Requests();
+
+  /** @param parent the registry every record is also made in, or null */
+  public MetricsRegistry(MetricsRegistry parent) {
+    this.parent = parent;
+  }
+
+  /** @return the registry of the process */
+  public static MetricsRegistry getDefault() {
+    return DEFAULT;
+  }
+
+  /** @return the name of the status code, e.g. OK, or the code itself if it is unknown */
+  public static String statusName(int code) {
+    for (StatusCode statusCode : StatusCode.values()) {
+      if (statusCode.get() == code) {
+        return statusCode.name();
+      }
+    }
+    return Integer.toString(code);
+  }
+
+  /**
+   * Record one contract execution
+   *
+   * @param contract the contract name
+   * @param status the name of the status code of the response, or {@link #EXCEPTION}
+   * @param nanos the time from the request to the response
+   * @param argumentBytes the size of the argument
+   * @param resultBytes the size of the result, 0 if there is none
+   */
+  public void recordExecution(
+      String contract, String status, long nanos, long argumentBytes, long resultBytes) {
+    Requests requests = executions.computeIfAbsent(contract, (c) -> new Requests());
+    requests.record(status, nanos);
+    requests.argumentBytes.record(argumentBytes);
+    requests.resultBytes.record(resultBytes);
+    if (parent != null) {
+      parent.recordExecution(contract, status, nanos, argumentBytes, resultBytes);
+    }
+  }
+
+  /**
+   * Record one asset validation
+   *
+   * @param status the name of the status code of the response, or {@link #EXCEPTION}
+   * @param nanos the time from the request to the response
+   */
+  public void recordValidation(String status, long nanos) {
+    validations.record(status, nanos);
+    if (parent != null) {
+      parent.recordValidation(status, nanos);
+    }
+  }
+
+  /** @return true if nothing was recorded */
+  public boolean isEmpty() {
+    return executions.isEmpty() && validations.seconds.count.sum() == 0;
+  }
+
+  /** Write the metrics in the Prometheus text format, version 0.0.4 */
+  public void writePrometheus(Appendable out) throws IOException {
+    Map<String, Requests> byContract = new TreeMap<>(executions);
+
+    header(out, "am_contract_executions_total", "counter", "Contract executions by status code");
+    for (Map.Entry<String, Requests> entry : byContract.entrySet()) {
+      for (Map.Entry<String, Long> status : entry.getValue().statuses().entrySet()) {
+        out.append("am_contract_executions_total{contract=\"")
+            .append(escape(entry.getKey()))
+            .append("\",status=\"")
+            .append(escape(status.getKey()))
+            .append("\"} ")
+            .append(Long.toString(status.getValue()))
+            .append('\n');
+      }
+    }
+    header(out, "am_contract_execution_seconds", "histogram", "Contract execution latency");
+    for (Map.Entry<String, Requests> entry : byContract.entrySet()) {
+      entry.getValue().seconds.write(out, "am_contract_execution_seconds", label(entry.getKey()));
+    }
+    header(out, "am_contract_argument_bytes", "histogram", "Size of the contract arguments");
+    for (Map.Entry<String, Requests> entry : byContract.entrySet()) {
+      entry
+          .getValue()
+          .argumentBytes
+          .write(out, "am_contract_argument_bytes", label(entry.getKey()));
+    }
+    header(out, "am_contract_result_bytes", "histogram", "Size of the contract results");
+    for (Map.Entry<String, Requests> entry : byContract.entrySet()) {
+      entry.getValue().resultBytes.write(out, "am_contract_result_bytes", label(entry.getKey()));
+    }
+
+    header(out, "am_validations_total", "counter", "Asset validations by status code");
+    for (Map.Entry<String, Long> status : validations.statuses().entrySet()) {
+      out.append("am_validations_total{status=\"")
+          .append(escape(status.getKey()))
+          .append("\"} ")
+          .append(Long.toString(status.getValue()))
+          .append('\n');
+    }
+    header(out, "am_validation_seconds", "histogram", "Asset validation latency");
+    validations.seconds.write(out, "am_validation_seconds", "");
+  }
+
+  /**
+   * @return the requests recorded, e.g. { "executions": [ { "contract": ..., "count": 2,
+   *     "statuses": { "OK": 2 }, "seconds": 0.031, "argumentBytes": 120, "resultBytes": 300 } ],
+   *     "validations": { "count": 0, "statuses": {}, "seconds": 0 } }
+   */
+  public JsonObject toJson() {
+    JsonArrayBuilder executionsBuilder = Json.createArrayBuilder();
+    new TreeMap<>(executions)
+        .forEach(
+            (contract, requests) ->
+                executionsBuilder.add(
+                    requests
+                        .addTo(Json.createObjectBuilder().add("contract", contract))
+                        .add("argumentBytes", (long) requests.argumentBytes.sum.sum())
+                        .add("resultBytes", (long) requests.resultBytes.sum.sum())));
+    return Json.createObjectBuilder()
+        .add("executions", executionsBuilder)
+        .add("validations", validations.addTo(Json.createObjectBuilder()))
+        .build();
+  }
+
+  private static void header(Appendable out, String name, String type, String help)
+      throws IOException {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static String label(String contract) {
+    return "contract=\"" + escape(contract) + "\"";
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  /** The requests of one contract, or the validations */
+  private static class Requests {
+    private final ConcurrentMap<String, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final Buckets seconds = new Buckets(SECONDS_BUCKETS);
+    private final Buckets argumentBytes = new Buckets(BYTES_BUCKETS);
+    private final Buckets resultBytes = new Buckets(BYTES_BUCKETS);
+
+    void record(String status, long nanos) {
+      statuses.computeIfAbsent(status, (s) -> new LongAdder()).increment();
+      seconds.record(nanos / 1e9);
+    }
+
+    Map<String, Long> statuses() {
+      Map<String, Long> counts = new TreeMap<>();
+      statuses.forEach((status, count) -> counts.put(status, count.sum()));
+      return counts;
+    }
+
+    JsonObjectBuilder addTo(JsonObjectBuilder builder) {
+      JsonObjectBuilder statusesBuilder = Json.createObjectBuilder();
+      statuses().forEach(statusesBuilder::add);
+      return builder
+          .add("count", seconds.count.sum())
+          .add("statuses", statusesBuilder)
+          .add("seconds", seconds.sum.sum());
+    }
+  }
+
+  /** A histogram with the cumulative buckets of Prometheus */
+  private static class Buckets {
+    private final double[] bounds;
+    private final LongAdder[] counts;
+    private final DoubleAdder sum = new DoubleAdder();
+    private final LongAdder count = new LongAdder();
+
+    Buckets(double[] bounds) {
+      this.bounds = bounds;
+      this.counts = new LongAdder[bounds.length];
+      for (int i = 0; i < bounds.length; i++) {
+        counts[i] = new LongAdder();
+      }
+    }
+
+    void record(double value) {
+      for (int i = 0; i < bounds.length; i++) {
+        if (value <= bounds[i]) {
+          counts[i].increment();
+          break;
+        }
+      }
+      sum.add(value);
+      count.increment();
+    }
+
+    void write(Appendable out, String name, String labels) throws IOException {
+      String prefix = labels.isEmpty() ? "" : labels + ",";
+      long cumulated = 0;
+      for (int i = 0; i < bounds.length; i++) {
+        cumulated += counts[i].sum();
+        out.append(name)
+            .append("_bucket{")
+            .append(prefix)
+            .append("le=\"")
+            .append(format(bounds[i]))
+            .append("\"} ")
+            .append(Long.toString(cumulated))
+            .append('\n');
+      }
+      long total = count.sum();
+      out.append(name)
+          .append("_bucket{")
+          .append(prefix)
+          .append("le=\"+Inf\"} ")
+          .append(Long.toString(total))
+          .append('\n');
+      String series = labels.isEmpty() ? "" : "{" + labels + "}";
+      out.append(name).append("_sum").append(series).append(' ');
+      out.append(format(sum.sum())).append('\n');
+      out.append(name).append("_count").append(series).append(' ');
+      out.append(Long.toString(total)).append('\n');
+    }
+
+    private static String format(double value) {
+      return (value == Math.rint(value) && Math.abs(value) < 1e15)
+          ? Long.toString((long) value)
+          : Double.toString(value);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.scalar.am.command;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchTest {
+
+  @Test
+  public void tokenize_PlainWords_ShouldSplitOnWhitespace() {
+    // Act Assert
+    Assert.assertArrayEquals(
+        new String[] {"add", "book", "Java"}, Batch.tokenize("  add\tbook   Java "));
+  }
+
+  @Test
+  public void tokenize_QuotedWords_ShouldKeepTheirSpacesAndOtherQuotes() {
+    // Act Assert
+    Assert.assertArrayEquals(
+        new String[] {"add", "book", "Java in a nutshell", "it's"},
+        Batch.tokenize("add book \"Java in a nutshell\" \"it's\""));
+    Assert.assertArrayEquals(
+        new String[] {"add", "book", "say \"hi\""}, Batch.tokenize("add book 'say \"hi\"'"));
+  }
+
+  @Test
+  public void tokenize_EmptyQuotes_ShouldReturnAnEmptyToken() {
+    // Act Assert
+    Assert.assertArrayEquals(new String[] {"list", ""}, Batch.tokenize("list \"\""));
+  }
+
+  @Test
+  public void tokenize_BlankLine_ShouldReturnNoToken() {
+    // Act Assert
+    Assert.assertEquals(0, Batch.tokenize("   ").length);
+  }
+}
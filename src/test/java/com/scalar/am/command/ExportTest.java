@@ -0,0 +1,177 @@
+package com.scalar.am.command;
+
+import com.scalar.am.contract.AddAssetContract;
+import com.scalar.am.contract.AddTypeContract;
+import com.scalar.am.contract.AssetHistoryContract;
+import com.scalar.am.contract.ChangesContract;
+import com.scalar.am.contract.ListContract;
+import com.scalar.am.contract.StatusChangeContract;
+import com.scalar.am.ledger.InMemoryLedger;
+import com.scalar.client.config.ClientConfig;
+import com.scalar.client.service.ClientService;
+import com.scalar.ledger.contract.Contract;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import picocli.CommandLine;
+
+public class ExportTest {
+  private static final String HOLDER_ID = "Tester1";
+  private static final String TYPE = "book";
+  private static final int ASSETS = 5;
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private InMemoryLedger ledger;
+  private List<JsonObject> calls;
+
+  /** Run the contracts on the in-memory ledger in place of a Scalar DL network */
+  private class LocalExport extends Export {
+    @Override
+    protected Optional<JsonObject> callContract(
+        ClientService clientService, String contractName, JsonObject argument) throws Exception {
+      synchronized (ledger) {
+        calls.add(
+            Json.createObjectBuilder()
+                .add("contract", contractName)
+                .add("argument", argument)
+                .build());
+        return Optional.of(invoke(contractName, argument));
+      }
+    }
+  }
+
+  private JsonObject invoke(String contractName, JsonObject argument) throws Exception {
+    Contract contract =
+        (Contract) Class.forName(contractName).getDeclaredConstructor().newInstance();
+    JsonObject property = Json.createObjectBuilder().add("holderId", HOLDER_ID).build();
+    return contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    ledger = new InMemoryLedger();
+    calls = new ArrayList<>();
+    invoke(
+        AddTypeContract.class.getCanonicalName(),
+        Json.createObjectBuilder()
+            .add(AddTypeContract.NAME, TYPE)
+            .add(AddTypeContract.TIMESTAMP, 1L)
+            .build());
+    for (int i = 0; i < ASSETS; i++) {
+      invoke(
+          AddAssetContract.class.getCanonicalName(),
+          Json.createObjectBuilder()
+              .add(AddAssetContract.TYPE, TYPE)
+              .add(AddAssetContract.ASSET, "book" + i)
+              .add(AddAssetContract.TIMESTAMP, 10L + i)
+              .add(AddAssetContract.ID, "id" + i)
+              .build());
+    }
+  }
+
+  private List<JsonObject> export(File file, String... options) throws Exception {
+    Export export = new LocalExport();
+    PrintStream err = new PrintStream(new ByteArrayOutputStream(), true, "UTF-8");
+    export.bind(
+        Mockito.mock(ClientConfig.class),
+        Mockito.mock(ClientService.class),
+        new PrintStream(new ByteArrayOutputStream(), true, "UTF-8"),
+        err);
+    List<String> args = new ArrayList<>();
+    for (String option : options) {
+      args.add(option);
+    }
+    args.add(file.getPath());
+    CommandLine.populateCommand(export, args.toArray(new String[0]));
+    export.run();
+
+    List<JsonObject> lines = new ArrayList<>();
+    for (String text : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+      try (JsonReader reader = Json.createReader(new StringReader(text))) {
+        lines.add(reader.readObject());
+      }
+    }
+    return lines;
+  }
+
+  private List<JsonObject> callsOf(Class<?> contract) {
+    return calls.stream()
+        .filter(call -> contract.getCanonicalName().equals(call.getString("contract")))
+        .map(call -> call.getJsonObject("argument"))
+        .collect(Collectors.toList());
+  }
+
+  private List<String> assetIds(List<JsonObject> lines) {
+    return lines.stream()
+        .filter(line -> Export.ASSET.equals(line.getString(Export.KIND)))
+        .map(line -> line.getString(Export.ID))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void run_FirstExportOfTrackedType_ShouldTakeTokenThenPageThroughList() throws Exception {
+    // Arrange
+    File file = folder.newFile("export.ndjson");
+    File watermark = new File(folder.getRoot(), "export.watermark");
+    // Act
+    List<JsonObject> lines = export(file, "--page-size=2", "--watermark=" + watermark.getPath());
+    // Assert
+    List<JsonObject> changes = callsOf(ChangesContract.class);
+    Assert.assertEquals(1, changes.size());
+    Assert.assertTrue(changes.get(0).getBoolean(ChangesContract.TOKEN_ONLY));
+    Assert.assertEquals(3, callsOf(ListContract.class).size());
+    // The buckets of the index are listed one after the other
+    List<String> ids = assetIds(lines);
+    ids.sort(null);
+    Assert.assertEquals(Arrays.asList("id0", "id1", "id2", "id3", "id4"), ids);
+    Assert.assertTrue(watermark.exists());
+  }
+
+  @Test
+  public void run_ExportWithWatermark_ShouldOnlyWriteChangedAssets() throws Exception {
+    // Arrange
+    File watermark = new File(folder.getRoot(), "export.watermark");
+    export(folder.newFile("full.ndjson"), "--watermark=" + watermark.getPath());
+    invoke(
+        StatusChangeContract.class.getCanonicalName(),
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.ASSET_ID, "id3")
+            .add(StatusChangeContract.STATUS, StatusChangeContract.ON_LOAN)
+            .add(StatusChangeContract.TIMESTAMP, 100L)
+            .build());
+    calls.clear();
+    // Act
+    List<JsonObject> lines =
+        export(folder.newFile("delta.ndjson"), "--watermark=" + watermark.getPath());
+    // Assert
+    Assert.assertTrue(callsOf(ListContract.class).isEmpty());
+    Assert.assertFalse(
+        callsOf(ChangesContract.class).get(0).getBoolean(ChangesContract.TOKEN_ONLY));
+    Assert.assertEquals(Arrays.asList("id3"), assetIds(lines));
+    // Only the entry recorded since, although its timestamp is older than the previous export
+    List<JsonObject> history =
+        lines.stream()
+            .filter((line) -> Export.HISTORY.equals(line.getString(Export.KIND)))
+            .collect(Collectors.toList());
+    Assert.assertEquals(1, history.size());
+    Assert.assertEquals(1, history.get(0).getInt(AssetHistoryContract.AGE));
+  }
+}
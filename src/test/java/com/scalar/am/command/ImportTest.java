@@ -0,0 +1,105 @@
+package com.scalar.am.command;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.TreeMap;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ImportTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private Import.RowReader reader(String text, boolean csv) {
+    return new Import.RowReader(new BufferedReader(new StringReader(text)), csv);
+  }
+
+  @Test
+  public void parseCsv_QuotedFields_ShouldKeepCommasAndDoubledQuotes() {
+    // Act Assert
+    Assert.assertEquals(
+        Arrays.asList("book", "Lord of the Rings, Part \"1\"", ""),
+        Import.parseCsv("book,\"Lord of the Rings, Part \"\"1\"\"\","));
+  }
+
+  @Test
+  public void csvHeader_HeaderWithAssetColumnFirst_ShouldReturnItsColumns() {
+    // Act Assert
+    Assert.assertArrayEquals(new int[] {1, 0}, Import.csvHeader(" Asset , TYPE"));
+    Assert.assertArrayEquals(new int[] {0, 2}, Import.csvHeader("type,id,name"));
+    Assert.assertNull(Import.csvHeader("book,Java in a nutshell"));
+  }
+
+  @Test
+  public void next_CsvStartingWithBlankLines_ShouldSkipTheHeader() throws Exception {
+    // Arrange
+    Import.RowReader rows =
+        reader("\n  \nasset,type\nJava in a nutshell,book\n\nphone1,phone", true);
+    // Act Assert
+    Assert.assertTrue(rows.next());
+    Assert.assertEquals(4, rows.line());
+    Assert.assertArrayEquals(new String[] {"book", "Java in a nutshell"}, rows.row());
+    Assert.assertTrue(rows.next());
+    Assert.assertEquals(6, rows.line());
+    Assert.assertArrayEquals(new String[] {"phone", "phone1"}, rows.row());
+    Assert.assertFalse(rows.next());
+  }
+
+  @Test
+  public void next_CsvWithoutHeader_ShouldReadTheFirstLineAsARow() throws Exception {
+    // Arrange
+    Import.RowReader rows = reader("\nbook,Java in a nutshell", true);
+    // Act Assert
+    Assert.assertTrue(rows.next());
+    Assert.assertEquals(2, rows.line());
+    Assert.assertArrayEquals(new String[] {"book", "Java in a nutshell"}, rows.row());
+  }
+
+  @Test
+  public void row_MalformedLines_ShouldReturnNull() throws Exception {
+    // Arrange
+    Import.RowReader csv = reader("book", true);
+    Import.RowReader ndjson = reader("{\"type\": \"book\"\n{\"type\": 1, \"asset\": \"x\"}", false);
+    // Act Assert
+    Assert.assertTrue(csv.next());
+    Assert.assertNull(csv.row());
+    Assert.assertTrue(ndjson.next());
+    Assert.assertNull(ndjson.row());
+    Assert.assertTrue(ndjson.next());
+    Assert.assertNull(ndjson.row());
+  }
+
+  @Test
+  public void row_NdjsonWithNameKey_ShouldReturnTypeAndName() throws Exception {
+    // Arrange
+    Import.RowReader rows = reader("{\"type\": \"book\", \"name\": \"Java\"}", false);
+    // Act Assert
+    Assert.assertTrue(rows.next());
+    Assert.assertArrayEquals(new String[] {"book", "Java"}, rows.row());
+  }
+
+  @Test
+  public void readJournal_RangesAndCutLine_ShouldReturnTheCompleteRanges() throws Exception {
+    // Arrange
+    File journal = folder.newFile("assets.csv.journal");
+    Files.write(journal.toPath(), "2-501\n502-1001\n1002-".getBytes(StandardCharsets.UTF_8));
+    // Act
+    TreeMap<Integer, Integer> imported = Import.readJournal(journal);
+    // Assert
+    Assert.assertEquals(2, imported.size());
+    Assert.assertEquals(Integer.valueOf(1001), imported.floorEntry(700).getValue());
+    Assert.assertNull(imported.floorEntry(1));
+  }
+
+  @Test
+  public void readJournal_NoJournal_ShouldReturnNoRange() throws Exception {
+    // Act Assert
+    Assert.assertTrue(Import.readJournal(new File(folder.getRoot(), "missing")).isEmpty());
+  }
+}
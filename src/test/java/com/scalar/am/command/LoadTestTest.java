@@ -0,0 +1,61 @@
+package com.scalar.am.command;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoadTestTest {
+  private static final int DRAWS = 100000;
+
+  private int[] draw(LoadTest.Picker picker, int items) {
+    Random random = new Random(0);
+    int[] counts = new int[items];
+    for (int i = 0; i < DRAWS; i++) {
+      counts[picker.next(random)]++;
+    }
+    return counts;
+  }
+
+  @Test
+  public void next_Zipfian_ShouldFavourTheFirstItemsAsZipfsLawPredicts() {
+    // Arrange
+    int items = 1000;
+    double exponent = 0.99;
+    double zetan = 0;
+    for (int i = 1; i <= items; i++) {
+      zetan += 1 / Math.pow(i, exponent);
+    }
+    // Act
+    int[] counts = draw(new LoadTest.Zipfian(items, exponent), items);
+    // Assert
+    Assert.assertEquals(1 / zetan, (double) counts[0] / DRAWS, 0.01);
+    Assert.assertTrue(counts[0] > counts[1]);
+    Assert.assertTrue(counts[1] > counts[10]);
+    Assert.assertTrue(counts[10] > counts[500]);
+    int top = 0;
+    for (int i = 0; i < items / 10; i++) {
+      top += counts[i];
+    }
+    Assert.assertTrue(top > DRAWS / 2);
+  }
+
+  @Test
+  public void next_ZipfianOverFewItems_ShouldStayInRange() {
+    // Act
+    int[] one = draw(new LoadTest.Zipfian(1, 0.5), 1);
+    int[] two = draw(new LoadTest.Zipfian(2, 0.5), 2);
+    // Assert
+    Assert.assertEquals(DRAWS, one[0]);
+    Assert.assertTrue(two[0] > two[1] && two[1] > 0);
+  }
+
+  @Test
+  public void next_Uniform_ShouldPickEveryItemAsOften() {
+    // Act
+    int[] counts = draw(new LoadTest.Uniform(10), 10);
+    // Assert
+    for (int count : counts) {
+      Assert.assertEquals(DRAWS / 10, count, DRAWS / 100);
+    }
+  }
+}
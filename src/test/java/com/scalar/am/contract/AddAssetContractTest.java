@@ -7,6 +7,7 @@ import java.util.Date;
 import java.util.Optional;
 import javax.json.Json;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -43,13 +44,18 @@ public class AddAssetContractTest extends ContractTest {
             .build();
 
     property = Json.createObjectBuilder().add(AddAssetContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    Mockito.when(asset.data()).thenReturn(Json.createObjectBuilder().build());
   }
 
   private void setLegerPutValue() {
     assetStatusJson =
         Json.createObjectBuilder()
-            .add(AddAssetContract.TIMESTAMP, argument.getJsonNumber(AddAssetContract.TIMESTAMP))
-            .add(AddAssetContract.STATUS, IN_STOCK)
+            .add(AddAssetContract.VERSION, 2)
+            .add(
+                AddAssetContract.V2_TIMESTAMP,
+                argument.getJsonNumber(AddAssetContract.TIMESTAMP).longValue())
+            .add(AddAssetContract.V2_STATUS, 0)
+            .add(AddAssetContract.V2_TYPE, TYPE_EX)
             .build();
     assetNameJson =
         Json.createObjectBuilder()
@@ -119,4 +125,186 @@ public class AddAssetContractTest extends ContractTest {
     Assert.assertEquals(SUCCESS, response.getString(RESULT));
     Assert.assertNotNull(response.getString(MESSAGE));
   }
+
+  @Test
+  public void invoke_AddAssetOfIndexedType_ShouldUpdateIndex() {
+    // Arrange
+    setLegerPutValue();
+    Mockito.when(asset.age()).thenReturn(AGE_EX);
+    Mockito.when(asset1.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(AddAssetContract.ASSETS, Json.createObjectBuilder())
+                .build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(asset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.empty());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + AddAssetContract.INDEX_SUFFIX))
+        .thenReturn(Optional.of(asset1));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonObject entry =
+        Json.createObjectBuilder()
+            .add(AddAssetContract.NAME, ASSET_EX)
+            .add(AddAssetContract.AGE, AGE_EX + 1)
+            .add(AddAssetContract.TIMESTAMP, argument.getJsonNumber(AddAssetContract.TIMESTAMP))
+            .add(AddAssetContract.STATUS, IN_STOCK)
+            .build();
+    JsonObject index =
+        Json.createObjectBuilder()
+            .add(AddAssetContract.ASSETS, Json.createObjectBuilder().add(ID_EX, entry))
+            .build();
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(HOLDER_ID_1_EX + "-" + TYPE_EX + AddAssetContract.INDEX_SUFFIX, index);
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_AddAssetOfShardedType_ShouldListItInItsShard() {
+    // Arrange
+    int shard = Math.floorMod(ID_EX.hashCode(), 4);
+    String shardKey = HOLDER_ID_1_EX + "-" + TYPE_EX + "#" + shard;
+    Mockito.when(asset.data())
+        .thenReturn(Json.createObjectBuilder().add(AddAssetContract.SHARDS, 4).build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(asset));
+    Mockito.when(ledger.get(shardKey)).thenReturn(Optional.of(asset1));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.empty());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonObject status =
+        Json.createObjectBuilder()
+            .add(AddAssetContract.VERSION, 2)
+            .add(
+                AddAssetContract.V2_TIMESTAMP,
+                argument.getJsonNumber(AddAssetContract.TIMESTAMP).longValue())
+            .add(AddAssetContract.V2_STATUS, 0)
+            .add(AddAssetContract.V2_TYPE, TYPE_EX)
+            .add(AddAssetContract.V2_SHARD, shard)
+            .build();
+    Mockito.verify(ledger, Mockito.times(1)).put(HOLDER_ID_1_EX + "-" + ID_EX, status);
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            shardKey,
+            Json.createObjectBuilder()
+                .add(AddAssetContract.ID, ID_EX)
+                .add(AddAssetContract.NAME, ASSET_EX)
+                .build());
+    Mockito.verify(ledger, Mockito.never())
+        .put(Mockito.eq(HOLDER_ID_1_EX + "-" + TYPE_EX), Mockito.any());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_AddAssetWithNewNamePrefix_ShouldAddBucket() {
+    // Arrange
+    String namesKey = HOLDER_ID_1_EX + "-" + TYPE_EX + AddAssetContract.NAMES_SUFFIX;
+    Mockito.when(asset1.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(AddAssetContract.BUCKETS, Json.createArrayBuilder().add("abc"))
+                .build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(asset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.empty());
+    Mockito.when(ledger.get(namesKey)).thenReturn(Optional.of(asset1));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            namesKey + "#hum",
+            Json.createObjectBuilder()
+                .add(AddAssetContract.ASSETS, Json.createObjectBuilder().add(ID_EX, ASSET_EX))
+                .build());
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            namesKey,
+            Json.createObjectBuilder()
+                .add(AddAssetContract.BUCKETS, Json.createArrayBuilder().add("abc").add("hum"))
+                .build());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_AddAssetWithKnownNamePrefix_ShouldOnlyUpdateItsBucket() {
+    // Arrange
+    String namesKey = HOLDER_ID_1_EX + "-" + TYPE_EX + AddAssetContract.NAMES_SUFFIX;
+    Mockito.when(asset1.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(AddAssetContract.BUCKETS, Json.createArrayBuilder().add("hum"))
+                .build());
+    Asset bucket = Mockito.mock(Asset.class);
+    Mockito.when(bucket.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    AddAssetContract.ASSETS,
+                    Json.createObjectBuilder().add(ASSET_ID_EX, "Humble Pie"))
+                .build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(asset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.empty());
+    Mockito.when(ledger.get(namesKey)).thenReturn(Optional.of(asset1));
+    Mockito.when(ledger.get(namesKey + "#hum")).thenReturn(Optional.of(bucket));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            namesKey + "#hum",
+            Json.createObjectBuilder()
+                .add(
+                    AddAssetContract.ASSETS,
+                    Json.createObjectBuilder().add(ID_EX, ASSET_EX).add(ASSET_ID_EX, "Humble Pie"))
+                .build());
+    Mockito.verify(ledger, Mockito.never()).put(Mockito.eq(namesKey), Mockito.any());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_AddAssetToFullNameBucket_ShouldSplitIt() {
+    // Arrange
+    String namesKey = HOLDER_ID_1_EX + "-" + TYPE_EX + AddAssetContract.NAMES_SUFFIX;
+    Mockito.when(asset1.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(AddAssetContract.BUCKETS, Json.createArrayBuilder().add("hum"))
+                .build());
+    JsonObjectBuilder names = Json.createObjectBuilder();
+    for (int i = 0; i < AddAssetContract.MAX_BUCKET_ENTRIES; i++) {
+      names.add("id" + i, "Humble Pie " + i);
+    }
+    Asset bucket = Mockito.mock(Asset.class);
+    Mockito.when(bucket.data())
+        .thenReturn(Json.createObjectBuilder().add(AddAssetContract.ASSETS, names).build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(asset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.empty());
+    Mockito.when(ledger.get(namesKey)).thenReturn(Optional.of(asset1));
+    Mockito.when(ledger.get(namesKey + "#hum")).thenReturn(Optional.of(bucket));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            namesKey + "#hum",
+            Json.createObjectBuilder()
+                .add(AddAssetContract.ASSETS, Json.createObjectBuilder())
+                .build());
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            namesKey + "#huma",
+            Json.createObjectBuilder()
+                .add(AddAssetContract.ASSETS, Json.createObjectBuilder().add(ID_EX, ASSET_EX))
+                .build());
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            namesKey,
+            Json.createObjectBuilder()
+                .add(
+                    AddAssetContract.BUCKETS,
+                    Json.createArrayBuilder().add("hum").add("huma").add("humb"))
+                .add(AddAssetContract.SPLIT, Json.createArrayBuilder().add("hum"))
+                .build());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
 }
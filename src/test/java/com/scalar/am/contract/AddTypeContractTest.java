@@ -45,6 +45,13 @@ public class AddTypeContractTest extends ContractTest {
     newType =
         Json.createObjectBuilder()
             .add(AddTypeContract.NAME, argument.getString(AddTypeContract.NAME))
+            .add(
+                AddTypeContract.TYPES,
+                Json.createArrayBuilder()
+                    .add(
+                        Json.createObjectBuilder()
+                            .add(AddTypeContract.NAME, argument.getString(AddTypeContract.NAME))
+                            .add(AddTypeContract.AGE, 0)))
             .build();
   }
 
@@ -95,4 +102,99 @@ public class AddTypeContractTest extends ContractTest {
     Assert.assertEquals(SUCCESS, response.getString(RESULT));
     Assert.assertNotNull(response.getString(MESSAGE));
   }
+
+  @Test
+  public void invoke_InsertShardedType_ShouldCreateEveryShard() {
+    // Arrange
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(AddTypeContract.NAME, NAME_EX)
+            .add(AddTypeContract.SHARDS, 3)
+            .build();
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + NAME_EX)).thenReturn(Optional.empty());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            HOLDER_ID_1_EX + "-" + NAME_EX,
+            Json.createObjectBuilder().add(AddTypeContract.SHARDS, 3).build());
+    for (int shard = 0; shard < 3; shard++) {
+      Mockito.verify(ledger, Mockito.times(1))
+          .put(HOLDER_ID_1_EX + "-" + NAME_EX + "#" + shard, Json.createObjectBuilder().build());
+    }
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_NameWithHash_ShouldReturnFailure() {
+    // Arrange
+    JsonObject argument =
+        Json.createObjectBuilder().add(AddTypeContract.NAME, NAME_EX + "#index").build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).put(Mockito.anyString(), Mockito.any());
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_TooManyShards_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(AddTypeContract.NAME, NAME_EX)
+            .add(AddTypeContract.SHARDS, AddTypeContract.MAX_SHARDS + 1)
+            .build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_InsertSecondType_ShouldAddItToSnapshot() {
+    // Arrange
+    JsonObject book =
+        Json.createObjectBuilder()
+            .add(AddTypeContract.NAME, TYPE_EX)
+            .add(AddTypeContract.AGE, 0)
+            .add(AddTypeContract.TIMESTAMP, TIMESTAMP_EX)
+            .build();
+    Mockito.when(asset.age()).thenReturn(0);
+    Mockito.when(asset.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(AddTypeContract.NAME, TYPE_EX)
+                .add(AddTypeContract.TYPES, Json.createArrayBuilder().add(book))
+                .build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + NAME_EX)).thenReturn(Optional.empty());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + AddTypeContract.TYPE))
+        .thenReturn(Optional.of(asset));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(AddTypeContract.NAME, NAME_EX)
+            .add(AddTypeContract.TIMESTAMP, TIMESTAMP_EX)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonObject snapshot =
+        Json.createObjectBuilder()
+            .add(AddTypeContract.NAME, NAME_EX)
+            .add(
+                AddTypeContract.TYPES,
+                Json.createArrayBuilder()
+                    .add(book)
+                    .add(
+                        Json.createObjectBuilder()
+                            .add(AddTypeContract.NAME, NAME_EX)
+                            .add(AddTypeContract.AGE, 1)
+                            .add(AddTypeContract.TIMESTAMP, TIMESTAMP_EX)))
+            .build();
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(HOLDER_ID_1_EX + "-" + AddTypeContract.TYPE, snapshot);
+    Mockito.verify(ledger, Mockito.never()).scan(Mockito.any());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
 }
@@ -1,5 +1,6 @@
 package com.scalar.am.contract;
 
+import com.scalar.am.ledger.InMemoryLedger;
 import com.scalar.ledger.asset.Asset;
 import com.scalar.ledger.database.AssetFilter;
 import com.scalar.ledger.exception.ContractContextException;
@@ -101,4 +102,114 @@ public class AssetHistoryContractTest extends ContractTest {
     Assert.assertEquals(IN_STOCK, type.getString(AssetHistoryContract.STATUS));
     Assert.assertEquals(AGE_EX, type.getInt(AssetHistoryContract.AGE));
   }
+
+  @Test
+  public void invoke_CompactRecordGiven_ShouldReturnItInOriginalForm() {
+    // Arrange
+    Mockito.when(asset.age()).thenReturn(AGE_EX);
+    Mockito.when(asset.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(AssetHistoryContract.VERSION, 2)
+                .add(AssetHistoryContract.V2_HOLDER_ID, HOLDER_ID_1_EX)
+                .add(AssetHistoryContract.V2_TIMESTAMP, TIMESTAMP_EX)
+                .add(AssetHistoryContract.V2_STATUS, 1)
+                .add(AssetHistoryContract.V2_TYPE, TYPE_EX)
+                .build());
+    List<Asset> borrowList = new ArrayList<Asset>();
+    borrowList.add(asset);
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(borrowList);
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonObject expected =
+        Json.createObjectBuilder()
+            .add(AssetHistoryContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(AssetHistoryContract.STATUS, AssetHistoryContract.ON_LOAN)
+            .add(AssetHistoryContract.AGE, AGE_EX)
+            .add(AssetHistoryContract.HOLDER_ID, HOLDER_ID_1_EX)
+            .build();
+    Assert.assertEquals(
+        expected, response.getJsonArray(AssetHistoryContract.HISTORY).getJsonObject(0));
+  }
+
+  @Test
+  public void invoke_TimestampBoundsGiven_ShouldReturnRecordsInRange() {
+    // Arrange
+    Asset older = Mockito.mock(Asset.class);
+    Mockito.when(older.age()).thenReturn(0);
+    Mockito.when(older.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(AssetHistoryContract.TIMESTAMP, TIMESTAMP_EX - 1000)
+                .add(AssetHistoryContract.STATUS, IN_STOCK)
+                .build());
+    setAssetRecords();
+    List<Asset> borrowList = new ArrayList<Asset>();
+    borrowList.add(asset);
+    borrowList.add(older);
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(borrowList);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.of(asset));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(AssetHistoryContract.ID, ID_EX)
+            .add(AssetHistoryContract.START_TIMESTAMP, TIMESTAMP_EX)
+            .add(AssetHistoryContract.ORDER, AssetHistoryContract.DESC)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    JsonArray history = response.getJsonArray(AssetHistoryContract.HISTORY);
+    Assert.assertEquals(1, history.size());
+    Assert.assertEquals(AGE_EX, history.getJsonObject(0).getInt(AssetHistoryContract.AGE));
+  }
+
+  @Test
+  public void invoke_NoRecordInBounds_ShouldReturnEmptyHistory() {
+    // Arrange
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(new ArrayList<Asset>());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.of(asset));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(AssetHistoryContract.ID, ID_EX)
+            .add(AssetHistoryContract.START_AGE, 10)
+            .add(AssetHistoryContract.LIMIT, 5)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertEquals(0, response.getJsonArray(AssetHistoryContract.HISTORY).size());
+  }
+
+  @Test
+  public void invoke_TimestampBoundsGiven_ShouldScanOnlyTheMatchingAges() {
+    // Arrange
+    InMemoryLedger ledger = new InMemoryLedger();
+    for (int i = 0; i < 1000; i++) {
+      ledger.put(
+          HOLDER_ID_1_EX + "-" + ID_EX,
+          Json.createObjectBuilder()
+              .add(AssetHistoryContract.TIMESTAMP, TIMESTAMP_EX + i * 10)
+              .add(AssetHistoryContract.STATUS, (i % 2 == 0) ? IN_STOCK : "on-loan")
+              .build());
+    }
+    ledger.resetCounters();
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(AssetHistoryContract.ID, ID_EX)
+            .add(AssetHistoryContract.START_TIMESTAMP, TIMESTAMP_EX + 5000)
+            .add(AssetHistoryContract.END_TIMESTAMP, TIMESTAMP_EX + 5045)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonArray history = response.getJsonArray(AssetHistoryContract.HISTORY);
+    Assert.assertEquals(5, history.size());
+    Assert.assertEquals(500, history.getJsonObject(0).getInt(AssetHistoryContract.AGE));
+    Assert.assertEquals(504, history.getJsonObject(4).getInt(AssetHistoryContract.AGE));
+    // Two binary searches of one record per step, and the range itself
+    Assert.assertTrue(ledger.scannedCount() < 2 * 11 + 5 + 1);
+  }
 }
@@ -0,0 +1,172 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class BatchAddAssetContractTest extends ContractTest {
+  private static final String ID_2_EX = "D41D8CD98F00B204E9800998ECF8427E";
+
+  private BatchAddAssetContract contract = new BatchAddAssetContract();
+  private JsonObject property;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset typeAsset;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    property =
+        Json.createObjectBuilder().add(BatchAddAssetContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    Mockito.when(typeAsset.age()).thenReturn(AGE_EX);
+    Mockito.when(typeAsset.data()).thenReturn(Json.createObjectBuilder().build());
+    Mockito.when(ledger.get(Mockito.anyString())).thenReturn(Optional.empty());
+  }
+
+  private JsonObject entry(String type, String id, String name) {
+    return Json.createObjectBuilder()
+        .add(BatchAddAssetContract.TYPE, type)
+        .add(BatchAddAssetContract.ID, id)
+        .add(BatchAddAssetContract.ASSET, name)
+        .add(BatchAddAssetContract.TIMESTAMP, TIMESTAMP_EX)
+        .build();
+  }
+
+  @Test
+  public void invoke_ArgumentWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_AddAssetsOfSameType_ShouldWriteListKeyOnce() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(
+                BatchAddAssetContract.ASSETS,
+                Json.createArrayBuilder()
+                    .add(entry(TYPE_EX, ID_EX, ASSET_EX))
+                    .add(entry(TYPE_EX, ID_2_EX, NAME_EX)))
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonObject list =
+        Json.createObjectBuilder()
+            .add(
+                BatchAddAssetContract.ASSETS,
+                Json.createArrayBuilder()
+                    .add(
+                        Json.createObjectBuilder()
+                            .add(BatchAddAssetContract.ID, ID_EX)
+                            .add(BatchAddAssetContract.NAME, ASSET_EX))
+                    .add(
+                        Json.createObjectBuilder()
+                            .add(BatchAddAssetContract.ID, ID_2_EX)
+                            .add(BatchAddAssetContract.NAME, NAME_EX)))
+            .build();
+    Mockito.verify(ledger, Mockito.times(1)).get(HOLDER_ID_1_EX + "-" + TYPE_EX + "#index");
+    Mockito.verify(ledger, Mockito.times(1)).put(HOLDER_ID_1_EX + "-" + TYPE_EX, list);
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(Mockito.eq(HOLDER_ID_1_EX + "-" + ID_2_EX), Mockito.any());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertEquals(2, response.getInt(BatchAddAssetContract.ADDED));
+  }
+
+  @Test
+  public void invoke_SomeEntriesInvalid_ShouldReportEachEntry() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(
+                BatchAddAssetContract.ASSETS,
+                Json.createArrayBuilder()
+                    .add(entry(TYPE_EX, ID_EX, ASSET_EX))
+                    .add(entry(TYPE_EX, ID_EX, ASSET_EX))
+                    .add(entry(NAME_EX, ID_2_EX, NAME_EX)))
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonArray results = response.getJsonArray(BatchAddAssetContract.RESULTS);
+    Assert.assertEquals(SUCCESS, results.getJsonObject(0).getString(RESULT));
+    Assert.assertEquals(FAILURE, results.getJsonObject(1).getString(RESULT));
+    Assert.assertEquals(FAILURE, results.getJsonObject(2).getString(RESULT));
+    Assert.assertEquals(1, response.getInt(BatchAddAssetContract.ADDED));
+    Assert.assertEquals(2, response.getInt(BatchAddAssetContract.FAILED));
+    Mockito.verify(ledger, Mockito.times(1)).get(HOLDER_ID_1_EX + "-" + TYPE_EX);
+    Mockito.verify(ledger, Mockito.never())
+        .put(Mockito.eq(HOLDER_ID_1_EX + "-" + NAME_EX), Mockito.any());
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            HOLDER_ID_1_EX + "-" + TYPE_EX,
+            Json.createObjectBuilder()
+                .add(BatchAddAssetContract.ID, ID_EX)
+                .add(BatchAddAssetContract.NAME, ASSET_EX)
+                .build());
+  }
+
+  @Test
+  public void invoke_EntryValuesOfWrongType_ShouldReportEachEntry() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(
+                BatchAddAssetContract.ASSETS,
+                Json.createArrayBuilder()
+                    .add(
+                        Json.createObjectBuilder()
+                            .add(BatchAddAssetContract.TYPE, 1)
+                            .add(BatchAddAssetContract.ID, ID_EX)
+                            .add(BatchAddAssetContract.ASSET, ASSET_EX)
+                            .add(BatchAddAssetContract.TIMESTAMP, TIMESTAMP_EX))
+                    .add(
+                        Json.createObjectBuilder()
+                            .add(BatchAddAssetContract.TYPE, TYPE_EX)
+                            .add(BatchAddAssetContract.ID, Json.createArrayBuilder())
+                            .add(BatchAddAssetContract.ASSET, ASSET_EX)
+                            .add(BatchAddAssetContract.TIMESTAMP, TIMESTAMP_EX))
+                    .add(
+                        Json.createObjectBuilder()
+                            .add(BatchAddAssetContract.TYPE, TYPE_EX)
+                            .add(BatchAddAssetContract.ID, ID_EX)
+                            .add(BatchAddAssetContract.ASSET, ASSET_EX)
+                            .add(BatchAddAssetContract.TIMESTAMP, "now"))
+                    .add(entry(TYPE_EX, ID_EX, ASSET_EX)))
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonArray results = response.getJsonArray(BatchAddAssetContract.RESULTS);
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(FAILURE, results.getJsonObject(i).getString(RESULT));
+      Assert.assertEquals("wrong argument.", results.getJsonObject(i).getString(MESSAGE));
+    }
+    Assert.assertEquals(SUCCESS, results.getJsonObject(3).getString(RESULT));
+    Assert.assertEquals(1, response.getInt(BatchAddAssetContract.ADDED));
+    Assert.assertEquals(3, response.getInt(BatchAddAssetContract.FAILED));
+  }
+}
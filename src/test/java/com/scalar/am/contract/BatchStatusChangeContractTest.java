@@ -0,0 +1,193 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class BatchStatusChangeContractTest extends ContractTest {
+  private static final String ID_2_EX = "D41D8CD98F00B204E9800998ECF8427E";
+
+  private BatchStatusChangeContract contract = new BatchStatusChangeContract();
+  private JsonObject argument;
+  private JsonObject property;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset asset;
+  @Mock private Asset asset2;
+  @Mock private Asset index;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    argument =
+        Json.createObjectBuilder()
+            .add(
+                BatchStatusChangeContract.ASSET_IDS,
+                Json.createArrayBuilder().add(ID_EX).add(ID_2_EX))
+            .add(BatchStatusChangeContract.STATUS, BatchStatusChangeContract.ON_LOAN)
+            .add(BatchStatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .build();
+    property =
+        Json.createObjectBuilder().add(BatchStatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+
+    JsonObject inStock =
+        Json.createObjectBuilder()
+            .add(BatchStatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(BatchStatusChangeContract.STATUS, IN_STOCK)
+            .add(BatchStatusChangeContract.TYPE, TYPE_EX)
+            .build();
+    Mockito.when(asset.data()).thenReturn(inStock);
+    Mockito.when(asset2.data()).thenReturn(inStock);
+    Mockito.when(ledger.get(Mockito.anyString())).thenReturn(Optional.empty());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.of(asset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_2_EX)).thenReturn(Optional.of(asset2));
+  }
+
+  @Test
+  public void invoke_ArgumentWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_BorrowAvailableAssets_ShouldChangeAllOfThem() {
+    // Arrange
+    JsonObject entry =
+        Json.createObjectBuilder()
+            .add(BatchStatusChangeContract.NAME, NAME_EX)
+            .add(BatchStatusChangeContract.AGE, AGE_EX)
+            .add(BatchStatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(BatchStatusChangeContract.STATUS, IN_STOCK)
+            .build();
+    Mockito.when(index.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    BatchStatusChangeContract.ASSETS,
+                    Json.createObjectBuilder().add(ID_EX, entry).add(ID_2_EX, entry))
+                .build());
+    String indexKey = HOLDER_ID_1_EX + "-" + TYPE_EX + BatchStatusChangeContract.INDEX_SUFFIX;
+    Mockito.when(ledger.get(indexKey)).thenReturn(Optional.of(index));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonObject onLoan =
+        Json.createObjectBuilder()
+            .add(BatchStatusChangeContract.VERSION, 2)
+            .add(BatchStatusChangeContract.V2_HOLDER_ID, HOLDER_ID_1_EX)
+            .add(BatchStatusChangeContract.V2_TIMESTAMP, TIMESTAMP_EX)
+            .add(BatchStatusChangeContract.V2_STATUS, 1)
+            .add(BatchStatusChangeContract.V2_TYPE, TYPE_EX)
+            .build();
+    Mockito.verify(ledger, Mockito.times(1)).put(HOLDER_ID_1_EX + "-" + ID_EX, onLoan);
+    Mockito.verify(ledger, Mockito.times(1)).put(HOLDER_ID_1_EX + "-" + ID_2_EX, onLoan);
+    ArgumentCaptor<JsonObject> newIndex = ArgumentCaptor.forClass(JsonObject.class);
+    Mockito.verify(ledger, Mockito.times(1)).put(Mockito.eq(indexKey), newIndex.capture());
+    JsonObject assets = newIndex.getValue().getJsonObject(BatchStatusChangeContract.ASSETS);
+    Assert.assertEquals(
+        BatchStatusChangeContract.ON_LOAN,
+        assets.getJsonObject(ID_EX).getString(BatchStatusChangeContract.STATUS));
+    Assert.assertEquals(
+        BatchStatusChangeContract.ON_LOAN,
+        assets.getJsonObject(ID_2_EX).getString(BatchStatusChangeContract.STATUS));
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_OneAssetAlreadyBorrowed_ShouldChangeNone() {
+    // Arrange
+    Mockito.when(asset2.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(BatchStatusChangeContract.HOLDER_ID, HOLDER_ID_2_EX)
+                .add(BatchStatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+                .add(BatchStatusChangeContract.STATUS, BatchStatusChangeContract.ON_LOAN)
+                .build());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).put(Mockito.anyString(), Mockito.any());
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+    JsonArray blocked = response.getJsonArray(BatchStatusChangeContract.BLOCKED);
+    Assert.assertEquals(1, blocked.size());
+    Assert.assertEquals(ID_2_EX, blocked.getJsonObject(0).getString(BatchStatusChangeContract.ID));
+  }
+
+  @Test
+  public void invoke_UnknownTypeOfIndexedAsset_ShouldUpdateIndexOfItsType() {
+    // Arrange
+    Mockito.when(asset2.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(BatchStatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+                .add(BatchStatusChangeContract.STATUS, IN_STOCK)
+                .build());
+    Asset registry = Mockito.mock(Asset.class);
+    Mockito.when(registry.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(BatchStatusChangeContract.NAME, TYPE_EX)
+                .add(
+                    BatchStatusChangeContract.TYPES,
+                    Json.createArrayBuilder()
+                        .add(
+                            Json.createObjectBuilder()
+                                .add(BatchStatusChangeContract.NAME, TYPE_EX)))
+                .build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + BatchStatusChangeContract.TYPE))
+        .thenReturn(Optional.of(registry));
+    JsonObject entry =
+        Json.createObjectBuilder()
+            .add(BatchStatusChangeContract.NAME, NAME_EX)
+            .add(BatchStatusChangeContract.AGE, AGE_EX)
+            .add(BatchStatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(BatchStatusChangeContract.STATUS, IN_STOCK)
+            .build();
+    // index built in one record, before it was split into buckets
+    Mockito.when(index.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    BatchStatusChangeContract.ASSETS,
+                    Json.createObjectBuilder().add(ID_EX, entry).add(ID_2_EX, entry))
+                .build());
+    String indexKey = HOLDER_ID_1_EX + "-" + TYPE_EX + BatchStatusChangeContract.INDEX_SUFFIX;
+    Mockito.when(ledger.get(indexKey)).thenReturn(Optional.of(index));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    ArgumentCaptor<JsonObject> newRecord = ArgumentCaptor.forClass(JsonObject.class);
+    Mockito.verify(ledger).put(Mockito.eq(HOLDER_ID_1_EX + "-" + ID_2_EX), newRecord.capture());
+    Assert.assertEquals(TYPE_EX, newRecord.getValue().getString(BatchStatusChangeContract.V2_TYPE));
+    ArgumentCaptor<JsonObject> newIndex = ArgumentCaptor.forClass(JsonObject.class);
+    Mockito.verify(ledger).put(Mockito.eq(indexKey), newIndex.capture());
+    Assert.assertEquals(
+        BatchStatusChangeContract.ON_LOAN,
+        newIndex
+            .getValue()
+            .getJsonObject(BatchStatusChangeContract.ASSETS)
+            .getJsonObject(ID_2_EX)
+            .getString(BatchStatusChangeContract.STATUS));
+  }
+}
@@ -0,0 +1,276 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Arrays;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class BuildStatusIndexContractTest extends ContractTest {
+
+  private BuildStatusIndexContract contract = new BuildStatusIndexContract();
+  private JsonObject property;
+  private String indexKey;
+  private String statsKey;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset typeRecord;
+  @Mock private Asset assetRecord;
+  @Mock private Asset status;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    property =
+        Json.createObjectBuilder().add(BuildStatusIndexContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    indexKey = HOLDER_ID_1_EX + "-" + TYPE_EX + BuildStatusIndexContract.INDEX_SUFFIX;
+    statsKey = HOLDER_ID_1_EX + "-" + TYPE_EX + BuildStatusIndexContract.STATS_SUFFIX;
+
+    Mockito.when(typeRecord.age()).thenReturn(0);
+    Mockito.when(typeRecord.data()).thenReturn(Json.createObjectBuilder().build());
+    Mockito.when(assetRecord.age()).thenReturn(AGE_EX);
+    Mockito.when(assetRecord.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(BuildStatusIndexContract.ID, ID_EX)
+                .add(BuildStatusIndexContract.NAME, NAME_EX)
+                .build());
+    Mockito.when(status.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(BuildStatusIndexContract.TIMESTAMP, TIMESTAMP_EX)
+                .add(BuildStatusIndexContract.STATUS, IN_STOCK)
+                .build());
+  }
+
+  private JsonObject argument(int limit) {
+    return Json.createObjectBuilder()
+        .add(BuildStatusIndexContract.TYPE, TYPE_EX)
+        .add(BuildStatusIndexContract.LIMIT, limit)
+        .build();
+  }
+
+  @Test
+  public void invoke_ArgumentWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_NonExistingType_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.empty());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(0), Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).put(Mockito.anyString(), Mockito.any());
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_TypeWithoutIndex_ShouldIndexEveryAsset() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeRecord));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.of(status));
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class)))
+        .thenReturn(Arrays.asList(assetRecord));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(0), Optional.of(property));
+    // Assert
+    JsonObject entry =
+        Json.createObjectBuilder()
+            .add(BuildStatusIndexContract.NAME, NAME_EX)
+            .add(BuildStatusIndexContract.AGE, AGE_EX)
+            .add(BuildStatusIndexContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(BuildStatusIndexContract.STATUS, IN_STOCK)
+            .build();
+    JsonObject bucket =
+        Json.createObjectBuilder()
+            .add(BuildStatusIndexContract.ASSETS, Json.createObjectBuilder().add(ID_EX, entry))
+            .build();
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(Mockito.startsWith(indexKey + "#"), Mockito.eq(bucket));
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(indexKey, Json.createObjectBuilder().add(BuildStatusIndexContract.BUCKETS, 1).build());
+    // the status records are left as they are
+    Mockito.verify(ledger, Mockito.never())
+        .put(Mockito.eq(HOLDER_ID_1_EX + "-" + ID_EX), Mockito.any());
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            statsKey,
+            Json.createObjectBuilder()
+                .add(BuildStatusIndexContract.TOTAL, 1)
+                .add(BuildStatusIndexContract.IN_STOCK, 1)
+                .add(BuildStatusIndexContract.ON_LOAN, 0)
+                .build());
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            HOLDER_ID_1_EX + "-" + TYPE_EX + BuildStatusIndexContract.CHANGES_SUFFIX,
+            Json.createObjectBuilder()
+                .add(BuildStatusIndexContract.ASSETS, Json.createObjectBuilder())
+                .build());
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            HOLDER_ID_1_EX + "-" + TYPE_EX + BuildStatusIndexContract.DURATIONS_SUFFIX,
+            Json.createObjectBuilder()
+                .add(BuildStatusIndexContract.COUNT, 0)
+                .add(BuildStatusIndexContract.SUM, 0)
+                .add(BuildStatusIndexContract.MAX, 0)
+                .add(BuildStatusIndexContract.COUNTS, Json.createArrayBuilder())
+                .build());
+    String namesKey = HOLDER_ID_1_EX + "-" + TYPE_EX + BuildStatusIndexContract.NAMES_SUFFIX;
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            namesKey + "#com",
+            Json.createObjectBuilder()
+                .add(
+                    BuildStatusIndexContract.ASSETS, Json.createObjectBuilder().add(ID_EX, NAME_EX))
+                .build());
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            namesKey,
+            Json.createObjectBuilder()
+                .add(BuildStatusIndexContract.BUCKETS, Json.createArrayBuilder().add("com"))
+                .build());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertTrue(response.getBoolean(BuildStatusIndexContract.COMPLETED));
+    Assert.assertEquals(1, response.getInt(BuildStatusIndexContract.INDEXED));
+  }
+
+  @Test
+  public void invoke_LimitReached_ShouldRecordWhereToResume() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeRecord));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.of(status));
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class)))
+        .thenReturn(Arrays.asList(assetRecord));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(1), Optional.of(property));
+    // Assert
+    ArgumentCaptor<JsonObject> index = ArgumentCaptor.forClass(JsonObject.class);
+    Mockito.verify(ledger).put(Mockito.eq(indexKey), index.capture());
+    Assert.assertEquals(AGE_EX + 1, index.getValue().getInt(BuildStatusIndexContract.BUILDING));
+    Assert.assertFalse(response.getBoolean(BuildStatusIndexContract.COMPLETED));
+    Mockito.verify(ledger, Mockito.never()).put(Mockito.eq(statsKey), Mockito.any());
+  }
+
+  @Test
+  public void invoke_IndexAlreadyBuilt_ShouldNotWrite() {
+    // Arrange
+    Asset index = Mockito.mock(Asset.class);
+    Mockito.when(index.data())
+        .thenReturn(Json.createObjectBuilder().add(BuildStatusIndexContract.BUCKETS, 1).build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeRecord));
+    Mockito.when(ledger.get(indexKey)).thenReturn(Optional.of(index));
+    Mockito.when(ledger.get(statsKey)).thenReturn(Optional.of(Mockito.mock(Asset.class)));
+    Mockito.when(
+            ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + BuildStatusIndexContract.CHANGES_SUFFIX))
+        .thenReturn(Optional.of(Mockito.mock(Asset.class)));
+    Mockito.when(
+            ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + BuildStatusIndexContract.DURATIONS_SUFFIX))
+        .thenReturn(Optional.of(Mockito.mock(Asset.class)));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + BuildStatusIndexContract.NAMES_SUFFIX))
+        .thenReturn(Optional.of(Mockito.mock(Asset.class)));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(0), Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).put(Mockito.anyString(), Mockito.any());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertTrue(response.getBoolean(BuildStatusIndexContract.COMPLETED));
+  }
+
+  @Test
+  public void invoke_IndexBuiltInOneRecord_ShouldSplitItIntoBuckets() {
+    // Arrange
+    JsonObject entry =
+        Json.createObjectBuilder()
+            .add(BuildStatusIndexContract.NAME, NAME_EX)
+            .add(BuildStatusIndexContract.AGE, AGE_EX)
+            .add(BuildStatusIndexContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(BuildStatusIndexContract.STATUS, IN_STOCK)
+            .build();
+    Asset index = Mockito.mock(Asset.class);
+    Mockito.when(index.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(BuildStatusIndexContract.ASSETS, Json.createObjectBuilder().add(ID_EX, entry))
+                .build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeRecord));
+    Mockito.when(ledger.get(indexKey)).thenReturn(Optional.of(index));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(0), Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            Mockito.startsWith(indexKey + "#"),
+            Mockito.eq(
+                Json.createObjectBuilder()
+                    .add(
+                        BuildStatusIndexContract.ASSETS,
+                        Json.createObjectBuilder().add(ID_EX, entry))
+                    .build()));
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(indexKey, Json.createObjectBuilder().add(BuildStatusIndexContract.BUCKETS, 1).build());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertEquals(0, response.getInt(BuildStatusIndexContract.INDEXED));
+  }
+
+  @Test
+  public void invoke_LargeIndexBuiltInOneRecord_ShouldSplitItIntoBucketsOfBoundedSize() {
+    // Arrange
+    JsonObject entry =
+        Json.createObjectBuilder()
+            .add(BuildStatusIndexContract.NAME, NAME_EX)
+            .add(BuildStatusIndexContract.AGE, AGE_EX)
+            .add(BuildStatusIndexContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(BuildStatusIndexContract.STATUS, IN_STOCK)
+            .build();
+    int count = 3 * BuildStatusIndexContract.MAX_BUCKET_ENTRIES;
+    JsonObjectBuilder assets = Json.createObjectBuilder();
+    for (int i = 0; i < count; i++) {
+      assets.add(ID_EX + i, entry);
+    }
+    Asset index = Mockito.mock(Asset.class);
+    Mockito.when(index.data())
+        .thenReturn(
+            Json.createObjectBuilder().add(BuildStatusIndexContract.ASSETS, assets).build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeRecord));
+    Mockito.when(ledger.get(indexKey)).thenReturn(Optional.of(index));
+    // Act
+    contract.invoke(ledger, argument(0), Optional.of(property));
+    // Assert
+    ArgumentCaptor<JsonObject> header = ArgumentCaptor.forClass(JsonObject.class);
+    Mockito.verify(ledger).put(Mockito.eq(indexKey), header.capture());
+    int buckets = header.getValue().getInt(BuildStatusIndexContract.BUCKETS);
+    ArgumentCaptor<JsonObject> bucketRecords = ArgumentCaptor.forClass(JsonObject.class);
+    Mockito.verify(ledger, Mockito.times(buckets))
+        .put(Mockito.startsWith(indexKey + "#"), bucketRecords.capture());
+    int entries = 0;
+    for (JsonObject bucket : bucketRecords.getAllValues()) {
+      int size = bucket.getJsonObject(BuildStatusIndexContract.ASSETS).size();
+      Assert.assertTrue(size <= BuildStatusIndexContract.MAX_BUCKET_ENTRIES);
+      entries += size;
+    }
+    Assert.assertEquals(count, entries);
+  }
+}
@@ -0,0 +1,213 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class ChangesContractTest extends ContractTest {
+  private static final String ID_2_EX = "D41D8CD98F00B204E9800998ECF8427E";
+
+  private ChangesContract contract = new ChangesContract();
+  private JsonObject property;
+  private String changesKey;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset typeAsset;
+  @Mock private Asset changes;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    property = Json.createObjectBuilder().add(ChangesContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    changesKey = HOLDER_ID_1_EX + "-" + TYPE_EX + ChangesContract.CHANGES_SUFFIX;
+    Mockito.when(typeAsset.data()).thenReturn(Json.createObjectBuilder().build());
+    Mockito.when(changes.age()).thenReturn(3);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+  }
+
+  private JsonObject argument(String since) {
+    return Json.createObjectBuilder()
+        .add(ChangesContract.TYPE, TYPE_EX)
+        .add(ChangesContract.SINCE, since)
+        .build();
+  }
+
+  private JsonObject entry(String status, int age) {
+    return Json.createObjectBuilder()
+        .add(ChangesContract.NAME, NAME_EX)
+        .add(ChangesContract.AGE, age)
+        .add(ChangesContract.TIMESTAMP, TIMESTAMP_EX)
+        .add(ChangesContract.STATUS, status)
+        .build();
+  }
+
+  /** @return the token of an unsharded type whose change log has one shard at the given age */
+  private String token(int shard, int age) {
+    StringBuilder token = new StringBuilder();
+    for (int i = 0; i < ChangesContract.AGGREGATE_SHARDS; i++) {
+      token.append(i == 0 ? "" : ",").append(i == shard ? age : -1);
+    }
+    return token.toString();
+  }
+
+  private Asset record(String id, JsonObject entry) {
+    Asset record = Mockito.mock(Asset.class);
+    Mockito.when(record.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(ChangesContract.ASSETS, Json.createObjectBuilder().add(id, entry))
+                .build());
+    return record;
+  }
+
+  @Test
+  public void invoke_ArgumentWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_TokenOfAnotherShardCount_ShouldThrowContractContextException() {
+    // Arrange
+    Mockito.when(ledger.get(changesKey)).thenReturn(Optional.of(changes));
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument("1,2"), Optional.of(property));
+  }
+
+  @Test
+  public void invoke_UntrackedType_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.get(changesKey)).thenReturn(Optional.empty());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument("0"), Optional.of(property));
+    // Assert
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_WithoutToken_ShouldListIndexAndReturnToken() {
+    // Arrange
+    Asset index = Mockito.mock(Asset.class);
+    Mockito.when(index.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    ChangesContract.ASSETS,
+                    Json.createObjectBuilder().add(ID_EX, entry(IN_STOCK, AGE_EX)))
+                .build());
+    Mockito.when(ledger.get(changesKey)).thenReturn(Optional.of(changes));
+    Mockito.when(ledger.get(changesKey + "#2")).thenReturn(Optional.of(changes));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + ChangesContract.INDEX_SUFFIX))
+        .thenReturn(Optional.of(index));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(""), Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).scan(Mockito.any(AssetFilter.class));
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertEquals(1, response.getJsonArray(TYPE_EX).size());
+    Assert.assertEquals(token(2, 3), response.getString(ChangesContract.TOKEN));
+  }
+
+  @Test
+  public void invoke_TokenOnly_ShouldReturnTokenWithoutAssets() {
+    // Arrange
+    Asset index = Mockito.mock(Asset.class);
+    Mockito.when(index.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    ChangesContract.ASSETS,
+                    Json.createObjectBuilder().add(ID_EX, entry(IN_STOCK, AGE_EX)))
+                .build());
+    Mockito.when(ledger.get(changesKey)).thenReturn(Optional.of(changes));
+    Mockito.when(ledger.get(changesKey + "#2")).thenReturn(Optional.of(changes));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + ChangesContract.INDEX_SUFFIX))
+        .thenReturn(Optional.of(index));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(ChangesContract.TYPE, TYPE_EX)
+            .add(ChangesContract.TOKEN_ONLY, true)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertEquals(0, response.getJsonArray(TYPE_EX).size());
+    Assert.assertEquals(token(2, 3), response.getString(ChangesContract.TOKEN));
+  }
+
+  @Test
+  public void invoke_WithToken_ShouldListLatestChangeOfEachAsset() {
+    // Arrange
+    Mockito.when(ledger.get(changesKey)).thenReturn(Optional.of(changes));
+    Mockito.when(ledger.get(changesKey + "#2")).thenReturn(Optional.of(changes));
+    List<Asset> records =
+        Arrays.asList(
+            record(ID_EX, entry(IN_STOCK, AGE_EX)),
+            record(ID_2_EX, entry(IN_STOCK, AGE_EX + 1)),
+            record(ID_EX, entry("on-loan", AGE_EX)));
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(records);
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(token(2, 0)), Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.times(1)).scan(Mockito.any(AssetFilter.class));
+    JsonArray assets = response.getJsonArray(TYPE_EX);
+    Assert.assertEquals(2, assets.size());
+    Assert.assertEquals(ID_2_EX, assets.getJsonObject(0).getString(ChangesContract.ID));
+    Assert.assertEquals(ID_EX, assets.getJsonObject(1).getString(ChangesContract.ID));
+    Assert.assertEquals("on-loan", assets.getJsonObject(1).getString(ChangesContract.STATUS));
+    Assert.assertEquals(token(2, 3), response.getString(ChangesContract.TOKEN));
+  }
+
+  @Test
+  public void invoke_TokenTakenBeforeLogWasSharded_ShouldAlsoListChangesOfUnshardedLog() {
+    // Arrange
+    Mockito.when(ledger.get(changesKey)).thenReturn(Optional.of(changes));
+    List<Asset> records = Arrays.asList(record(ID_EX, entry("on-loan", AGE_EX)));
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(records);
+    // Act
+    JsonObject response = contract.invoke(ledger, argument("0"), Optional.of(property));
+    // Assert
+    JsonArray assets = response.getJsonArray(TYPE_EX);
+    Assert.assertEquals(1, assets.size());
+    Assert.assertEquals(ID_EX, assets.getJsonObject(0).getString(ChangesContract.ID));
+    Assert.assertEquals(token(-1, 0), response.getString(ChangesContract.TOKEN));
+  }
+
+  @Test
+  public void invoke_TokenUpToDate_ShouldNotScan() {
+    // Arrange
+    Mockito.when(ledger.get(changesKey)).thenReturn(Optional.of(changes));
+    Mockito.when(ledger.get(changesKey + "#2")).thenReturn(Optional.of(changes));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(token(2, 3)), Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).scan(Mockito.any(AssetFilter.class));
+    Assert.assertEquals(0, response.getJsonArray(TYPE_EX).size());
+    Assert.assertEquals(token(2, 3), response.getString(ChangesContract.TOKEN));
+  }
+}
@@ -0,0 +1,131 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class CheckpointContractTest extends ContractTest {
+  private static final String ON_LOAN = "on-loan";
+
+  private CheckpointContract contract = new CheckpointContract();
+  private JsonObject argument;
+  private JsonObject property;
+  private String checkpointKey;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset added;
+  @Mock private Asset borrowed;
+  @Mock private Asset returned;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    argument = Json.createObjectBuilder().add(CheckpointContract.ASSET_ID, ID_EX).build();
+    property = Json.createObjectBuilder().add(CheckpointContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    checkpointKey = HOLDER_ID_1_EX + "-" + ID_EX + CheckpointContract.CHECKPOINT_SUFFIX;
+
+    setEntry(added, 0, IN_STOCK, TIMESTAMP_EX, null);
+    setEntry(borrowed, 1, ON_LOAN, TIMESTAMP_EX + 1000, HOLDER_ID_2_EX);
+    setEntry(returned, 2, IN_STOCK, TIMESTAMP_EX + 5000, null);
+    Mockito.when(ledger.get(checkpointKey)).thenReturn(Optional.empty());
+  }
+
+  private void setEntry(Asset entry, int age, String status, long timestamp, String holderId) {
+    Mockito.when(entry.age()).thenReturn(age);
+    if (holderId != null) {
+      Mockito.when(entry.data())
+          .thenReturn(
+              Json.createObjectBuilder()
+                  .add(CheckpointContract.HOLDER_ID, holderId)
+                  .add(CheckpointContract.TIMESTAMP, timestamp)
+                  .add(CheckpointContract.STATUS, status)
+                  .build());
+    } else {
+      Mockito.when(entry.data())
+          .thenReturn(
+              Json.createObjectBuilder()
+                  .add(CheckpointContract.TIMESTAMP, timestamp)
+                  .add(CheckpointContract.STATUS, status)
+                  .build());
+    }
+  }
+
+  @Test
+  public void invoke_ArgumentWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_NonExistingAsset_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(Collections.emptyList());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).put(Mockito.anyString(), Mockito.any());
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_AssetWithHistory_ShouldFoldItIntoCheckpoint() {
+    // Arrange
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class)))
+        .thenReturn(Arrays.asList(added, borrowed, returned));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    ArgumentCaptor<JsonObject> checkpoint = ArgumentCaptor.forClass(JsonObject.class);
+    Mockito.verify(ledger).put(Mockito.eq(checkpointKey), checkpoint.capture());
+    JsonObject summary = checkpoint.getValue();
+    Assert.assertEquals(2, summary.getInt(CheckpointContract.AGE));
+    Assert.assertEquals(1, summary.getInt(CheckpointContract.LOANS));
+    Assert.assertEquals(4000, summary.getJsonNumber(CheckpointContract.TIME_ON_LOAN).longValue());
+    Assert.assertEquals(HOLDER_ID_2_EX, summary.getString(CheckpointContract.LAST_HOLDER));
+    Assert.assertEquals(IN_STOCK, summary.getString(CheckpointContract.STATUS));
+    Assert.assertFalse(summary.containsKey(CheckpointContract.LOAN_START));
+    Assert.assertEquals(64, summary.getString(CheckpointContract.DIGEST).length());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_AgeBeforeCheckpoint_ShouldReturnFailure() {
+    // Arrange
+    Asset previous = Mockito.mock(Asset.class);
+    Mockito.when(previous.data())
+        .thenReturn(Json.createObjectBuilder().add(CheckpointContract.AGE, 5).build());
+    Mockito.when(ledger.get(checkpointKey)).thenReturn(Optional.of(previous));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(CheckpointContract.ASSET_ID, ID_EX)
+            .add(CheckpointContract.AGE, 3)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).scan(Mockito.any());
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+}
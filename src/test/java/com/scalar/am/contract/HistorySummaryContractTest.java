@@ -0,0 +1,161 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class HistorySummaryContractTest extends ContractTest {
+  private static final String ON_LOAN = "on-loan";
+
+  private HistorySummaryContract contract = new HistorySummaryContract();
+  private CheckpointContract checkpointContract = new CheckpointContract();
+  private JsonObject property;
+  private String checkpointKey;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset added;
+  @Mock private Asset borrowed;
+  @Mock private Asset checkpoint;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    property =
+        Json.createObjectBuilder().add(HistorySummaryContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    checkpointKey = HOLDER_ID_1_EX + "-" + ID_EX + HistorySummaryContract.CHECKPOINT_SUFFIX;
+
+    Mockito.when(added.age()).thenReturn(0);
+    Mockito.when(added.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(HistorySummaryContract.TIMESTAMP, TIMESTAMP_EX)
+                .add(HistorySummaryContract.STATUS, IN_STOCK)
+                .build());
+    Mockito.when(borrowed.age()).thenReturn(1);
+    Mockito.when(borrowed.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(HistorySummaryContract.HOLDER_ID, HOLDER_ID_2_EX)
+                .add(HistorySummaryContract.TIMESTAMP, TIMESTAMP_EX + 1000)
+                .add(HistorySummaryContract.STATUS, ON_LOAN)
+                .build());
+  }
+
+  private JsonObject argument(boolean verify) {
+    return Json.createObjectBuilder()
+        .add(HistorySummaryContract.ASSET_ID, ID_EX)
+        .add(HistorySummaryContract.VERIFY, verify)
+        .build();
+  }
+
+  /** Write the checkpoint of the first entry with CheckpointContract, as the ledger would hold */
+  private void setCheckpoint() {
+    Mockito.when(ledger.get(checkpointKey)).thenReturn(Optional.empty());
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(Arrays.asList(added));
+    checkpointContract.invoke(
+        ledger,
+        Json.createObjectBuilder()
+            .add(CheckpointContract.ASSET_ID, ID_EX)
+            .add(CheckpointContract.AGE, 0)
+            .build(),
+        Optional.of(property));
+    ArgumentCaptor<JsonObject> summary = ArgumentCaptor.forClass(JsonObject.class);
+    Mockito.verify(ledger).put(Mockito.eq(checkpointKey), summary.capture());
+    Mockito.when(checkpoint.data()).thenReturn(summary.getValue());
+    Mockito.when(ledger.get(checkpointKey)).thenReturn(Optional.of(checkpoint));
+  }
+
+  @Test
+  public void invoke_ArgumentWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_NonExistingAsset_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.get(checkpointKey)).thenReturn(Optional.empty());
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(Collections.emptyList());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(false), Optional.of(property));
+    // Assert
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_CheckpointedAsset_ShouldReadEntriesAfterCheckpointOnly() {
+    // Arrange
+    setCheckpoint();
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(Arrays.asList(borrowed));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(false), Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertEquals(0, response.getInt(HistorySummaryContract.CHECKPOINT_AGE));
+    Assert.assertEquals(1, response.getInt(HistorySummaryContract.AGE));
+    Assert.assertEquals(1, response.getInt(HistorySummaryContract.LOANS));
+    Assert.assertEquals(ON_LOAN, response.getString(HistorySummaryContract.STATUS));
+    Assert.assertEquals(
+        TIMESTAMP_EX + 1000, response.getJsonNumber(HistorySummaryContract.LOAN_START).longValue());
+  }
+
+  @Test
+  public void invoke_VerifyTamperedCheckpoint_ShouldReturnFailure() {
+    // Arrange
+    setCheckpoint();
+    JsonObject tampered =
+        Json.createObjectBuilder()
+            .add(HistorySummaryContract.AGE, 0)
+            .add(HistorySummaryContract.STATUS, IN_STOCK)
+            .add(HistorySummaryContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(HistorySummaryContract.LOANS, 7)
+            .add(HistorySummaryContract.TIME_ON_LOAN, 0)
+            .add(
+                HistorySummaryContract.DIGEST,
+                checkpoint.data().getString(HistorySummaryContract.DIGEST))
+            .build();
+    Mockito.when(checkpoint.data()).thenReturn(tampered);
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class)))
+        .thenReturn(Collections.emptyList(), Arrays.asList(added));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(true), Optional.of(property));
+    // Assert
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+    Assert.assertFalse(response.getBoolean(HistorySummaryContract.VERIFIED));
+  }
+
+  @Test
+  public void invoke_VerifyCheckpoint_ShouldMatchHistory() {
+    // Arrange
+    setCheckpoint();
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class)))
+        .thenReturn(Collections.emptyList(), Arrays.asList(added));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(true), Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertTrue(response.getBoolean(HistorySummaryContract.VERIFIED));
+  }
+}
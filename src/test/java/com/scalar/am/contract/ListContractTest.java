@@ -1,15 +1,20 @@
 package com.scalar.am.contract;
 
+import com.scalar.am.ledger.InMemoryLedger;
 import com.scalar.ledger.asset.Asset;
 import com.scalar.ledger.database.AssetFilter;
 import com.scalar.ledger.exception.ContractContextException;
 import com.scalar.ledger.ledger.Ledger;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import javax.json.Json;
 import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -29,6 +34,7 @@ public class ListContractTest extends ContractTest {
 
   @Mock private Ledger ledger;
   @Mock private Asset asset;
+  @Mock private Asset typeAsset;
 
   @Rule public ExpectedException thrown = ExpectedException.none();
 
@@ -39,6 +45,11 @@ public class ListContractTest extends ContractTest {
     argument = Json.createObjectBuilder().add(ListContract.TYPE, TYPE_EX).build();
     property =
         Json.createObjectBuilder().add(AssetHistoryContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    Mockito.when(typeAsset.data()).thenReturn(Json.createObjectBuilder().build());
+  }
+
+  private void setTypeRegistered() {
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
   }
 
   private void setStatusRecords() {
@@ -93,6 +104,7 @@ public class ListContractTest extends ContractTest {
   @Test
   public void invoke_QueryBookList_ShouldReturnProperly() {
     // Arrange
+    setTypeRegistered();
     setStatusRecords();
     Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(list);
     Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.of(asset));
@@ -112,4 +124,303 @@ public class ListContractTest extends ContractTest {
     Assert.assertEquals(IN_STOCK, asset.getString(ListContract.STATUS));
     Assert.assertEquals(HOLDER_ID_1_EX, asset.getString(ListContract.HOLDER_ID));
   }
+
+  @Test
+  public void invoke_QueryIndexedBookList_ShouldNotReadEachAsset() {
+    // Arrange
+    setTypeRegistered();
+    JsonObject entry =
+        Json.createObjectBuilder()
+            .add(ListContract.NAME, NAME_EX)
+            .add(ListContract.AGE, AGE_EX)
+            .add(ListContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(ListContract.STATUS, IN_STOCK)
+            .build();
+    JsonObject index =
+        Json.createObjectBuilder()
+            .add(ListContract.ASSETS, Json.createObjectBuilder().add(ID_EX, entry))
+            .build();
+    Mockito.when(asset.data()).thenReturn(index);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + ListContract.INDEX_SUFFIX))
+        .thenReturn(Optional.of(asset));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).scan(Mockito.any(AssetFilter.class));
+    Mockito.verify(ledger, Mockito.never()).get(HOLDER_ID_1_EX + "-" + ID_EX);
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+
+    JsonArray assets = response.getJsonArray(TYPE_EX);
+    Assert.assertEquals(1, assets.size());
+    Assert.assertEquals(ID_EX, assets.getJsonObject(0).getString(ListContract.ID));
+    Assert.assertEquals(NAME_EX, assets.getJsonObject(0).getString(ListContract.NAME));
+    Assert.assertEquals(IN_STOCK, assets.getJsonObject(0).getString(ListContract.STATUS));
+  }
+
+  @Test
+  public void invoke_QueryIndexedBookListWithLimit_ShouldReturnOnePage() {
+    // Arrange
+    setTypeRegistered();
+    JsonObject first =
+        Json.createObjectBuilder()
+            .add(ListContract.NAME, NAME_EX)
+            .add(ListContract.AGE, 1)
+            .add(ListContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(ListContract.STATUS, IN_STOCK)
+            .build();
+    JsonObject second =
+        Json.createObjectBuilder()
+            .add(ListContract.NAME, ASSET_EX)
+            .add(ListContract.AGE, 2)
+            .add(ListContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(ListContract.STATUS, IN_STOCK)
+            .build();
+    JsonObject index =
+        Json.createObjectBuilder()
+            .add(ListContract.ASSETS, Json.createObjectBuilder().add("B", second).add("A", first))
+            .build();
+    Mockito.when(asset.data()).thenReturn(index);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + ListContract.INDEX_SUFFIX))
+        .thenReturn(Optional.of(asset));
+    JsonObject firstPage =
+        Json.createObjectBuilder()
+            .add(ListContract.TYPE, TYPE_EX)
+            .add(ListContract.LIMIT, 1)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, firstPage, Optional.of(property));
+    JsonObject nextPage =
+        Json.createObjectBuilder()
+            .add(ListContract.TYPE, TYPE_EX)
+            .add(ListContract.LIMIT, 1)
+            .add(ListContract.CURSOR, response.getInt(ListContract.NEXT_CURSOR))
+            .build();
+    JsonObject lastResponse = contract.invoke(ledger, nextPage, Optional.of(property));
+    // Assert
+    Assert.assertEquals(1, response.getJsonArray(TYPE_EX).size());
+    Assert.assertEquals(
+        "A", response.getJsonArray(TYPE_EX).getJsonObject(0).getString(ListContract.ID));
+    Assert.assertEquals(1, response.getInt(ListContract.NEXT_CURSOR));
+    Assert.assertEquals(1, lastResponse.getJsonArray(TYPE_EX).size());
+    Assert.assertEquals(
+        "B", lastResponse.getJsonArray(TYPE_EX).getJsonObject(0).getString(ListContract.ID));
+    Assert.assertFalse(lastResponse.containsKey(ListContract.NEXT_CURSOR));
+  }
+
+  @Test
+  public void invoke_QueryBatchAddedBookListWithLimit_ShouldNotSplitBatch() {
+    // Arrange
+    setTypeRegistered();
+    JsonObjectBuilder assets = Json.createObjectBuilder();
+    for (String id : new String[] {"A", "B", "C"}) {
+      assets.add(
+          id,
+          Json.createObjectBuilder()
+              .add(ListContract.NAME, NAME_EX + id)
+              .add(ListContract.AGE, "C".equals(id) ? 2 : 1)
+              .add(ListContract.TIMESTAMP, TIMESTAMP_EX)
+              .add(ListContract.STATUS, IN_STOCK));
+    }
+    Mockito.when(asset.data())
+        .thenReturn(Json.createObjectBuilder().add(ListContract.ASSETS, assets).build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + ListContract.INDEX_SUFFIX))
+        .thenReturn(Optional.of(asset));
+    JsonObject firstPage =
+        Json.createObjectBuilder()
+            .add(ListContract.TYPE, TYPE_EX)
+            .add(ListContract.LIMIT, 1)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, firstPage, Optional.of(property));
+    // Assert
+    Assert.assertEquals(2, response.getJsonArray(TYPE_EX).size());
+    Assert.assertEquals(1, response.getInt(ListContract.NEXT_CURSOR));
+  }
+
+  @Test
+  public void invoke_MalformedCursor_ShouldThrowContractContextException() {
+    // Arrange
+    setTypeRegistered();
+    JsonObject page =
+        Json.createObjectBuilder()
+            .add(ListContract.TYPE, TYPE_EX)
+            .add(ListContract.LIMIT, 10)
+            .add(ListContract.CURSOR, "1")
+            .build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, page, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_CursorNotANumber_ShouldThrowContractContextException() {
+    // Arrange
+    setTypeRegistered();
+    JsonObject page =
+        Json.createObjectBuilder()
+            .add(ListContract.TYPE, TYPE_EX)
+            .add(ListContract.LIMIT, 10)
+            .add(ListContract.CURSOR, "3:x")
+            .build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, page, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_QueryBookListWithLimit_ShouldReturnLastPage() {
+    // Arrange
+    setTypeRegistered();
+    setStatusRecords();
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(list);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.of(asset));
+    JsonObject page =
+        Json.createObjectBuilder()
+            .add(ListContract.TYPE, TYPE_EX)
+            .add(ListContract.LIMIT, 10)
+            .add(ListContract.CURSOR, 0)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, page, Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertEquals(1, response.getJsonArray(TYPE_EX).size());
+    Assert.assertFalse(response.containsKey(ListContract.NEXT_CURSOR));
+  }
+
+  @Test
+  public void invoke_QueryShardedBookList_ShouldListEveryShard() {
+    // Arrange
+    Mockito.when(typeAsset.data())
+        .thenReturn(Json.createObjectBuilder().add(ListContract.SHARDS, 2).build());
+    setTypeRegistered();
+    for (int shard = 0; shard < 2; shard++) {
+      JsonObject entry =
+          Json.createObjectBuilder()
+              .add(ListContract.NAME, NAME_EX + shard)
+              .add(ListContract.AGE, 1)
+              .add(ListContract.TIMESTAMP, TIMESTAMP_EX)
+              .add(ListContract.STATUS, IN_STOCK)
+              .build();
+      Asset index = Mockito.mock(Asset.class);
+      Mockito.when(index.data())
+          .thenReturn(
+              Json.createObjectBuilder()
+                  .add(ListContract.ASSETS, Json.createObjectBuilder().add(ID_EX + shard, entry))
+                  .build());
+      Mockito.when(
+              ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + "#" + shard + ListContract.INDEX_SUFFIX))
+          .thenReturn(Optional.of(index));
+    }
+    JsonObject firstPage =
+        Json.createObjectBuilder()
+            .add(ListContract.TYPE, TYPE_EX)
+            .add(ListContract.LIMIT, 1)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, firstPage, Optional.of(property));
+    JsonObject nextPage =
+        Json.createObjectBuilder()
+            .add(ListContract.TYPE, TYPE_EX)
+            .add(ListContract.LIMIT, 1)
+            .add(ListContract.CURSOR, response.getString(ListContract.NEXT_CURSOR))
+            .build();
+    JsonObject lastResponse = contract.invoke(ledger, nextPage, Optional.of(property));
+    JsonObject all = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(
+        ID_EX + 0, response.getJsonArray(TYPE_EX).getJsonObject(0).getString(ListContract.ID));
+    Assert.assertEquals("0:1", response.getString(ListContract.NEXT_CURSOR));
+    Assert.assertEquals(
+        ID_EX + 1, lastResponse.getJsonArray(TYPE_EX).getJsonObject(0).getString(ListContract.ID));
+    Assert.assertFalse(lastResponse.containsKey(ListContract.NEXT_CURSOR));
+    Assert.assertEquals(2, all.getJsonArray(TYPE_EX).size());
+  }
+
+  @Test
+  public void invoke_BucketedIndexWithLimit_ShouldPageOverTheBuckets() {
+    // Arrange
+    InMemoryLedger ledger = new InMemoryLedger();
+    new AddTypeContract()
+        .invoke(
+            ledger,
+            Json.createObjectBuilder().add(AddTypeContract.NAME, TYPE_EX).build(),
+            Optional.of(property));
+    // batches of assets sharing an age, spread over the buckets
+    int batchSize = AddAssetContract.MAX_BUCKET_ENTRIES;
+    for (int batch = 0; batch < 3; batch++) {
+      JsonArrayBuilder assets = Json.createArrayBuilder();
+      for (int i = 0; i < batchSize; i++) {
+        assets.add(
+            Json.createObjectBuilder()
+                .add(BatchAddAssetContract.TYPE, TYPE_EX)
+                .add(BatchAddAssetContract.ID, ID_EX + batch + "-" + i)
+                .add(BatchAddAssetContract.ASSET, NAME_EX + batch + "-" + i)
+                .add(BatchAddAssetContract.TIMESTAMP, TIMESTAMP_EX));
+      }
+      new BatchAddAssetContract()
+          .invoke(
+              ledger,
+              Json.createObjectBuilder().add(BatchAddAssetContract.ASSETS, assets).build(),
+              Optional.of(property));
+    }
+    String indexKey = HOLDER_ID_1_EX + "-" + TYPE_EX + ListContract.INDEX_SUFFIX;
+    int buckets = ledger.get(indexKey).get().data().getInt(ListContract.BUCKETS);
+    ledger.resetCounters();
+    // Act
+    Set<String> listed = new HashSet<>();
+    int listedCount = 0;
+    JsonObject response =
+        contract.invoke(
+            ledger,
+            Json.createObjectBuilder()
+                .add(ListContract.TYPE, TYPE_EX)
+                .add(ListContract.LIMIT, 4)
+                .build(),
+            Optional.of(property));
+    long firstPageGets = ledger.getCount();
+    while (true) {
+      for (JsonObject entry : response.getJsonArray(TYPE_EX).getValuesAs(JsonObject.class)) {
+        listed.add(entry.getString(ListContract.ID));
+        listedCount++;
+      }
+      if (!response.containsKey(ListContract.NEXT_CURSOR)) {
+        break;
+      }
+      Assert.assertEquals(3, response.getString(ListContract.NEXT_CURSOR).split(":").length);
+      response =
+          contract.invoke(
+              ledger,
+              Json.createObjectBuilder()
+                  .add(ListContract.TYPE, TYPE_EX)
+                  .add(ListContract.LIMIT, 4)
+                  .add(ListContract.CURSOR, response.getString(ListContract.NEXT_CURSOR))
+                  .build(),
+              Optional.of(property));
+    }
+    // Assert
+    Assert.assertTrue(buckets > 1);
+    Assert.assertEquals(3 * batchSize, listed.size());
+    Assert.assertEquals(3 * batchSize, listedCount);
+    // the type, the index and the bucket needed for the page
+    Assert.assertTrue(firstPageGets <= 3);
+  }
+
+  @Test
+  public void invoke_NegativeBucketInCursor_ShouldThrowContractContextException() {
+    // Arrange
+    setTypeRegistered();
+    JsonObject page =
+        Json.createObjectBuilder()
+            .add(ListContract.TYPE, TYPE_EX)
+            .add(ListContract.LIMIT, 10)
+            .add(ListContract.CURSOR, "0:-1:3")
+            .build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, page, Optional.of(property));
+  }
 }
@@ -74,6 +74,8 @@ public class ListTypeContractTest extends ContractTest {
     // Arrange
     setAssetRecords();
     historyList.add(asset);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ListTypeContract.TYPE))
+        .thenReturn(Optional.of(asset));
     Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(historyList);
     // Act
     JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
@@ -85,4 +87,42 @@ public class ListTypeContractTest extends ContractTest {
     Assert.assertEquals(NAME_EX, type.getString(ListTypeContract.TYPE));
     Assert.assertEquals(AGE_EX, type.getInt(ListTypeContract.AGE));
   }
+
+  @Test
+  public void invoke_QueryTypeSnapshot_ShouldNotScanHistory() {
+    // Arrange
+    JsonObject snapshot =
+        Json.createObjectBuilder()
+            .add(ListTypeContract.NAME, NAME_EX)
+            .add(
+                ListTypeContract.TYPES,
+                Json.createArrayBuilder()
+                    .add(
+                        Json.createObjectBuilder()
+                            .add(ListTypeContract.NAME, TYPE_EX)
+                            .add(ListTypeContract.AGE, 0))
+                    .add(
+                        Json.createObjectBuilder()
+                            .add(ListTypeContract.NAME, NAME_EX)
+                            .add(ListTypeContract.AGE, 1)
+                            .add(ListTypeContract.TIMESTAMP, TIMESTAMP_EX)))
+            .build();
+    Mockito.when(asset.data()).thenReturn(snapshot);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ListTypeContract.TYPE))
+        .thenReturn(Optional.of(asset));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).scan(Mockito.any());
+    JsonArray types = response.getJsonArray(ListTypeContract.TYPES);
+    Assert.assertEquals(2, types.size());
+    Assert.assertEquals(
+        Json.createObjectBuilder()
+            .add(ListTypeContract.TYPE, NAME_EX)
+            .add(ListTypeContract.AGE, 1)
+            .add(ListTypeContract.TIMESTAMP, TIMESTAMP_EX)
+            .build(),
+        types.getJsonObject(1));
+    Assert.assertFalse(types.getJsonObject(0).containsKey(ListTypeContract.TIMESTAMP));
+  }
 }
@@ -0,0 +1,154 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class LoanStatsContractTest extends ContractTest {
+  private static final long HOUR = 60 * 60 * 1000L;
+  private static final long DAY = 24 * HOUR;
+
+  private LoanStatsContract contract = new LoanStatsContract();
+  private JsonObject argument;
+  private JsonObject property;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset typeAsset;
+  @Mock private Asset histogram;
+  @Mock private Asset index;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    argument =
+        Json.createObjectBuilder()
+            .add(LoanStatsContract.TYPE, TYPE_EX)
+            .add(LoanStatsContract.TIMESTAMP, TIMESTAMP_EX + 20 * DAY)
+            .build();
+    property = Json.createObjectBuilder().add(LoanStatsContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    Mockito.when(typeAsset.data()).thenReturn(Json.createObjectBuilder().build());
+    // 2 loans of at most 1 hour, 1 of at most 4 hours and 1 of 3 days
+    Mockito.when(histogram.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(LoanStatsContract.COUNT, 4)
+                .add(LoanStatsContract.SUM, 2 * HOUR + 3 * HOUR + 3 * DAY + HOUR)
+                .add(LoanStatsContract.MAX, 3 * DAY)
+                .add(
+                    LoanStatsContract.COUNTS,
+                    Json.createArrayBuilder().add(2).add(1).add(0).add(0).add(0).add(1))
+                .build());
+    Mockito.when(index.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    LoanStatsContract.ASSETS,
+                    Json.createObjectBuilder()
+                        .add(ID_EX, entry(LoanStatsContract.ON_LOAN, TIMESTAMP_EX))
+                        .add(ASSET_ID_EX, entry(LoanStatsContract.ON_LOAN, TIMESTAMP_EX + 10 * DAY))
+                        .add("other", entry(IN_STOCK, TIMESTAMP_EX)))
+                .build());
+  }
+
+  private JsonObject entry(String status, long timestamp) {
+    return Json.createObjectBuilder()
+        .add(LoanStatsContract.NAME, NAME_EX)
+        .add(LoanStatsContract.TIMESTAMP, timestamp)
+        .add(LoanStatsContract.STATUS, status)
+        .add(LoanStatsContract.HOLDER_ID, HOLDER_ID_2_EX)
+        .build();
+  }
+
+  @Test
+  public void invoke_ArgumentWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_NonExistingType_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.empty());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_HistogramNotBuilt_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + LoanStatsContract.INDEX_SUFFIX))
+        .thenReturn(Optional.of(index));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_BuiltHistogram_ShouldReturnPercentilesAndOverdueAssets() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + LoanStatsContract.DURATIONS_SUFFIX))
+        .thenReturn(Optional.of(histogram));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + LoanStatsContract.INDEX_SUFFIX))
+        .thenReturn(Optional.of(index));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).scan(Mockito.any());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertEquals(4, response.getInt(LoanStatsContract.LOANS));
+    Assert.assertEquals(
+        (6 * HOUR + 3 * DAY) / 4, response.getJsonNumber(LoanStatsContract.AVERAGE).longValue());
+    Assert.assertEquals(HOUR, response.getJsonNumber(LoanStatsContract.P50).longValue());
+    Assert.assertEquals(3 * DAY, response.getJsonNumber(LoanStatsContract.P95).longValue());
+    Assert.assertEquals(3 * DAY, response.getJsonNumber(LoanStatsContract.MAX).longValue());
+    JsonArray overdue = response.getJsonArray(LoanStatsContract.OVERDUE);
+    Assert.assertEquals(1, overdue.size());
+    Assert.assertEquals(ID_EX, overdue.getJsonObject(0).getString(LoanStatsContract.ID));
+    Assert.assertEquals(
+        HOLDER_ID_2_EX, overdue.getJsonObject(0).getString(LoanStatsContract.HOLDER_ID));
+  }
+
+  @Test
+  public void invoke_ShorterOverdueAfter_ShouldReturnMoreOverdueAssets() {
+    // Arrange
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(LoanStatsContract.TYPE, TYPE_EX)
+            .add(LoanStatsContract.TIMESTAMP, TIMESTAMP_EX + 20 * DAY)
+            .add(LoanStatsContract.OVERDUE_AFTER, 7 * DAY)
+            .build();
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + LoanStatsContract.DURATIONS_SUFFIX))
+        .thenReturn(Optional.of(histogram));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + LoanStatsContract.INDEX_SUFFIX))
+        .thenReturn(Optional.of(index));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(2, response.getJsonArray(LoanStatsContract.OVERDUE).size());
+  }
+}
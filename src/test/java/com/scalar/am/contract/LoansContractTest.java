@@ -0,0 +1,104 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class LoansContractTest extends ContractTest {
+
+  private LoansContract contract = new LoansContract();
+  private JsonObject argument;
+  private JsonObject property;
+  private String loansKey;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset loans;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    argument = Json.createObjectBuilder().build();
+    property = Json.createObjectBuilder().add(LoansContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    loansKey = HOLDER_ID_1_EX + "-" + HOLDER_ID_1_EX + LoansContract.LOANS_SUFFIX;
+  }
+
+  @Test
+  public void invoke_PropertyWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject property = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("property: `" + LoansContract.HOLDER_ID + "` is mandatory.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_NothingBorrowed_ShouldReturnEmptyList() {
+    // Arrange
+    Mockito.when(ledger.get(loansKey)).thenReturn(Optional.empty());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertTrue(response.getJsonArray(LoansContract.LOANS).isEmpty());
+  }
+
+  @Test
+  public void invoke_AssetsBorrowed_ShouldReadOnlyLoansOfHolder() {
+    // Arrange
+    Mockito.when(loans.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    LoansContract.ASSETS,
+                    Json.createObjectBuilder()
+                        .add(
+                            ID_EX,
+                            Json.createObjectBuilder()
+                                .add(LoansContract.TIMESTAMP, TIMESTAMP_EX)
+                                .add(LoansContract.TYPE, TYPE_EX)))
+                .build());
+    Mockito.when(ledger.get(loansKey + "#3")).thenReturn(Optional.of(loans));
+    // a loan recorded before the loans were sharded
+    Asset unsharded = Mockito.mock(Asset.class);
+    Mockito.when(unsharded.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    LoansContract.ASSETS,
+                    Json.createObjectBuilder()
+                        .add(
+                            ID_EX + 2,
+                            Json.createObjectBuilder()
+                                .add(LoansContract.TIMESTAMP, TIMESTAMP_EX)
+                                .add(LoansContract.TYPE, TYPE_EX)))
+                .build());
+    Mockito.when(ledger.get(loansKey)).thenReturn(Optional.of(unsharded));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.times(1 + LoansContract.AGGREGATE_SHARDS))
+        .get(Mockito.anyString());
+    Mockito.verify(ledger, Mockito.never()).scan(Mockito.any());
+    JsonArray result = response.getJsonArray(LoansContract.LOANS);
+    Assert.assertEquals(2, result.size());
+    Assert.assertEquals(ID_EX + 2, result.getJsonObject(0).getString(LoansContract.ID));
+    Assert.assertEquals(ID_EX, result.getJsonObject(1).getString(LoansContract.ID));
+    Assert.assertEquals(TYPE_EX, result.getJsonObject(1).getString(LoansContract.TYPE));
+  }
+}
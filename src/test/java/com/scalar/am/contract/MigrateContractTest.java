@@ -0,0 +1,148 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class MigrateContractTest extends ContractTest {
+  private static final String ID_2_EX = "D41D8CD98F00B204E9800998ECF8427E";
+
+  private MigrateContract contract = new MigrateContract();
+  private JsonObject property;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset typeAsset;
+  @Mock private Asset listRecord;
+  @Mock private Asset status;
+  @Mock private Asset compactStatus;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    property = Json.createObjectBuilder().add(MigrateContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    Mockito.when(typeAsset.data()).thenReturn(Json.createObjectBuilder().build());
+    Mockito.when(listRecord.age()).thenReturn(AGE_EX);
+    Mockito.when(listRecord.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    MigrateContract.ASSETS,
+                    Json.createArrayBuilder()
+                        .add(Json.createObjectBuilder().add(MigrateContract.ID, ID_EX))
+                        .add(Json.createObjectBuilder().add(MigrateContract.ID, ID_2_EX)))
+                .build());
+    // written before the records knew their type
+    Mockito.when(status.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(MigrateContract.HOLDER_ID, HOLDER_ID_2_EX)
+                .add(MigrateContract.TIMESTAMP, TIMESTAMP_EX)
+                .add(MigrateContract.STATUS, MigrateContract.ON_LOAN)
+                .build());
+    Mockito.when(compactStatus.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(MigrateContract.VERSION, 2)
+                .add(MigrateContract.V2_TIMESTAMP, TIMESTAMP_EX)
+                .add(MigrateContract.V2_STATUS, 0)
+                .build());
+    Mockito.when(ledger.get(Mockito.anyString())).thenReturn(Optional.empty());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_EX)).thenReturn(Optional.of(status));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ID_2_EX)).thenReturn(Optional.of(compactStatus));
+  }
+
+  private JsonObject argument(int limit) {
+    return Json.createObjectBuilder()
+        .add(MigrateContract.TYPE, TYPE_EX)
+        .add(MigrateContract.LIMIT, limit)
+        .build();
+  }
+
+  @Test
+  public void invoke_ArgumentWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_CursorOfMissingShard_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(MigrateContract.TYPE, TYPE_EX)
+            .add(MigrateContract.LIMIT, 1)
+            .add(MigrateContract.CURSOR, "3:0")
+            .build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_NonExistingType_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.empty());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(0), Optional.of(property));
+    // Assert
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_OriginalRecords_ShouldRewriteOnlyThemInCompactForm() {
+    // Arrange
+    List<Asset> records = Arrays.asList(listRecord);
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(records);
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(0), Optional.of(property));
+    // Assert
+    JsonObject compact =
+        Json.createObjectBuilder()
+            .add(MigrateContract.VERSION, 2)
+            .add(MigrateContract.V2_HOLDER_ID, HOLDER_ID_2_EX)
+            .add(MigrateContract.V2_TIMESTAMP, TIMESTAMP_EX)
+            .add(MigrateContract.V2_STATUS, 1)
+            .add(MigrateContract.V2_TYPE, TYPE_EX)
+            .build();
+    Mockito.verify(ledger, Mockito.times(1)).put(HOLDER_ID_1_EX + "-" + ID_EX, compact);
+    Mockito.verify(ledger, Mockito.never())
+        .put(Mockito.eq(HOLDER_ID_1_EX + "-" + ID_2_EX), Mockito.any());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertEquals(1, response.getInt(MigrateContract.MIGRATED));
+    Assert.assertFalse(response.containsKey(MigrateContract.NEXT_CURSOR));
+  }
+
+  @Test
+  public void invoke_LimitReached_ShouldReturnCursor() {
+    // Arrange
+    List<Asset> records = Arrays.asList(listRecord);
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class))).thenReturn(records);
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(1), Optional.of(property));
+    // Assert
+    Assert.assertEquals(AGE_EX, response.getInt(MigrateContract.NEXT_CURSOR));
+  }
+}
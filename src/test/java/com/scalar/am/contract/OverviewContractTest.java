@@ -0,0 +1,193 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.database.AssetFilter;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Arrays;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class OverviewContractTest extends ContractTest {
+  private static final String OTHER_TYPE = "phone";
+
+  private OverviewContract contract = new OverviewContract();
+  private JsonObject property;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset registry;
+  @Mock private Asset typeAsset;
+  @Mock private Asset index;
+  @Mock private Asset otherType;
+  @Mock private Asset assetRecord;
+  @Mock private Asset status;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    property = Json.createObjectBuilder().add(OverviewContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    Mockito.when(registry.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(OverviewContract.NAME, OTHER_TYPE)
+                .add(
+                    OverviewContract.TYPES,
+                    Json.createArrayBuilder()
+                        .add(
+                            Json.createObjectBuilder()
+                                .add(OverviewContract.NAME, TYPE_EX)
+                                .add(OverviewContract.AGE, 0))
+                        .add(
+                            Json.createObjectBuilder()
+                                .add(OverviewContract.NAME, OTHER_TYPE)
+                                .add(OverviewContract.AGE, 1)))
+                .build());
+    Mockito.when(typeAsset.data()).thenReturn(Json.createObjectBuilder().build());
+    Mockito.when(otherType.data()).thenReturn(Json.createObjectBuilder().build());
+    Mockito.when(index.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    OverviewContract.ASSETS,
+                    Json.createObjectBuilder()
+                        .add(ASSET_ID_EX, entry(2, OverviewContract.ON_LOAN))
+                        .add(ID_EX, entry(1, IN_STOCK)))
+                .build());
+    Mockito.when(assetRecord.age()).thenReturn(AGE_EX);
+    Mockito.when(assetRecord.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(OverviewContract.ID, "phone1")
+                .add(OverviewContract.NAME, "Phone 1")
+                .build());
+    Mockito.when(status.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(OverviewContract.TIMESTAMP, TIMESTAMP_EX)
+                .add(OverviewContract.STATUS, IN_STOCK)
+                .build());
+
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + OverviewContract.TYPE))
+        .thenReturn(Optional.of(registry));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + OverviewContract.INDEX_SUFFIX))
+        .thenReturn(Optional.of(index));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + OTHER_TYPE)).thenReturn(Optional.of(otherType));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-phone1")).thenReturn(Optional.of(status));
+    Mockito.when(ledger.scan(Mockito.any(AssetFilter.class)))
+        .thenReturn(Arrays.asList(assetRecord));
+  }
+
+  private JsonObject entry(int age, String status) {
+    return Json.createObjectBuilder()
+        .add(OverviewContract.NAME, NAME_EX)
+        .add(OverviewContract.AGE, age)
+        .add(OverviewContract.TIMESTAMP, TIMESTAMP_EX)
+        .add(OverviewContract.STATUS, status)
+        .build();
+  }
+
+  @Test
+  public void invoke_PropertyWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    thrown.expect(ContractContextException.class);
+    // Act
+    contract.invoke(ledger, Json.createObjectBuilder().build(), Optional.empty());
+  }
+
+  @Test
+  public void invoke_UnknownField_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(OverviewContract.FIELDS, Json.createArrayBuilder().add("price"))
+            .build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_NoRegisteredType_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + OverviewContract.TYPE))
+        .thenReturn(Optional.empty());
+    // Act
+    JsonObject response =
+        contract.invoke(ledger, Json.createObjectBuilder().build(), Optional.of(property));
+    // Assert
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_RegisteredTypes_ShouldListEveryTypeFromIndexOrHistory() {
+    // Act
+    JsonObject response =
+        contract.invoke(ledger, Json.createObjectBuilder().build(), Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    JsonArray types = response.getJsonArray(OverviewContract.TYPES);
+    Assert.assertEquals(2, types.size());
+
+    JsonObject book = types.getJsonObject(0);
+    Assert.assertEquals(TYPE_EX, book.getString(OverviewContract.TYPE));
+    JsonArray books = book.getJsonArray(OverviewContract.ASSETS);
+    Assert.assertEquals(2, books.size());
+    Assert.assertEquals(ID_EX, books.getJsonObject(0).getString(OverviewContract.ID));
+    Assert.assertEquals(
+        OverviewContract.ON_LOAN, books.getJsonObject(1).getString(OverviewContract.STATUS));
+    Assert.assertFalse(books.getJsonObject(0).containsKey(OverviewContract.AGE));
+    Assert.assertFalse(book.containsKey(OverviewContract.TRUNCATED));
+
+    JsonObject phone = types.getJsonObject(1);
+    Assert.assertEquals(OTHER_TYPE, phone.getString(OverviewContract.TYPE));
+    Assert.assertEquals(
+        "Phone 1",
+        phone
+            .getJsonArray(OverviewContract.ASSETS)
+            .getJsonObject(0)
+            .getString(OverviewContract.NAME));
+  }
+
+  @Test
+  public void invoke_LimitsAndFields_ShouldTruncateAndProject() {
+    // Arrange
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(OverviewContract.LIMIT, 5)
+            .add(OverviewContract.LIMITS, Json.createObjectBuilder().add(TYPE_EX, 1))
+            .add(
+                OverviewContract.FIELDS,
+                Json.createArrayBuilder().add(OverviewContract.ID).add(OverviewContract.STATUS))
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonArray types = response.getJsonArray(OverviewContract.TYPES);
+    JsonObject book = types.getJsonObject(0);
+    Assert.assertTrue(book.getBoolean(OverviewContract.TRUNCATED));
+    JsonArray books = book.getJsonArray(OverviewContract.ASSETS);
+    Assert.assertEquals(1, books.size());
+    Assert.assertEquals(
+        Json.createObjectBuilder()
+            .add(OverviewContract.ID, ID_EX)
+            .add(OverviewContract.STATUS, IN_STOCK)
+            .build(),
+        books.getJsonObject(0));
+    Assert.assertFalse(types.getJsonObject(1).containsKey(OverviewContract.TRUNCATED));
+  }
+}
@@ -0,0 +1,196 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class SearchContractTest extends ContractTest {
+
+  private SearchContract contract = new SearchContract();
+  private JsonObject property;
+  private String namesKey;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset typeAsset;
+  @Mock private Asset names;
+  @Mock private Asset humBucket;
+  @Mock private Asset hunBucket;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    property = Json.createObjectBuilder().add(SearchContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    namesKey = HOLDER_ID_1_EX + "-" + TYPE_EX + SearchContract.NAMES_SUFFIX;
+    Mockito.when(typeAsset.data()).thenReturn(Json.createObjectBuilder().build());
+    Mockito.when(names.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    SearchContract.BUCKETS,
+                    Json.createArrayBuilder().add("abc").add("hum").add("hun"))
+                .build());
+    Mockito.when(humBucket.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    SearchContract.ASSETS,
+                    Json.createObjectBuilder()
+                        .add(ID_EX, ASSET_EX)
+                        .add(ASSET_ID_EX, "Humble Pie")
+                        .add("other", "Hummingbirds"))
+                .build());
+    Mockito.when(hunBucket.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    SearchContract.ASSETS, Json.createObjectBuilder().add("hunger", "Hunger Games"))
+                .build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    Mockito.when(ledger.get(namesKey)).thenReturn(Optional.of(names));
+    Mockito.when(ledger.get(namesKey + "#hum")).thenReturn(Optional.of(humBucket));
+    Mockito.when(ledger.get(namesKey + "#hun")).thenReturn(Optional.of(hunBucket));
+  }
+
+  private JsonObject argument(String prefix) {
+    return Json.createObjectBuilder()
+        .add(SearchContract.TYPE, TYPE_EX)
+        .add(SearchContract.PREFIX, prefix)
+        .build();
+  }
+
+  @Test
+  public void invoke_ArgumentWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_BlankPrefix_ShouldThrowContractContextException() {
+    // Arrange
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument(" "), Optional.of(property));
+  }
+
+  @Test
+  public void invoke_NonExistingType_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.empty());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument("hum"), Optional.of(property));
+    // Assert
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_NamesNotIndexed_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.get(namesKey)).thenReturn(Optional.empty());
+    Mockito.when(ledger.get(namesKey + "#hum")).thenReturn(Optional.empty());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument("Humb"), Optional.of(property));
+    // Assert
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_LongPrefix_ShouldReadOnlyItsBucket() {
+    // Act
+    JsonObject response = contract.invoke(ledger, argument(" HUMB"), Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).get(namesKey + "#hun");
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    JsonArray found = response.getJsonArray(TYPE_EX);
+    Assert.assertEquals(1, found.size());
+    Assert.assertEquals(ASSET_ID_EX, found.getJsonObject(0).getString(SearchContract.ID));
+    Assert.assertEquals("Humble Pie", found.getJsonObject(0).getString(SearchContract.NAME));
+  }
+
+  @Test
+  public void invoke_ShortPrefix_ShouldReadMatchingBucketsSortedByName() {
+    // Act
+    JsonObject response = contract.invoke(ledger, argument("hu"), Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.never()).get(namesKey + "#abc");
+    JsonArray found = response.getJsonArray(TYPE_EX);
+    Assert.assertEquals(4, found.size());
+    Assert.assertEquals("Human History", found.getJsonObject(0).getString(SearchContract.NAME));
+    Assert.assertEquals("Humble Pie", found.getJsonObject(1).getString(SearchContract.NAME));
+    Assert.assertEquals("Hummingbirds", found.getJsonObject(2).getString(SearchContract.NAME));
+    Assert.assertEquals("Hunger Games", found.getJsonObject(3).getString(SearchContract.NAME));
+  }
+
+  @Test
+  public void invoke_Limit_ShouldReturnFirstAssetsByName() {
+    // Arrange
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(SearchContract.TYPE, TYPE_EX)
+            .add(SearchContract.PREFIX, "hum")
+            .add(SearchContract.LIMIT, 2)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonArray found = response.getJsonArray(TYPE_EX);
+    Assert.assertEquals(2, found.size());
+    Assert.assertEquals(ID_EX, found.getJsonObject(0).getString(SearchContract.ID));
+  }
+
+  @Test
+  public void invoke_PrefixOfSplitBucket_ShouldReadOnlyLongerBucketsItStarts() {
+    // Arrange
+    Mockito.when(names.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    SearchContract.BUCKETS,
+                    Json.createArrayBuilder().add("hum").add("huma").add("humb").add("hun"))
+                .add(SearchContract.SPLIT, Json.createArrayBuilder().add("hum"))
+                .build());
+    Asset humbBucket = Mockito.mock(Asset.class);
+    Mockito.when(humbBucket.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    SearchContract.ASSETS,
+                    Json.createObjectBuilder().add(ASSET_ID_EX, "Humble Pie"))
+                .build());
+    Mockito.when(ledger.get(namesKey + "#humb")).thenReturn(Optional.of(humbBucket));
+    Mockito.when(humBucket.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(SearchContract.ASSETS, Json.createObjectBuilder())
+                .build());
+    // Act
+    JsonObject byLongerPrefix = contract.invoke(ledger, argument("humbl"), Optional.of(property));
+    JsonObject bySplitPrefix = contract.invoke(ledger, argument("hum"), Optional.of(property));
+    // Assert
+    Assert.assertEquals(1, byLongerPrefix.getJsonArray(TYPE_EX).size());
+    Assert.assertEquals(1, bySplitPrefix.getJsonArray(TYPE_EX).size());
+    Mockito.verify(ledger, Mockito.times(2)).get(namesKey + "#humb");
+    Mockito.verify(ledger, Mockito.times(1)).get(namesKey + "#hum");
+    Mockito.verify(ledger, Mockito.times(1)).get(namesKey + "#huma");
+    Mockito.verify(ledger, Mockito.never()).get(namesKey + "#hun");
+  }
+}
@@ -0,0 +1,112 @@
+package com.scalar.am.contract;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.exception.ContractContextException;
+import com.scalar.ledger.ledger.Ledger;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class StatsContractTest extends ContractTest {
+
+  private StatsContract contract = new StatsContract();
+  private JsonObject argument;
+  private JsonObject property;
+
+  @Mock private Ledger ledger;
+  @Mock private Asset typeAsset;
+  @Mock private Asset stats;
+
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+
+    argument = Json.createObjectBuilder().add(StatsContract.TYPE, TYPE_EX).build();
+    property = Json.createObjectBuilder().add(StatsContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    Mockito.when(typeAsset.data()).thenReturn(Json.createObjectBuilder().build());
+    Mockito.when(stats.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(StatsContract.TOTAL, 3)
+                .add(StatsContract.IN_STOCK, 1)
+                .add(StatsContract.ON_LOAN, 2)
+                .build());
+  }
+
+  @Test
+  public void invoke_ArgumentWasNull_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject argument = Json.createObjectBuilder().build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_NonExistingType_ShouldReturnFailure() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.empty());
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(FAILURE, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_CountedType_ShouldReadOnlyCounters() {
+    // Arrange
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + StatsContract.STATS_SUFFIX))
+        .thenReturn(Optional.of(stats));
+    // an asset added since the counters were built
+    Asset shardStats = Mockito.mock(Asset.class);
+    Mockito.when(shardStats.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(StatsContract.TOTAL, 1)
+                .add(StatsContract.IN_STOCK, 1)
+                .add(StatsContract.ON_LOAN, 0)
+                .build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + StatsContract.STATS_SUFFIX + "#5"))
+        .thenReturn(Optional.of(shardStats));
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.times(2 + StatsContract.AGGREGATE_SHARDS))
+        .get(Mockito.anyString());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    Assert.assertEquals(4, response.getInt(StatsContract.TOTAL));
+    Assert.assertEquals(2, response.getInt(StatsContract.IN_STOCK));
+    Assert.assertEquals(2, response.getInt(StatsContract.ON_LOAN));
+  }
+
+  @Test
+  public void invoke_ShardedType_ShouldSumCountersOfEveryShard() {
+    // Arrange
+    Mockito.when(typeAsset.data())
+        .thenReturn(Json.createObjectBuilder().add(StatsContract.SHARDS, 2).build());
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX)).thenReturn(Optional.of(typeAsset));
+    for (int shard = 0; shard < 2; shard++) {
+      Mockito.when(
+              ledger.get(HOLDER_ID_1_EX + "-" + TYPE_EX + "#" + shard + StatsContract.STATS_SUFFIX))
+          .thenReturn(Optional.of(stats));
+    }
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(6, response.getInt(StatsContract.TOTAL));
+    Assert.assertEquals(2, response.getInt(StatsContract.IN_STOCK));
+    Assert.assertEquals(4, response.getInt(StatsContract.ON_LOAN));
+  }
+}
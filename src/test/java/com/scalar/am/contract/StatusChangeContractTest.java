@@ -1,11 +1,13 @@
 package com.scalar.am.contract;
 
+import com.scalar.am.ledger.InMemoryLedger;
 import com.scalar.ledger.asset.Asset;
 import com.scalar.ledger.exception.ContractContextException;
 import com.scalar.ledger.ledger.Ledger;
 import java.util.Date;
 import java.util.Optional;
 import javax.json.Json;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
 import org.junit.Assert;
@@ -171,11 +173,455 @@ public class StatusChangeContractTest extends ContractTest {
     // Assert
     JsonObject assertObject =
         Json.createObjectBuilder()
-            .add(StatusChangeContract.TIMESTAMP, timestamp)
-            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+            .add(StatusChangeContract.VERSION, 2)
+            .add(StatusChangeContract.V2_TIMESTAMP, timestamp)
+            .add(StatusChangeContract.V2_STATUS, 0)
             .build();
     Mockito.verify(ledger, Mockito.times(1)).put(HOLDER_ID_1_EX + "-" + ASSET_ID_EX, assertObject);
     Assert.assertEquals(SUCCESS, response.getString(RESULT));
     Assert.assertNotNull(response.getString(MESSAGE));
   }
+
+  @Test
+  public void invoke_ReturnCompactOnLoanAsset_ShouldRunProperly() {
+    // Arrange
+    JsonObject currentStatus =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.VERSION, 2)
+            .add(StatusChangeContract.V2_HOLDER_ID, HOLDER_ID_1_EX)
+            .add(StatusChangeContract.V2_TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.V2_STATUS, 1)
+            .add(StatusChangeContract.V2_TYPE, TYPE_EX)
+            .build();
+    Mockito.when(asset.data()).thenReturn(currentStatus);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ASSET_ID_EX)).thenReturn(Optional.of(asset));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX + 1)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+            .add(StatusChangeContract.ASSET_ID, ASSET_ID_EX)
+            .build();
+    JsonObject property =
+        Json.createObjectBuilder().add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonObject newStatus =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.VERSION, 2)
+            .add(StatusChangeContract.V2_TIMESTAMP, TIMESTAMP_EX + 1)
+            .add(StatusChangeContract.V2_STATUS, 0)
+            .add(StatusChangeContract.V2_TYPE, TYPE_EX)
+            .build();
+    Mockito.verify(ledger, Mockito.times(1)).put(HOLDER_ID_1_EX + "-" + ASSET_ID_EX, newStatus);
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_BorrowIndexedAsset_ShouldUpdateIndexAndChanges() {
+    // Arrange
+    JsonObject currentStatus =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.TYPE, TYPE_EX)
+            .build();
+    Mockito.when(asset.data()).thenReturn(currentStatus);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ASSET_ID_EX)).thenReturn(Optional.of(asset));
+    JsonObject entry =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.NAME, NAME_EX)
+            .add(StatusChangeContract.AGE, AGE_EX)
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+            .build();
+    Asset index = Mockito.mock(Asset.class);
+    Mockito.when(index.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    StatusChangeContract.ASSETS, Json.createObjectBuilder().add(ASSET_ID_EX, entry))
+                .build());
+    String indexKey = HOLDER_ID_1_EX + "-" + TYPE_EX + StatusChangeContract.INDEX_SUFFIX;
+    Mockito.when(ledger.get(indexKey)).thenReturn(Optional.of(index));
+    String changesKey = HOLDER_ID_1_EX + "-" + TYPE_EX + StatusChangeContract.CHANGES_SUFFIX;
+    Mockito.when(ledger.get(changesKey)).thenReturn(Optional.of(Mockito.mock(Asset.class)));
+    long timestamp = new Date().getTime();
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.TIMESTAMP, timestamp)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.ON_LOAN)
+            .add(StatusChangeContract.ASSET_ID, ASSET_ID_EX)
+            .build();
+    JsonObject property =
+        Json.createObjectBuilder().add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    JsonObject newEntry =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.NAME, NAME_EX)
+            .add(StatusChangeContract.AGE, AGE_EX)
+            .add(StatusChangeContract.TIMESTAMP, timestamp)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.ON_LOAN)
+            .add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX)
+            .build();
+    JsonObject newIndex =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.ASSETS, Json.createObjectBuilder().add(ASSET_ID_EX, newEntry))
+            .build();
+    Mockito.verify(ledger, Mockito.times(1)).put(indexKey, newIndex);
+    // the shard of the change log holding the asset records the same entry
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(Mockito.startsWith(changesKey + "#"), Mockito.eq(newIndex));
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_ReturnCountedAsset_ShouldUpdateCounters() {
+    // Arrange
+    JsonObject currentStatus =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.ON_LOAN)
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.TYPE, TYPE_EX)
+            .build();
+    Mockito.when(asset.data()).thenReturn(currentStatus);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ASSET_ID_EX)).thenReturn(Optional.of(asset));
+    Asset stats = Mockito.mock(Asset.class);
+    Mockito.when(stats.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(StatusChangeContract.TOTAL, 3)
+                .add(StatusChangeContract.IN_STOCK, 1)
+                .add(StatusChangeContract.ON_LOAN, 2)
+                .build());
+    String statsKey = HOLDER_ID_1_EX + "-" + TYPE_EX + StatusChangeContract.STATS_SUFFIX;
+    Mockito.when(ledger.get(statsKey)).thenReturn(Optional.of(stats));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+            .add(StatusChangeContract.ASSET_ID, ASSET_ID_EX)
+            .build();
+    JsonObject property =
+        Json.createObjectBuilder().add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    // the change is counted in the shard of the counters holding the asset
+    JsonObject newStats =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.TOTAL, 0)
+            .add(StatusChangeContract.IN_STOCK, 1)
+            .add(StatusChangeContract.ON_LOAN, -1)
+            .build();
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(Mockito.startsWith(statsKey + "#"), Mockito.eq(newStats));
+    Mockito.verify(ledger, Mockito.never()).put(Mockito.eq(statsKey), Mockito.any());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_ReturnIndexedAsset_ShouldAddLoanDurationToHistogram() {
+    // Arrange
+    JsonObject currentStatus =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.ON_LOAN)
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.TYPE, TYPE_EX)
+            .build();
+    Mockito.when(asset.data()).thenReturn(currentStatus);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ASSET_ID_EX)).thenReturn(Optional.of(asset));
+    Asset histogram = Mockito.mock(Asset.class);
+    Mockito.when(histogram.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(StatusChangeContract.COUNT, 1)
+                .add(StatusChangeContract.SUM, 1000)
+                .add(StatusChangeContract.MAX, 1000)
+                .add(StatusChangeContract.COUNTS, Json.createArrayBuilder().add(1))
+                .build());
+    String durationsKey = HOLDER_ID_1_EX + "-" + TYPE_EX + StatusChangeContract.DURATIONS_SUFFIX;
+    Mockito.when(ledger.get(durationsKey)).thenReturn(Optional.of(histogram));
+    long duration = 2 * 60 * 60 * 1000L;
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX + duration)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+            .add(StatusChangeContract.ASSET_ID, ASSET_ID_EX)
+            .build();
+    JsonObject property =
+        Json.createObjectBuilder().add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    // the loan is counted in the shard of the histogram holding the asset
+    JsonArrayBuilder counts = Json.createArrayBuilder().add(0).add(1);
+    for (int i = 2; i < 18; i++) {
+      counts.add(0);
+    }
+    JsonObject newHistogram =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.COUNT, 1)
+            .add(StatusChangeContract.SUM, duration)
+            .add(StatusChangeContract.MAX, duration)
+            .add(StatusChangeContract.COUNTS, counts)
+            .build();
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(Mockito.startsWith(durationsKey + "#"), Mockito.eq(newHistogram));
+    Mockito.verify(ledger, Mockito.never()).put(Mockito.eq(durationsKey), Mockito.any());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_BorrowAsset_ShouldAddItToLoansOfHolder() {
+    // Arrange
+    JsonObject currentStatus =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.TYPE, TYPE_EX)
+            .build();
+    Mockito.when(asset.data()).thenReturn(currentStatus);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ASSET_ID_EX)).thenReturn(Optional.of(asset));
+    JsonObject otherLoan =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.TYPE, TYPE_EX)
+            .build();
+    Asset loans = Mockito.mock(Asset.class);
+    Mockito.when(loans.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(StatusChangeContract.ASSETS, Json.createObjectBuilder().add(ID_EX, otherLoan))
+                .build());
+    String loansKey = HOLDER_ID_1_EX + "-" + HOLDER_ID_1_EX + StatusChangeContract.LOANS_SUFFIX;
+    Mockito.when(ledger.get(loansKey)).thenReturn(Optional.of(loans));
+    long timestamp = new Date().getTime();
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.TIMESTAMP, timestamp)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.ON_LOAN)
+            .add(StatusChangeContract.ASSET_ID, ASSET_ID_EX)
+            .build();
+    JsonObject property =
+        Json.createObjectBuilder().add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    // the loan is added to the shard of the loans holding the asset, the loans recorded before
+    // they were sharded are left as they are
+    JsonObject newLoans =
+        Json.createObjectBuilder()
+            .add(
+                StatusChangeContract.ASSETS,
+                Json.createObjectBuilder()
+                    .add(
+                        ASSET_ID_EX,
+                        Json.createObjectBuilder()
+                            .add(StatusChangeContract.TIMESTAMP, timestamp)
+                            .add(StatusChangeContract.TYPE, TYPE_EX)))
+            .build();
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(Mockito.startsWith(loansKey + "#"), Mockito.eq(newLoans));
+    Mockito.verify(ledger, Mockito.never()).put(Mockito.eq(loansKey), Mockito.any());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_ReturnAssetLoanedBeforeLoansWereSharded_ShouldRemoveItFromLoans() {
+    // Arrange
+    JsonObject currentStatus =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.ON_LOAN)
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.TYPE, TYPE_EX)
+            .build();
+    Mockito.when(asset.data()).thenReturn(currentStatus);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ASSET_ID_EX)).thenReturn(Optional.of(asset));
+    JsonObject loan =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.TYPE, TYPE_EX)
+            .build();
+    Asset loans = Mockito.mock(Asset.class);
+    Mockito.when(loans.data())
+        .thenReturn(
+            Json.createObjectBuilder()
+                .add(
+                    StatusChangeContract.ASSETS,
+                    Json.createObjectBuilder().add(ID_EX, loan).add(ASSET_ID_EX, loan))
+                .build());
+    String loansKey = HOLDER_ID_1_EX + "-" + HOLDER_ID_1_EX + StatusChangeContract.LOANS_SUFFIX;
+    Mockito.when(ledger.get(loansKey)).thenReturn(Optional.of(loans));
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX + 1)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+            .add(StatusChangeContract.ASSET_ID, ASSET_ID_EX)
+            .build();
+    JsonObject property =
+        Json.createObjectBuilder().add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Mockito.verify(ledger, Mockito.times(1))
+        .put(
+            loansKey,
+            Json.createObjectBuilder()
+                .add(StatusChangeContract.ASSETS, Json.createObjectBuilder().add(ID_EX, loan))
+                .build());
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+  }
+
+  @Test
+  public void invoke_UnknownTypeOfIndexedAsset_ShouldUpdateIndexOfItsType() {
+    // Arrange
+    InMemoryLedger ledger = new InMemoryLedger();
+    JsonObject property =
+        Json.createObjectBuilder().add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    new AddTypeContract()
+        .invoke(
+            ledger,
+            Json.createObjectBuilder().add(AddTypeContract.NAME, TYPE_EX).build(),
+            Optional.of(property));
+    new AddAssetContract()
+        .invoke(
+            ledger,
+            Json.createObjectBuilder()
+                .add(AddAssetContract.TYPE, TYPE_EX)
+                .add(AddAssetContract.ASSET, NAME_EX)
+                .add(AddAssetContract.TIMESTAMP, TIMESTAMP_EX)
+                .add(AddAssetContract.ID, ASSET_ID_EX)
+                .build(),
+            Optional.of(property));
+    // a status record written before records held their type
+    ledger.put(
+        HOLDER_ID_1_EX + "-" + ASSET_ID_EX,
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+            .build());
+    String indexKey = HOLDER_ID_1_EX + "-" + TYPE_EX + StatusChangeContract.INDEX_SUFFIX;
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.ASSET_ID, ASSET_ID_EX)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.ON_LOAN)
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX + 1)
+            .build();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    JsonObject entry = null;
+    int buckets = ledger.get(indexKey).get().data().getInt(StatusChangeContract.BUCKETS);
+    for (int bucket = 0; bucket < buckets; bucket++) {
+      Optional<Asset> assets = ledger.get(indexKey + "#" + bucket);
+      if (assets.isPresent()
+          && assets
+              .get()
+              .data()
+              .getJsonObject(StatusChangeContract.ASSETS)
+              .containsKey(ASSET_ID_EX)) {
+        entry =
+            assets
+                .get()
+                .data()
+                .getJsonObject(StatusChangeContract.ASSETS)
+                .getJsonObject(ASSET_ID_EX);
+      }
+    }
+    Assert.assertEquals(StatusChangeContract.ON_LOAN, entry.getString(StatusChangeContract.STATUS));
+    // the new record holds the type, the old one is left as it was
+    Assert.assertEquals(2, ledger.get(HOLDER_ID_1_EX + "-" + ASSET_ID_EX).get().age());
+    Assert.assertEquals(
+        TYPE_EX,
+        ledger
+            .get(HOLDER_ID_1_EX + "-" + ASSET_ID_EX)
+            .get()
+            .data()
+            .getString(StatusChangeContract.V2_TYPE));
+  }
+
+  @Test
+  public void invoke_UnknownStatus_ShouldThrowContractContextException() {
+    // Arrange
+    JsonObject currentStatus =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX)
+            .add(StatusChangeContract.TYPE, TYPE_EX)
+            .build();
+    Mockito.when(asset.data()).thenReturn(currentStatus);
+    Mockito.when(ledger.get(HOLDER_ID_1_EX + "-" + ASSET_ID_EX)).thenReturn(Optional.of(asset));
+    JsonObject argument = argumentBuilder.add(StatusChangeContract.STATUS, "lost").build();
+    JsonObject property =
+        Json.createObjectBuilder().add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    thrown.expect(ContractContextException.class);
+    thrown.expectMessage("wrong argument.");
+    // Act
+    contract.invoke(ledger, argument, Optional.of(property));
+  }
+
+  @Test
+  public void invoke_BorrowAssetOfBucketedIndex_ShouldOnlyWriteItsBucket() {
+    // Arrange
+    InMemoryLedger ledger = new InMemoryLedger();
+    JsonObject property =
+        Json.createObjectBuilder().add(StatusChangeContract.HOLDER_ID, HOLDER_ID_1_EX).build();
+    new AddTypeContract()
+        .invoke(
+            ledger,
+            Json.createObjectBuilder().add(AddTypeContract.NAME, TYPE_EX).build(),
+            Optional.of(property));
+    int count = 2 * AddAssetContract.MAX_BUCKET_ENTRIES;
+    for (int i = 0; i < count; i++) {
+      new AddAssetContract()
+          .invoke(
+              ledger,
+              Json.createObjectBuilder()
+                  .add(AddAssetContract.TYPE, TYPE_EX)
+                  .add(AddAssetContract.ASSET, NAME_EX + i)
+                  .add(AddAssetContract.TIMESTAMP, TIMESTAMP_EX)
+                  .add(AddAssetContract.ID, ASSET_ID_EX + i)
+                  .build(),
+              Optional.of(property));
+    }
+    String indexKey = HOLDER_ID_1_EX + "-" + TYPE_EX + StatusChangeContract.INDEX_SUFFIX;
+    JsonObject argument =
+        Json.createObjectBuilder()
+            .add(StatusChangeContract.ASSET_ID, ASSET_ID_EX + 7)
+            .add(StatusChangeContract.STATUS, StatusChangeContract.ON_LOAN)
+            .add(StatusChangeContract.TIMESTAMP, TIMESTAMP_EX + 1)
+            .build();
+    int indexAge = ledger.get(indexKey).get().age();
+    // Act
+    JsonObject response = contract.invoke(ledger, argument, Optional.of(property));
+    // Assert
+    Assert.assertEquals(SUCCESS, response.getString(RESULT));
+    // the index record holds the number of buckets, which grew with the assets
+    Assert.assertEquals(indexAge, ledger.get(indexKey).get().age());
+    int buckets = ledger.get(indexKey).get().data().getInt(StatusChangeContract.BUCKETS);
+    Assert.assertTrue(buckets > 1);
+    int entries = 0;
+    for (int bucket = 0; bucket < buckets; bucket++) {
+      Optional<Asset> assets = ledger.get(indexKey + "#" + bucket);
+      if (!assets.isPresent()) {
+        continue;
+      }
+      JsonObject bucketAssets = assets.get().data().getJsonObject(StatusChangeContract.ASSETS);
+      entries += bucketAssets.size();
+      if (bucketAssets.containsKey(ASSET_ID_EX + 7)) {
+        Assert.assertEquals(
+            StatusChangeContract.ON_LOAN,
+            bucketAssets.getJsonObject(ASSET_ID_EX + 7).getString(StatusChangeContract.STATUS));
+        Assert.assertTrue(bucketAssets.size() < count);
+      }
+    }
+    Assert.assertEquals(count, entries);
+  }
 }
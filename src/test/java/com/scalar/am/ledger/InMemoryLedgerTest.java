@@ -0,0 +1,106 @@
+package com.scalar.am.ledger;
+
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.database.AssetFilter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InMemoryLedgerTest {
+  private static final String KEY = "Tester1-book";
+
+  private InMemoryLedger ledger;
+
+  @Before
+  public void setUp() {
+    ledger = new InMemoryLedger();
+    for (int i = 0; i < 5; i++) {
+      ledger.put(KEY, record(i));
+    }
+  }
+
+  private JsonObject record(int i) {
+    return Json.createObjectBuilder().add("i", i).build();
+  }
+
+  private List<Integer> ages(List<Asset> assets) {
+    return assets.stream().map(Asset::age).collect(Collectors.toList());
+  }
+
+  @Test
+  public void get_NonExistingKey_ShouldReturnEmpty() {
+    // Act
+    Optional<Asset> asset = ledger.get("Tester1-phone");
+    // Assert
+    Assert.assertFalse(asset.isPresent());
+  }
+
+  @Test
+  public void get_PutKey_ShouldReturnLatestRecordWithItsAge() {
+    // Act
+    Asset asset = ledger.get(KEY).get();
+    // Assert
+    Assert.assertEquals(KEY, asset.id());
+    Assert.assertEquals(4, asset.age());
+    Assert.assertEquals(record(4), asset.data());
+  }
+
+  @Test
+  public void scan_WithoutBounds_ShouldReturnWholeHistoryInAscendingOrder() {
+    // Act
+    List<Asset> history = ledger.scan(new AssetFilter(KEY));
+    // Assert
+    Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), ages(history));
+    Assert.assertEquals(record(0), history.get(0).data());
+  }
+
+  @Test
+  public void scan_AgeBounds_ShouldHonorInclusiveness() {
+    // Act
+    List<Asset> inclusive =
+        ledger.scan(new AssetFilter(KEY).withStartAge(1, true).withEndAge(3, true));
+    List<Asset> exclusive =
+        ledger.scan(new AssetFilter(KEY).withStartAge(1, false).withEndAge(3, false));
+    // Assert
+    Assert.assertEquals(Arrays.asList(1, 2, 3), ages(inclusive));
+    Assert.assertEquals(Arrays.asList(2), ages(exclusive));
+  }
+
+  @Test
+  public void scan_DescendingOrderWithLimit_ShouldReturnLatestRecordsFirst() {
+    // Act
+    List<Asset> history =
+        ledger.scan(new AssetFilter(KEY).withAgeOrder(AssetFilter.AgeOrder.DESC).withLimit(2));
+    // Assert
+    Assert.assertEquals(Arrays.asList(4, 3), ages(history));
+  }
+
+  @Test
+  public void scan_StartAgeAfterLatest_ShouldReturnNothing() {
+    // Act
+    List<Asset> history = ledger.scan(new AssetFilter(KEY).withStartAge(5, true));
+    // Assert
+    Assert.assertTrue(history.isEmpty());
+  }
+
+  @Test
+  public void operations_ShouldBeCountedUntilReset() {
+    // Arrange
+    ledger.get(KEY);
+    ledger.scan(new AssetFilter(KEY).withLimit(3));
+    // Assert
+    Assert.assertEquals(5, ledger.putCount());
+    Assert.assertEquals(1, ledger.getCount());
+    Assert.assertEquals(1, ledger.scanCount());
+    Assert.assertEquals(3, ledger.scannedCount());
+    ledger.resetCounters();
+    Assert.assertEquals(0, ledger.putCount());
+    Assert.assertEquals(1, ledger.size());
+  }
+}
@@ -0,0 +1,58 @@
+package com.scalar.am.ledger;
+
+import com.scalar.ledger.database.AssetFilter;
+import javax.json.Json;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InstrumentedLedgerTest {
+  private static final String KEY = "Tester1-book";
+
+  private InMemoryLedger ledger;
+
+  @Before
+  public void setUp() {
+    ledger = new InMemoryLedger();
+    for (int i = 0; i < 5; i++) {
+      ledger.put(KEY, Json.createObjectBuilder().add("i", i).build());
+    }
+  }
+
+  @Test
+  public void operations_ShouldBeCountedAndForwarded() {
+    // Arrange
+    InstrumentedLedger instrumented = new InstrumentedLedger(ledger);
+    // Act
+    instrumented.get(KEY);
+    instrumented.get("Tester1-phone");
+    instrumented.scan(new AssetFilter(KEY).withStartAge(2, true));
+    instrumented.put(KEY, Json.createObjectBuilder().add("i", 5).build());
+    // Assert
+    Assert.assertEquals(2, instrumented.getCount());
+    Assert.assertEquals(1, instrumented.putCount());
+    Assert.assertEquals(1, instrumented.scanCount());
+    Assert.assertEquals(3, instrumented.scannedCount());
+    Assert.assertEquals(2, ledger.getCount());
+    Assert.assertEquals(5, ledger.get(KEY).get().data().getInt("i"));
+  }
+
+  @Test
+  public void toJson_ShouldHoldTheCountsAndTimes() {
+    // Arrange
+    InstrumentedLedger instrumented = new InstrumentedLedger(ledger);
+    instrumented.get(KEY);
+    instrumented.scan(new AssetFilter(KEY));
+    // Act
+    JsonObject stats = instrumented.toJson();
+    // Assert
+    Assert.assertEquals(1, stats.getInt(InstrumentedLedger.GETS));
+    Assert.assertEquals(0, stats.getInt(InstrumentedLedger.PUTS));
+    Assert.assertEquals(1, stats.getInt(InstrumentedLedger.SCANS));
+    Assert.assertEquals(5, stats.getInt(InstrumentedLedger.SCANNED));
+    double ledgerMillis = stats.getJsonNumber(InstrumentedLedger.LEDGER_MILLIS).doubleValue();
+    double elapsedMillis = stats.getJsonNumber(InstrumentedLedger.ELAPSED_MILLIS).doubleValue();
+    Assert.assertTrue(ledgerMillis >= 0 && ledgerMillis <= elapsedMillis);
+  }
+}
@@ -0,0 +1,215 @@
+package com.scalar.am.ledger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.google.protobuf.ByteString;
+import com.scalar.am.contract.AddTypeContract;
+import com.scalar.client.service.StatusCode;
+import com.scalar.rpc.ledger.ContractExecutionRequest;
+import com.scalar.rpc.ledger.ContractExecutionResponse;
+import com.scalar.rpc.ledger.ContractRegistrationRequest;
+import com.scalar.rpc.ledger.LedgerServiceResponse;
+import com.scalar.rpc.ledger.LedgerValidationRequest;
+import com.scalar.rpc.ledger.LedgerValidationResponse;
+import io.grpc.stub.StreamObserver;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class LocalLedgerServiceTest {
+  private static final String HOLDER_ID = "Tester1";
+  private static final String CONTRACT_ID = AddTypeContract.class.getCanonicalName() + "_Tester1";
+
+  private InMemoryLedger ledger;
+  private LocalLedgerService service;
+
+  @Before
+  public void setUp() throws Exception {
+    ledger = new InMemoryLedger();
+    service = new LocalLedgerService(ledger, FaultInjector.NONE);
+    Assert.assertEquals(StatusCode.OK.get(), register(service).getStatus());
+  }
+
+  private LedgerServiceResponse register(LocalLedgerService service) throws Exception {
+    return register(service, Json.createObjectBuilder().add("holderId", HOLDER_ID).build());
+  }
+
+  private LedgerServiceResponse register(LocalLedgerService service, JsonObject properties)
+      throws Exception {
+    ByteArrayOutputStream byteCode = new ByteArrayOutputStream();
+    try (InputStream input =
+        AddTypeContract.class.getResourceAsStream(
+            AddTypeContract.class.getSimpleName() + ".class")) {
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        byteCode.write(buffer, 0, read);
+      }
+    }
+    ContractRegistrationRequest request =
+        ContractRegistrationRequest.newBuilder()
+            .setContractId(CONTRACT_ID)
+            .setContractBinaryName(AddTypeContract.class.getCanonicalName())
+            .setContractByteCode(ByteString.copyFrom(byteCode.toByteArray()))
+            .setContractProperties(properties.toString())
+            .setCertHolderId(HOLDER_ID)
+            .setCertVersion(1)
+            .build();
+    @SuppressWarnings("unchecked")
+    StreamObserver<LedgerServiceResponse> observer = mock(StreamObserver.class);
+    service.registerContract(request, observer);
+    ArgumentCaptor<LedgerServiceResponse> response =
+        ArgumentCaptor.forClass(LedgerServiceResponse.class);
+    verify(observer).onNext(response.capture());
+    verify(observer).onCompleted();
+    return response.getValue();
+  }
+
+  private ContractExecutionResponse execute(LocalLedgerService service, JsonObject argument) {
+    ContractExecutionRequest request =
+        ContractExecutionRequest.newBuilder()
+            .setContractArgument(argument.toString())
+            .setCertHolderId(HOLDER_ID)
+            .setCertVersion(1)
+            .build();
+    @SuppressWarnings("unchecked")
+    StreamObserver<ContractExecutionResponse> observer = mock(StreamObserver.class);
+    service.executeContract(request, observer);
+    ArgumentCaptor<ContractExecutionResponse> response =
+        ArgumentCaptor.forClass(ContractExecutionResponse.class);
+    verify(observer).onNext(response.capture());
+    verify(observer).onCompleted();
+    return response.getValue();
+  }
+
+  private LedgerValidationResponse validate(LocalLedgerService service, String assetId) {
+    LedgerValidationRequest request =
+        LedgerValidationRequest.newBuilder()
+            .setAssetId(assetId)
+            .setCertHolderId(HOLDER_ID)
+            .setCertVersion(1)
+            .build();
+    @SuppressWarnings("unchecked")
+    StreamObserver<LedgerValidationResponse> observer = mock(StreamObserver.class);
+    service.validateLedger(request, observer);
+    ArgumentCaptor<LedgerValidationResponse> response =
+        ArgumentCaptor.forClass(LedgerValidationResponse.class);
+    verify(observer).onNext(response.capture());
+    return response.getValue();
+  }
+
+  private JsonObject addType(String name) {
+    return Json.createObjectBuilder()
+        .add(LocalLedgerService.CONTRACT_ID, CONTRACT_ID)
+        .add(AddTypeContract.NAME, name)
+        .add(AddTypeContract.TIMESTAMP, 1L)
+        .build();
+  }
+
+  @Test
+  public void executeContract_RegisteredContract_ShouldRunItAgainstTheLedger() {
+    // Act
+    ContractExecutionResponse response = execute(service, addType("book"));
+    // Assert
+    Assert.assertEquals(StatusCode.OK.get(), response.getStatus());
+    JsonObject result;
+    try (JsonReader reader = Json.createReader(new StringReader(response.getResult()))) {
+      result = reader.readObject();
+    }
+    Assert.assertEquals("success", result.getString("result"));
+    Assert.assertTrue(ledger.get(HOLDER_ID + "-book").isPresent());
+  }
+
+  @Test
+  public void executeContract_RegisteredWithStats_ShouldAddLedgerOperationsToResult()
+      throws Exception {
+    // Arrange
+    LocalLedgerService instrumented = new LocalLedgerService(ledger, FaultInjector.NONE);
+    register(
+        instrumented,
+        Json.createObjectBuilder()
+            .add("holderId", HOLDER_ID)
+            .add(LocalLedgerService.STATS, true)
+            .build());
+    // Act
+    ContractExecutionResponse response = execute(instrumented, addType("book"));
+    // Assert
+    JsonObject result;
+    try (JsonReader reader = Json.createReader(new StringReader(response.getResult()))) {
+      result = reader.readObject();
+    }
+    Assert.assertEquals("success", result.getString("result"));
+    JsonObject stats = result.getJsonObject(LocalLedgerService.LEDGER_STATS);
+    Assert.assertEquals(ledger.getCount(), stats.getInt(InstrumentedLedger.GETS));
+    Assert.assertEquals(ledger.putCount(), stats.getInt(InstrumentedLedger.PUTS));
+  }
+
+  @Test
+  public void executeContract_RegisteredWithoutStats_ShouldReturnResultAsIs() {
+    // Act
+    ContractExecutionResponse response = execute(service, addType("book"));
+    // Assert
+    Assert.assertFalse(response.getResult().contains(LocalLedgerService.LEDGER_STATS));
+  }
+
+  @Test
+  public void executeContract_UnknownContract_ShouldReturnContractNotFound() {
+    // Arrange
+    JsonObject argument =
+        Json.createObjectBuilder().add(LocalLedgerService.CONTRACT_ID, "unknown").build();
+    // Act
+    ContractExecutionResponse response = execute(service, argument);
+    // Assert
+    Assert.assertEquals(LocalLedgerService.CONTRACT_NOT_FOUND, response.getStatus());
+  }
+
+  @Test
+  public void executeContract_WrongArgument_ShouldReturnContextualErrorAndPutNothing() {
+    // Arrange
+    JsonObject argument =
+        Json.createObjectBuilder().add(LocalLedgerService.CONTRACT_ID, CONTRACT_ID).build();
+    // Act
+    ContractExecutionResponse response = execute(service, argument);
+    // Assert
+    Assert.assertEquals(LocalLedgerService.CONTRACT_CONTEXTUAL_ERROR, response.getStatus());
+    Assert.assertEquals(0, ledger.putCount());
+  }
+
+  @Test
+  public void executeContract_InjectedError_ShouldFailWithoutExecuting() throws Exception {
+    // Arrange
+    LocalLedgerService failing =
+        new LocalLedgerService(ledger, new FaultInjector(0, 0, 0, 0, 1, 0));
+    register(failing);
+    // Act
+    ContractExecutionResponse response = execute(failing, addType("book"));
+    // Assert
+    Assert.assertEquals(LocalLedgerService.DATABASE_ERROR, response.getStatus());
+    Assert.assertEquals(0, ledger.putCount());
+  }
+
+  @Test
+  public void registerContract_AlreadyRegistered_ShouldReturnAlreadyRegistered() throws Exception {
+    // Act
+    LedgerServiceResponse response = register(service);
+    // Assert
+    Assert.assertEquals(LocalLedgerService.CONTRACT_ALREADY_REGISTERED, response.getStatus());
+  }
+
+  @Test
+  public void validateLedger_ExistingAndMissingAssets_ShouldReturnOkOrNotFound() {
+    // Arrange
+    execute(service, addType("book"));
+    // Act Assert
+    Assert.assertEquals(StatusCode.OK.get(), validate(service, "book").getStatus());
+    Assert.assertEquals(LocalLedgerService.ASSET_NOT_FOUND, validate(service, "phone").getStatus());
+  }
+}
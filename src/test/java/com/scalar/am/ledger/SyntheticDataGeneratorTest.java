@@ -0,0 +1,159 @@
+package com.scalar.am.ledger;
+
+import com.scalar.am.contract.AddAssetContract;
+import com.scalar.am.contract.AddTypeContract;
+import com.scalar.am.contract.AssetHistoryContract;
+import com.scalar.am.contract.ListContract;
+import com.scalar.am.contract.ListTypeContract;
+import com.scalar.am.contract.StatsContract;
+import com.scalar.am.contract.StatusChangeContract;
+import com.scalar.ledger.asset.Asset;
+import com.scalar.ledger.database.AssetFilter;
+import java.util.Optional;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SyntheticDataGeneratorTest {
+  private static final String HOLDER_ID = "Tester1";
+  private static final int TYPES = 3;
+  private static final int ASSETS = 250;
+  private static final int CHANGES = 3;
+
+  private InMemoryLedger ledger;
+  private Optional<JsonObject> property;
+
+  @Before
+  public void setUp() {
+    ledger = new InMemoryLedger();
+    property = Optional.of(Json.createObjectBuilder().add("holderId", HOLDER_ID).build());
+  }
+
+  @Test
+  public void generate_ShouldRegisterEveryTypeAndAsset() {
+    // Act
+    new SyntheticDataGenerator(ledger, HOLDER_ID, 1).generate(TYPES, ASSETS, CHANGES, 1);
+    // Assert
+    JsonObject types =
+        new ListTypeContract().invoke(ledger, Json.createObjectBuilder().build(), property);
+    Assert.assertEquals(TYPES, types.getJsonArray(ListTypeContract.TYPES).size());
+
+    String type = SyntheticDataGenerator.typeName(1);
+    ledger.resetCounters();
+    JsonObject list =
+        new ListContract()
+            .invoke(
+                ledger, Json.createObjectBuilder().add(ListContract.TYPE, type).build(), property);
+    JsonArray assets = list.getJsonArray(type);
+    Assert.assertEquals(ASSETS, assets.size());
+    // borrowed, returned, then borrowed again
+    Assert.assertEquals(
+        ListContract.ON_LOAN, assets.getJsonObject(ASSETS - 1).getString(ListContract.STATUS));
+    // The list is read from the index, not asset by asset
+    Assert.assertEquals(0, ledger.scanCount());
+
+    JsonObject stats =
+        new StatsContract()
+            .invoke(
+                ledger, Json.createObjectBuilder().add(StatsContract.TYPE, type).build(), property);
+    Assert.assertEquals(ASSETS, stats.getInt(StatsContract.ON_LOAN));
+  }
+
+  @Test
+  public void generate_ShouldWriteHistoriesTheContractsCanExtend() {
+    // Arrange
+    new SyntheticDataGenerator(ledger, HOLDER_ID, 1).generate(TYPES, ASSETS, CHANGES, 4);
+    String type = SyntheticDataGenerator.typeName(0);
+    String id = SyntheticDataGenerator.assetId(0, 42);
+    // Act
+    JsonObject returned =
+        new StatusChangeContract()
+            .invoke(
+                ledger,
+                Json.createObjectBuilder()
+                    .add(StatusChangeContract.ASSET_ID, id)
+                    .add(StatusChangeContract.STATUS, StatusChangeContract.IN_STOCK)
+                    .add(StatusChangeContract.TIMESTAMP, System.currentTimeMillis())
+                    .build(),
+                property);
+    JsonObject added =
+        new AddAssetContract()
+            .invoke(
+                ledger,
+                Json.createObjectBuilder()
+                    .add(AddAssetContract.TYPE, type)
+                    .add(AddAssetContract.ID, "new")
+                    .add(AddAssetContract.ASSET, "New Asset")
+                    .add(AddAssetContract.TIMESTAMP, System.currentTimeMillis())
+                    .build(),
+                property);
+    // Assert
+    Assert.assertEquals("success", returned.getString("result"));
+    Assert.assertEquals("success", added.getString("result"));
+    JsonObject history =
+        new AssetHistoryContract()
+            .invoke(
+                ledger,
+                Json.createObjectBuilder().add(AssetHistoryContract.ID, id).build(),
+                property);
+    Assert.assertEquals(CHANGES + 2, history.getJsonArray(AssetHistoryContract.HISTORY).size());
+    JsonObject list =
+        new ListContract()
+            .invoke(
+                ledger, Json.createObjectBuilder().add(ListContract.TYPE, type).build(), property);
+    Assert.assertEquals(ASSETS + 1, list.getJsonArray(type).size());
+  }
+
+  @Test
+  public void generate_SameSeed_ShouldWriteSameData() {
+    // Arrange
+    InMemoryLedger other = new InMemoryLedger();
+    // Act
+    new SyntheticDataGenerator(ledger, HOLDER_ID, 7).generate(1, 10, 2, 1);
+    new SyntheticDataGenerator(other, HOLDER_ID, 7).generate(1, 10, 2, 1);
+    // Assert
+    String key = HOLDER_ID + "-" + SyntheticDataGenerator.typeName(0);
+    Assert.assertEquals(ledger.get(key).get().data(), other.get(key).get().data());
+    int buckets = ledger.get(key + "#index").get().data().getInt(AddTypeContract.BUCKETS);
+    Assert.assertEquals(
+        buckets, other.get(key + "#index").get().data().getInt(AddTypeContract.BUCKETS));
+    for (int bucket = 0; bucket < buckets; bucket++) {
+      Assert.assertEquals(
+          ledger.get(key + "#index#" + bucket).map(Asset::data),
+          other.get(key + "#index#" + bucket).map(Asset::data));
+    }
+  }
+
+  @Test
+  public void generate_CalledTwice_ShouldAddNewTypes() {
+    // Arrange
+    SyntheticDataGenerator generator = new SyntheticDataGenerator(ledger, HOLDER_ID, 1);
+    // Act
+    generator.generate(1, 20, 1, 1);
+    generator.generate(1, 5, 6, 1);
+    // Assert
+    JsonObject types =
+        new ListTypeContract().invoke(ledger, Json.createObjectBuilder().build(), property);
+    Assert.assertEquals(2, types.getJsonArray(ListTypeContract.TYPES).size());
+
+    String type = SyntheticDataGenerator.typeName(1);
+    JsonObject list =
+        new ListContract()
+            .invoke(
+                ledger, Json.createObjectBuilder().add(ListContract.TYPE, type).build(), property);
+    Assert.assertEquals(5, list.getJsonArray(type).size());
+    Assert.assertEquals(
+        2,
+        ledger
+            .scan(new AssetFilter(HOLDER_ID + "-" + SyntheticDataGenerator.assetId(0, 0)))
+            .size());
+    Assert.assertEquals(
+        7,
+        ledger
+            .scan(new AssetFilter(HOLDER_ID + "-" + SyntheticDataGenerator.assetId(1, 0)))
+            .size());
+  }
+}
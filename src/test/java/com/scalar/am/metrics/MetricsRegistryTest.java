@@ -0,0 +1,119 @@
+package com.scalar.am.metrics;
+
+import com.scalar.client.service.StatusCode;
+import java.util.Arrays;
+import java.util.List;
+import javax.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+  private static final String CONTRACT = "AddAssetContract";
+  private static final long MILLIS = 1_000_000L;
+
+  private MetricsRegistry parent;
+  private MetricsRegistry registry;
+
+  @Before
+  public void setUp() {
+    parent = new MetricsRegistry(null);
+    registry = new MetricsRegistry(parent);
+  }
+
+  private static List<String> lines(MetricsRegistry registry) throws Exception {
+    StringBuilder text = new StringBuilder();
+    registry.writePrometheus(text);
+    return Arrays.asList(text.toString().split("\n"));
+  }
+
+  @Test
+  public void writePrometheus_ExecutionsRecorded_ShouldWriteCountersAndCumulativeBuckets()
+      throws Exception {
+    // Arrange
+    registry.recordExecution(CONTRACT, "OK", 2 * MILLIS, 100, 0);
+    registry.recordExecution(CONTRACT, "OK", 20 * MILLIS, 100, 0);
+    registry.recordExecution(CONTRACT, MetricsRegistry.EXCEPTION, 20 * MILLIS, 100, 0);
+    // Act
+    List<String> lines = lines(registry);
+    // Assert
+    Assert.assertTrue(lines.contains("# TYPE am_contract_executions_total counter"));
+    Assert.assertTrue(
+        lines.contains(
+            "am_contract_executions_total{contract=\"AddAssetContract\",status=\"OK\"} 2"));
+    Assert.assertTrue(
+        lines.contains(
+            "am_contract_executions_total{contract=\"AddAssetContract\",status=\"EXCEPTION\"} 1"));
+    Assert.assertTrue(
+        lines.contains(
+            "am_contract_execution_seconds_bucket{contract=\"AddAssetContract\",le=\"0.001\"} 0"));
+    Assert.assertTrue(
+        lines.contains(
+            "am_contract_execution_seconds_bucket{contract=\"AddAssetContract\",le=\"0.0025\"} 1"));
+    Assert.assertTrue(
+        lines.contains(
+            "am_contract_execution_seconds_bucket{contract=\"AddAssetContract\",le=\"0.025\"} 3"));
+    Assert.assertTrue(
+        lines.contains(
+            "am_contract_execution_seconds_bucket{contract=\"AddAssetContract\",le=\"+Inf\"} 3"));
+    Assert.assertTrue(
+        lines.contains("am_contract_execution_seconds_count{contract=\"AddAssetContract\"} 3"));
+    Assert.assertTrue(
+        lines.contains("am_contract_argument_bytes_sum{contract=\"AddAssetContract\"} 300"));
+  }
+
+  @Test
+  public void writePrometheus_ValidationsRecorded_ShouldWriteThemWithoutContractLabel()
+      throws Exception {
+    // Arrange
+    registry.recordValidation("OK", 3 * MILLIS);
+    // Act
+    List<String> lines = lines(registry);
+    // Assert
+    Assert.assertTrue(lines.contains("am_validations_total{status=\"OK\"} 1"));
+    Assert.assertTrue(lines.contains("am_validation_seconds_bucket{le=\"0.005\"} 1"));
+    Assert.assertTrue(lines.contains("am_validation_seconds_count 1"));
+  }
+
+  @Test
+  public void recordExecution_WithParent_ShouldAlsoRecordInParent() {
+    // Arrange
+    MetricsRegistry sibling = new MetricsRegistry(parent);
+    // Act
+    registry.recordExecution(CONTRACT, "OK", MILLIS, 10, 20);
+    sibling.recordValidation("OK", MILLIS);
+    // Assert
+    Assert.assertFalse(parent.isEmpty());
+    Assert.assertEquals(1, parent.toJson().getJsonArray("executions").size());
+    Assert.assertEquals(1, parent.toJson().getJsonObject("validations").getInt("count"));
+    Assert.assertEquals(0, registry.toJson().getJsonObject("validations").getInt("count"));
+  }
+
+  @Test
+  public void toJson_ExecutionsRecorded_ShouldSummarizeThemPerContract() {
+    // Arrange
+    registry.recordExecution(CONTRACT, "OK", MILLIS, 10, 20);
+    registry.recordExecution(CONTRACT, "OK", MILLIS, 10, 0);
+    // Act
+    JsonObject execution = registry.toJson().getJsonArray("executions").getJsonObject(0);
+    // Assert
+    Assert.assertEquals(CONTRACT, execution.getString("contract"));
+    Assert.assertEquals(2, execution.getInt("count"));
+    Assert.assertEquals(2, execution.getJsonObject("statuses").getInt("OK"));
+    Assert.assertEquals(20, execution.getInt("argumentBytes"));
+    Assert.assertEquals(20, execution.getInt("resultBytes"));
+  }
+
+  @Test
+  public void isEmpty_NothingRecorded_ShouldReturnTrue() {
+    // Act Assert
+    Assert.assertTrue(registry.isEmpty());
+  }
+
+  @Test
+  public void statusName_KnownAndUnknownCodes_ShouldReturnNameOrCode() {
+    // Act Assert
+    Assert.assertEquals("OK", MetricsRegistry.statusName(StatusCode.OK.get()));
+    Assert.assertEquals("-1", MetricsRegistry.statusName(-1));
+  }
+}